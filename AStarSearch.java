@@ -0,0 +1,136 @@
+package hw8;
+
+import java.util.Arrays;
+
+/**
+ * A* search for point-to-point queries.
+ *
+ * <p>This is Dijkstra's algorithm with the queue ordered by distance so
+ * far plus a lower bound on the distance still to go, which pulls the
+ * search towards the target instead of growing a ball around the source.
+ * With a consistent heuristic every vertex is settled at most once and
+ * we can stop as soon as the target is settled.</p>
+ *
+ * <p>Search state is reused between queries and invalidated with an epoch
+ * counter just like in DijkstraEngine. Estimates are computed once per
+ * vertex and query and then remembered.</p>
+ */
+public final class AStarSearch implements PathFinder {
+
+  private static final int NONE = -1;
+
+  private final IntGraph graph;
+  private final Heuristic heuristic;
+  private final IndexedHeap queue;
+  private final double[] distance;
+  private final double[] estimate;
+  private final int[] via;
+  private final int[] stamp;
+  private final SearchStats stats;
+  private int epoch;
+
+  /**
+   * Creates an A* search using a binary heap.
+   *
+   * @param graph     Graph to search.
+   * @param heuristic Consistent lower bounds for graph.
+   */
+  public AStarSearch(IntGraph graph, Heuristic heuristic) {
+    this(graph, heuristic, QueueKind.BINARY);
+  }
+
+  /**
+   * Creates an A* search.
+   *
+   * @param graph     Graph to search.
+   * @param heuristic Consistent lower bounds for graph.
+   * @param queueKind Kind of priority queue to search with.
+   */
+  public AStarSearch(IntGraph graph, Heuristic heuristic,
+                     QueueKind queueKind) {
+    int n = graph.vertexCount();
+    this.graph = graph;
+    this.heuristic = heuristic;
+    this.queue = queueKind.create(n);
+    this.distance = new double[n];
+    this.estimate = new double[n];
+    this.via = new int[n];
+    this.stamp = new int[n];
+    this.stats = new SearchStats();
+  }
+
+  @Override
+  public Route route(int source, int target) {
+    this.epoch++;
+    if (this.epoch == 0) {
+      // wrapped around, stale stamps could match again
+      Arrays.fill(this.stamp, 0);
+      this.epoch = 1;
+    }
+    this.queue.clear();
+    this.stats.reset();
+    this.stamp[source] = this.epoch;
+    this.distance[source] = 0;
+    this.via[source] = NONE;
+    this.estimate[source] = this.heuristic.estimate(source, target);
+    this.queue.insert(source, this.estimate[source]);
+    this.stats.inserts++;
+    this.stats.heap(1);
+
+    while (!this.queue.isEmpty()) {
+      int v = this.queue.removeMin();
+      this.stats.settled++;
+      if (v == target) {
+        return new Route(this.distance[target], this.path(source, target),
+            this.stats.settled);
+      }
+      this.relax(v, target);
+    }
+    return new Route(Double.POSITIVE_INFINITY, null, this.stats.settled);
+  }
+
+  @Override
+  public SearchStats stats() {
+    return this.stats;
+  }
+
+  // Relax the outgoing edges of v, a vertex that was just settled.
+  private void relax(int v, int target) {
+    this.stats.relaxed += this.graph.end(v) - this.graph.begin(v);
+    double d = this.distance[v];
+    for (int e = this.graph.begin(v), end = this.graph.end(v); e < end; e++) {
+      int u = this.graph.target(e);
+      double dist = d + this.graph.weight(e);
+      if (dist == Double.POSITIVE_INFINITY) {
+        // closed road, u isn't reached through it
+        continue;
+      }
+      if (this.stamp[u] != this.epoch) {
+        this.stamp[u] = this.epoch;
+        this.distance[u] = dist;
+        this.via[u] = e;
+        this.estimate[u] = this.heuristic.estimate(u, target);
+        this.queue.insert(u, dist + this.estimate[u]);
+        this.stats.inserts++;
+        this.stats.heap(this.queue.size());
+      } else if (dist < this.distance[u] && this.queue.contains(u)) {
+        this.distance[u] = dist;
+        this.via[u] = e;
+        this.queue.decreaseKey(u, dist + this.estimate[u]);
+        this.stats.decreaseKeys++;
+      }
+    }
+  }
+
+  private int[] path(int source, int target) {
+    int length = 0;
+    for (int v = target; v != source; length++) {
+      v = this.graph.source(this.via[v]);
+    }
+    int[] path = new int[length];
+    for (int v = target; length > 0; v = this.graph.source(this.via[v])) {
+      path[--length] = this.via[v];
+    }
+    return path;
+  }
+}
@@ -0,0 +1,106 @@
+package hw8;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static junit.framework.TestCase.*;
+
+public class AStarSearchTest {
+
+  private static final int SIDE = 10;
+
+  private CsrGraph<String, String> csr;
+  private GeoHeuristic geo;
+
+  @Before
+  public void setupGraph() {
+    csr = TestNetworks.grid(SIDE, 5);
+    geo = GeoHeuristic.of(csr).consistentWith(csr);
+  }
+
+  @Test
+  public void testDistance() {
+    GeoHeuristic h = new GeoHeuristic(new double[] {-76.6175, -76.6383},
+        new double[] {39.3296, 39.3206});
+    assertEquals(2050, h.distance(0, 1), 5);
+    assertEquals(h.distance(0, 1), h.distance(1, 0), 1e-9);
+  }
+
+  @Test
+  public void testConsistentWithScalesDownForShortEdges() {
+    assertEquals(1.0, geo.scale(), 0);
+    assertEquals(0, geo.violations());
+
+    SparseGraph<String, String> graph = new SparseGraph<>();
+    Vertex<String> a = graph.insert("-76.6175,39.3296");
+    Vertex<String> b = graph.insert("-76.6383,39.3206");
+    graph.label(graph.insert(a, b, "short"), 1000.0);
+    CsrGraph<String, String> small = graph.freeze();
+    GeoHeuristic h = GeoHeuristic.of(small).consistentWith(small);
+    assertEquals(1, h.violations());
+    assertEquals(1000.0, h.estimate(0, 1), 1e-6);
+  }
+
+  @Test
+  public void testConsistentWithUpdateChecksOnlyChangedEdges() {
+    DynamicGraph roads = new DynamicGraph(csr);
+    int e = csr.begin(0);
+    double d = geo.distance(0, csr.target(e));
+    WeightUpdate shorter = new WeightUpdate().set(e, d / 2).remove(e + 1);
+    roads.apply(shorter);
+    geo.consistentWith(roads, shorter);
+    assertEquals(1, geo.violations());
+    assertEquals(0.5, geo.scale(), 1e-12);
+    WeightUpdate longer = new WeightUpdate().set(e, d);
+    roads.apply(longer);
+    geo.consistentWith(roads, longer);
+    assertEquals(1, geo.violations());
+    assertEquals(0.5, geo.scale(), 1e-12);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testOfThrowsForNonCoordinateNames() {
+    SparseGraph<String, String> graph = new SparseGraph<>();
+    graph.insert("v1");
+    GeoHeuristic.of(graph.freeze());
+  }
+
+  @Test
+  public void testSameDistancesAsDijkstra() {
+    DijkstraEngine engine = new DijkstraEngine(csr);
+    AStarSearch search = new AStarSearch(csr, geo);
+    for (int s = 0; s < csr.vertexCount(); s += 9) {
+      engine.run(s);
+      for (int t = 0; t < csr.vertexCount(); t += 4) {
+        Route route = search.route(s, t);
+        assertEquals(engine.distance(t), route.distance(), 1e-6);
+        double length = 0;
+        for (int e : route.edges()) {
+          length += csr.weight(e);
+        }
+        assertEquals(route.distance(), length, 1e-6);
+      }
+    }
+  }
+
+  @Test
+  public void testSettlesLessThanDijkstra() {
+    int s = SIDE / 2;
+    int t = (SIDE - 1) * SIDE + SIDE / 2;
+    Route one = new DijkstraEngine(csr).route(s, t);
+    Route two = new AStarSearch(csr, geo).route(s, t);
+    assertEquals(one.distance(), two.distance(), 1e-6);
+    assertTrue(two.settled() < one.settled());
+  }
+
+  @Test
+  public void testCountsEveryInsert() {
+    CsrGraph<String, String> line = TestNetworks.line(3);
+    AStarSearch search = new AStarSearch(line, (v, target) -> 0);
+    // 0 to start with, then 1 and 2
+    assertEquals(2.0, search.route(0, 2).distance(), 0);
+    assertEquals(3, search.stats().inserts());
+    assertEquals(3, search.stats().settled());
+    assertEquals(6, search.stats().heapOperations());
+  }
+}
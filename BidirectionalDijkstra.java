@@ -0,0 +1,222 @@
+package hw8;
+
+import java.util.Arrays;
+
+/**
+ * Bidirectional Dijkstra for point-to-point queries.
+ *
+ * <p>One search grows forward from the source along outgoing edges while
+ * another grows backward from the target along incoming edges, always
+ * advancing the side whose next vertex is closer. Every edge relaxed into
+ * a vertex the other side has reached gives a candidate path; once the two
+ * queue minimums add up to at least the best candidate no shorter path can
+ * exist and we stop. On road networks the two balls together are much
+ * smaller than the single ball plain Dijkstra needs.</p>
+ *
+ * <p>Search state is reused between queries and invalidated with an epoch
+ * counter just like in DijkstraEngine.</p>
+ */
+public final class BidirectionalDijkstra implements PathFinder {
+
+  private static final int NONE = -1;
+
+  private final IntGraph graph;
+  private final IndexedHeap forwardQueue;
+  private final IndexedHeap backwardQueue;
+  private final double[] forwardDistance;
+  private final double[] backwardDistance;
+  private final int[] forwardVia;
+  private final int[] backwardVia;
+  private final int[] forwardStamp;
+  private final int[] backwardStamp;
+  private final SearchStats stats;
+  private int epoch;
+  private double best;
+  private int meet;
+
+  /**
+   * Creates a bidirectional search using binary heaps.
+   *
+   * @param graph Graph to search.
+   */
+  public BidirectionalDijkstra(IntGraph graph) {
+    this(graph, QueueKind.BINARY);
+  }
+
+  /**
+   * Creates a bidirectional search.
+   *
+   * @param graph     Graph to search.
+   * @param queueKind Kind of priority queue for both directions.
+   */
+  public BidirectionalDijkstra(IntGraph graph, QueueKind queueKind) {
+    int n = graph.vertexCount();
+    this.graph = graph;
+    this.forwardQueue = queueKind.create(n);
+    this.backwardQueue = queueKind.create(n);
+    this.forwardDistance = new double[n];
+    this.backwardDistance = new double[n];
+    this.forwardVia = new int[n];
+    this.backwardVia = new int[n];
+    this.forwardStamp = new int[n];
+    this.backwardStamp = new int[n];
+    this.stats = new SearchStats();
+  }
+
+  @Override
+  public Route route(int source, int target) {
+    this.start(source, target);
+    while (!this.forwardQueue.isEmpty() && !this.backwardQueue.isEmpty()) {
+      double f = this.forwardQueue.minKey();
+      double b = this.backwardQueue.minKey();
+      if (f + b >= this.best) {
+        break;
+      }
+      if (f <= b) {
+        this.forward(this.forwardQueue.removeMin());
+      } else {
+        this.backward(this.backwardQueue.removeMin());
+      }
+      this.stats.settled++;
+    }
+    return new Route(this.best, this.path(source, target),
+        this.stats.settled);
+  }
+
+  @Override
+  public SearchStats stats() {
+    return this.stats;
+  }
+
+  // Forget the previous query and seed both queues.
+  private void start(int source, int target) {
+    this.epoch++;
+    if (this.epoch == 0) {
+      // wrapped around, stale stamps could match again
+      Arrays.fill(this.forwardStamp, 0);
+      Arrays.fill(this.backwardStamp, 0);
+      this.epoch = 1;
+    }
+    this.forwardQueue.clear();
+    this.backwardQueue.clear();
+    this.stats.reset();
+
+    this.forwardStamp[source] = this.epoch;
+    this.forwardDistance[source] = 0;
+    this.forwardVia[source] = NONE;
+    this.forwardQueue.insert(source, 0);
+    this.stats.inserts++;
+    this.backwardStamp[target] = this.epoch;
+    this.backwardDistance[target] = 0;
+    this.backwardVia[target] = NONE;
+    this.backwardQueue.insert(target, 0);
+    this.stats.inserts++;
+    this.stats.heap(2);
+
+    this.best = Double.POSITIVE_INFINITY;
+    this.meet = NONE;
+    if (source == target) {
+      this.best = 0;
+      this.meet = source;
+    }
+  }
+
+  // Relax the outgoing edges of v.
+  private void forward(int v) {
+    this.stats.relaxed += this.graph.end(v) - this.graph.begin(v);
+    double d = this.forwardDistance[v];
+    for (int e = this.graph.begin(v), end = this.graph.end(v); e < end; e++) {
+      int u = this.graph.target(e);
+      double dist = d + this.graph.weight(e);
+      if (this.forwardStamp[u] != this.epoch) {
+        this.forwardStamp[u] = this.epoch;
+        this.forwardDistance[u] = dist;
+        this.forwardVia[u] = e;
+        this.forwardQueue.insert(u, dist);
+        this.stats.inserts++;
+        this.queued();
+      } else if (dist < this.forwardDistance[u]
+          && this.forwardQueue.contains(u)) {
+        this.forwardDistance[u] = dist;
+        this.forwardVia[u] = e;
+        this.forwardQueue.decreaseKey(u, dist);
+        this.stats.decreaseKeys++;
+      } else {
+        continue;
+      }
+      if (this.backwardStamp[u] == this.epoch) {
+        this.candidate(u, dist + this.backwardDistance[u]);
+      }
+    }
+  }
+
+  // Relax the incoming edges of v.
+  private void backward(int v) {
+    this.stats.relaxed += this.graph.inEnd(v) - this.graph.inBegin(v);
+    double d = this.backwardDistance[v];
+    for (int i = this.graph.inBegin(v), end = this.graph.inEnd(v); i < end;
+         i++) {
+      int e = this.graph.inEdge(i);
+      int u = this.graph.source(e);
+      double dist = d + this.graph.weight(e);
+      if (this.backwardStamp[u] != this.epoch) {
+        this.backwardStamp[u] = this.epoch;
+        this.backwardDistance[u] = dist;
+        this.backwardVia[u] = e;
+        this.backwardQueue.insert(u, dist);
+        this.stats.inserts++;
+        this.queued();
+      } else if (dist < this.backwardDistance[u]
+          && this.backwardQueue.contains(u)) {
+        this.backwardDistance[u] = dist;
+        this.backwardVia[u] = e;
+        this.backwardQueue.decreaseKey(u, dist);
+        this.stats.decreaseKeys++;
+      } else {
+        continue;
+      }
+      if (this.forwardStamp[u] == this.epoch) {
+        this.candidate(u, dist + this.forwardDistance[u]);
+      }
+    }
+  }
+
+  // Note the queue sizes after an insert.
+  private void queued() {
+    this.stats.heap(this.forwardQueue.size() + this.backwardQueue.size());
+  }
+
+  private void candidate(int u, double length) {
+    if (length < this.best) {
+      this.best = length;
+      this.meet = u;
+    }
+  }
+
+  // Join the forward path to meet with the backward path from meet.
+  private int[] path(int source, int target) {
+    if (this.meet == NONE) {
+      return null;
+    }
+    int head = 0;
+    for (int v = this.meet; v != source; head++) {
+      v = this.graph.source(this.forwardVia[v]);
+    }
+    int tail = 0;
+    for (int v = this.meet; v != target; tail++) {
+      v = this.graph.target(this.backwardVia[v]);
+    }
+    int[] path = new int[head + tail];
+    int v = this.meet;
+    for (int i = head - 1; i >= 0; i--) {
+      path[i] = this.forwardVia[v];
+      v = this.graph.source(path[i]);
+    }
+    v = this.meet;
+    for (int i = head; i < path.length; i++) {
+      path[i] = this.backwardVia[v];
+      v = this.graph.target(path[i]);
+    }
+    return path;
+  }
+}
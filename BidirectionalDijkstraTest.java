@@ -0,0 +1,100 @@
+package hw8;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static junit.framework.TestCase.*;
+
+public class BidirectionalDijkstraTest {
+
+  private static final int SIDE = 12;
+
+  private CsrGraph<String, String> csr;
+
+  // A grid with random road lengths in both directions.
+  @Before
+  public void setupGraph() {
+    SparseGraph<String, String> graph = new SparseGraph<>();
+    Random random = new Random(3);
+    for (int i = 0; i < SIDE; i++) {
+      for (int j = 0; j < SIDE; j++) {
+        Vertex<String> v = graph.insert(i + "," + j);
+        if (i > 0) {
+          road(graph, v, graph.insert((i - 1) + "," + j), random);
+        }
+        if (j > 0) {
+          road(graph, v, graph.insert(i + "," + (j - 1)), random);
+        }
+      }
+    }
+    graph.insert("island");
+    csr = graph.freeze();
+  }
+
+  private void road(SparseGraph<String, String> graph, Vertex<String> a,
+                    Vertex<String> b, Random random) {
+    graph.label(graph.insert(a, b, "road"), 1 + random.nextDouble());
+    graph.label(graph.insert(b, a, "road"), 1 + random.nextDouble());
+  }
+
+  @Test
+  public void testSameDistancesAsDijkstra() {
+    DijkstraEngine engine = new DijkstraEngine(csr);
+    BidirectionalDijkstra search = new BidirectionalDijkstra(csr);
+    for (int s = 0; s < csr.vertexCount(); s += 7) {
+      engine.run(s);
+      for (int t = 0; t < csr.vertexCount(); t += 5) {
+        Route route = search.route(s, t);
+        assertEquals(engine.distance(t), route.distance(), 1e-9);
+        if (route.found()) {
+          double length = 0;
+          int v = s;
+          for (int e : route.edges()) {
+            assertEquals(v, csr.source(e));
+            length += csr.weight(e);
+            v = csr.target(e);
+          }
+          assertEquals(t, v);
+          assertEquals(route.distance(), length, 1e-9);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testSettlesLessThanDijkstra() {
+    int s = 2 * SIDE + 2;
+    int t = (SIDE - 3) * SIDE + SIDE - 3;
+    Route one = new DijkstraEngine(csr).route(s, t);
+    Route two = new BidirectionalDijkstra(csr).route(s, t);
+    assertEquals(one.distance(), two.distance(), 1e-9);
+    assertTrue(two.settled() < one.settled());
+  }
+
+  @Test
+  public void testSourceIsTarget() {
+    Route route = new BidirectionalDijkstra(csr).route(5, 5);
+    assertEquals(0.0, route.distance(), 0);
+    assertEquals(0, route.edges().length);
+  }
+
+  @Test
+  public void testUnreachable() {
+    Route route = new BidirectionalDijkstra(csr).route(0, SIDE * SIDE);
+    assertFalse(route.found());
+    assertEquals(Double.POSITIVE_INFINITY, route.distance(), 0);
+  }
+
+  @Test
+  public void testCountsEveryInsert() {
+    CsrGraph<String, String> line = TestNetworks.line(3);
+    BidirectionalDijkstra search = new BidirectionalDijkstra(line);
+    // 0 and 2 to start with, then 1 from each side before they meet
+    assertEquals(2.0, search.route(0, 2).distance(), 0);
+    assertEquals(4, search.stats().inserts());
+    assertEquals(2, search.stats().settled());
+    assertEquals(6, search.stats().heapOperations());
+  }
+}
@@ -0,0 +1,602 @@
+package hw8;
+
+import java.util.Arrays;
+
+/**
+ * Contraction Hierarchies for fast point-to-point queries.
+ *
+ * <p>Preprocessing removes ("contracts") vertices one at a time, least
+ * important first. Whenever a shortest path between two remaining
+ * neighbours ran through the removed vertex we add a shortcut edge that
+ * stands for it, unless a local witness search finds another path that is
+ * no longer. Importance is estimated by the edge difference (shortcuts
+ * added minus edges removed) plus the number of already contracted
+ * neighbours, and is re-evaluated lazily when a vertex comes out of the
+ * queue.</p>
+ *
+ * <p>A query then runs Dijkstra from both ends but only ever goes up the
+ * hierarchy, from a vertex to one contracted later, and doesn't continue
+ * from vertices that a higher vertex reaches more cheaply ("stall on
+ * demand"). This settles a few hundred vertices even on large road
+ * networks. Shortcuts on the path
+ * found are expanded recursively into the original edges, so the route
+ * looks the same as one from plain Dijkstra.</p>
+ */
+public final class ContractionHierarchy implements PathFinder {
+
+  private static final int NONE = -1;
+  // Vertices a witness search may settle before giving up, when really
+  // contracting and when only estimating how many shortcuts we'd need.
+  private static final int WITNESS_LIMIT = 200;
+  private static final int ESTIMATE_LIMIT = 40;
+
+  private final int edgeCount;
+  private final int[] rank;
+  // All edges of the hierarchy: the original ones first, then shortcuts.
+  private final int[] from;
+  private final int[] to;
+  private final double[] weight;
+  // The two edges a shortcut (with id edgeCount + i) stands for.
+  private final int[] lower;
+  private final int[] upper;
+  // Edges from each vertex to higher ranked ones, for the forward search.
+  private final int[] upOffsets;
+  private final int[] upEdges;
+  // Edges into each vertex from higher ranked ones, for the backward search.
+  private final int[] downOffsets;
+  private final int[] downEdges;
+  private final long preprocessingMillis;
+
+  private final IndexedHeap forwardQueue;
+  private final IndexedHeap backwardQueue;
+  private final double[] forwardDistance;
+  private final double[] backwardDistance;
+  private final int[] forwardVia;
+  private final int[] backwardVia;
+  private final int[] forwardStamp;
+  private final int[] backwardStamp;
+  private final SearchStats stats;
+  private int epoch;
+  private double best;
+  private int meet;
+
+  /**
+   * Preprocess a graph.
+   *
+   * @param graph Graph to build the hierarchy for.
+   */
+  public ContractionHierarchy(IntGraph graph) {
+    long begin = System.currentTimeMillis();
+    int n = graph.vertexCount();
+    Contractor contractor = new Contractor(graph);
+    contractor.contractAll();
+
+    this.edgeCount = graph.edgeCount();
+    this.rank = contractor.rank;
+    int arcs = contractor.count;
+    this.from = Arrays.copyOf(contractor.from, arcs);
+    this.to = Arrays.copyOf(contractor.to, arcs);
+    this.weight = Arrays.copyOf(contractor.weight, arcs);
+    this.lower = Arrays.copyOfRange(contractor.lower, this.edgeCount, arcs);
+    this.upper = Arrays.copyOfRange(contractor.upper, this.edgeCount, arcs);
+
+    this.upOffsets = new int[n + 1];
+    this.downOffsets = new int[n + 1];
+    for (int a = 0; a < arcs; a++) {
+      if (this.rank[this.to[a]] > this.rank[this.from[a]]) {
+        this.upOffsets[this.from[a] + 1]++;
+      } else {
+        this.downOffsets[this.to[a] + 1]++;
+      }
+    }
+    for (int v = 0; v < n; v++) {
+      this.upOffsets[v + 1] += this.upOffsets[v];
+      this.downOffsets[v + 1] += this.downOffsets[v];
+    }
+    this.upEdges = new int[this.upOffsets[n]];
+    this.downEdges = new int[this.downOffsets[n]];
+    int[] upNext = Arrays.copyOf(this.upOffsets, n);
+    int[] downNext = Arrays.copyOf(this.downOffsets, n);
+    for (int a = 0; a < arcs; a++) {
+      if (this.rank[this.to[a]] > this.rank[this.from[a]]) {
+        this.upEdges[upNext[this.from[a]]++] = a;
+      } else {
+        this.downEdges[downNext[this.to[a]]++] = a;
+      }
+    }
+
+    this.forwardQueue = new DaryHeap(n);
+    this.backwardQueue = new DaryHeap(n);
+    this.forwardDistance = new double[n];
+    this.backwardDistance = new double[n];
+    this.forwardVia = new int[n];
+    this.backwardVia = new int[n];
+    this.forwardStamp = new int[n];
+    this.backwardStamp = new int[n];
+    this.stats = new SearchStats();
+    this.preprocessingMillis = System.currentTimeMillis() - begin;
+  }
+
+  /**
+   * Number of shortcuts.
+   *
+   * @return Number of shortcut edges preprocessing added.
+   */
+  public int shortcutCount() {
+    return this.lower.length;
+  }
+
+  /**
+   * Preprocessing time.
+   *
+   * @return Milliseconds it took to build the hierarchy.
+   */
+  public long preprocessingMillis() {
+    return this.preprocessingMillis;
+  }
+
+  /**
+   * Position of vertex in the contraction order.
+   *
+   * @param v Vertex id.
+   * @return Rank of v, 0 for the vertex contracted first.
+   */
+  public int rank(int v) {
+    return this.rank[v];
+  }
+
+  @Override
+  public Route route(int source, int target) {
+    this.start(source, target);
+    while (true) {
+      boolean forward = !this.forwardQueue.isEmpty()
+          && this.forwardQueue.minKey() < this.best;
+      boolean backward = !this.backwardQueue.isEmpty()
+          && this.backwardQueue.minKey() < this.best;
+      if (forward && (!backward
+          || this.forwardQueue.minKey() <= this.backwardQueue.minKey())) {
+        this.forward(this.forwardQueue.removeMin());
+      } else if (backward) {
+        this.backward(this.backwardQueue.removeMin());
+      } else {
+        break;
+      }
+      this.stats.settled++;
+    }
+    return new Route(this.best, this.path(source, target),
+        this.stats.settled);
+  }
+
+  @Override
+  public SearchStats stats() {
+    return this.stats;
+  }
+
+  private void start(int source, int target) {
+    this.epoch++;
+    if (this.epoch == 0) {
+      // wrapped around, stale stamps could match again
+      Arrays.fill(this.forwardStamp, 0);
+      Arrays.fill(this.backwardStamp, 0);
+      this.epoch = 1;
+    }
+    this.forwardQueue.clear();
+    this.backwardQueue.clear();
+    this.stats.reset();
+
+    this.forwardStamp[source] = this.epoch;
+    this.forwardDistance[source] = 0;
+    this.forwardVia[source] = NONE;
+    this.forwardQueue.insert(source, 0);
+    this.stats.inserts++;
+    this.backwardStamp[target] = this.epoch;
+    this.backwardDistance[target] = 0;
+    this.backwardVia[target] = NONE;
+    this.backwardQueue.insert(target, 0);
+    this.stats.inserts++;
+    this.stats.heap(2);
+
+    this.best = Double.POSITIVE_INFINITY;
+    this.meet = NONE;
+    if (source == target) {
+      this.best = 0;
+      this.meet = source;
+    }
+  }
+
+  // Relax the upward edges out of v.
+  private void forward(int v) {
+    double d = this.forwardDistance[v];
+    // stall on demand: a higher vertex already offers a shorter way to v,
+    // so nothing found through v can be part of a shortest path
+    for (int i = this.downOffsets[v]; i < this.downOffsets[v + 1]; i++) {
+      int a = this.downEdges[i];
+      int u = this.from[a];
+      if (this.forwardStamp[u] == this.epoch
+          && this.forwardDistance[u] + this.weight[a] < d) {
+        return;
+      }
+    }
+    this.stats.relaxed += this.upOffsets[v + 1] - this.upOffsets[v];
+    for (int i = this.upOffsets[v]; i < this.upOffsets[v + 1]; i++) {
+      int a = this.upEdges[i];
+      int u = this.to[a];
+      double dist = d + this.weight[a];
+      if (this.forwardStamp[u] != this.epoch) {
+        this.forwardStamp[u] = this.epoch;
+        this.forwardQueue.insert(u, dist);
+        this.stats.inserts++;
+        this.queued();
+      } else if (dist < this.forwardDistance[u]
+          && this.forwardQueue.contains(u)) {
+        this.forwardQueue.decreaseKey(u, dist);
+        this.stats.decreaseKeys++;
+      } else {
+        continue;
+      }
+      this.forwardDistance[u] = dist;
+      this.forwardVia[u] = a;
+      if (this.backwardStamp[u] == this.epoch) {
+        this.candidate(u, dist + this.backwardDistance[u]);
+      }
+    }
+  }
+
+  // Relax the upward edges into v, backwards.
+  private void backward(int v) {
+    double d = this.backwardDistance[v];
+    for (int i = this.upOffsets[v]; i < this.upOffsets[v + 1]; i++) {
+      int a = this.upEdges[i];
+      int u = this.to[a];
+      if (this.backwardStamp[u] == this.epoch
+          && this.backwardDistance[u] + this.weight[a] < d) {
+        return;
+      }
+    }
+    this.stats.relaxed += this.downOffsets[v + 1] - this.downOffsets[v];
+    for (int i = this.downOffsets[v]; i < this.downOffsets[v + 1]; i++) {
+      int a = this.downEdges[i];
+      int u = this.from[a];
+      double dist = d + this.weight[a];
+      if (this.backwardStamp[u] != this.epoch) {
+        this.backwardStamp[u] = this.epoch;
+        this.backwardQueue.insert(u, dist);
+        this.stats.inserts++;
+        this.queued();
+      } else if (dist < this.backwardDistance[u]
+          && this.backwardQueue.contains(u)) {
+        this.backwardQueue.decreaseKey(u, dist);
+        this.stats.decreaseKeys++;
+      } else {
+        continue;
+      }
+      this.backwardDistance[u] = dist;
+      this.backwardVia[u] = a;
+      if (this.forwardStamp[u] == this.epoch) {
+        this.candidate(u, dist + this.forwardDistance[u]);
+      }
+    }
+  }
+
+  // Note the queue sizes after an insert.
+  private void queued() {
+    this.stats.heap(this.forwardQueue.size() + this.backwardQueue.size());
+  }
+
+  private void candidate(int u, double length) {
+    if (length < this.best) {
+      this.best = length;
+      this.meet = u;
+    }
+  }
+
+  // Collect the hierarchy edges up to meet and down to target, then expand
+  // every shortcut among them into original edges.
+  private int[] path(int source, int target) {
+    if (this.meet == NONE) {
+      return null;
+    }
+    IntStack arcs = new IntStack();
+    for (int v = this.meet; v != target; v = this.to[this.backwardVia[v]]) {
+      arcs.push(this.backwardVia[v]);
+    }
+    arcs.reverse();
+    for (int v = this.meet; v != source; v = this.from[this.forwardVia[v]]) {
+      arcs.push(this.forwardVia[v]);
+    }
+
+    // arcs now holds the path backwards, so popping gives it in order
+    IntStack path = new IntStack();
+    while (arcs.size > 0) {
+      int a = arcs.pop();
+      if (a < this.edgeCount) {
+        path.push(a);
+      } else {
+        arcs.push(this.upper[a - this.edgeCount]);
+        arcs.push(this.lower[a - this.edgeCount]);
+      }
+    }
+    return Arrays.copyOf(path.items, path.size);
+  }
+
+  // Growable stack of ints.
+  private static final class IntStack {
+    int[] items = new int[16];
+    int size;
+
+    void push(int x) {
+      if (this.size == this.items.length) {
+        this.items = Arrays.copyOf(this.items, 2 * this.size);
+      }
+      this.items[this.size++] = x;
+    }
+
+    int pop() {
+      return this.items[--this.size];
+    }
+
+    void reverse() {
+      for (int i = 0, j = this.size - 1; i < j; i++, j--) {
+        int t = this.items[i];
+        this.items[i] = this.items[j];
+        this.items[j] = t;
+      }
+    }
+  }
+
+  // The preprocessing state, dropped once the hierarchy is built.
+  private static final class Contractor {
+    final int n;
+    final int[] rank;
+    int[] from;
+    int[] to;
+    double[] weight;
+    int[] lower;
+    int[] upper;
+    int count;
+
+    // Edge ids into and out of each vertex, including contracted ones.
+    final int[][] in;
+    final int[][] out;
+    final int[] inSize;
+    final int[] outSize;
+    final boolean[] contracted;
+    final int[] deleted;
+    final int[] depth;
+
+    // Remaining neighbours of the vertex being looked at, with the
+    // shortest edge to or from each.
+    final int[] inNeighbours;
+    final int[] inArcs;
+    final int[] outNeighbours;
+    final int[] outArcs;
+    final int[] seen;
+    final int[] seenArc;
+    int inCount;
+    int outCount;
+    int look;
+
+    // Witness search state.
+    final IndexedHeap heap;
+    final double[] distance;
+    final int[] stamp;
+    int epoch;
+
+    Contractor(IntGraph graph) {
+      this.n = graph.vertexCount();
+      int m = graph.edgeCount();
+      this.rank = new int[this.n];
+      this.from = new int[Math.max(16, 2 * m)];
+      this.to = new int[this.from.length];
+      this.weight = new double[this.from.length];
+      this.lower = new int[this.from.length];
+      this.upper = new int[this.from.length];
+      this.in = new int[this.n][];
+      this.out = new int[this.n][];
+      this.inSize = new int[this.n];
+      this.outSize = new int[this.n];
+      for (int v = 0; v < this.n; v++) {
+        this.in[v] = new int[Math.max(2, graph.inEnd(v) - graph.inBegin(v))];
+        this.out[v] = new int[Math.max(2, graph.end(v) - graph.begin(v))];
+      }
+      for (int e = 0; e < m; e++) {
+        this.add(graph.source(e), graph.target(e), graph.weight(e),
+            NONE, NONE);
+      }
+      this.contracted = new boolean[this.n];
+      this.deleted = new int[this.n];
+      this.depth = new int[this.n];
+      this.inNeighbours = new int[this.n];
+      this.inArcs = new int[this.n];
+      this.outNeighbours = new int[this.n];
+      this.outArcs = new int[this.n];
+      this.seen = new int[this.n];
+      this.seenArc = new int[this.n];
+      this.heap = new DaryHeap(this.n);
+      this.distance = new double[this.n];
+      this.stamp = new int[this.n];
+    }
+
+    void contractAll() {
+      IndexedHeap order = new DaryHeap(this.n);
+      for (int v = 0; v < this.n; v++) {
+        order.insert(v, this.priority(v));
+      }
+      int next = 0;
+      while (!order.isEmpty()) {
+        int v = order.removeMin();
+        double p = this.priority(v);
+        if (!order.isEmpty() && p > order.minKey()) {
+          order.insert(v, p);
+          continue;
+        }
+        this.contract(v, true);
+        this.contracted[v] = true;
+        this.rank[v] = next++;
+        for (int i = 0; i < this.inCount; i++) {
+          this.removed(v, this.inNeighbours[i]);
+        }
+        for (int i = 0; i < this.outCount; i++) {
+          this.removed(v, this.outNeighbours[i]);
+        }
+      }
+    }
+
+    // Account for neighbour x losing its neighbour v.
+    void removed(int v, int x) {
+      this.deleted[x]++;
+      this.depth[x] = Math.max(this.depth[x], this.depth[v] + 1);
+    }
+
+    double priority(int v) {
+      int shortcuts = this.contract(v, false);
+      int difference = shortcuts - this.inCount - this.outCount;
+      return 2 * difference + this.deleted[v] + this.depth[v];
+    }
+
+    // Count (and if add is set, insert) the shortcuts contracting v needs.
+    int contract(int v, boolean add) {
+      this.neighbours(v);
+      int shortcuts = 0;
+      double longestOut = 0;
+      for (int j = 0; j < this.outCount; j++) {
+        longestOut = Math.max(longestOut, this.weight[this.outArcs[j]]);
+      }
+      for (int i = 0; i < this.inCount; i++) {
+        int u = this.inNeighbours[i];
+        double first = this.weight[this.inArcs[i]];
+        this.witness(u, v, first + longestOut,
+            add ? WITNESS_LIMIT : ESTIMATE_LIMIT);
+        for (int j = 0; j < this.outCount; j++) {
+          int w = this.outNeighbours[j];
+          double through = first + this.weight[this.outArcs[j]];
+          if (w == u || (this.stamp[w] == this.epoch
+              && this.distance[w] <= through)) {
+            continue;
+          }
+          shortcuts++;
+          if (add) {
+            this.add(u, w, through, this.inArcs[i], this.outArcs[j]);
+          }
+        }
+      }
+      return shortcuts;
+    }
+
+    // Gather the remaining in and out neighbours of v. Edges to contracted
+    // vertices and all but the shortest of parallel edges are of no more
+    // use during preprocessing, so they are dropped from v's lists.
+    void neighbours(int v) {
+      if (this.look >= Integer.MAX_VALUE - 1) {
+        // about to wrap around, stale marks could match again
+        Arrays.fill(this.seen, 0);
+        this.look = 0;
+      }
+      this.inCount = 0;
+      this.look++;
+      for (int i = 0; i < this.inSize[v]; i++) {
+        int a = this.in[v][i];
+        int u = this.from[a];
+        if (this.contracted[u]) {
+          continue;
+        }
+        if (this.seen[u] != this.look) {
+          this.seen[u] = this.look;
+          this.seenArc[u] = a;
+          this.inNeighbours[this.inCount++] = u;
+        } else if (this.weight[a] < this.weight[this.seenArc[u]]) {
+          this.seenArc[u] = a;
+        }
+      }
+      for (int i = 0; i < this.inCount; i++) {
+        this.inArcs[i] = this.seenArc[this.inNeighbours[i]];
+        this.in[v][i] = this.inArcs[i];
+      }
+      this.inSize[v] = this.inCount;
+
+      this.outCount = 0;
+      this.look++;
+      for (int i = 0; i < this.outSize[v]; i++) {
+        int a = this.out[v][i];
+        int w = this.to[a];
+        if (this.contracted[w]) {
+          continue;
+        }
+        if (this.seen[w] != this.look) {
+          this.seen[w] = this.look;
+          this.seenArc[w] = a;
+          this.outNeighbours[this.outCount++] = w;
+        } else if (this.weight[a] < this.weight[this.seenArc[w]]) {
+          this.seenArc[w] = a;
+        }
+      }
+      for (int i = 0; i < this.outCount; i++) {
+        this.outArcs[i] = this.seenArc[this.outNeighbours[i]];
+        this.out[v][i] = this.outArcs[i];
+      }
+      this.outSize[v] = this.outCount;
+    }
+
+    // Dijkstra from u around v among remaining vertices, up to limit.
+    void witness(int u, int v, double limit, int maxSettled) {
+      this.epoch++;
+      if (this.epoch == 0) {
+        // wrapped around, stale stamps could match again
+        Arrays.fill(this.stamp, 0);
+        this.epoch = 1;
+      }
+      this.heap.clear();
+      this.stamp[u] = this.epoch;
+      this.distance[u] = 0;
+      this.heap.insert(u, 0);
+      int settled = 0;
+      while (!this.heap.isEmpty() && this.heap.minKey() <= limit
+          && settled < maxSettled) {
+        int x = this.heap.removeMin();
+        settled++;
+        double d = this.distance[x];
+        for (int i = 0; i < this.outSize[x]; i++) {
+          int a = this.out[x][i];
+          int y = this.to[a];
+          if (y == v || this.contracted[y]) {
+            continue;
+          }
+          double dist = d + this.weight[a];
+          if (this.stamp[y] != this.epoch) {
+            this.stamp[y] = this.epoch;
+            this.distance[y] = dist;
+            this.heap.insert(y, dist);
+          } else if (dist < this.distance[y] && this.heap.contains(y)) {
+            this.distance[y] = dist;
+            this.heap.decreaseKey(y, dist);
+          }
+        }
+      }
+    }
+
+    void add(int u, int w, double length, int first, int second) {
+      if (this.count == this.from.length) {
+        int size = 2 * this.count;
+        this.from = Arrays.copyOf(this.from, size);
+        this.to = Arrays.copyOf(this.to, size);
+        this.weight = Arrays.copyOf(this.weight, size);
+        this.lower = Arrays.copyOf(this.lower, size);
+        this.upper = Arrays.copyOf(this.upper, size);
+      }
+      int a = this.count++;
+      this.from[a] = u;
+      this.to[a] = w;
+      this.weight[a] = length;
+      this.lower[a] = first;
+      this.upper[a] = second;
+      if (this.outSize[u] == this.out[u].length) {
+        this.out[u] = Arrays.copyOf(this.out[u], 2 * this.outSize[u]);
+      }
+      this.out[u][this.outSize[u]++] = a;
+      if (this.inSize[w] == this.in[w].length) {
+        this.in[w] = Arrays.copyOf(this.in[w], 2 * this.inSize[w]);
+      }
+      this.in[w][this.inSize[w]++] = a;
+    }
+  }
+}
@@ -0,0 +1,83 @@
+package hw8;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+public class ContractionHierarchyExperiment {
+
+  // Update this to any other data file for benchmarking experiments.
+  private static String getDataFile() {
+    return "baltimore.streets.txt";
+  }
+
+  // Number of random queries to compare the searches on.
+  private static int getQueries() {
+    return 1000;
+  }
+
+  // Time the same random queries with plain Dijkstra and the hierarchy.
+  private static void compare(StreetSearcher streetSearcher) {
+    CsrGraph<Long, String> network = streetSearcher.network();
+    ContractionHierarchy hierarchy = streetSearcher.hierarchy();
+    System.out.println("Preprocessing took "
+        + hierarchy.preprocessingMillis() + " ms");
+    System.out.println("Added " + hierarchy.shortcutCount()
+        + " shortcuts to " + network.edgeCount() + " edges");
+
+    int n = network.vertexCount();
+    int[] sources = new int[getQueries()];
+    int[] targets = new int[getQueries()];
+    Random random = new Random(2020);
+    for (int i = 0; i < sources.length; i++) {
+      sources[i] = random.nextInt(n);
+      targets[i] = random.nextInt(n);
+    }
+
+    DijkstraEngine engine = new DijkstraEngine(network);
+    long dijkstraSettled = 0;
+    long dijkstraTime = System.nanoTime();
+    for (int i = 0; i < sources.length; i++) {
+      dijkstraSettled += engine.route(sources[i], targets[i]).settled();
+    }
+    dijkstraTime = System.nanoTime() - dijkstraTime;
+
+    long hierarchySettled = 0;
+    long hierarchyTime = System.nanoTime();
+    for (int i = 0; i < sources.length; i++) {
+      hierarchySettled += hierarchy.route(sources[i], targets[i]).settled();
+    }
+    hierarchyTime = System.nanoTime() - hierarchyTime;
+
+    System.out.println(String.format(
+        "Dijkstra: %.3f ms and %d settled per query",
+        dijkstraTime / 1e6 / sources.length, dijkstraSettled / sources.length));
+    System.out.println(String.format(
+        "Hierarchy: %.3f ms and %d settled per query",
+        hierarchyTime / 1e6 / sources.length,
+        hierarchySettled / sources.length));
+    System.out.println(String.format("Speedup: %.1fx",
+        (double) dijkstraTime / hierarchyTime));
+  }
+
+  /**
+   * Execution starts here.
+   *
+   * @param args command-line arguments not used here.
+   */
+  public static void main(String[] args) {
+    StreetSearcher streetSearcher = new StreetSearcher();
+    Path dataFile = Paths.get("res", "src", getDataFile());
+    File data = dataFile.toFile();
+
+    try {
+      streetSearcher.loadNetwork(data);
+    } catch (FileNotFoundException e) {
+      System.err.println("Could not find file " + data.getName());
+      return;
+    }
+    compare(streetSearcher);
+  }
+}
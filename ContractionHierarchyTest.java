@@ -0,0 +1,113 @@
+package hw8;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static junit.framework.TestCase.*;
+
+public class ContractionHierarchyTest {
+
+  private static final int SIDE = 15;
+
+  private CsrGraph<String, String> csr;
+  private ContractionHierarchy hierarchy;
+
+  // A grid with random road lengths, some one-way streets and an island.
+  @Before
+  public void setupGraph() {
+    SparseGraph<String, String> graph = new SparseGraph<>();
+    Random random = new Random(7);
+    for (int i = 0; i < SIDE; i++) {
+      for (int j = 0; j < SIDE; j++) {
+        Vertex<String> v = graph.insert(i + "," + j);
+        if (i > 0) {
+          road(graph, v, graph.insert((i - 1) + "," + j), random);
+        }
+        if (j > 0) {
+          road(graph, v, graph.insert(i + "," + (j - 1)), random);
+        }
+      }
+    }
+    graph.insert("island");
+    csr = graph.freeze();
+    hierarchy = new ContractionHierarchy(csr);
+  }
+
+  private void road(SparseGraph<String, String> graph, Vertex<String> a,
+                    Vertex<String> b, Random random) {
+    graph.label(graph.insert(a, b, "road"), 1 + random.nextInt(10));
+    if (random.nextInt(5) > 0) {
+      graph.label(graph.insert(b, a, "road"), 1 + random.nextInt(10));
+    }
+  }
+
+  @Test
+  public void testSameRoutesAsDijkstra() {
+    DijkstraEngine engine = new DijkstraEngine(csr);
+    for (int s = 0; s < csr.vertexCount(); s += 4) {
+      engine.run(s);
+      for (int t = 0; t < csr.vertexCount(); t += 3) {
+        Route route = hierarchy.route(s, t);
+        assertEquals(engine.distance(t), route.distance(), 1e-9);
+        if (!route.found()) {
+          continue;
+        }
+        double length = 0;
+        int v = s;
+        for (int e : route.edges()) {
+          assertTrue(e < csr.edgeCount());
+          assertEquals(v, csr.source(e));
+          length += csr.weight(e);
+          v = csr.target(e);
+        }
+        assertEquals(t, v);
+        assertEquals(route.distance(), length, 1e-9);
+      }
+    }
+  }
+
+  @Test
+  public void testRanksArePermutation() {
+    boolean[] used = new boolean[csr.vertexCount()];
+    for (int v = 0; v < csr.vertexCount(); v++) {
+      assertFalse(used[hierarchy.rank(v)]);
+      used[hierarchy.rank(v)] = true;
+    }
+  }
+
+  @Test
+  public void testSettlesLessThanDijkstra() {
+    int s = 0;
+    int t = SIDE * SIDE - 1;
+    Route one = new DijkstraEngine(csr).route(s, t);
+    Route two = hierarchy.route(s, t);
+    assertEquals(one.distance(), two.distance(), 1e-9);
+    assertTrue(two.settled() < one.settled());
+  }
+
+  @Test
+  public void testSourceIsTarget() {
+    Route route = hierarchy.route(3, 3);
+    assertEquals(0.0, route.distance(), 0);
+    assertEquals(0, route.edges().length);
+  }
+
+  @Test
+  public void testUnreachable() {
+    assertFalse(hierarchy.route(0, SIDE * SIDE).found());
+    assertFalse(hierarchy.route(SIDE * SIDE, 0).found());
+  }
+
+  @Test
+  public void testCountsEveryInsert() {
+    CsrGraph<String, String> line = TestNetworks.line(2);
+    ContractionHierarchy small = new ContractionHierarchy(line);
+    // 0 and 1 to start with, then the higher one from the lower one's side
+    assertEquals(1.0, small.route(0, 1).distance(), 0);
+    assertEquals(3, small.stats().inserts());
+    assertEquals(2, small.stats().settled());
+    assertEquals(5, small.stats().heapOperations());
+  }
+}
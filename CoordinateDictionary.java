@@ -0,0 +1,301 @@
+package hw8;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keys of endpoint names, where names are coordinates like
+ * "-76.6175,39.3296".
+ *
+ * <p>A name made of two decimal numbers with up to six digits after the
+ * point is packed into one non-negative long: each number as a fixed-point
+ * integer in millionths plus the count of digits it was written with, so
+ * the exact name can be made again from the key and no String is kept for
+ * it. Any other name (a leading zero, a plus sign, an exponent, more
+ * digits) is given a negative key of its own and kept as a String, so every
+ * name works, just not as cheaply.</p>
+ *
+ * <p>StreetSearcher keys its vertices this way: the SparseGraph holds the
+ * key of every endpoint as vertex data and its index finds a vertex by
+ * key, so there is no String and no second map per endpoint, and names are
+ * only made again for output. OffHeapGraph stores packed keys in place of
+ * names.</p>
+ */
+public final class CoordinateDictionary {
+
+  /** Key of a name that can't be packed and of a name without a key. */
+  public static final long NO_KEY = -1;
+
+  private static final int DIGITS = 6;
+  private static final int[] TEN = {
+      1, 10, 100, 1000, 10000, 100000, 1000000};
+  // Bits of the fixed-point longitude and latitude; both are signed.
+  private static final int LON_BITS = 29;
+  private static final int LAT_BITS = 28;
+  // Bits of one packed number: fixed-point value and digit count.
+  private static final int LAT_FIELD = LAT_BITS + 3;
+
+  // Keys of the names that couldn't be packed, null until there is one.
+  private Map<String, Long> others;
+  // Those names; the one at index i has key -2 - i.
+  private List<String> names;
+
+  /**
+   * Pack a name.
+   *
+   * @param name Endpoint name.
+   * @return Key of name, or NO_KEY if it isn't two numbers written the way
+   *     unpack() writes them.
+   */
+  public static long pack(CharSequence name) {
+    int comma = 0;
+    while (comma < name.length() && name.charAt(comma) != ',') {
+      comma++;
+    }
+    if (comma == name.length()) {
+      return NO_KEY;
+    }
+    long lon = number(name, 0, comma, LON_BITS);
+    long lat = number(name, comma + 1, name.length(), LAT_BITS);
+    if (lon < 0 || lat < 0) {
+      return NO_KEY;
+    }
+    return lon << LAT_FIELD | lat;
+  }
+
+  /**
+   * Pack a name straight from the bytes it is written with.
+   *
+   * @param buffer Bytes holding the name.
+   * @param from   Index of the first byte of the name.
+   * @param to     Index after the last byte of the name.
+   * @return Key of the name, or NO_KEY if it can't be packed.
+   */
+  public static long pack(ByteBuffer buffer, int from, int to) {
+    return pack(new Ascii(buffer, from, to));
+  }
+
+  // Value in millionths and digit count of a number, -1 if not canonical.
+  private static long number(CharSequence name, int from, int to,
+                             int bits) {
+    int i = from;
+    boolean negative = i < to && name.charAt(i) == '-';
+    if (negative) {
+      i++;
+    }
+    long whole = 0;
+    int start = i;
+    while (i < to && isDigit(name.charAt(i))) {
+      whole = 10 * whole + (name.charAt(i) - '0');
+      if (++i - start > 4) {
+        return -1;
+      }
+    }
+    // at least one digit, and no leading zeros
+    if (i == start || (name.charAt(start) == '0' && i - start > 1)) {
+      return -1;
+    }
+    long fraction = 0;
+    int digits = 0;
+    if (i < to) {
+      if (name.charAt(i) != '.' || i + 1 == to || to - i - 1 > DIGITS) {
+        return -1;
+      }
+      for (i++; i < to; i++) {
+        if (!isDigit(name.charAt(i))) {
+          return -1;
+        }
+        fraction = 10 * fraction + (name.charAt(i) - '0');
+        digits++;
+      }
+    }
+    long value = whole * TEN[DIGITS] + fraction * TEN[DIGITS - digits];
+    if (negative && value == 0 || value >= 1L << (bits - 1)) {
+      // "-0" would come back without its sign
+      return -1;
+    }
+    long bitsOf = (negative ? -value : value) & ((1L << bits) - 1);
+    return bitsOf << 3 | digits;
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  // Bytes of a buffer read as characters, without copying them.
+  private static final class Ascii implements CharSequence {
+    private final ByteBuffer buffer;
+    private final int from;
+    private final int to;
+
+    Ascii(ByteBuffer buffer, int from, int to) {
+      this.buffer = buffer;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    public int length() {
+      return this.to - this.from;
+    }
+
+    @Override
+    public char charAt(int index) {
+      // bytes of multi-byte characters are never digits, points or commas
+      return (char) (this.buffer.get(this.from + index) & 0xff);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+      return new Ascii(this.buffer, this.from + start, this.from + end);
+    }
+
+    @Override
+    public String toString() {
+      byte[] bytes = new byte[this.length()];
+      this.buffer.get(this.from, bytes);
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+  }
+
+  /**
+   * Make the name of a key.
+   *
+   * @param key Key made by pack().
+   * @return The name that was packed into key.
+   */
+  public static String unpack(long key) {
+    StringBuilder name = new StringBuilder(24);
+    append(name, key >>> LAT_FIELD, LON_BITS);
+    name.append(',');
+    append(name, key & ((1L << LAT_FIELD) - 1), LAT_BITS);
+    return name.toString();
+  }
+
+  // Longitude in degrees of a key made by pack().
+  static double longitude(long key) {
+    return value(key >>> LAT_FIELD, LON_BITS) / (double) TEN[DIGITS];
+  }
+
+  // Latitude in degrees of a key made by pack().
+  static double latitude(long key) {
+    return value(key & ((1L << LAT_FIELD) - 1), LAT_BITS)
+        / (double) TEN[DIGITS];
+  }
+
+  // Shift the sign bit of the value up to bit 63 and back.
+  private static long value(long field, int bits) {
+    return field << (64 - bits - 3) >> (64 - bits);
+  }
+
+  private static void append(StringBuilder name, long field, int bits) {
+    int digits = (int) (field & 7);
+    long value = value(field, bits);
+    if (value < 0) {
+      name.append('-');
+      value = -value;
+    }
+    name.append(value / TEN[DIGITS]);
+    if (digits > 0) {
+      String fraction = Long.toString(value % TEN[DIGITS] / TEN[DIGITS
+          - digits] + TEN[digits]);
+      // drop the leading 1 that kept the zeros in front
+      name.append('.').append(fraction, 1, fraction.length());
+    }
+  }
+
+  /**
+   * Whether a key was made by pack().
+   *
+   * @param key Key of a name.
+   * @return True if key holds the coordinates of its name.
+   */
+  public static boolean isPacked(long key) {
+    return key >= 0;
+  }
+
+  /**
+   * Key of a name.
+   *
+   * @param name Endpoint name.
+   * @return Packed key of name, the key it was added with if it can't be
+   *     packed, or NO_KEY if it can't be packed and wasn't added.
+   */
+  public long key(String name) {
+    long key = pack(name);
+    if (key != NO_KEY || this.others == null) {
+      return key;
+    }
+    Long other = this.others.get(name);
+    return other == null ? NO_KEY : other;
+  }
+
+  /**
+   * Key of a name, giving it one if it can't be packed and has none yet.
+   *
+   * @param name Endpoint name.
+   * @return Key of name, never NO_KEY.
+   */
+  public long add(String name) {
+    long key = this.key(name);
+    if (key != NO_KEY) {
+      return key;
+    }
+    if (this.others == null) {
+      this.others = new HashMap<>();
+      this.names = new ArrayList<>();
+    }
+    key = -2 - this.names.size();
+    this.names.add(name);
+    this.others.put(name, key);
+    return key;
+  }
+
+  /**
+   * Name of a key, made when asked for if it was packed.
+   *
+   * @param key Key of a name.
+   * @return Name that has key.
+   * @throws IllegalArgumentException If no name has key.
+   */
+  public String name(long key) {
+    if (isPacked(key)) {
+      return unpack(key);
+    }
+    int index = (int) (-2 - key);
+    if (key == NO_KEY || this.names == null || index >= this.names.size()) {
+      throw new IllegalArgumentException("key " + key);
+    }
+    return this.names.get(index);
+  }
+
+  /**
+   * Number of names that couldn't be packed.
+   *
+   * @return Number of names that were given keys of their own.
+   */
+  public int size() {
+    return this.names == null ? 0 : this.names.size();
+  }
+
+  /**
+   * Memory the dictionary takes.
+   *
+   * @return Approximate bytes of the names that couldn't be packed and
+   *     their keys.
+   */
+  public long bytes() {
+    long bytes = 32;
+    if (this.names != null) {
+      for (String name : this.names) {
+        // list slot, entry, boxed key, String and its bytes
+        bytes += 8 + 48 + 16 + 40 + name.length();
+      }
+    }
+    return bytes;
+  }
+}
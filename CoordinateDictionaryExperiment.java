@@ -0,0 +1,108 @@
+package hw8;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class CoordinateDictionaryExperiment {
+
+  // Update this to any other data file for benchmarking experiments.
+  private static String getDataFile() {
+    return "baltimore.streets.txt";
+  }
+
+  // Number of lookups of every endpoint to time.
+  private static int getRounds() {
+    return 20;
+  }
+
+  // Bytes in use on the heap after collecting what can be collected.
+  private static long used() {
+    Runtime runtime = Runtime.getRuntime();
+    long used = Long.MAX_VALUE;
+    for (int i = 0; i < 5; i++) {
+      System.gc();
+      used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+    }
+    return used;
+  }
+
+  // Distinct endpoint names of a street file, in order of appearance.
+  private static List<String> endpoints(Path data) throws IOException {
+    Set<String> distinct = new LinkedHashSet<>();
+    for (String line : Files.readAllLines(data)) {
+      String[] parts = line.split(" ");
+      if (parts.length >= 2) {
+        distinct.add(parts[0]);
+        distinct.add(parts[1]);
+      }
+    }
+    return new ArrayList<>(distinct);
+  }
+
+  /**
+   * Execution starts here.
+   *
+   * @param args command-line arguments not used here.
+   * @throws IOException if the data file can't be read.
+   */
+  public static void main(String[] args) throws IOException {
+    List<String> names = endpoints(Paths.get("res", "src", getDataFile()));
+    int n = names.size();
+    System.out.println("Endpoints: " + n);
+
+    long base = used();
+    SparseGraph<String, String> named = new SparseGraph<>();
+    Map<String, Vertex<String>> map = new HashMap<>();
+    for (String name : names) {
+      // as if read from a file, so the graph keeps a String of its own
+      String own = new String(name);
+      map.put(own, named.insert(own));
+    }
+    long byName = used() - base;
+
+    base = used();
+    SparseGraph<Long, String> keyed = new SparseGraph<>();
+    CoordinateDictionary dictionary = new CoordinateDictionary();
+    for (String name : names) {
+      keyed.insert(dictionary.add(name));
+    }
+    long byKey = used() - base;
+
+    System.out.println(String.format(
+        "SparseGraph<String> and HashMap<String, Vertex>: %.1f bytes/vertex",
+        (double) byName / n));
+    System.out.println(String.format(
+        "SparseGraph<Long> of CoordinateDictionary keys: %.1f bytes/vertex",
+        (double) byKey / n));
+
+    for (int round = 0; round < 3; round++) {
+      long time = System.nanoTime();
+      long found = 0;
+      for (int r = 0; r < getRounds(); r++) {
+        for (String name : names) {
+          found += map.get(name) == null ? 0 : 1;
+        }
+      }
+      double mapNanos = (System.nanoTime() - time) / (double) found;
+      time = System.nanoTime();
+      found = 0;
+      for (int r = 0; r < getRounds(); r++) {
+        for (String name : names) {
+          found += keyed.vertex(dictionary.key(name)) == null ? 0 : 1;
+        }
+      }
+      double keyNanos = (System.nanoTime() - time) / (double) found;
+      System.out.println(String.format(
+          "Lookup by name: HashMap %.0f ns, by key %.0f ns",
+          mapNanos, keyNanos));
+    }
+  }
+}
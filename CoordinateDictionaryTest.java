@@ -0,0 +1,87 @@
+package hw8;
+
+import org.junit.Test;
+
+import static junit.framework.TestCase.*;
+
+public class CoordinateDictionaryTest {
+
+  @Test
+  public void testPackedNamesComeBackExactly() {
+    String[] names = {"-76.6175,39.3296", "0,0", "-0.5,0.000001",
+        "180.000000,-90", "-180,90.1", "12.30,-0.0001", "7,8.000"};
+    for (String name : names) {
+      long key = CoordinateDictionary.pack(name);
+      assertTrue(name, key >= 0);
+      assertEquals(name, CoordinateDictionary.unpack(key));
+    }
+  }
+
+  @Test
+  public void testOtherNamesArentPacked() {
+    String[] names = {"", "a", "1", "1,", ",1", "01,1", "+1,1", "-0,1",
+        "1.,1", ".5,1", "1,1.1234567", "1e3,1", "1,1,1", "300,1", "1,150",
+        "1 ,1", "\u00e9,1"};
+    for (String name : names) {
+      assertEquals(name, CoordinateDictionary.NO_KEY,
+          CoordinateDictionary.pack(name));
+    }
+  }
+
+  @Test
+  public void testDifferentNamesGetDifferentKeys() {
+    String[] names = {"1,2", "2,1", "1.0,2", "1,2.0", "-1,2", "1,-2",
+        "0.1,2", "1,2.00", "0.000001,0", "0,0.000001"};
+    for (int i = 0; i < names.length; i++) {
+      for (int j = i + 1; j < names.length; j++) {
+        assertFalse(names[i] + " " + names[j],
+            CoordinateDictionary.pack(names[i])
+                == CoordinateDictionary.pack(names[j]));
+      }
+    }
+  }
+
+  @Test
+  public void testPackedNamesAreTheirOwnKeys() {
+    CoordinateDictionary dictionary = new CoordinateDictionary();
+    long key = CoordinateDictionary.pack("-76.6,39.3");
+    assertEquals(key, dictionary.key("-76.6,39.3"));
+    assertEquals(key, dictionary.add("-76.6,39.3"));
+    assertTrue(CoordinateDictionary.isPacked(key));
+    assertEquals("-76.6,39.3", dictionary.name(key));
+    assertEquals(0, dictionary.size());
+  }
+
+  @Test
+  public void testOtherNamesGetKeysInOrderOfAdding() {
+    CoordinateDictionary dictionary = new CoordinateDictionary();
+    assertEquals(CoordinateDictionary.NO_KEY, dictionary.key("v0"));
+    for (int i = 0; i < 1000; i++) {
+      String name = i % 10 == 0 ? "v" + i : "-76." + i + ",39." + i;
+      long key = dictionary.add(name);
+      assertEquals(i % 10 != 0, CoordinateDictionary.isPacked(key));
+      assertEquals(key, dictionary.add(name));
+    }
+    assertEquals(100, dictionary.size());
+    for (int i = 0; i < 1000; i++) {
+      String name = i % 10 == 0 ? "v" + i : "-76." + i + ",39." + i;
+      assertEquals(name, dictionary.name(dictionary.key(name)));
+    }
+    assertEquals(-2, dictionary.key("v0"));
+    assertEquals(-3, dictionary.key("v10"));
+    assertEquals(CoordinateDictionary.NO_KEY, dictionary.key("v1"));
+    assertTrue(dictionary.bytes() > 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNoKeyHasNoName() {
+    new CoordinateDictionary().name(CoordinateDictionary.NO_KEY);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMissingKeyThrows() {
+    CoordinateDictionary dictionary = new CoordinateDictionary();
+    dictionary.add("a");
+    dictionary.name(-3);
+  }
+}
@@ -0,0 +1,146 @@
+package hw8;
+
+import exceptions.PositionException;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * An immutable snapshot of a graph in compressed sparse row form.
+ *
+ * <p>The outgoing edges of vertex v occupy positions offsets[v] up to
+ * offsets[v + 1] of the parallel targets and weights arrays, so walking
+ * adjacency touches two primitive arrays instead of chasing edge objects.
+ * Incoming edges are kept the same way, as edge ids grouped by target.
+ * The snapshot remembers which Vertex and Edge positions its ids came from
+ * so results can be translated back, but it does not see later changes to
+ * the graph it was taken from.</p>
+ *
+ * @param <V> Vertex element type.
+ * @param <E> Edge element type.
+ */
+public final class CsrGraph<V, E> implements IntGraph {
+
+  private final int[] offsets;
+  private final int[] targets;
+  private final double[] weights;
+  private final int[] sources;
+  private final int[] inOffsets;
+  private final int[] inEdges;
+  private final Vertex<V>[] vertices;
+  private final Edge<E>[] edges;
+  private final Map<Vertex<V>, Integer> ids;
+
+  // Called by SparseGraph.freeze() which fills in all the arrays.
+  CsrGraph(Vertex<V>[] vertices, Map<Vertex<V>, Integer> ids,
+           Edge<E>[] edges, int[] offsets, int[] targets, double[] weights) {
+    this.vertices = vertices;
+    this.ids = ids;
+    this.edges = edges;
+    this.offsets = offsets;
+    this.targets = targets;
+    this.weights = weights;
+
+    int n = vertices.length;
+    this.sources = new int[targets.length];
+    this.inOffsets = new int[n + 1];
+    this.inEdges = new int[targets.length];
+    for (int v = 0; v < n; v++) {
+      for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+        this.sources[e] = v;
+        this.inOffsets[targets[e] + 1]++;
+      }
+    }
+    for (int v = 0; v < n; v++) {
+      this.inOffsets[v + 1] += this.inOffsets[v];
+    }
+    int[] next = Arrays.copyOf(this.inOffsets, n);
+    for (int e = 0; e < targets.length; e++) {
+      this.inEdges[next[targets[e]]++] = e;
+    }
+  }
+
+  @Override
+  public int vertexCount() {
+    return this.vertices.length;
+  }
+
+  @Override
+  public int edgeCount() {
+    return this.targets.length;
+  }
+
+  @Override
+  public int begin(int v) {
+    return this.offsets[v];
+  }
+
+  @Override
+  public int end(int v) {
+    return this.offsets[v + 1];
+  }
+
+  @Override
+  public int target(int e) {
+    return this.targets[e];
+  }
+
+  @Override
+  public double weight(int e) {
+    return this.weights[e];
+  }
+
+  @Override
+  public int source(int e) {
+    return this.sources[e];
+  }
+
+  @Override
+  public int inBegin(int v) {
+    return this.inOffsets[v];
+  }
+
+  @Override
+  public int inEnd(int v) {
+    return this.inOffsets[v + 1];
+  }
+
+  @Override
+  public int inEdge(int i) {
+    return this.inEdges[i];
+  }
+
+  /**
+   * Id of a vertex.
+   *
+   * @param v Vertex position from the graph this snapshot was taken of.
+   * @return Id of the vertex in this snapshot.
+   * @throws PositionException If v is not part of this snapshot.
+   */
+  public int id(Vertex<V> v) throws PositionException {
+    Integer id = this.ids.get(v);
+    if (id == null) {
+      throw new PositionException();
+    }
+    return id;
+  }
+
+  /**
+   * Vertex with id.
+   *
+   * @param id Vertex id.
+   * @return Vertex position the id stands for.
+   */
+  public Vertex<V> vertex(int id) {
+    return this.vertices[id];
+  }
+
+  /**
+   * Edge with id.
+   *
+   * @param e Edge id.
+   * @return Edge position the id stands for.
+   */
+  public Edge<E> edge(int e) {
+    return this.edges[e];
+  }
+}
@@ -0,0 +1,82 @@
+package hw8;
+
+import exceptions.PositionException;
+import org.junit.Before;
+import org.junit.Test;
+
+import static junit.framework.TestCase.*;
+
+public class CsrGraphTest {
+
+  private SparseGraph<String, String> graph;
+  private Vertex<String> v1;
+  private Vertex<String> v2;
+  private Vertex<String> v3;
+
+  @Before
+  public void setupGraph() {
+    graph = new SparseGraph<>();
+    v1 = graph.insert("v1");
+    v2 = graph.insert("v2");
+    v3 = graph.insert("v3");
+    graph.label(graph.insert(v1, v2, "v1-v2"), 2.5);
+    graph.label(graph.insert(v1, v3, "v1-v3"), 4.0);
+    graph.label(graph.insert(v3, v2, "v3-v2"), 1.0);
+  }
+
+  @Test
+  public void testCounts() {
+    CsrGraph<String, String> csr = graph.freeze();
+    assertEquals(3, csr.vertexCount());
+    assertEquals(3, csr.edgeCount());
+  }
+
+  @Test
+  public void testAdjacency() {
+    CsrGraph<String, String> csr = graph.freeze();
+    int a = csr.id(v1);
+    assertEquals(2, csr.end(a) - csr.begin(a));
+    int e = csr.begin(a);
+    assertEquals("v1-v2", csr.edge(e).get());
+    assertSame(v2, csr.vertex(csr.target(e)));
+    assertEquals(2.5, csr.weight(e), 0);
+    assertEquals("v1-v3", csr.edge(e + 1).get());
+    assertEquals(4.0, csr.weight(e + 1), 0);
+    int b = csr.id(v2);
+    assertEquals(csr.begin(b), csr.end(b));
+  }
+
+  @Test
+  public void testIncoming() {
+    CsrGraph<String, String> csr = graph.freeze();
+    int b = csr.id(v2);
+    assertEquals(2, csr.inEnd(b) - csr.inBegin(b));
+    int e = csr.inEdge(csr.inBegin(b));
+    assertEquals("v1-v2", csr.edge(e).get());
+    assertSame(v1, csr.vertex(csr.source(e)));
+    assertEquals("v3-v2", csr.edge(csr.inEdge(csr.inBegin(b) + 1)).get());
+    int a = csr.id(v1);
+    assertEquals(csr.inBegin(a), csr.inEnd(a));
+  }
+
+  @Test
+  public void testUnlabelledEdgeHasUnitWeight() {
+    Vertex<String> v4 = graph.insert("v4");
+    graph.insert(v2, v4, "v2-v4");
+    CsrGraph<String, String> csr = graph.freeze();
+    assertEquals(1.0, csr.weight(csr.begin(csr.id(v2))), 0);
+  }
+
+  @Test
+  public void testSnapshotIgnoresLaterChanges() {
+    CsrGraph<String, String> csr = graph.freeze();
+    graph.insert(v2, v1, "v2-v1");
+    assertEquals(3, csr.edgeCount());
+  }
+
+  @Test(expected = PositionException.class)
+  public void testIdThrowsPositionExceptionForForeignVertex() {
+    CsrGraph<String, String> csr = graph.freeze();
+    csr.id(new SparseGraph<String, String>().insert("v1"));
+  }
+}
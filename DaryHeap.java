@@ -0,0 +1,158 @@
+package hw8;
+
+import java.util.Arrays;
+
+/**
+ * An indexed d-ary min-heap.
+ *
+ * <p>The heap is an array of ids plus a parallel array of their keys, and
+ * a position array tells us where each id sits so decreaseKey() can sift
+ * it up directly. Wider heaps are shallower, which makes decreaseKey()
+ * cheaper and removeMin() a bit more expensive; with 4 children the
+ * children of a node usually share a cache line.</p>
+ *
+ * <p>Membership is stamped with a generation counter, so clear() doesn't
+ * have to touch the position array at all.</p>
+ */
+public final class DaryHeap implements IndexedHeap {
+
+  private final int arity;
+  private final int[] heap;
+  private final double[] keys;
+  private final int[] position;
+  private final int[] stamp;
+  private int generation;
+  private int size;
+  private long operations;
+
+  /**
+   * Creates an empty binary heap.
+   *
+   * @param capacity Number of ids the heap can hold.
+   */
+  public DaryHeap(int capacity) {
+    this(capacity, 2);
+  }
+
+  /**
+   * Creates an empty d-ary heap.
+   *
+   * @param capacity Number of ids the heap can hold.
+   * @param arity    Number of children per node, at least 2.
+   * @throws IllegalArgumentException If arity is less than 2.
+   */
+  public DaryHeap(int capacity, int arity) {
+    if (arity < 2) {
+      throw new IllegalArgumentException("arity " + arity);
+    }
+    this.arity = arity;
+    this.heap = new int[capacity];
+    this.keys = new double[capacity];
+    this.position = new int[capacity];
+    this.stamp = new int[capacity];
+    this.generation = 1;
+  }
+
+  @Override
+  public void insert(int id, double key) {
+    this.operations++;
+    this.stamp[id] = this.generation;
+    this.siftUp(this.size++, id, key);
+  }
+
+  @Override
+  public void decreaseKey(int id, double key) {
+    this.operations++;
+    this.siftUp(this.position[id], id, key);
+  }
+
+  @Override
+  public int removeMin() {
+    this.operations++;
+    int min = this.heap[0];
+    this.stamp[min] = 0;
+    this.size--;
+    if (this.size > 0) {
+      this.siftDown(0, this.heap[this.size], this.keys[this.size]);
+    }
+    return min;
+  }
+
+  @Override
+  public double minKey() {
+    return this.keys[0];
+  }
+
+  @Override
+  public boolean contains(int id) {
+    return this.stamp[id] == this.generation;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  @Override
+  public int size() {
+    return this.size;
+  }
+
+  @Override
+  public void clear() {
+    this.size = 0;
+    this.generation++;
+    if (this.generation == 0) {
+      // wrapped around, stale stamps could match again
+      Arrays.fill(this.stamp, 0);
+      this.generation = 1;
+    }
+  }
+
+  @Override
+  public long operations() {
+    return this.operations;
+  }
+
+  // Move id with key up from the hole at i until its parent is smaller.
+  private void siftUp(int i, int id, double key) {
+    while (i > 0) {
+      int parent = (i - 1) / this.arity;
+      if (this.keys[parent] <= key) {
+        break;
+      }
+      this.place(i, this.heap[parent], this.keys[parent]);
+      i = parent;
+    }
+    this.place(i, id, key);
+  }
+
+  // Move id with key down from the hole at i until its children are larger.
+  private void siftDown(int i, int id, double key) {
+    while (true) {
+      int first = i * this.arity + 1;
+      if (first >= this.size) {
+        break;
+      }
+      int last = Math.min(first + this.arity, this.size);
+      int best = first;
+      for (int c = first + 1; c < last; c++) {
+        if (this.keys[c] < this.keys[best]) {
+          best = c;
+        }
+      }
+      if (this.keys[best] >= key) {
+        break;
+      }
+      this.place(i, this.heap[best], this.keys[best]);
+      i = best;
+    }
+    this.place(i, id, key);
+  }
+
+  private void place(int i, int id, double key) {
+    this.heap[i] = id;
+    this.keys[i] = key;
+    this.position[id] = i;
+  }
+}
@@ -0,0 +1,305 @@
+package hw8;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Parallel single-source shortest paths by delta-stepping.
+ *
+ * <p>Vertices wait in buckets of width delta by tentative distance. The
+ * lowest bucket is emptied in rounds: all of its vertices relax their
+ * light edges (no longer than delta) at once, which may put vertices back
+ * into the same bucket, until it stays empty; then the heavy edges of
+ * everything removed from it are relaxed once. Within a round vertices are
+ * processed in parallel by a ForkJoinPool, and distances are lowered with
+ * compare-and-set so concurrent relaxations of the same vertex never lose
+ * the smaller value. A small delta approaches Dijkstra's (little wasted
+ * work, little parallelism), a large one Bellman-Ford.</p>
+ *
+ * <p>Like DijkstraEngine an instance keeps its arrays between runs and is
+ * not safe for concurrent use. Close it to stop its worker threads.</p>
+ */
+public final class DeltaStepping implements AutoCloseable {
+
+  // Rounds with fewer vertices than this are not worth splitting up.
+  private static final int LEAF = 256;
+  private static final long INFINITY =
+      Double.doubleToRawLongBits(Double.POSITIVE_INFINITY);
+
+  private final IntGraph graph;
+  private final double delta;
+  private final ForkJoinPool pool;
+  // Bits of the tentative distances; for non-negative doubles these
+  // compare the same way as the doubles themselves.
+  private final AtomicLongArray distance;
+  // Round (frontier) and bucket (heavy edges) each vertex was last added in.
+  private final int[] round;
+  private final int[] removed;
+  private int rounds;
+  private int buckets;
+
+  /**
+   * Creates a search with delta chosen by autoDelta().
+   *
+   * @param graph       Graph to search.
+   * @param parallelism Number of worker threads.
+   */
+  public DeltaStepping(IntGraph graph, int parallelism) {
+    this(graph, autoDelta(graph), parallelism);
+  }
+
+  /**
+   * Creates a search.
+   *
+   * @param graph       Graph to search.
+   * @param delta       Width of the distance buckets, greater than 0.
+   * @param parallelism Number of worker threads.
+   * @throws IllegalArgumentException If delta is not positive or
+   *     parallelism is less than 1.
+   */
+  public DeltaStepping(IntGraph graph, double delta, int parallelism) {
+    if (!(delta > 0) || parallelism < 1) {
+      throw new IllegalArgumentException(
+          "delta " + delta + ", parallelism " + parallelism);
+    }
+    int n = graph.vertexCount();
+    this.graph = graph;
+    this.delta = delta;
+    this.pool = new ForkJoinPool(parallelism);
+    this.distance = new AtomicLongArray(n);
+    this.round = new int[n];
+    this.removed = new int[n];
+  }
+
+  /**
+   * Bucket width suited to a graph.
+   *
+   * <p>Uses the mean edge length times the mean out-degree: a vertex
+   * settled at the bottom of a bucket can then usually reach its
+   * neighbours' neighbours within the same bucket, which keeps rounds big
+   * enough to share out, while typical edges stay light so vertices are
+   * rarely relaxed more than a few times. Closed roads (of infinite
+   * length) are left out, as they lead nowhere.</p>
+   *
+   * @param graph Graph to search.
+   * @return Suggested delta, 1 if the graph has no edges of positive length.
+   */
+  public static double autoDelta(IntGraph graph) {
+    double total = 0;
+    for (int e = 0; e < graph.edgeCount(); e++) {
+      double w = graph.weight(e);
+      if (w != Double.POSITIVE_INFINITY) {
+        total += w;
+      }
+    }
+    // mean length times mean degree is total length over vertices
+    double delta = total / graph.vertexCount();
+    return delta > 0 && Double.isFinite(delta) ? delta : 1;
+  }
+
+  /**
+   * Bucket width.
+   *
+   * @return The delta this search uses.
+   */
+  public double delta() {
+    return this.delta;
+  }
+
+  /**
+   * Number of worker threads.
+   *
+   * @return Parallelism of the pool this search runs on.
+   */
+  public int parallelism() {
+    return this.pool.getParallelism();
+  }
+
+  /**
+   * Compute shortest path distances from source to every vertex.
+   *
+   * @param source Id of the start vertex.
+   */
+  public void run(int source) {
+    int n = this.graph.vertexCount();
+    for (int v = 0; v < n; v++) {
+      this.distance.set(v, INFINITY);
+    }
+    Arrays.fill(this.round, 0);
+    Arrays.fill(this.removed, 0);
+    this.rounds = 0;
+    this.buckets = 0;
+
+    List<IntList> bucket = new ArrayList<>();
+    this.distance.set(source, 0);
+    this.place(bucket, source);
+    for (int i = 0; i < bucket.size(); i++) {
+      IntList settled = new IntList();
+      this.buckets++;
+      while (bucket.get(i) != null && bucket.get(i).size > 0) {
+        IntList frontier = this.frontier(bucket.get(i), i);
+        bucket.set(i, null);
+        for (int k = 0; k < frontier.size; k++) {
+          int v = frontier.items[k];
+          if (this.removed[v] != this.buckets) {
+            this.removed[v] = this.buckets;
+            settled.add(v);
+          }
+        }
+        this.placeAll(bucket, this.relax(frontier, true));
+      }
+      this.placeAll(bucket, this.relax(settled, false));
+    }
+  }
+
+  /**
+   * Distance found by the last run.
+   *
+   * @param v Vertex id.
+   * @return Length of the shortest path from the source to v, or
+   *     Double.POSITIVE_INFINITY if v can't be reached.
+   */
+  public double distance(int v) {
+    return Double.longBitsToDouble(this.distance.get(v));
+  }
+
+  // Vertices of a bucket still belonging to it, each once.
+  private IntList frontier(IntList candidates, int i) {
+    this.rounds++;
+    IntList frontier = new IntList();
+    for (int k = 0; k < candidates.size; k++) {
+      int v = candidates.items[k];
+      if (this.round[v] != this.rounds && this.index(v) == i) {
+        this.round[v] = this.rounds;
+        frontier.add(v);
+      }
+    }
+    return frontier;
+  }
+
+  private int index(int v) {
+    return (int) Math.min(this.distance(v) / this.delta, Integer.MAX_VALUE);
+  }
+
+  private void place(List<IntList> bucket, int v) {
+    int i = this.index(v);
+    while (bucket.size() <= i) {
+      bucket.add(null);
+    }
+    if (bucket.get(i) == null) {
+      bucket.set(i, new IntList());
+    }
+    bucket.get(i).add(v);
+  }
+
+  private void placeAll(List<IntList> bucket, IntList improved) {
+    for (int k = 0; k < improved.size; k++) {
+      this.place(bucket, improved.items[k]);
+    }
+  }
+
+  // Relax the light or heavy edges of vertices; returns those improved.
+  private IntList relax(IntList vertices, boolean light) {
+    if (vertices.size < LEAF) {
+      return this.relax(vertices, 0, vertices.size, light);
+    }
+    return this.pool.invoke(new Relax(vertices, 0, vertices.size, light));
+  }
+
+  private IntList relax(IntList vertices, int lo, int hi, boolean light) {
+    IntList improved = new IntList();
+    for (int k = lo; k < hi; k++) {
+      int v = vertices.items[k];
+      double d = this.distance(v);
+      for (int e = this.graph.begin(v), end = this.graph.end(v); e < end;
+           e++) {
+        double w = this.graph.weight(e);
+        if ((w <= this.delta) == light) {
+          int u = this.graph.target(e);
+          if (this.lower(u, d + w)) {
+            improved.add(u);
+          }
+        }
+      }
+    }
+    return improved;
+  }
+
+  // Lower the distance of u to dist if that is shorter.
+  private boolean lower(int u, double dist) {
+    long bits = Double.doubleToRawLongBits(dist);
+    long current = this.distance.get(u);
+    while (bits < current) {
+      if (this.distance.compareAndSet(u, current, bits)) {
+        return true;
+      }
+      current = this.distance.get(u);
+    }
+    return false;
+  }
+
+  /**
+   * Stop the worker threads.
+   */
+  @Override
+  public void close() {
+    this.pool.shutdown();
+  }
+
+  // Relaxes a range of vertices, splitting it in halves while large.
+  private final class Relax extends RecursiveTask<IntList> {
+    private static final long serialVersionUID = 1L;
+
+    private final IntList vertices;
+    private final int lo;
+    private final int hi;
+    private final boolean light;
+
+    Relax(IntList vertices, int lo, int hi, boolean light) {
+      this.vertices = vertices;
+      this.lo = lo;
+      this.hi = hi;
+      this.light = light;
+    }
+
+    @Override
+    protected IntList compute() {
+      if (this.hi - this.lo <= LEAF) {
+        return relax(this.vertices, this.lo, this.hi, this.light);
+      }
+      int mid = (this.lo + this.hi) >>> 1;
+      Relax left = new Relax(this.vertices, this.lo, mid, this.light);
+      left.fork();
+      IntList right =
+          new Relax(this.vertices, mid, this.hi, this.light).compute();
+      IntList result = left.join();
+      result.addAll(right);
+      return result;
+    }
+  }
+
+  private static final class IntList {
+    int[] items = new int[16];
+    int size;
+
+    void add(int x) {
+      if (this.size == this.items.length) {
+        this.items = Arrays.copyOf(this.items, 2 * this.size);
+      }
+      this.items[this.size++] = x;
+    }
+
+    void addAll(IntList other) {
+      if (this.size + other.size > this.items.length) {
+        this.items = Arrays.copyOf(this.items,
+            Math.max(2 * this.items.length, this.size + other.size));
+      }
+      System.arraycopy(other.items, 0, this.items, this.size, other.size);
+      this.size += other.size;
+    }
+  }
+}
@@ -0,0 +1,85 @@
+package hw8;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+public class DeltaSteppingExperiment {
+
+  // Update this to any other data file for benchmarking experiments.
+  private static String getDataFile() {
+    return "baltimore.streets.txt";
+  }
+
+  // Number of random sources to compute shortest path trees from.
+  private static int getSources() {
+    return 50;
+  }
+
+  // Worker thread counts to try.
+  private static int[] getThreads() {
+    return new int[] {1, 2, 4, 8};
+  }
+
+  // Time one-to-all searches sequentially and with more and more threads.
+  private static void scale(StreetSearcher streetSearcher) {
+    CsrGraph<Long, String> network = streetSearcher.network();
+    int n = network.vertexCount();
+    int[] sources = new int[getSources()];
+    Random random = new Random(2020);
+    for (int i = 0; i < sources.length; i++) {
+      sources[i] = random.nextInt(n);
+    }
+
+    DijkstraEngine engine = new DijkstraEngine(network);
+    for (int source : sources) {
+      engine.run(source);
+    }
+    long sequential = System.nanoTime();
+    for (int source : sources) {
+      engine.run(source);
+    }
+    sequential = System.nanoTime() - sequential;
+    System.out.println(String.format("Dijkstra: %.3f ms per source",
+        sequential / 1e6 / sources.length));
+
+    System.out.println(Runtime.getRuntime().availableProcessors()
+        + " cores available, delta " + DeltaStepping.autoDelta(network));
+    for (int threads : getThreads()) {
+      try (DeltaStepping search = new DeltaStepping(network, threads)) {
+        for (int source : sources) {
+          search.run(source);
+        }
+        long time = System.nanoTime();
+        for (int source : sources) {
+          search.run(source);
+        }
+        time = System.nanoTime() - time;
+        System.out.println(String.format(
+            "%d threads: %.3f ms per source, speedup %.2fx", threads,
+            time / 1e6 / sources.length, (double) sequential / time));
+      }
+    }
+  }
+
+  /**
+   * Execution starts here.
+   *
+   * @param args command-line arguments not used here.
+   */
+  public static void main(String[] args) {
+    StreetSearcher streetSearcher = new StreetSearcher();
+    Path dataFile = Paths.get("res", "src", getDataFile());
+    File data = dataFile.toFile();
+
+    try {
+      streetSearcher.loadNetwork(data);
+    } catch (FileNotFoundException e) {
+      System.err.println("Could not find file " + data.getName());
+      return;
+    }
+    scale(streetSearcher);
+  }
+}
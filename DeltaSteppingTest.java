@@ -0,0 +1,79 @@
+package hw8;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static junit.framework.TestCase.*;
+
+public class DeltaSteppingTest {
+
+  private static final int SIZE = 3000;
+
+  private CsrGraph<String, String> csr;
+
+  @Before
+  public void setupGraph() {
+    csr = TestNetworks.random(SIZE, 13);
+  }
+
+  private void assertSameAsDijkstra(DeltaStepping search, int source) {
+    DijkstraEngine engine = new DijkstraEngine(csr);
+    engine.run(source);
+    search.run(source);
+    for (int v = 0; v < SIZE; v++) {
+      assertEquals(engine.distance(v), search.distance(v), 0);
+    }
+  }
+
+  @Test
+  public void testAutoDelta() {
+    try (DeltaStepping search = new DeltaStepping(csr, 4)) {
+      assertEquals(DeltaStepping.autoDelta(csr), search.delta(), 0);
+      assertEquals(4, search.parallelism());
+      assertSameAsDijkstra(search, 0);
+      assertSameAsDijkstra(search, 17);
+    }
+  }
+
+  @Test
+  public void testAutoDeltaLeavesOutClosedRoads() {
+    DynamicGraph roads = new DynamicGraph(csr);
+    int closed = csr.begin(0);
+    roads.apply(new WeightUpdate().remove(closed));
+    double total = 0;
+    for (int e = 0; e < csr.edgeCount(); e++) {
+      total += e == closed ? 0 : csr.weight(e);
+    }
+    assertEquals(total / SIZE, DeltaStepping.autoDelta(roads), 1e-9);
+    try (DeltaStepping search = new DeltaStepping(roads, 2)) {
+      DijkstraEngine engine = new DijkstraEngine(roads);
+      engine.run(0);
+      search.run(0);
+      for (int v = 0; v < SIZE; v++) {
+        assertEquals(engine.distance(v), search.distance(v), 0);
+      }
+    }
+  }
+
+  @Test
+  public void testAnyDelta() {
+    for (double delta : new double[] {1, 37.5, 1000, 1e9}) {
+      try (DeltaStepping search = new DeltaStepping(csr, delta, 3)) {
+        assertSameAsDijkstra(search, 5);
+      }
+    }
+  }
+
+  @Test
+  public void testOneThread() {
+    try (DeltaStepping search = new DeltaStepping(csr, 1)) {
+      assertSameAsDijkstra(search, SIZE - 1);
+      assertSameAsDijkstra(search, 100);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testZeroDeltaThrows() {
+    new DeltaStepping(csr, 0, 2);
+  }
+}
@@ -0,0 +1,280 @@
+package hw8;
+
+import java.util.Arrays;
+
+/**
+ * Dijkstra's algorithm for answering many queries on one graph.
+ *
+ * <p>All search state lives in primitive arrays that are allocated once,
+ * when the engine is created, and reused by every query. Instead of
+ * clearing them between queries each entry carries the number of the
+ * query that last wrote it; bumping that number invalidates everything
+ * at once, so starting a query costs constant time no matter how large
+ * the graph is.</p>
+ *
+ * <p>An engine is not safe for concurrent use, but any number of engines
+ * can share the same graph.</p>
+ */
+public final class DijkstraEngine implements PathFinder {
+
+  private static final int NONE = -1;
+
+  private final IntGraph graph;
+  private final QueueKind queueKind;
+  private final IndexedHeap queue;
+  private final double[] distance;
+  private final int[] via;
+  private final int[] stamp;
+  // Marks the targets of the current run(source, targets) with its epoch.
+  private int[] goal;
+  private int epoch;
+  private int source;
+  private final SearchStats stats;
+
+  /**
+   * Creates an engine using a binary heap.
+   *
+   * @param graph Graph to search.
+   */
+  public DijkstraEngine(IntGraph graph) {
+    this(graph, QueueKind.BINARY);
+  }
+
+  /**
+   * Creates an engine.
+   *
+   * @param graph     Graph to search.
+   * @param queueKind Kind of priority queue to search with.
+   */
+  public DijkstraEngine(IntGraph graph, QueueKind queueKind) {
+    int n = graph.vertexCount();
+    this.graph = graph;
+    this.queueKind = queueKind;
+    this.queue = queueKind.create(n);
+    this.distance = new double[n];
+    this.via = new int[n];
+    this.stamp = new int[n];
+    this.source = NONE;
+    this.stats = new SearchStats();
+  }
+
+  /**
+   * Graph this engine searches.
+   *
+   * @return The graph.
+   */
+  public IntGraph graph() {
+    return this.graph;
+  }
+
+  /**
+   * Kind of priority queue this engine searches with.
+   *
+   * @return The queue kind.
+   */
+  public QueueKind queueKind() {
+    return this.queueKind;
+  }
+
+  /**
+   * Compute shortest paths from source to every reachable vertex.
+   *
+   * @param source Id of the start vertex.
+   */
+  public void run(int source) {
+    this.start(source);
+    while (!this.queue.isEmpty()) {
+      this.settle(this.queue.removeMin());
+    }
+  }
+
+  /**
+   * Compute shortest paths from source to a set of targets.
+   *
+   * <p>Stops as soon as every target is settled, so it only explores the
+   * vertices closer to source than the farthest target. Afterwards
+   * distance() and path() are final for all targets.</p>
+   *
+   * @param source  Id of the start vertex.
+   * @param targets Ids of the end vertices, duplicates are fine.
+   */
+  public void run(int source, int[] targets) {
+    if (this.goal == null) {
+      this.goal = new int[this.graph.vertexCount()];
+    }
+    this.start(source);
+    if (this.epoch == 1) {
+      // start() wrapped around, old marks could match again
+      Arrays.fill(this.goal, 0);
+    }
+    int remaining = 0;
+    for (int t : targets) {
+      if (this.goal[t] != this.epoch) {
+        this.goal[t] = this.epoch;
+        remaining++;
+      }
+    }
+    while (remaining > 0 && !this.queue.isEmpty()) {
+      int v = this.queue.removeMin();
+      if (this.goal[v] == this.epoch && --remaining == 0) {
+        this.stats.settled++;
+        break;
+      }
+      this.settle(v);
+    }
+  }
+
+  /**
+   * Compute a shortest path from source to target.
+   *
+   * <p>Unlike run() this stops as soon as target is settled, so it only
+   * explores the vertices closer to source than target is.</p>
+   *
+   * @param source Id of the start vertex.
+   * @param target Id of the end vertex.
+   * @return Shortest route from source to target.
+   */
+  @Override
+  public Route route(int source, int target) {
+    this.start(source);
+    while (!this.queue.isEmpty()) {
+      int v = this.queue.removeMin();
+      if (v == target) {
+        this.stats.settled++;
+        break;
+      }
+      this.settle(v);
+    }
+    return new Route(this.distance(target), this.path(target),
+        this.stats.settled);
+  }
+
+  /**
+   * Distance to vertex found by the last query.
+   *
+   * @param v Vertex id.
+   * @return Length of the shortest path from the source to v, or
+   *     Double.POSITIVE_INFINITY if the last query didn't reach v. After
+   *     route() only the distances of settled vertices are final.
+   */
+  public double distance(int v) {
+    return this.stamp[v] == this.epoch
+        ? this.distance[v] : Double.POSITIVE_INFINITY;
+  }
+
+  /**
+   * Edge into vertex on the shortest path tree of the last query.
+   *
+   * @param v Vertex id.
+   * @return Id of the edge v was reached by, or -1 for the source and for
+   *     vertices the last query didn't reach.
+   */
+  public int via(int v) {
+    return this.stamp[v] == this.epoch ? this.via[v] : NONE;
+  }
+
+  /**
+   * Shortest path to vertex found by the last query.
+   *
+   * @param target Vertex id.
+   * @return Edge ids along the path from the source to target (empty if
+   *     target is the source), or null if the last query didn't reach it.
+   */
+  public int[] path(int target) {
+    if (this.stamp[target] != this.epoch) {
+      return null;
+    }
+    int length = 0;
+    for (int v = target; v != this.source; v = this.graph.source(this.via[v])) {
+      length++;
+    }
+    int[] path = new int[length];
+    for (int v = target; length > 0; v = this.graph.source(this.via[v])) {
+      path[--length] = this.via[v];
+    }
+    return path;
+  }
+
+  /**
+   * Source of the last query.
+   *
+   * @return Id of the start vertex of the last query, or -1 if there
+   *     hasn't been one.
+   */
+  public int source() {
+    return this.source;
+  }
+
+  /**
+   * Vertices settled by the last query.
+   *
+   * @return Number of vertices the last query removed from the queue.
+   */
+  public int settledCount() {
+    return this.stats.settled;
+  }
+
+  @Override
+  public SearchStats stats() {
+    return this.stats;
+  }
+
+  /**
+   * Heap operations run so far.
+   *
+   * @return Number of priority queue operations over all queries.
+   */
+  public long heapOperations() {
+    return this.queue.operations();
+  }
+
+  // Forget the previous query and put source in the queue.
+  private void start(int source) {
+    this.epoch++;
+    if (this.epoch == 0) {
+      // wrapped around, stale stamps could match again
+      Arrays.fill(this.stamp, 0);
+      this.epoch = 1;
+    }
+    this.queue.clear();
+    this.source = source;
+    this.stats.reset();
+    this.stamp[source] = this.epoch;
+    this.distance[source] = 0;
+    this.via[source] = NONE;
+    this.queue.insert(source, 0);
+    this.stats.inserts++;
+    this.stats.heap(1);
+  }
+
+  // Relax the outgoing edges of v, a vertex that was just removed.
+  private void settle(int v) {
+    this.stats.settled++;
+    this.stats.relaxed += this.graph.end(v) - this.graph.begin(v);
+    double d = this.distance[v];
+    for (int e = this.graph.begin(v), end = this.graph.end(v); e < end; e++) {
+      int u = this.graph.target(e);
+      double dist = d + this.graph.weight(e);
+      if (dist == Double.POSITIVE_INFINITY) {
+        // closed road, u isn't reached through it
+        continue;
+      }
+      if (this.stamp[u] != this.epoch) {
+        this.stamp[u] = this.epoch;
+        this.reach(u, e, dist);
+        this.queue.insert(u, dist);
+        this.stats.inserts++;
+        this.stats.heap(this.queue.size());
+      } else if (dist < this.distance[u] && this.queue.contains(u)) {
+        this.reach(u, e, dist);
+        this.queue.decreaseKey(u, dist);
+        this.stats.decreaseKeys++;
+      }
+    }
+  }
+
+  private void reach(int u, int e, double dist) {
+    this.distance[u] = dist;
+    this.via[u] = e;
+  }
+}
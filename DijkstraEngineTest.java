@@ -0,0 +1,121 @@
+package hw8;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static junit.framework.TestCase.*;
+
+public class DijkstraEngineTest {
+
+  private SparseGraph<String, String> graph;
+  private CsrGraph<String, String> csr;
+
+  @Before
+  public void setupGraph() {
+    graph = new SparseGraph<>();
+    Vertex<String> a = graph.insert("a");
+    Vertex<String> b = graph.insert("b");
+    Vertex<String> c = graph.insert("c");
+    Vertex<String> d = graph.insert("d");
+    graph.insert("e");
+    graph.label(graph.insert(a, b, "a-b"), 1.0);
+    graph.label(graph.insert(b, c, "b-c"), 1.5);
+    graph.label(graph.insert(a, c, "a-c"), 3.0);
+    graph.label(graph.insert(c, d, "c-d"), 0.5);
+    graph.label(graph.insert(d, a, "d-a"), 0.25);
+    csr = graph.freeze();
+  }
+
+  private int id(String name) {
+    return csr.id(graph.insert(name));
+  }
+
+  private String names(int[] path) {
+    StringBuilder sb = new StringBuilder();
+    for (int e : path) {
+      sb.append(csr.edge(e).get()).append(' ');
+    }
+    return sb.toString().trim();
+  }
+
+  @Test
+  public void testDistances() {
+    DijkstraEngine engine = new DijkstraEngine(csr);
+    engine.run(id("a"));
+    assertEquals(0.0, engine.distance(id("a")), 0);
+    assertEquals(1.0, engine.distance(id("b")), 0);
+    assertEquals(2.5, engine.distance(id("c")), 0);
+    assertEquals(3.0, engine.distance(id("d")), 0);
+    assertEquals(Double.POSITIVE_INFINITY, engine.distance(id("e")), 0);
+    assertEquals(4, engine.settledCount());
+  }
+
+  @Test
+  public void testStatsCountTheSearch() {
+    DijkstraEngine engine = new DijkstraEngine(csr);
+    engine.run(id("a"));
+    SearchStats stats = engine.stats();
+    assertEquals(4, stats.settled());
+    // every edge out of a, b, c and d is looked at once
+    assertEquals(5, stats.relaxed());
+    // c is first reached directly, then more cheaply through b
+    assertEquals(1, stats.decreaseKeys());
+    assertEquals(2, stats.heapHighWater());
+    assertEquals(4, stats.inserts());
+    assertEquals(engine.heapOperations(), stats.heapOperations());
+    engine.route(id("a"), id("b"));
+    assertEquals(2, stats.settled());
+    assertEquals(2, stats.relaxed());
+    assertEquals(0, stats.decreaseKeys());
+  }
+
+  @Test
+  public void testPath() {
+    DijkstraEngine engine = new DijkstraEngine(csr, QueueKind.PAIRING);
+    engine.run(id("a"));
+    assertEquals("a-b b-c c-d", names(engine.path(id("d"))));
+    assertEquals(0, engine.path(id("a")).length);
+    assertNull(engine.path(id("e")));
+    assertEquals(-1, engine.via(id("a")));
+  }
+
+  @Test
+  public void testQueriesDoNotSeeEachOther() {
+    DijkstraEngine engine = new DijkstraEngine(csr);
+    engine.run(id("a"));
+    engine.run(id("c"));
+    assertEquals(0.5, engine.distance(id("d")), 0);
+    assertEquals(0.75, engine.distance(id("a")), 0);
+    assertEquals("c-d d-a a-b", names(engine.path(id("b"))));
+    engine.run(id("e"));
+    assertEquals(Double.POSITIVE_INFINITY, engine.distance(id("a")), 0);
+    assertNull(engine.path(id("d")));
+    assertEquals(1, engine.settledCount());
+  }
+
+  @Test
+  public void testRouteStopsAtTarget() {
+    DijkstraEngine engine = new DijkstraEngine(csr);
+    Route route = engine.route(id("a"), id("b"));
+    assertEquals(1.0, route.distance(), 0);
+    assertEquals("a-b", names(route.edges()));
+    assertEquals(2, route.settled());
+    assertFalse(engine.route(id("a"), id("e")).found());
+  }
+
+  @Test
+  public void testRunStopsAtLastTarget() {
+    DijkstraEngine engine = new DijkstraEngine(csr);
+    engine.run(id("a"), new int[] {id("c"), id("b"), id("b")});
+    assertEquals(1.0, engine.distance(id("b")), 0);
+    assertEquals(2.5, engine.distance(id("c")), 0);
+    assertEquals("a-b b-c", names(engine.path(id("c"))));
+    assertEquals(3, engine.settledCount());
+    assertEquals(Double.POSITIVE_INFINITY, engine.distance(id("d")));
+
+    engine.run(id("b"), new int[] {id("a"), id("e")});
+    assertEquals(2.25, engine.distance(id("a")), 0);
+    assertEquals(Double.POSITIVE_INFINITY, engine.distance(id("e")));
+    assertEquals(4, engine.settledCount());
+  }
+}
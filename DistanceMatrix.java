@@ -0,0 +1,53 @@
+package hw8;
+
+import java.util.stream.IntStream;
+
+/**
+ * Shortest path distances between every source and every target.
+ *
+ * <p>Each row comes from one search out of its source that stops once all
+ * targets are settled, so a row costs about as much as the single
+ * farthest query in it rather than one search per target. Rows are
+ * independent: the sources are cut into one contiguous chunk per
+ * processor and the chunks run in parallel, each reusing one
+ * DijkstraEngine on the shared graph for all of its rows. The engines
+ * belong to the call, so nothing of their size outlives it.</p>
+ */
+public final class DistanceMatrix {
+
+  private DistanceMatrix() {
+    // only static methods
+  }
+
+  /**
+   * Compute a distance matrix.
+   *
+   * @param graph   Graph to search, must not change during the call.
+   * @param sources Ids of the start vertices.
+   * @param targets Ids of the end vertices.
+   * @return Matrix whose entry [i][j] is the length of the shortest path
+   *     from sources[i] to targets[j], Double.POSITIVE_INFINITY if there
+   *     is none.
+   */
+  public static double[][] compute(IntGraph graph, int[] sources,
+                                   int[] targets) {
+    double[][] matrix = new double[sources.length][];
+    int chunks = Math.min(sources.length,
+        Runtime.getRuntime().availableProcessors());
+    IntStream.range(0, chunks).parallel().forEach(c -> {
+      // an engine per chunk, dropped with it when the call returns
+      DijkstraEngine engine = new DijkstraEngine(graph);
+      int from = (int) ((long) sources.length * c / chunks);
+      int to = (int) ((long) sources.length * (c + 1) / chunks);
+      for (int i = from; i < to; i++) {
+        engine.run(sources[i], targets);
+        double[] row = new double[targets.length];
+        for (int j = 0; j < targets.length; j++) {
+          row[j] = engine.distance(targets[j]);
+        }
+        matrix[i] = row;
+      }
+    });
+    return matrix;
+  }
+}
@@ -0,0 +1,61 @@
+package hw8;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static junit.framework.TestCase.*;
+
+public class DistanceMatrixTest {
+
+  private static final int SIZE = 80;
+
+  private CsrGraph<String, String> csr;
+
+  @Before
+  public void setupGraph() {
+    csr = TestNetworks.random(SIZE, 11);
+  }
+
+  @Test
+  public void testMatchesPointToPoint() {
+    Random random = new Random(12);
+    int[] sources = new int[15];
+    int[] targets = new int[20];
+    for (int i = 0; i < sources.length; i++) {
+      sources[i] = random.nextInt(SIZE);
+    }
+    for (int j = 0; j < targets.length; j++) {
+      targets[j] = random.nextInt(SIZE);
+    }
+    targets[3] = targets[7];
+    double[][] matrix = DistanceMatrix.compute(csr, sources, targets);
+    assertEquals(sources.length, matrix.length);
+    DijkstraEngine engine = new DijkstraEngine(csr);
+    for (int i = 0; i < sources.length; i++) {
+      assertEquals(targets.length, matrix[i].length);
+      for (int j = 0; j < targets.length; j++) {
+        assertEquals(engine.route(sources[i], targets[j]).distance(),
+            matrix[i][j], 0);
+      }
+    }
+  }
+
+  @Test
+  public void testUnreachableIsInfinite() {
+    // only the last vertex has no way back
+    double[][] matrix = DistanceMatrix.compute(csr,
+        new int[] {SIZE - 1}, new int[] {0, SIZE - 1});
+    assertEquals(Double.POSITIVE_INFINITY, matrix[0][0]);
+    assertEquals(0.0, matrix[0][1], 0);
+  }
+
+  @Test
+  public void testEmpty() {
+    assertEquals(0, DistanceMatrix.compute(csr, new int[0],
+        new int[] {1}).length);
+    assertEquals(0, DistanceMatrix.compute(csr, new int[] {1},
+        new int[0])[0].length);
+  }
+}
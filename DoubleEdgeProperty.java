@@ -0,0 +1,93 @@
+package hw8;
+
+import exceptions.PositionException;
+import java.util.Arrays;
+
+/**
+ * A double for every edge of a SparseGraph, such as road lengths.
+ *
+ * <p>Values sit in a primitive array indexed by SparseGraph.edgeId(), so
+ * neither reading nor writing boxes anything, and several algorithms can
+ * keep their own columns side by side without touching the labels. The
+ * array grows as edges are inserted; edges that were never set read as
+ * the missing value. It never shrinks: ids of removed edges aren't given
+ * out again, so a graph that keeps inserting and removing edges makes it
+ * grow by 8 bytes per insert, see SparseGraph.vertexId(). The int
+ * methods skip the position checks for loops that already have ids.</p>
+ */
+public final class DoubleEdgeProperty {
+
+  private final SparseGraph<?, ?> graph;
+  private final double missing;
+  private double[] values;
+
+  DoubleEdgeProperty(SparseGraph<?, ?> graph, double missing) {
+    this.graph = graph;
+    this.missing = missing;
+    this.values = new double[graph.edgeIds()];
+    Arrays.fill(this.values, missing);
+  }
+
+  SparseGraph<?, ?> graph() {
+    return this.graph;
+  }
+
+  /**
+   * Value of an edge.
+   *
+   * @param e Edge position.
+   * @return Value of e, or the missing value if it wasn't set.
+   * @throws PositionException If e is not an edge of the graph.
+   */
+  public double get(Edge<?> e) throws PositionException {
+    return this.get(this.graph.anyEdgeId(e));
+  }
+
+  /**
+   * Value of an edge by id.
+   *
+   * @param id Edge id, at least 0.
+   * @return Value of the edge, or the missing value if it wasn't set.
+   */
+  public double get(int id) {
+    return id < this.values.length ? this.values[id] : this.missing;
+  }
+
+  /**
+   * Set the value of an edge.
+   *
+   * @param e     Edge position.
+   * @param value New value of e.
+   * @throws PositionException If e is not an edge of the graph.
+   */
+  public void set(Edge<?> e, double value) throws PositionException {
+    this.set(this.graph.anyEdgeId(e), value);
+  }
+
+  /**
+   * Set the value of an edge by id.
+   *
+   * @param id    Edge id.
+   * @param value New value of the edge.
+   * @throws IndexOutOfBoundsException If id was never given out.
+   */
+  public void set(int id, double value) {
+    if (id >= this.values.length) {
+      if (id < 0 || id >= this.graph.edgeIds()) {
+        throw new IndexOutOfBoundsException("id " + id);
+      }
+      int old = this.values.length;
+      this.values = Arrays.copyOf(this.values,
+          Math.max(this.graph.edgeIds(), 2 * old));
+      Arrays.fill(this.values, old, this.values.length, this.missing);
+    }
+    this.values[id] = value;
+  }
+
+  /**
+   * Set every edge back to the missing value.
+   */
+  public void clear() {
+    Arrays.fill(this.values, this.missing);
+  }
+}
@@ -0,0 +1,262 @@
+package hw8;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A graph whose edge weights can change, with shortest path trees that
+ * follow the changes.
+ *
+ * <p>Adjacency and weights come from an underlying IntGraph, whose
+ * weights must not change. Nothing is copied until the first update; that
+ * one copies the weights into an array of their own, so a network that is
+ * only searched costs no memory here, and every update after it touches
+ * one array entry. Trees obtained from
+ * tree() are repaired after every update by redoing only the part that
+ * changed, in the spirit of Ramalingam and Reps: the subtrees hanging off
+ * edges that got longer are cut loose and reattached, and vertices that
+ * can be reached more cheaply over edges that got shorter are pulled in,
+ * both by one Dijkstra's search seeded with just those vertices. A repair
+ * thus costs time in proportion to the vertices whose distance or tree
+ * edge actually changes, plus their edges, instead of the whole graph.</p>
+ *
+ * <p>Not safe for concurrent use; in particular no search may run on the
+ * graph while an update is applied. Searches on other threads should run
+ * on frozen() instead.</p>
+ */
+public final class DynamicGraph implements IntGraph {
+
+  private final IntGraph graph;
+  // Weights after updates, null until the first one.
+  private double[] weights;
+  private final List<ShortestPathTree> trees;
+  // Scratch space shared by all tree repairs, made with the first tree.
+  private IndexedHeap queue;
+  private int[] mark;
+  private int epoch;
+  private long version;
+
+  /**
+   * Creates a dynamic graph starting out with the weights of graph.
+   *
+   * @param graph Graph to take adjacency and initial weights from; its
+   *              weights must not change.
+   */
+  public DynamicGraph(IntGraph graph) {
+    this.graph = graph;
+    this.trees = new ArrayList<>();
+  }
+
+  @Override
+  public int vertexCount() {
+    return this.graph.vertexCount();
+  }
+
+  @Override
+  public int edgeCount() {
+    return this.graph.edgeCount();
+  }
+
+  @Override
+  public int begin(int v) {
+    return this.graph.begin(v);
+  }
+
+  @Override
+  public int end(int v) {
+    return this.graph.end(v);
+  }
+
+  @Override
+  public int target(int e) {
+    return this.graph.target(e);
+  }
+
+  @Override
+  public double weight(int e) {
+    return this.weights == null ? this.graph.weight(e) : this.weights[e];
+  }
+
+  @Override
+  public int source(int e) {
+    return this.graph.source(e);
+  }
+
+  @Override
+  public int inBegin(int v) {
+    return this.graph.inBegin(v);
+  }
+
+  @Override
+  public int inEnd(int v) {
+    return this.graph.inEnd(v);
+  }
+
+  @Override
+  public int inEdge(int i) {
+    return this.graph.inEdge(i);
+  }
+
+  /**
+   * Number of updates applied.
+   *
+   * @return Version of the weights, bumped by every apply().
+   */
+  public long version() {
+    return this.version;
+  }
+
+  /**
+   * Read-only copy of the current weights.
+   *
+   * @return Graph with the adjacency of this one and the weights it has
+   *     now. Later updates don't change it, so it can be searched from
+   *     other threads while updates are applied here. Before the first
+   *     update that is the underlying graph itself.
+   */
+  public IntGraph frozen() {
+    if (this.weights == null) {
+      return this.graph;
+    }
+    return new Frozen(this.graph, this.weights.clone());
+  }
+
+  /**
+   * Shortest path tree kept up to date.
+   *
+   * @param source Id of the root vertex.
+   * @return New tree of shortest paths from source, repaired by every
+   *     apply() until it is passed to forget().
+   */
+  public ShortestPathTree tree(int source) {
+    ShortestPathTree tree = new ShortestPathTree(this, source);
+    this.trees.add(tree);
+    return tree;
+  }
+
+  /**
+   * Stop repairing a tree.
+   *
+   * @param tree Tree from tree() that is no longer needed.
+   */
+  public void forget(ShortestPathTree tree) {
+    this.trees.remove(tree);
+  }
+
+  /**
+   * Apply a batch of weight changes and repair all trees.
+   *
+   * @param update Changes to apply.
+   * @return Number of vertices the repairs touched, over all trees.
+   */
+  public long apply(WeightUpdate update) {
+    if (this.weights == null) {
+      int m = this.graph.edgeCount();
+      this.weights = new double[m];
+      for (int e = 0; e < m; e++) {
+        this.weights[e] = this.graph.weight(e);
+      }
+    }
+    int k = update.size();
+    int[] edges = new int[k];
+    double[] before = new double[k];
+    for (int i = 0; i < k; i++) {
+      edges[i] = update.edge(i);
+      before[i] = this.weights[edges[i]];
+      this.weights[edges[i]] = update.weight(i);
+    }
+    this.version++;
+    long touched = 0;
+    for (ShortestPathTree tree : this.trees) {
+      touched += tree.repair(edges, before);
+    }
+    return touched;
+  }
+
+  // Start marking vertices for one repair; returns the mark to use.
+  int nextMark() {
+    int[] mark = this.marks();
+    this.epoch++;
+    if (this.epoch == 0) {
+      Arrays.fill(mark, 0);
+      this.epoch = 1;
+    }
+    return this.epoch;
+  }
+
+  int[] marks() {
+    if (this.mark == null) {
+      this.mark = new int[this.graph.vertexCount()];
+    }
+    return this.mark;
+  }
+
+  IndexedHeap queue() {
+    if (this.queue == null) {
+      this.queue = new DaryHeap(this.graph.vertexCount());
+    }
+    return this.queue;
+  }
+
+  // The adjacency of a graph with weights that never change.
+  private static final class Frozen implements IntGraph {
+    private final IntGraph graph;
+    private final double[] weights;
+
+    Frozen(IntGraph graph, double[] weights) {
+      this.graph = graph;
+      this.weights = weights;
+    }
+
+    @Override
+    public int vertexCount() {
+      return this.graph.vertexCount();
+    }
+
+    @Override
+    public int edgeCount() {
+      return this.graph.edgeCount();
+    }
+
+    @Override
+    public int begin(int v) {
+      return this.graph.begin(v);
+    }
+
+    @Override
+    public int end(int v) {
+      return this.graph.end(v);
+    }
+
+    @Override
+    public int target(int e) {
+      return this.graph.target(e);
+    }
+
+    @Override
+    public double weight(int e) {
+      return this.weights[e];
+    }
+
+    @Override
+    public int source(int e) {
+      return this.graph.source(e);
+    }
+
+    @Override
+    public int inBegin(int v) {
+      return this.graph.inBegin(v);
+    }
+
+    @Override
+    public int inEnd(int v) {
+      return this.graph.inEnd(v);
+    }
+
+    @Override
+    public int inEdge(int i) {
+      return this.graph.inEdge(i);
+    }
+  }
+}
@@ -0,0 +1,88 @@
+package hw8;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+public class DynamicGraphExperiment {
+
+  // Update this to any other data file for benchmarking experiments.
+  private static String getDataFile() {
+    return "baltimore.streets.txt";
+  }
+
+  // Number of shortest path trees kept up to date.
+  private static int getTrees() {
+    return 10;
+  }
+
+  // Number of update batches and roads changed per batch.
+  private static int getBatches() {
+    return 200;
+  }
+
+  private static int getBatchSize() {
+    return 5;
+  }
+
+  // Compare repairing trees after random congestion with recomputing them.
+  private static void compare(StreetSearcher streetSearcher) {
+    DynamicGraph roads = new DynamicGraph(streetSearcher.network());
+    int n = roads.vertexCount();
+    Random random = new Random(2020);
+    ShortestPathTree[] trees = new ShortestPathTree[getTrees()];
+    for (int i = 0; i < trees.length; i++) {
+      trees[i] = roads.tree(random.nextInt(n));
+    }
+
+    long repaired = 0;
+    long repairTime = 0;
+    long recomputed = 0;
+    long recomputeTime = 0;
+    for (int b = 0; b < getBatches(); b++) {
+      WeightUpdate update = new WeightUpdate();
+      for (int k = 0; k < getBatchSize(); k++) {
+        int e = random.nextInt(roads.edgeCount());
+        double factor = random.nextBoolean() ? 0.5 : 1 + random.nextInt(4);
+        update.set(e, roads.weight(e) * factor);
+      }
+      long time = System.nanoTime();
+      repaired += roads.apply(update);
+      repairTime += System.nanoTime() - time;
+
+      time = System.nanoTime();
+      for (ShortestPathTree tree : trees) {
+        recomputed += tree.recompute();
+      }
+      recomputeTime += System.nanoTime() - time;
+    }
+    long repairs = (long) getBatches() * trees.length;
+    System.out.println(String.format(
+        "Repair: %d vertices touched and %.3f ms per tree",
+        repaired / repairs, repairTime / 1e6 / repairs));
+    System.out.println(String.format(
+        "Recompute: %d vertices touched and %.3f ms per tree",
+        recomputed / repairs, recomputeTime / 1e6 / repairs));
+  }
+
+  /**
+   * Execution starts here.
+   *
+   * @param args command-line arguments not used here.
+   */
+  public static void main(String[] args) {
+    StreetSearcher streetSearcher = new StreetSearcher();
+    Path dataFile = Paths.get("res", "src", getDataFile());
+    File data = dataFile.toFile();
+
+    try {
+      streetSearcher.loadNetwork(data);
+    } catch (FileNotFoundException e) {
+      System.err.println("Could not find file " + data.getName());
+      return;
+    }
+    compare(streetSearcher);
+  }
+}
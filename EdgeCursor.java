@@ -0,0 +1,97 @@
+package hw8;
+
+import exceptions.PositionException;
+
+/**
+ * Reusable walk over the outgoing or incoming edges of one vertex.
+ *
+ * <p>A cursor checks its vertex once in reset() and then hands out every
+ * edge with its endpoints, their ids and its weight without checking,
+ * boxing or allocating anything, so a relaxation loop can reuse a single
+ * cursor for every vertex it expands:</p>
+ * <pre>
+ *   for (cursor.reset(v); cursor.next(); ) {
+ *     relax(cursor.toId(), cursor.weight());
+ *   }
+ * </pre>
+ *
+ * <p>Edges come in the same order as from Graph.outgoing() and
+ * Graph.incoming(). Edges inserted at the vertex after reset() may or may
+ * not be seen until the next reset(). Edges may be removed while walking,
+ * the current one included, and are not seen again; only if the current
+ * edge and another edge of the vertex are both removed before the next
+ * call to next() can it no longer tell where it was.</p>
+ *
+ * @param <V> Vertex element type.
+ * @param <E> Edge element type.
+ */
+public interface EdgeCursor<V, E> {
+  /**
+   * Start walking the edges of a vertex.
+   *
+   * @param v Vertex position.
+   * @return This cursor, before the first edge.
+   * @throws PositionException If v is not a vertex of the graph.
+   */
+  EdgeCursor<V, E> reset(Vertex<V> v) throws PositionException;
+
+  /**
+   * Move to the next edge.
+   *
+   * @return True if there is one; the methods below may only be called
+   *     while the last call returned true.
+   * @throws java.util.ConcurrentModificationException If the current edge
+   *     and another edge of the vertex were removed since the last call.
+   */
+  boolean next();
+
+  /**
+   * Current edge.
+   *
+   * @return Edge position.
+   */
+  Edge<E> edge();
+
+  /**
+   * Start of the current edge.
+   *
+   * @return Vertex position the edge starts from.
+   */
+  Vertex<V> from();
+
+  /**
+   * End of the current edge.
+   *
+   * @return Vertex position the edge leads to.
+   */
+  Vertex<V> to();
+
+  /**
+   * Id of the start of the current edge.
+   *
+   * @return SparseGraph.vertexId() of from().
+   */
+  int fromId();
+
+  /**
+   * Id of the end of the current edge.
+   *
+   * @return SparseGraph.vertexId() of to().
+   */
+  int toId();
+
+  /**
+   * Id of the current edge.
+   *
+   * @return SparseGraph.edgeId() of edge().
+   */
+  int edgeId();
+
+  /**
+   * Weight of the current edge.
+   *
+   * @return Value of the cursor's weight property, or without one the
+   *     label if it is a Number and 1 otherwise, like freeze().
+   */
+  double weight();
+}
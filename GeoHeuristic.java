@@ -0,0 +1,211 @@
+package hw8;
+
+/**
+ * Great-circle distance between vertex coordinates as an A* heuristic.
+ *
+ * <p>Road segments can't be shorter than the straight line between their
+ * endpoints, so the haversine distance between a vertex and the target is
+ * a lower bound on the road distance. Because coordinates are rounded and
+ * the earth isn't quite a sphere some edges may come out a little shorter
+ * than the distance between their endpoints; consistentWith() checks all
+ * edges of a graph and scales the estimate down just enough to make it
+ * consistent again.</p>
+ *
+ * <p>Coordinates are parsed once and kept in radians together with the
+ * cosine of the latitude, so an estimate is a handful of multiplications,
+ * one square root and one arcsine.</p>
+ */
+public final class GeoHeuristic implements Heuristic {
+
+  // Mean earth radius in meters.
+  private static final double EARTH_RADIUS = 6371008.8;
+
+  private final double[] lon;
+  private final double[] lat;
+  private final double[] cosLat;
+  private double scale;
+  private int violations;
+
+  /**
+   * Creates a heuristic from coordinates in degrees.
+   *
+   * @param lon Longitude of each vertex, indexed by vertex id.
+   * @param lat Latitude of each vertex, indexed by vertex id.
+   */
+  public GeoHeuristic(double[] lon, double[] lat) {
+    int n = lon.length;
+    this.lon = new double[n];
+    this.lat = new double[n];
+    this.cosLat = new double[n];
+    for (int v = 0; v < n; v++) {
+      this.lon[v] = Math.toRadians(lon[v]);
+      this.lat[v] = Math.toRadians(lat[v]);
+      this.cosLat[v] = Math.cos(this.lat[v]);
+    }
+    this.scale = 1;
+  }
+
+  /**
+   * Creates a heuristic from vertices named by their coordinates.
+   *
+   * @param graph Snapshot whose vertex data is "longitude,latitude".
+   * @return Heuristic for the vertices of graph.
+   * @throws IllegalArgumentException If a vertex name isn't a coordinate.
+   */
+  public static GeoHeuristic of(CsrGraph<String, ?> graph) {
+    int n = graph.vertexCount();
+    double[] lon = new double[n];
+    double[] lat = new double[n];
+    for (int v = 0; v < n; v++) {
+      String name = graph.vertex(v).get();
+      int comma = name.indexOf(',');
+      try {
+        lon[v] = Double.parseDouble(name.substring(0, comma));
+        lat[v] = Double.parseDouble(name.substring(comma + 1));
+      } catch (NumberFormatException | IndexOutOfBoundsException ex) {
+        throw new IllegalArgumentException(name);
+      }
+    }
+    return new GeoHeuristic(lon, lat);
+  }
+
+  /**
+   * Creates a heuristic from vertices holding the keys of their names.
+   *
+   * @param graph Snapshot whose vertex data is a CoordinateDictionary key.
+   * @return Heuristic for the vertices of graph.
+   * @throws IllegalArgumentException If a vertex name isn't packed.
+   */
+  public static GeoHeuristic ofKeys(CsrGraph<Long, ?> graph) {
+    int n = graph.vertexCount();
+    double[] lon = new double[n];
+    double[] lat = new double[n];
+    for (int v = 0; v < n; v++) {
+      long key = graph.vertex(v).get();
+      if (!CoordinateDictionary.isPacked(key)) {
+        throw new IllegalArgumentException("key " + key);
+      }
+      lon[v] = CoordinateDictionary.longitude(key);
+      lat[v] = CoordinateDictionary.latitude(key);
+    }
+    return new GeoHeuristic(lon, lat);
+  }
+
+  /**
+   * Number of vertices.
+   *
+   * @return Number of vertices with coordinates.
+   */
+  public int size() {
+    return this.lon.length;
+  }
+
+  /**
+   * Longitude of vertex.
+   *
+   * @param v Vertex id.
+   * @return Longitude in degrees.
+   */
+  public double longitude(int v) {
+    return Math.toDegrees(this.lon[v]);
+  }
+
+  /**
+   * Latitude of vertex.
+   *
+   * @param v Vertex id.
+   * @return Latitude in degrees.
+   */
+  public double latitude(int v) {
+    return Math.toDegrees(this.lat[v]);
+  }
+
+  /**
+   * Great-circle distance.
+   *
+   * @param u Vertex id.
+   * @param v Vertex id.
+   * @return Haversine distance between u and v in meters.
+   */
+  public double distance(int u, int v) {
+    double dlat = Math.sin((this.lat[v] - this.lat[u]) / 2);
+    double dlon = Math.sin((this.lon[v] - this.lon[u]) / 2);
+    double h = dlat * dlat + this.cosLat[u] * this.cosLat[v] * dlon * dlon;
+    return 2 * EARTH_RADIUS * Math.asin(Math.sqrt(Math.min(1, h)));
+  }
+
+  @Override
+  public double estimate(int v, int target) {
+    return this.scale * this.distance(v, target);
+  }
+
+  /**
+   * Make the estimate consistent with the edge lengths of a graph.
+   *
+   * <p>Since great-circle distance obeys the triangle inequality, the
+   * estimate is consistent as long as no edge is shorter than the scaled
+   * distance between its endpoints. Edges that are get counted and the
+   * scale is lowered to the smallest length / distance ratio seen.</p>
+   *
+   * @param graph Graph with the same vertex ids as this heuristic.
+   * @return This heuristic.
+   */
+  public GeoHeuristic consistentWith(IntGraph graph) {
+    this.scale = 1;
+    this.violations = 0;
+    for (int u = 0; u < graph.vertexCount(); u++) {
+      for (int e = graph.begin(u); e < graph.end(u); e++) {
+        double d = this.distance(u, graph.target(e));
+        if (graph.weight(e) < d) {
+          this.violations++;
+          this.scale = Math.min(this.scale, graph.weight(e) / d);
+        }
+      }
+    }
+    return this;
+  }
+
+  /**
+   * Keep the estimate consistent after a batch of weight changes.
+   *
+   * <p>Only the changed edges are checked, against their new weights in
+   * graph: an edge that is now shorter than the scaled distance between
+   * its endpoints is added to the violations and lowers the scale to its
+   * length / distance ratio. The scale is never raised again, so it may
+   * stay lower than consistentWith(graph) would make it.</p>
+   *
+   * @param graph  Graph the update was applied to.
+   * @param update Changes, by edge ids of graph.
+   * @return This heuristic.
+   */
+  public GeoHeuristic consistentWith(IntGraph graph, WeightUpdate update) {
+    for (int i = 0; i < update.size(); i++) {
+      int e = update.edge(i);
+      double d = this.distance(graph.source(e), graph.target(e));
+      if (graph.weight(e) < this.scale * d) {
+        this.violations++;
+        this.scale = graph.weight(e) / d;
+      }
+    }
+    return this;
+  }
+
+  /**
+   * Factor the great-circle distance is multiplied with.
+   *
+   * @return Scale of the estimate, 1 unless edges violated consistency.
+   */
+  public double scale() {
+    return this.scale;
+  }
+
+  /**
+   * Edges found shorter than the distance between their endpoints.
+   *
+   * @return Number of violations the last consistentWith(graph) found,
+   *     plus those found in updates since.
+   */
+  public int violations() {
+    return this.violations;
+  }
+}
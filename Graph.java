@@ -15,6 +15,11 @@ import exceptions.RemovalException;
  * data. If you need, say, a bipartite graph, you can use inheritance
  * to model vertices/edges of two or more different kinds.</p>
  *
+ * <p>A graph may find its vertices by element, like SparseGraph does:
+ * then inserting an element it already holds returns the vertex holding
+ * it, and Vertex.put() throws IllegalArgumentException rather than give
+ * two vertices the same element.</p>
+ *
  * <p>Instead of our customary Position interface we use Vertex and Edge
  * interfaces as positions. We can therefore overload method names to
  * keep down interface complexity and (more importantly) we get some
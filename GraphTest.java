@@ -48,6 +48,25 @@ public abstract class GraphTest {
     assertEquals(1, count);
   }
 
+  @Test
+  public void testInsertVertexIfAlreadyPresentReturnsExistingVertex()  {
+    Vertex<String> v1 = graph.insert("v1");
+    Vertex<String> v2 = graph.insert("v2");
+    graph.insert(v1, v2, "v1-v2");
+    assertSame(v1, graph.insert("v1"));
+    assertSame(v2, graph.to(graph.outgoing(graph.insert("v1"))
+        .iterator().next()));
+  }
+
+  @Test
+  public void testInsertVertexAgainAfterRemoval()  {
+    Vertex<String> v1 = graph.insert("v1");
+    graph.remove(v1);
+    Vertex<String> v2 = graph.insert("v1");
+    assertNotSame(v1, v2);
+    assertEquals("v1", v2.get());
+  }
+
   @Test(expected = PositionException.class)
   public void testFromThrowsPositionExceptionIfEdgeNotInGraph() {
     Vertex<String> v1 = graph1.insert("v1");
@@ -439,4 +458,51 @@ public abstract class GraphTest {
     assertNull(graph.label(e1));
   }
 
+  @Test
+  public void testPutRenamesVertex() {
+    Vertex<String> v1 = graph.insert("v1");
+    Vertex<String> v2 = graph.insert("v2");
+    Edge<String> e1 = graph.insert(v1, v2, "v1-v2");
+    v1.put("v1");
+    v1.put("v3");
+    assertEquals("v3", v1.get());
+    assertSame(v1, graph.insert("v3"));
+    assertNotSame(v1, graph.insert("v1"));
+    graph.remove(e1);
+    assertEquals("v3", graph.remove(v1));
+    assertNotSame(v1, graph.insert("v3"));
+  }
+
+  @Test
+  public void testFailedPutKeepsBothVertices() {
+    Vertex<String> v1 = graph.insert("v1");
+    Vertex<String> v2 = graph.insert("v2");
+    try {
+      v1.put("v2");
+      fail("v2 belongs to another vertex");
+    } catch (IllegalArgumentException expected) {
+      // v2 stays with its vertex
+    }
+    assertEquals("v1", v1.get());
+    assertSame(v1, graph.insert("v1"));
+    assertSame(v2, graph.insert("v2"));
+  }
+
+  @Test
+  public void testRemovedVertexCanTakeAnyValue() {
+    Vertex<String> v1 = graph.insert("v1");
+    Vertex<String> v2 = graph.insert("v2");
+    graph.remove(v1);
+    v1.put("v2");
+    assertEquals("v2", v1.get());
+    assertSame(v2, graph.insert("v2"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testPutCannotTakeValueOfAnotherVertex() {
+    Vertex<String> v1 = graph.insert("v1");
+    graph.insert("v2");
+    v1.put("v2");
+  }
+
 }
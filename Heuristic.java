@@ -0,0 +1,20 @@
+package hw8;
+
+/**
+ * Lower bounds on shortest path distances for goal-directed search.
+ *
+ * <p>A* is only guaranteed to return shortest paths if the estimate never
+ * exceeds the true distance, and it never has to settle a vertex twice if
+ * the estimate is also consistent: estimate(u, t) &lt;= w(u, v) +
+ * estimate(v, t) for every edge (u, v).</p>
+ */
+public interface Heuristic {
+  /**
+   * Estimate remaining distance.
+   *
+   * @param v      Vertex id.
+   * @param target Id of the vertex we are searching for.
+   * @return Lower bound on the length of a shortest path from v to target.
+   */
+  double estimate(int v, int target);
+}
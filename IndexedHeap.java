@@ -0,0 +1,75 @@
+package hw8;
+
+/**
+ * Min-priority queues over integer ids with decrease-key.
+ *
+ * <p>Elements are the ids 0 to capacity - 1, each present at most once.
+ * Because the queue knows where every id lives, decreaseKey() doesn't
+ * have to search for it and shortest path algorithms can update a vertex
+ * in logarithmic time instead of removing and re-adding it.</p>
+ */
+public interface IndexedHeap {
+  /**
+   * Insert an id that is not in the queue.
+   *
+   * @param id  Id to insert.
+   * @param key Priority of the id, smaller comes out first.
+   */
+  void insert(int id, double key);
+
+  /**
+   * Lower the key of an id in the queue.
+   *
+   * @param id  Id already in the queue.
+   * @param key New key, must not be larger than the current one.
+   */
+  void decreaseKey(int id, double key);
+
+  /**
+   * Remove the id with the smallest key.
+   *
+   * @return Id that was removed.
+   */
+  int removeMin();
+
+  /**
+   * Smallest key in the queue.
+   *
+   * @return Key of the id removeMin() would remove next.
+   */
+  double minKey();
+
+  /**
+   * Membership test.
+   *
+   * @param id Id to check.
+   * @return True if id is currently in the queue.
+   */
+  boolean contains(int id);
+
+  /**
+   * Emptiness test.
+   *
+   * @return True if there are no ids in the queue.
+   */
+  boolean isEmpty();
+
+  /**
+   * Number of ids in the queue.
+   *
+   * @return Number of ids currently in the queue.
+   */
+  int size();
+
+  /**
+   * Remove all ids from the queue.
+   */
+  void clear();
+
+  /**
+   * Number of insert, decreaseKey and removeMin calls so far.
+   *
+   * @return Heap operations run since the queue was created.
+   */
+  long operations();
+}
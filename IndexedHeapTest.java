@@ -0,0 +1,118 @@
+package hw8;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static junit.framework.TestCase.*;
+
+public abstract class IndexedHeapTest {
+
+  protected static final int CAPACITY = 1000;
+
+  protected IndexedHeap heap;
+
+  @Before
+  public void setupHeap() {
+    this.heap = createHeap(CAPACITY);
+  }
+
+  protected abstract IndexedHeap createHeap(int capacity);
+
+  @Test
+  public void testNewHeapIsEmpty() {
+    assertTrue(heap.isEmpty());
+    assertEquals(0, heap.size());
+    assertFalse(heap.contains(0));
+  }
+
+  @Test
+  public void testInsertAndRemoveMin() {
+    heap.insert(3, 3.0);
+    heap.insert(1, 1.0);
+    heap.insert(2, 2.0);
+    assertEquals(3, heap.size());
+    assertTrue(heap.contains(2));
+    assertEquals(1, heap.removeMin());
+    assertEquals(2, heap.removeMin());
+    assertFalse(heap.contains(2));
+    assertEquals(3, heap.removeMin());
+    assertTrue(heap.isEmpty());
+  }
+
+  @Test
+  public void testMinKey() {
+    heap.insert(0, 2.0);
+    heap.insert(1, 1.5);
+    assertEquals(1.5, heap.minKey(), 0);
+    heap.decreaseKey(0, 0.5);
+    assertEquals(0.5, heap.minKey(), 0);
+  }
+
+  @Test
+  public void testSubUnitKeysAreOrdered() {
+    heap.insert(0, 0.75);
+    heap.insert(1, 0.25);
+    heap.insert(2, 0.5);
+    assertEquals(1, heap.removeMin());
+    assertEquals(2, heap.removeMin());
+    assertEquals(0, heap.removeMin());
+  }
+
+  @Test
+  public void testDecreaseKey() {
+    heap.insert(0, 5.0);
+    heap.insert(1, 6.0);
+    heap.insert(2, 7.0);
+    heap.decreaseKey(2, 1.0);
+    assertEquals(2, heap.removeMin());
+    heap.decreaseKey(1, 4.0);
+    assertEquals(1, heap.removeMin());
+    assertEquals(0, heap.removeMin());
+  }
+
+  @Test
+  public void testClear() {
+    heap.insert(0, 1.0);
+    heap.insert(1, 2.0);
+    heap.clear();
+    assertTrue(heap.isEmpty());
+    assertFalse(heap.contains(0));
+    heap.insert(1, 3.0);
+    heap.insert(0, 4.0);
+    assertEquals(1, heap.removeMin());
+    assertEquals(0, heap.removeMin());
+  }
+
+  @Test
+  public void testOperationsAreCounted() {
+    heap.insert(0, 2.0);
+    heap.insert(1, 3.0);
+    heap.decreaseKey(1, 1.0);
+    heap.removeMin();
+    assertEquals(4, heap.operations());
+  }
+
+  @Test
+  public void testRandomOperationsComeOutSorted() {
+    Random random = new Random(42);
+    double[] key = new double[CAPACITY];
+    for (int i = 0; i < CAPACITY; i++) {
+      key[i] = random.nextDouble() * 100;
+      heap.insert(i, key[i]);
+    }
+    for (int k = 0; k < 5 * CAPACITY; k++) {
+      int i = random.nextInt(CAPACITY);
+      key[i] -= random.nextDouble();
+      heap.decreaseKey(i, key[i]);
+    }
+    double[] sorted = key.clone();
+    Arrays.sort(sorted);
+    for (int k = 0; k < CAPACITY; k++) {
+      assertEquals(sorted[k], key[heap.removeMin()], 0);
+    }
+    assertTrue(heap.isEmpty());
+  }
+}
@@ -0,0 +1,95 @@
+package hw8;
+
+/**
+ * Read-only directed graphs with integer ids.
+ *
+ * <p>Vertices are numbered 0 to vertexCount() - 1 and edges are numbered
+ * 0 to edgeCount() - 1 such that the outgoing edges of vertex v are exactly
+ * the ids begin(v) up to (but excluding) end(v). Incoming edges are listed
+ * separately: the ids inEdge(i) for i from inBegin(v) up to (but
+ * excluding) inEnd(v) are the edges leading to v. Shortest path algorithms
+ * work on this view instead of a Graph so that traversing adjacency is plain
+ * array indexing without iterators or position checks.</p>
+ *
+ * <p>Methods don't validate their arguments; passing an id that is out of
+ * range results in an ArrayIndexOutOfBoundsException at best.</p>
+ */
+public interface IntGraph {
+  /**
+   * Number of vertices.
+   *
+   * @return Number of vertices in the graph.
+   */
+  int vertexCount();
+
+  /**
+   * Number of edges.
+   *
+   * @return Number of edges in the graph.
+   */
+  int edgeCount();
+
+  /**
+   * First outgoing edge of vertex.
+   *
+   * @param v Vertex id.
+   * @return Id of the first outgoing edge of v.
+   */
+  int begin(int v);
+
+  /**
+   * End of the outgoing edges of vertex.
+   *
+   * @param v Vertex id.
+   * @return One past the id of the last outgoing edge of v.
+   */
+  int end(int v);
+
+  /**
+   * End vertex of edge.
+   *
+   * @param e Edge id.
+   * @return Id of the vertex edge e leads to.
+   */
+  int target(int e);
+
+  /**
+   * Weight of edge.
+   *
+   * @param e Edge id.
+   * @return Weight (length) of edge e.
+   */
+  double weight(int e);
+
+  /**
+   * Start vertex of edge.
+   *
+   * @param e Edge id.
+   * @return Id of the vertex edge e starts from.
+   */
+  int source(int e);
+
+  /**
+   * First incoming edge slot of vertex.
+   *
+   * @param v Vertex id.
+   * @return Index of the first incoming edge of v, see inEdge().
+   */
+  int inBegin(int v);
+
+  /**
+   * End of the incoming edge slots of vertex.
+   *
+   * @param v Vertex id.
+   * @return One past the index of the last incoming edge of v.
+   */
+  int inEnd(int v);
+
+  /**
+   * Incoming edge in slot.
+   *
+   * @param i Index between inBegin(v) and inEnd(v) for some vertex v.
+   * @return Id of the edge in that slot.
+   */
+  int inEdge(int i);
+}
@@ -0,0 +1,84 @@
+package hw8;
+
+import exceptions.PositionException;
+import java.util.Arrays;
+
+/**
+ * An int for every vertex of a SparseGraph, such as a predecessor id.
+ *
+ * <p>Values sit in a primitive array indexed by SparseGraph.vertexId(),
+ * like DoubleEdgeProperty, and grows like it with every vertex ever
+ * inserted; vertices that were never set read as the missing value.</p>
+ */
+public final class IntVertexProperty {
+
+  private final SparseGraph<?, ?> graph;
+  private final int missing;
+  private int[] values;
+
+  IntVertexProperty(SparseGraph<?, ?> graph, int missing) {
+    this.graph = graph;
+    this.missing = missing;
+    this.values = new int[graph.vertexIds()];
+    Arrays.fill(this.values, missing);
+  }
+
+  /**
+   * Value of a vertex.
+   *
+   * @param v Vertex position.
+   * @return Value of v, or the missing value if it wasn't set.
+   * @throws PositionException If v is not a vertex of the graph.
+   */
+  public int get(Vertex<?> v) throws PositionException {
+    return this.get(this.graph.anyVertexId(v));
+  }
+
+  /**
+   * Value of a vertex by id.
+   *
+   * @param id Vertex id, at least 0.
+   * @return Value of the vertex, or the missing value if it wasn't set.
+   */
+  public int get(int id) {
+    return id < this.values.length ? this.values[id] : this.missing;
+  }
+
+  /**
+   * Set the value of a vertex.
+   *
+   * @param v     Vertex position.
+   * @param value New value of v.
+   * @throws PositionException If v is not a vertex of the graph.
+   */
+  public void set(Vertex<?> v, int value) throws PositionException {
+    this.set(this.graph.anyVertexId(v), value);
+  }
+
+  /**
+   * Set the value of a vertex by id.
+   *
+   * @param id    Vertex id.
+   * @param value New value of the vertex.
+   * @throws IndexOutOfBoundsException If id was never given out.
+   */
+  public void set(int id, int value) {
+    if (id >= this.values.length) {
+      if (id < 0 || id >= this.graph.vertexIds()) {
+        throw new IndexOutOfBoundsException("id " + id);
+      }
+      int old = this.values.length;
+      this.values = Arrays.copyOf(this.values,
+          Math.max(this.graph.vertexIds(), 2 * old));
+      Arrays.fill(this.values, old, this.values.length, this.missing);
+    }
+    this.values[id] = value;
+  }
+
+  /**
+   * Set every vertex back to the missing value.
+   */
+  public void clear() {
+    Arrays.fill(this.values, this.missing);
+  }
+}
@@ -0,0 +1,278 @@
+package hw8;
+
+/**
+ * Nearest vertices to arbitrary coordinates, by a 2-d tree.
+ *
+ * <p>Coordinates are projected onto a plane by scaling longitudes with the
+ * cosine of the mean latitude, which keeps distances within a fraction of
+ * a percent of the great-circle ones across a city-sized network. The
+ * tree is stored implicitly: the points are reordered so that the median
+ * of every range, by x and y in turn, sits in its middle, with the
+ * smaller points before it and the larger ones after. Building takes
+ * O(n log n), a nearest neighbour query O(log n) for spread out points,
+ * and needs no objects beyond three arrays.</p>
+ *
+ * <p>Queries don't change the tree, so it is safe to query from many
+ * threads at once.</p>
+ */
+public final class KdTree {
+
+  private final int[] ids;
+  private final double[] x;
+  private final double[] y;
+  private final double cosLat;
+
+  /**
+   * Creates a tree over points.
+   *
+   * @param lon Longitude of each vertex in degrees, indexed by vertex id.
+   * @param lat Latitude of each vertex in degrees, indexed by vertex id.
+   * @throws IllegalArgumentException If the arrays differ in length.
+   */
+  public KdTree(double[] lon, double[] lat) {
+    if (lon.length != lat.length) {
+      throw new IllegalArgumentException(
+          "lon " + lon.length + ", lat " + lat.length);
+    }
+    int n = lon.length;
+    double mean = 0;
+    for (int v = 0; v < n; v++) {
+      mean += lat[v] / n;
+    }
+    this.cosLat = Math.cos(Math.toRadians(mean));
+    this.ids = new int[n];
+    this.x = new double[n];
+    this.y = new double[n];
+    for (int v = 0; v < n; v++) {
+      this.ids[v] = v;
+      this.x[v] = lon[v] * this.cosLat;
+      this.y[v] = lat[v];
+    }
+    this.build(0, n, true);
+  }
+
+  /**
+   * Creates a tree over the vertices of a heuristic.
+   *
+   * @param geo Coordinates of the vertices.
+   * @return Tree over all vertices of geo.
+   */
+  public static KdTree of(GeoHeuristic geo) {
+    int n = geo.size();
+    double[] lon = new double[n];
+    double[] lat = new double[n];
+    for (int v = 0; v < n; v++) {
+      lon[v] = geo.longitude(v);
+      lat[v] = geo.latitude(v);
+    }
+    return new KdTree(lon, lat);
+  }
+
+  // Put the median of [lo, hi) in the middle, then do the same to halves.
+  private void build(int lo, int hi, boolean byX) {
+    while (hi - lo > 1) {
+      int mid = (lo + hi) >>> 1;
+      this.select(lo, hi, mid, byX);
+      this.build(lo, mid, !byX);
+      lo = mid + 1;
+      byX = !byX;
+    }
+  }
+
+  // Quickselect with three-way partitions, so equal keys don't hurt.
+  private void select(int lo, int hi, int k, boolean byX) {
+    double[] key = byX ? this.x : this.y;
+    while (hi - lo > 1) {
+      double pivot = key[(lo + hi) >>> 1];
+      int lt = lo;
+      int gt = hi;
+      int i = lo;
+      while (i < gt) {
+        if (key[i] < pivot) {
+          this.swap(i++, lt++);
+        } else if (key[i] > pivot) {
+          this.swap(i, --gt);
+        } else {
+          i++;
+        }
+      }
+      if (k < lt) {
+        hi = lt;
+      } else if (k >= gt) {
+        lo = gt;
+      } else {
+        return;
+      }
+    }
+  }
+
+  private void swap(int i, int j) {
+    int id = this.ids[i];
+    this.ids[i] = this.ids[j];
+    this.ids[j] = id;
+    double t = this.x[i];
+    this.x[i] = this.x[j];
+    this.x[j] = t;
+    t = this.y[i];
+    this.y[i] = this.y[j];
+    this.y[j] = t;
+  }
+
+  /**
+   * Number of points.
+   *
+   * @return Number of vertices in the tree.
+   */
+  public int size() {
+    return this.ids.length;
+  }
+
+  /**
+   * Vertex closest to a location.
+   *
+   * @param lon Longitude in degrees.
+   * @param lat Latitude in degrees.
+   * @return Id of the nearest vertex, the smallest if several are just as
+   *     near, or -1 if the tree is empty.
+   */
+  public int nearest(double lon, double lat) {
+    Search search = new Search(lon * this.cosLat, lat, 1);
+    this.search(search, 0, this.ids.length, true);
+    return search.size == 0 ? -1 : search.best[0];
+  }
+
+  /**
+   * Vertices closest to a location.
+   *
+   * @param lon Longitude in degrees.
+   * @param lat Latitude in degrees.
+   * @param k   Number of vertices wanted, at least 1.
+   * @return Ids of the min(k, size()) nearest vertices, nearest first.
+   * @throws IllegalArgumentException If k is less than 1.
+   */
+  public int[] nearest(double lon, double lat, int k) {
+    if (k < 1) {
+      throw new IllegalArgumentException("k " + k);
+    }
+    Search search = new Search(lon * this.cosLat, lat,
+        Math.min(k, this.ids.length));
+    this.search(search, 0, this.ids.length, true);
+    return search.sorted();
+  }
+
+  private double squared(int i, double qx, double qy) {
+    double dx = this.x[i] - qx;
+    double dy = this.y[i] - qy;
+    return dx * dx + dy * dy;
+  }
+
+  private void search(Search search, int lo, int hi, boolean byX) {
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      search.offer(this.ids[mid], this.squared(mid, search.x, search.y));
+      double diff = byX ? search.x - this.x[mid] : search.y - this.y[mid];
+      // nearer half first, the other only if it can still hold a winner
+      if (diff < 0) {
+        this.search(search, lo, mid, !byX);
+        if (diff * diff > search.bound()) {
+          return;
+        }
+        lo = mid + 1;
+      } else {
+        this.search(search, mid + 1, hi, !byX);
+        if (diff * diff > search.bound()) {
+          return;
+        }
+        hi = mid;
+      }
+      byX = !byX;
+    }
+  }
+
+  // The k best vertices so far, as a max-heap on distance.
+  private static final class Search {
+    final double x;
+    final double y;
+    final int[] best;
+    final double[] distance;
+    int size;
+
+    Search(double x, double y, int k) {
+      this.x = x;
+      this.y = y;
+      this.best = new int[k];
+      this.distance = new double[k];
+    }
+
+    // Squared distance a vertex has to beat to get in.
+    double bound() {
+      return this.size < this.best.length ? Double.POSITIVE_INFINITY
+          : this.distance[0];
+    }
+
+    // Ties go to the smaller id, so results don't depend on tree order.
+    private boolean worse(int i, int v, double d) {
+      return this.distance[i] > d
+          || this.distance[i] == d && this.best[i] > v;
+    }
+
+    void offer(int v, double d) {
+      if (this.size < this.best.length) {
+        int i = this.size++;
+        this.best[i] = v;
+        this.distance[i] = d;
+        this.up(i);
+      } else if (this.worse(0, v, d)) {
+        this.best[0] = v;
+        this.distance[0] = d;
+        this.down(0);
+      }
+    }
+
+    private void up(int i) {
+      while (i > 0) {
+        int parent = (i - 1) / 2;
+        if (!this.worse(i, this.best[parent], this.distance[parent])) {
+          return;
+        }
+        this.swap(i, parent);
+        i = parent;
+      }
+    }
+
+    private void down(int i) {
+      while (2 * i + 1 < this.size) {
+        int child = 2 * i + 1;
+        if (child + 1 < this.size && this.worse(child + 1,
+            this.best[child], this.distance[child])) {
+          child++;
+        }
+        if (!this.worse(child, this.best[i], this.distance[i])) {
+          return;
+        }
+        this.swap(i, child);
+        i = child;
+      }
+    }
+
+    private void swap(int i, int j) {
+      int v = this.best[i];
+      this.best[i] = this.best[j];
+      this.best[j] = v;
+      double d = this.distance[i];
+      this.distance[i] = this.distance[j];
+      this.distance[j] = d;
+    }
+
+    // Empty the heap, worst first, into an array nearest first.
+    int[] sorted() {
+      int[] result = new int[this.size];
+      while (this.size > 0) {
+        result[this.size - 1] = this.best[0];
+        this.swap(0, --this.size);
+        this.down(0);
+      }
+      return result;
+    }
+  }
+}
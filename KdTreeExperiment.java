@@ -0,0 +1,78 @@
+package hw8;
+
+import java.io.FileNotFoundException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+public class KdTreeExperiment {
+
+  // Update this to any other data file for benchmarking experiments.
+  private static String getDataFile() {
+    return "baltimore.streets.txt";
+  }
+
+  // Number of random locations to snap per round.
+  private static int getQueries() {
+    return 100000;
+  }
+
+  // Neighbours asked for by the k-nearest queries.
+  private static int getK() {
+    return 8;
+  }
+
+  /**
+   * Execution starts here.
+   *
+   * @param args command-line arguments not used here.
+   * @throws FileNotFoundException if the data file can't be read.
+   */
+  public static void main(String[] args) throws FileNotFoundException {
+    Path dataFile = Paths.get("res", "src", getDataFile());
+    StreetSearcher streetSearcher = new StreetSearcher();
+    streetSearcher.loadNetwork(dataFile.toFile());
+    GeoHeuristic geo = GeoHeuristic.ofKeys(streetSearcher.network());
+
+    double minLon = Double.POSITIVE_INFINITY;
+    double maxLon = Double.NEGATIVE_INFINITY;
+    double minLat = Double.POSITIVE_INFINITY;
+    double maxLat = Double.NEGATIVE_INFINITY;
+    for (int v = 0; v < geo.size(); v++) {
+      minLon = Math.min(minLon, geo.longitude(v));
+      maxLon = Math.max(maxLon, geo.longitude(v));
+      minLat = Math.min(minLat, geo.latitude(v));
+      maxLat = Math.max(maxLat, geo.latitude(v));
+    }
+
+    for (int round = 0; round < 3; round++) {
+      long time = System.nanoTime();
+      KdTree tree = KdTree.of(geo);
+      System.out.println(String.format("Building over %d endpoints: %.1f ms",
+          tree.size(), (System.nanoTime() - time) / 1e6));
+
+      Random random = new Random(round);
+      double[] lon = new double[getQueries()];
+      double[] lat = new double[getQueries()];
+      for (int q = 0; q < lon.length; q++) {
+        lon[q] = minLon + (maxLon - minLon) * random.nextDouble();
+        lat[q] = minLat + (maxLat - minLat) * random.nextDouble();
+      }
+
+      long sum = 0;
+      time = System.nanoTime();
+      for (int q = 0; q < lon.length; q++) {
+        sum += tree.nearest(lon[q], lat[q]);
+      }
+      double nearest = (System.nanoTime() - time) / (double) lon.length;
+      time = System.nanoTime();
+      for (int q = 0; q < lon.length; q++) {
+        sum += tree.nearest(lon[q], lat[q], getK())[0];
+      }
+      double nearestK = (System.nanoTime() - time) / (double) lon.length;
+      System.out.println(String.format(
+          "Nearest: %.0f ns, %d nearest: %.0f ns (checksum %d)",
+          nearest, getK(), nearestK, sum));
+    }
+  }
+}
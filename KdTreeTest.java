@@ -0,0 +1,121 @@
+package hw8;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import static junit.framework.TestCase.*;
+
+public class KdTreeTest {
+
+  private static double[] lon;
+  private static double[] lat;
+
+  private static KdTree random(int n, Random random, boolean grid) {
+    lon = new double[n];
+    lat = new double[n];
+    for (int v = 0; v < n; v++) {
+      if (grid) {
+        // lots of equal coordinates and equal distances
+        lon[v] = -76.7 + 0.001 * random.nextInt(30);
+        lat[v] = 39.25 + 0.001 * random.nextInt(30);
+      } else {
+        lon[v] = -76.7 + 0.1 * random.nextDouble();
+        lat[v] = 39.25 + 0.1 * random.nextDouble();
+      }
+    }
+    return new KdTree(lon, lat);
+  }
+
+  // All ids ordered the way the tree is expected to rank them.
+  private static Integer[] byDistance(double qlon, double qlat) {
+    double cos = 0;
+    for (double l : lat) {
+      cos += l / lat.length;
+    }
+    double c = Math.cos(Math.toRadians(cos));
+    Integer[] ids = new Integer[lon.length];
+    double[] d = new double[lon.length];
+    for (int v = 0; v < ids.length; v++) {
+      ids[v] = v;
+      double dx = (lon[v] - qlon) * c;
+      double dy = lat[v] - qlat;
+      d[v] = dx * dx + dy * dy;
+    }
+    Arrays.sort(ids, Comparator.<Integer>comparingDouble(v -> d[v])
+        .thenComparingInt(v -> v));
+    return ids;
+  }
+
+  @Test
+  public void testNearestMatchesBruteForce() {
+    Random random = new Random(3);
+    for (boolean grid : new boolean[] {false, true}) {
+      KdTree tree = random(2000, random, grid);
+      for (int q = 0; q < 300; q++) {
+        double qlon = -76.71 + 0.12 * random.nextDouble();
+        double qlat = 39.24 + 0.12 * random.nextDouble();
+        assertEquals((int) byDistance(qlon, qlat)[0],
+            tree.nearest(qlon, qlat));
+      }
+    }
+  }
+
+  @Test
+  public void testNearestKMatchesBruteForce() {
+    Random random = new Random(4);
+    for (boolean grid : new boolean[] {false, true}) {
+      KdTree tree = random(1500, random, grid);
+      for (int q = 0; q < 100; q++) {
+        double qlon = -76.71 + 0.12 * random.nextDouble();
+        double qlat = 39.24 + 0.12 * random.nextDouble();
+        int k = 1 + random.nextInt(20);
+        Integer[] expected = byDistance(qlon, qlat);
+        int[] found = tree.nearest(qlon, qlat, k);
+        assertEquals(k, found.length);
+        for (int i = 0; i < k; i++) {
+          assertEquals((int) expected[i], found[i]);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testExactPointIsItsOwnNearest() {
+    KdTree tree = random(500, new Random(5), false);
+    for (int v = 0; v < 500; v++) {
+      assertEquals(v, tree.nearest(lon[v], lat[v]));
+    }
+  }
+
+  @Test
+  public void testFewerPointsThanK() {
+    KdTree tree = new KdTree(new double[] {1, 2, 3},
+        new double[] {0, 0, 0});
+    assertEquals(3, tree.size());
+    int[] found = tree.nearest(2.9, 0, 10);
+    assertEquals(3, found.length);
+    assertEquals(2, found[0]);
+    assertEquals(1, found[1]);
+    assertEquals(0, found[2]);
+  }
+
+  @Test
+  public void testEmptyTree() {
+    KdTree tree = new KdTree(new double[0], new double[0]);
+    assertEquals(-1, tree.nearest(0, 0));
+    assertEquals(0, tree.nearest(0, 0, 3).length);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testZeroKThrows() {
+    new KdTree(new double[] {1}, new double[] {1}).nearest(0, 0, 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testLengthMismatchThrows() {
+    new KdTree(new double[2], new double[3]);
+  }
+}
@@ -0,0 +1,146 @@
+package hw8;
+
+import java.util.Random;
+
+/**
+ * Landmark lower bounds for A* (the ALT algorithm).
+ *
+ * <p>For a landmark L the triangle inequality gives d(v, t) &gt;= d(L, t) -
+ * d(L, v) and d(v, t) &gt;= d(v, L) - d(t, L), so with the distances from
+ * and to a few landmarks precomputed the best of these differences is a
+ * consistent lower bound. Unlike straight-line distance it knows about
+ * rivers, bridges and fast highways, which makes it a lot tighter on real
+ * road networks.</p>
+ *
+ * <p>Landmarks are picked by farthest selection: each new landmark is the
+ * reachable vertex farthest from all landmarks chosen so far, which tends
+ * to spread them around the edge of the network where they give the best
+ * bounds. Distances are stored in two flat arrays with the distances of
+ * one vertex next to each other, so an estimate reads two short runs of
+ * memory.</p>
+ */
+public final class Landmarks implements Heuristic {
+
+  private final int count;
+  private final int[] landmarks;
+  // Distance from landmark i to vertex v at [v * count + i] ...
+  private final double[] from;
+  // ... and from vertex v to landmark i.
+  private final double[] to;
+
+  /**
+   * Select landmarks and compute their distances.
+   *
+   * @param graph Graph to compute lower bounds for.
+   * @param count Number of landmarks, at least 1.
+   * @throws IllegalArgumentException If count is less than 1 or more than
+   *     the number of vertices.
+   */
+  public Landmarks(IntGraph graph, int count) {
+    int n = graph.vertexCount();
+    if (count < 1 || count > n) {
+      throw new IllegalArgumentException("count " + count);
+    }
+    this.count = count;
+    this.landmarks = new int[count];
+    this.from = new double[n * count];
+    this.to = new double[n * count];
+
+    DijkstraEngine forward = new DijkstraEngine(graph);
+    DijkstraEngine backward = new DijkstraEngine(new ReversedGraph(graph));
+    double[] nearest = new double[n];
+    forward.run(new Random(n).nextInt(n));
+    for (int v = 0; v < n; v++) {
+      nearest[v] = forward.distance(v) == Double.POSITIVE_INFINITY
+          ? -1 : Double.POSITIVE_INFINITY;
+    }
+    int next = farthest(forward, n);
+    for (int i = 0; i < count; i++) {
+      this.landmarks[i] = next;
+      forward.run(next);
+      backward.run(next);
+      for (int v = 0; v < n; v++) {
+        this.from[v * count + i] = forward.distance(v);
+        this.to[v * count + i] = backward.distance(v);
+        if (nearest[v] >= 0) {
+          nearest[v] = Math.min(nearest[v], forward.distance(v));
+        }
+      }
+      next = 0;
+      for (int v = 1; v < n; v++) {
+        if (nearest[v] > nearest[next]) {
+          next = v;
+        }
+      }
+    }
+  }
+
+  // Reachable vertex farthest from the source of the last run.
+  private static int farthest(DijkstraEngine engine, int n) {
+    int best = engine.source();
+    for (int v = 0; v < n; v++) {
+      double d = engine.distance(v);
+      if (d != Double.POSITIVE_INFINITY && d > engine.distance(best)) {
+        best = v;
+      }
+    }
+    return best;
+  }
+
+  @Override
+  public double estimate(int v, int target) {
+    double best = 0;
+    int a = v * this.count;
+    int b = target * this.count;
+    for (int i = 0; i < this.count; i++) {
+      double ahead = this.from[b + i] - this.from[a + i];
+      double behind = this.to[a + i] - this.to[b + i];
+      // NaN (infinity minus infinity) fails both comparisons
+      if (ahead > best) {
+        best = ahead;
+      }
+      if (behind > best) {
+        best = behind;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Number of landmarks.
+   *
+   * @return Number of landmarks used.
+   */
+  public int count() {
+    return this.count;
+  }
+
+  /**
+   * Landmark vertex.
+   *
+   * @param i Index of landmark, between 0 and count() - 1.
+   * @return Id of the i-th landmark selected.
+   */
+  public int landmark(int i) {
+    return this.landmarks[i];
+  }
+
+  /**
+   * Memory taken by the distance tables.
+   *
+   * @return Bytes used for the precomputed distances.
+   */
+  public long memoryBytes() {
+    return 8L * (this.from.length + this.to.length);
+  }
+
+  /**
+   * Memory each landmark costs.
+   *
+   * @param graph Graph to compute lower bounds for.
+   * @return Bytes of distance tables one landmark needs for graph.
+   */
+  public static long bytesPerLandmark(IntGraph graph) {
+    return 2L * 8 * graph.vertexCount();
+  }
+}
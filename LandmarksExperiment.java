@@ -0,0 +1,89 @@
+package hw8;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+public class LandmarksExperiment {
+
+  // Update this to any other data file for benchmarking experiments.
+  private static String getDataFile() {
+    return "baltimore.streets.txt";
+  }
+
+  // Number of random queries to compare the searches on.
+  private static int getQueries() {
+    return 1000;
+  }
+
+  // Landmark counts to try.
+  private static int[] getCounts() {
+    return new int[] {1, 2, 4, 8, 16};
+  }
+
+  // Settled vertices and time per query for the same random queries.
+  private static void measure(String name, PathFinder finder,
+                              int[] sources, int[] targets) {
+    long settled = 0;
+    long time = System.nanoTime();
+    for (int i = 0; i < sources.length; i++) {
+      settled += finder.route(sources[i], targets[i]).settled();
+    }
+    time = System.nanoTime() - time;
+    System.out.println(String.format("%s: %.3f ms and %d settled per query",
+        name, time / 1e6 / sources.length, settled / sources.length));
+  }
+
+  // Compare plain Dijkstra, straight-line A* and ALT with more landmarks.
+  private static void compare(StreetSearcher streetSearcher) {
+    CsrGraph<Long, String> network = streetSearcher.network();
+    int n = network.vertexCount();
+    int[] sources = new int[getQueries()];
+    int[] targets = new int[getQueries()];
+    Random random = new Random(2020);
+    for (int i = 0; i < sources.length; i++) {
+      sources[i] = random.nextInt(n);
+      targets[i] = random.nextInt(n);
+    }
+
+    System.out.println("Each landmark takes "
+        + Landmarks.bytesPerLandmark(network) + " bytes");
+    measure("Dijkstra", new DijkstraEngine(network), sources, targets);
+    measure("A*", new AStarSearch(network,
+        GeoHeuristic.ofKeys(network).consistentWith(network)), sources, targets);
+    for (int count : getCounts()) {
+      if (count > n) {
+        break;
+      }
+      long time = System.nanoTime();
+      Landmarks landmarks = new Landmarks(network, count);
+      time = System.nanoTime() - time;
+      System.out.println(String.format(
+          "%d landmarks: %d ms to select, %d bytes", count,
+          time / 1000000, landmarks.memoryBytes()));
+      measure("ALT " + count, new AStarSearch(network, landmarks),
+          sources, targets);
+    }
+  }
+
+  /**
+   * Execution starts here.
+   *
+   * @param args command-line arguments not used here.
+   */
+  public static void main(String[] args) {
+    StreetSearcher streetSearcher = new StreetSearcher();
+    Path dataFile = Paths.get("res", "src", getDataFile());
+    File data = dataFile.toFile();
+
+    try {
+      streetSearcher.loadNetwork(data);
+    } catch (FileNotFoundException e) {
+      System.err.println("Could not find file " + data.getName());
+      return;
+    }
+    compare(streetSearcher);
+  }
+}
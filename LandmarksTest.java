@@ -0,0 +1,108 @@
+package hw8;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static junit.framework.TestCase.*;
+
+public class LandmarksTest {
+
+  private static final int SIZE = 60;
+
+  private CsrGraph<String, String> csr;
+
+  @Before
+  public void setupGraph() {
+    csr = TestNetworks.random(SIZE, 8);
+  }
+
+  @Test
+  public void testReversedGraph() {
+    ReversedGraph reversed = new ReversedGraph(csr);
+    assertEquals(csr.edgeCount(), reversed.edgeCount());
+    for (int v = 0; v < SIZE; v++) {
+      for (int e = reversed.begin(v); e < reversed.end(v); e++) {
+        int original = reversed.original(e);
+        assertEquals(v, csr.target(original));
+        assertEquals(csr.source(original), reversed.target(e));
+        assertEquals(v, reversed.source(e));
+        assertEquals(csr.weight(original), reversed.weight(e), 0);
+      }
+      for (int i = reversed.inBegin(v); i < reversed.inEnd(v); i++) {
+        assertEquals(v, reversed.target(reversed.inEdge(i)));
+      }
+    }
+  }
+
+  @Test
+  public void testLandmarksAreDistinct() {
+    Landmarks landmarks = new Landmarks(csr, 6);
+    Set<Integer> chosen = new HashSet<>();
+    for (int i = 0; i < landmarks.count(); i++) {
+      chosen.add(landmarks.landmark(i));
+    }
+    assertEquals(6, chosen.size());
+    assertEquals(6 * Landmarks.bytesPerLandmark(csr),
+        landmarks.memoryBytes());
+  }
+
+  @Test
+  public void testEstimateIsConsistentLowerBound() {
+    Landmarks landmarks = new Landmarks(csr, 4);
+    DijkstraEngine engine = new DijkstraEngine(csr);
+    for (int t = 0; t < SIZE; t++) {
+      engine.run(t);
+      assertEquals(0, landmarks.estimate(t, t), 0);
+      for (int v = 0; v < SIZE; v++) {
+        // distances from t, so the bound for v to t is the reverse trip
+        assertTrue(landmarks.estimate(t, v) <= engine.distance(v) + 1e-9);
+      }
+      for (int e = 0; e < csr.edgeCount(); e++) {
+        assertTrue(landmarks.estimate(csr.source(e), t)
+            <= csr.weight(e) + landmarks.estimate(csr.target(e), t) + 1e-9);
+      }
+    }
+  }
+
+  @Test
+  public void testAltMatchesDijkstra() {
+    AStarSearch alt = new AStarSearch(csr, new Landmarks(csr, 4));
+    DijkstraEngine engine = new DijkstraEngine(csr);
+    int altSettled = 0;
+    int dijkstraSettled = 0;
+    for (int s = 0; s < SIZE; s += 7) {
+      for (int t = 0; t < SIZE; t += 5) {
+        Route expected = engine.route(s, t);
+        Route actual = alt.route(s, t);
+        assertEquals(expected.distance(), actual.distance(), 1e-9);
+        double length = 0;
+        for (int e : actual.edges()) {
+          length += csr.weight(e);
+        }
+        assertEquals(expected.distance(), length, 1e-9);
+        altSettled += actual.settled();
+        dijkstraSettled += expected.settled();
+      }
+    }
+    assertTrue(altSettled < dijkstraSettled);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTooManyLandmarksThrows() {
+    new Landmarks(csr, SIZE + 1);
+  }
+
+  @Test
+  public void testAltCountsEveryInsert() {
+    CsrGraph<String, String> line = TestNetworks.line(3);
+    AStarSearch alt = new AStarSearch(line, new Landmarks(line, 1));
+    // 0 to start with, then 1 and 2
+    assertEquals(2.0, alt.route(0, 2).distance(), 0);
+    assertEquals(3, alt.stats().inserts());
+    assertEquals(3, alt.stats().settled());
+    assertEquals(6, alt.stats().heapOperations());
+  }
+}
@@ -0,0 +1,184 @@
+package hw8;
+
+import java.util.Arrays;
+
+/**
+ * Distribution of non-negative values, usually latencies in nanoseconds.
+ *
+ * <p>Values are counted in buckets whose width grows with the value:
+ * below 32 every value has its own bucket, and above that each power of
+ * two is split into 32 buckets, so a percentile is never off by more
+ * than about 3% of the true value. The whole range of long fits in under
+ * 2000 buckets, recording is a few shifts and an array increment, and
+ * histograms of different threads or runs can simply be added up with
+ * merge().</p>
+ *
+ * <p>Not safe for concurrent use.</p>
+ */
+public final class LatencyHistogram {
+
+  private static final int SUB_BITS = 5;
+  private static final int SUB = 1 << SUB_BITS;
+  private static final int BUCKETS = (64 - SUB_BITS) * SUB;
+
+  private final long[] counts;
+  private long count;
+  private long sum;
+  private long min;
+  private long max;
+
+  /**
+   * Creates an empty histogram.
+   */
+  public LatencyHistogram() {
+    this.counts = new long[BUCKETS];
+    this.reset();
+  }
+
+  /**
+   * Forget all values.
+   */
+  public void reset() {
+    Arrays.fill(this.counts, 0);
+    this.count = 0;
+    this.sum = 0;
+    this.min = Long.MAX_VALUE;
+    this.max = 0;
+  }
+
+  private static int bucket(long value) {
+    if (value < SUB) {
+      return (int) value;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int shift = exponent - SUB_BITS;
+    return (shift + 1) * SUB + (int) (value >>> shift) - SUB;
+  }
+
+  // Largest value that falls into a bucket.
+  private static long highest(int bucket) {
+    if (bucket < SUB) {
+      return bucket;
+    }
+    int shift = bucket / SUB - 1;
+    long lowest = (long) (SUB + bucket % SUB) << shift;
+    return lowest + (1L << shift) - 1;
+  }
+
+  /**
+   * Count a value.
+   *
+   * @param value Value to count, at least 0.
+   * @throws IllegalArgumentException If value is negative.
+   */
+  public void record(long value) {
+    if (value < 0) {
+      throw new IllegalArgumentException("value " + value);
+    }
+    this.counts[bucket(value)]++;
+    this.count++;
+    this.sum += value;
+    this.min = Math.min(this.min, value);
+    this.max = Math.max(this.max, value);
+  }
+
+  /**
+   * Add the values of another histogram to this one.
+   *
+   * @param other Histogram to add.
+   */
+  public void merge(LatencyHistogram other) {
+    for (int i = 0; i < BUCKETS; i++) {
+      this.counts[i] += other.counts[i];
+    }
+    this.count += other.count;
+    this.sum += other.sum;
+    this.min = Math.min(this.min, other.min);
+    this.max = Math.max(this.max, other.max);
+  }
+
+  /**
+   * Number of values.
+   *
+   * @return Number of values counted.
+   */
+  public long count() {
+    return this.count;
+  }
+
+  /**
+   * Smallest value.
+   *
+   * @return Smallest value counted, 0 if there are none.
+   */
+  public long min() {
+    return this.count == 0 ? 0 : this.min;
+  }
+
+  /**
+   * Largest value.
+   *
+   * @return Largest value counted, 0 if there are none.
+   */
+  public long max() {
+    return this.max;
+  }
+
+  /**
+   * Average value.
+   *
+   * @return Exact mean of the values counted, 0 if there are none.
+   */
+  public double mean() {
+    return this.count == 0 ? 0 : (double) this.sum / this.count;
+  }
+
+  /**
+   * Value at a percentile.
+   *
+   * @param percent Percentage of values, from 0 to 100.
+   * @return A value at least as large as percent of the values counted,
+   *     within the precision of the buckets and never above max(); 0 if
+   *     there are none.
+   * @throws IllegalArgumentException If percent is not between 0 and 100.
+   */
+  public long percentile(double percent) {
+    if (!(percent >= 0 && percent <= 100)) {
+      throw new IllegalArgumentException("percent " + percent);
+    }
+    if (this.count == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(percent / 100 * this.count));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += this.counts[i];
+      if (seen >= rank) {
+        return Math.max(this.min(), Math.min(this.max, highest(i)));
+      }
+    }
+    return this.max;
+  }
+
+  /**
+   * Summary in milliseconds, for latencies in nanoseconds.
+   *
+   * @return Count, mean, the 50th, 90th, 99th and 99.9th percentiles and
+   *     the maximum.
+   */
+  public String toMillis() {
+    return String.format("n=%d mean=%.3f p50=%.3f p90=%.3f p99=%.3f"
+            + " p99.9=%.3f max=%.3f ms", this.count, this.mean() / 1e6,
+        this.percentile(50) / 1e6, this.percentile(90) / 1e6,
+        this.percentile(99) / 1e6, this.percentile(99.9) / 1e6,
+        this.max / 1e6);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("n=%d mean=%.1f p50=%d p90=%d p99=%d p99.9=%d"
+            + " max=%d", this.count, this.mean(), this.percentile(50),
+        this.percentile(90), this.percentile(99), this.percentile(99.9),
+        this.max);
+  }
+}
@@ -0,0 +1,93 @@
+package hw8;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static junit.framework.TestCase.*;
+
+public class LatencyHistogramTest {
+
+  @Test
+  public void testEmptyHistogram() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    assertEquals(0, histogram.count());
+    assertEquals(0, histogram.min());
+    assertEquals(0, histogram.max());
+    assertEquals(0.0, histogram.mean(), 0);
+    assertEquals(0, histogram.percentile(50));
+  }
+
+  @Test
+  public void testSmallValuesAreExact() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int v = 1; v <= 20; v++) {
+      histogram.record(v);
+    }
+    assertEquals(20, histogram.count());
+    assertEquals(1, histogram.min());
+    assertEquals(20, histogram.max());
+    assertEquals(10.5, histogram.mean(), 1e-12);
+    assertEquals(10, histogram.percentile(50));
+    assertEquals(18, histogram.percentile(90));
+    assertEquals(1, histogram.percentile(0));
+    assertEquals(20, histogram.percentile(100));
+  }
+
+  @Test
+  public void testPercentilesWithinPrecision() {
+    Random random = new Random(9);
+    long[] values = new long[100000];
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 0; i < values.length; i++) {
+      // log-normal-ish, like latencies
+      values[i] = (long) Math.exp(10 + 2 * random.nextGaussian());
+      histogram.record(values[i]);
+    }
+    Arrays.sort(values);
+    for (double p : new double[] {1, 25, 50, 90, 99, 99.9}) {
+      long exact = values[(int) Math.ceil(p / 100 * values.length) - 1];
+      long found = histogram.percentile(p);
+      assertTrue(p + ": " + found + " vs " + exact, found >= exact);
+      assertTrue(p + ": " + found + " vs " + exact,
+          found <= exact + exact / 32 + 1);
+    }
+    assertEquals(values[values.length - 1], histogram.percentile(100));
+  }
+
+  @Test
+  public void testHugeValues() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(Long.MAX_VALUE);
+    histogram.record(0);
+    assertEquals(Long.MAX_VALUE, histogram.percentile(100));
+    assertEquals(0, histogram.percentile(50));
+  }
+
+  @Test
+  public void testMergeAddsUp() {
+    LatencyHistogram a = new LatencyHistogram();
+    LatencyHistogram b = new LatencyHistogram();
+    a.record(5);
+    a.record(7);
+    b.record(1000);
+    a.merge(b);
+    assertEquals(3, a.count());
+    assertEquals(5, a.min());
+    assertEquals(1000, a.max());
+    assertEquals(7, a.percentile(50));
+    a.reset();
+    assertEquals(0, a.count());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeValueThrows() {
+    new LatencyHistogram().record(-1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadPercentThrows() {
+    new LatencyHistogram().percentile(101);
+  }
+}
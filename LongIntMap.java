@@ -0,0 +1,164 @@
+package hw8;
+
+import java.util.Arrays;
+
+/**
+ * Map from long keys to non-negative int values, without boxing.
+ *
+ * <p>Keys and values sit in two parallel arrays probed linearly from a
+ * slot picked by a multiplicative hash, so a lookup touches one or two
+ * adjacent array entries and no objects at all. The tables double once
+ * they are three quarters full; at twelve bytes per slot that is between
+ * 16 and 32 bytes per entry.</p>
+ */
+public final class LongIntMap {
+
+  // Marks an empty slot; the key itself is stored on the side.
+  private static final long FREE = Long.MIN_VALUE;
+  // 2^64 divided by the golden ratio, spreads keys over the slots.
+  private static final long SPREAD = 0x9E3779B97F4A7C15L;
+
+  private long[] keys;
+  private int[] values;
+  private int shift;
+  private int size;
+  private int freeValue;
+
+  /**
+   * Creates an empty map.
+   */
+  public LongIntMap() {
+    this(16);
+  }
+
+  /**
+   * Creates an empty map with room for some entries.
+   *
+   * @param expected Number of entries to make room for.
+   */
+  public LongIntMap(int expected) {
+    int capacity = 16;
+    while (3L * capacity < 4L * expected) {
+      capacity <<= 1;
+    }
+    this.allocate(capacity);
+    this.freeValue = -1;
+  }
+
+  private void allocate(int capacity) {
+    this.keys = new long[capacity];
+    Arrays.fill(this.keys, FREE);
+    this.values = new int[capacity];
+    this.shift = Long.numberOfLeadingZeros(capacity - 1);
+  }
+
+  private int slot(long key) {
+    return (int) ((key * SPREAD) >>> this.shift);
+  }
+
+  /**
+   * Look up a key.
+   *
+   * @param key Key to look up.
+   * @return Value of key, or -1 if it isn't in the map.
+   */
+  public int get(long key) {
+    if (key == FREE) {
+      return this.freeValue;
+    }
+    int mask = this.keys.length - 1;
+    for (int s = this.slot(key); ; s = (s + 1) & mask) {
+      long k = this.keys[s];
+      if (k == key) {
+        return this.values[s];
+      }
+      if (k == FREE) {
+        return -1;
+      }
+    }
+  }
+
+  /**
+   * Whether a key is in the map.
+   *
+   * @param key Key to look up.
+   * @return True if key has a value.
+   */
+  public boolean containsKey(long key) {
+    return this.get(key) >= 0;
+  }
+
+  /**
+   * Set the value of a key.
+   *
+   * @param key   Key to set.
+   * @param value New value of key, at least 0.
+   * @return Old value of key, or -1 if it wasn't in the map.
+   * @throws IllegalArgumentException If value is negative.
+   */
+  public int put(long key, int value) {
+    if (value < 0) {
+      throw new IllegalArgumentException("value " + value);
+    }
+    if (key == FREE) {
+      int old = this.freeValue;
+      if (old < 0) {
+        this.size++;
+      }
+      this.freeValue = value;
+      return old;
+    }
+    int mask = this.keys.length - 1;
+    int s = this.slot(key);
+    while (this.keys[s] != FREE) {
+      if (this.keys[s] == key) {
+        int old = this.values[s];
+        this.values[s] = value;
+        return old;
+      }
+      s = (s + 1) & mask;
+    }
+    this.keys[s] = key;
+    this.values[s] = value;
+    if (4L * ++this.size > 3L * this.keys.length) {
+      this.grow();
+    }
+    return -1;
+  }
+
+  private void grow() {
+    long[] oldKeys = this.keys;
+    int[] oldValues = this.values;
+    this.allocate(2 * oldKeys.length);
+    int mask = this.keys.length - 1;
+    for (int i = 0; i < oldKeys.length; i++) {
+      long key = oldKeys[i];
+      if (key != FREE) {
+        int s = this.slot(key);
+        while (this.keys[s] != FREE) {
+          s = (s + 1) & mask;
+        }
+        this.keys[s] = key;
+        this.values[s] = oldValues[i];
+      }
+    }
+  }
+
+  /**
+   * Number of entries.
+   *
+   * @return Number of keys in the map.
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Memory the tables take.
+   *
+   * @return Approximate bytes of the two arrays.
+   */
+  public long bytes() {
+    return 12L * this.keys.length + 32;
+  }
+}
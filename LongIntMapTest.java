@@ -0,0 +1,66 @@
+package hw8;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static junit.framework.TestCase.*;
+
+public class LongIntMapTest {
+
+  @Test
+  public void testEmptyMapHasNothing() {
+    LongIntMap map = new LongIntMap();
+    assertEquals(0, map.size());
+    assertEquals(-1, map.get(0));
+    assertEquals(-1, map.get(Long.MIN_VALUE));
+    assertFalse(map.containsKey(42));
+  }
+
+  @Test
+  public void testPutReplacesAndReturnsOld() {
+    LongIntMap map = new LongIntMap();
+    assertEquals(-1, map.put(7, 1));
+    assertEquals(1, map.put(7, 2));
+    assertEquals(2, map.get(7));
+    assertEquals(1, map.size());
+  }
+
+  @Test
+  public void testExtremeKeys() {
+    LongIntMap map = new LongIntMap();
+    map.put(Long.MIN_VALUE, 3);
+    map.put(Long.MAX_VALUE, 4);
+    map.put(-1, 5);
+    assertEquals(3, map.get(Long.MIN_VALUE));
+    assertEquals(4, map.get(Long.MAX_VALUE));
+    assertEquals(5, map.get(-1));
+    assertEquals(3, map.size());
+  }
+
+  @Test
+  public void testMatchesHashMapWhileGrowing() {
+    LongIntMap map = new LongIntMap();
+    Map<Long, Integer> expected = new HashMap<>();
+    Random random = new Random(17);
+    for (int i = 0; i < 50000; i++) {
+      // few distinct high bits, so keys collide before spreading
+      long key = random.nextInt(20000) * (1L << 40);
+      assertEquals(expected.containsKey(key) ? expected.get(key) : -1,
+          map.put(key, i));
+      expected.put(key, i);
+    }
+    assertEquals(expected.size(), map.size());
+    for (Map.Entry<Long, Integer> entry : expected.entrySet()) {
+      assertEquals((int) entry.getValue(), map.get(entry.getKey()));
+    }
+    assertTrue(map.bytes() >= 16L * map.size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeValueThrows() {
+    new LongIntMap().put(1, -1);
+  }
+}
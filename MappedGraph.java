@@ -0,0 +1,519 @@
+package hw8;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.zip.CRC32;
+
+/**
+ * A road network served straight from a memory-mapped snapshot file.
+ *
+ * <p>write() saves a loaded network once; open() maps the file and reads
+ * every adjacency, weight and name access from the mapping, so opening
+ * costs the same whether the network has a thousand edges or millions,
+ * and the operating system pages in only what queries touch.</p>
+ *
+ * <p>The file is little-endian: a 64 byte header holding a magic number,
+ * the format version, the counts below and a CRC32 of everything after
+ * the header, followed by these sections, each starting at a multiple of
+ * 8 bytes:</p>
+ * <ul>
+ *   <li>int offsets[n + 1], targets[m], sources[m]: outgoing adjacency
+ *   like CsrGraph;</li>
+ *   <li>int inOffsets[n + 1], inEdges[m]: incoming adjacency;</li>
+ *   <li>int roads[m]: road name of each edge, as an index into the road
+ *   name dictionary;</li>
+ *   <li>double weights[m], longitudes[n], latitudes[n] (NaN if a vertex
+ *   name isn't "lon,lat");</li>
+ *   <li>int nameOffsets[n + 1] and the UTF-8 bytes of the vertex
+ *   names;</li>
+ *   <li>int roadOffsets[k + 1] and the UTF-8 bytes of the k distinct road
+ *   names;</li>
+ *   <li>int slots[s]: open addressing table from vertex name hash to
+ *   vertex id + 1, 0 for an empty slot.</li>
+ * </ul>
+ *
+ * <p>A single mapping can't exceed 2 GB, which bounds the networks a
+ * snapshot can hold to roughly 50 million edges.</p>
+ */
+public final class MappedGraph implements IntGraph {
+
+  /** Current version of the file format. */
+  public static final int VERSION = 1;
+
+  private static final int MAGIC = 0x47385748; // "HW8G" little-endian
+  private static final int HEADER = 64;
+
+  private final int n;
+  private final int m;
+  private final IntBuffer offsets;
+  private final IntBuffer targets;
+  private final IntBuffer sources;
+  private final IntBuffer inOffsets;
+  private final IntBuffer inEdges;
+  private final IntBuffer roads;
+  private final DoubleBuffer weights;
+  private final DoubleBuffer longitudes;
+  private final DoubleBuffer latitudes;
+  private final IntBuffer nameOffsets;
+  private final ByteBuffer names;
+  private final IntBuffer roadOffsets;
+  private final ByteBuffer roadNames;
+  private final IntBuffer slots;
+
+  private MappedGraph(ByteBuffer buffer, Layout layout) {
+    this.n = layout.n;
+    this.m = layout.m;
+    this.offsets = layout.ints(buffer, layout.offsets, this.n + 1);
+    this.targets = layout.ints(buffer, layout.targets, this.m);
+    this.sources = layout.ints(buffer, layout.sources, this.m);
+    this.inOffsets = layout.ints(buffer, layout.inOffsets, this.n + 1);
+    this.inEdges = layout.ints(buffer, layout.inEdges, this.m);
+    this.roads = layout.ints(buffer, layout.roads, this.m);
+    this.weights = layout.doubles(buffer, layout.weights, this.m);
+    this.longitudes = layout.doubles(buffer, layout.longitudes, this.n);
+    this.latitudes = layout.doubles(buffer, layout.latitudes, this.n);
+    this.nameOffsets = layout.ints(buffer, layout.nameOffsets, this.n + 1);
+    this.names = buffer.slice(layout.names, layout.nameBytes);
+    this.roadOffsets = layout.ints(buffer, layout.roadOffsets,
+        layout.roadCount + 1);
+    this.roadNames = buffer.slice(layout.roadNames, layout.roadBytes);
+    this.slots = layout.ints(buffer, layout.slots, layout.slotCount);
+  }
+
+  /**
+   * Save a network as a snapshot.
+   *
+   * @param graph Network to save, vertex data should be "lon,lat" names.
+   * @param file  File to write, replaced if it exists.
+   * @throws IOException If file can't be written.
+   */
+  public static void write(CsrGraph<String, String> graph, File file)
+      throws IOException {
+    write(graph, v -> graph.vertex(v).get(), e -> graph.edge(e).get(), file);
+  }
+
+  /**
+   * Save a network as a snapshot.
+   *
+   * @param graph Network to save.
+   * @param names Name of each vertex id, should be "lon,lat".
+   * @param roads Road name of each edge id.
+   * @param file  File to write, replaced if it exists.
+   * @throws IOException If file can't be written.
+   */
+  static void write(IntGraph graph, IntFunction<String> names,
+                    IntFunction<String> roads, File file)
+      throws IOException {
+    int n = graph.vertexCount();
+    int m = graph.edgeCount();
+    String[] vertexStrings = new String[n];
+    byte[][] vertexNames = new byte[n][];
+    int nameBytes = 0;
+    for (int v = 0; v < n; v++) {
+      vertexStrings[v] = names.apply(v);
+      vertexNames[v] = vertexStrings[v].getBytes(StandardCharsets.UTF_8);
+      nameBytes += vertexNames[v].length;
+    }
+    Map<String, Integer> dictionary = new HashMap<>();
+    int[] roadIds = new int[m];
+    int roadBytes = 0;
+    for (int e = 0; e < m; e++) {
+      String road = roads.apply(e);
+      Integer id = dictionary.get(road);
+      if (id == null) {
+        id = dictionary.size();
+        dictionary.put(road, id);
+        roadBytes += road.getBytes(StandardCharsets.UTF_8).length;
+      }
+      roadIds[e] = id;
+    }
+    byte[][] roadNames = new byte[dictionary.size()][];
+    for (Map.Entry<String, Integer> entry : dictionary.entrySet()) {
+      roadNames[entry.getValue()] =
+          entry.getKey().getBytes(StandardCharsets.UTF_8);
+    }
+    int slotCount = Integer.highestOneBit(Math.max(1, n)) * 4;
+    Layout layout = new Layout(n, m, roadNames.length, nameBytes, roadBytes,
+        slotCount);
+
+    if (layout.size > Integer.MAX_VALUE) {
+      throw new IOException("network too large for a snapshot");
+    }
+    try (FileChannel channel = FileChannel.open(file.toPath(),
+        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+        StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE,
+          0, layout.size);
+      buffer.order(ByteOrder.LITTLE_ENDIAN);
+      buffer.putInt(0, MAGIC);
+      buffer.putInt(4, VERSION);
+      buffer.putInt(8, n);
+      buffer.putInt(12, m);
+      buffer.putInt(16, roadNames.length);
+      buffer.putInt(20, nameBytes);
+      buffer.putInt(24, roadBytes);
+      buffer.putInt(28, slotCount);
+
+      for (int v = 0; v <= n; v++) {
+        buffer.putInt(layout.offsets + 4 * v,
+            v < n ? graph.begin(v) : m);
+        buffer.putInt(layout.inOffsets + 4 * v,
+            v < n ? graph.inBegin(v) : m);
+      }
+      for (int e = 0; e < m; e++) {
+        buffer.putInt(layout.targets + 4 * e, graph.target(e));
+        buffer.putInt(layout.sources + 4 * e, graph.source(e));
+        buffer.putInt(layout.inEdges + 4 * e, graph.inEdge(e));
+        buffer.putInt(layout.roads + 4 * e, roadIds[e]);
+        buffer.putDouble(layout.weights + 8 * e, graph.weight(e));
+      }
+      int at = 0;
+      for (int v = 0; v < n; v++) {
+        double[] coordinates = coordinates(vertexStrings[v]);
+        buffer.putDouble(layout.longitudes + 8 * v, coordinates[0]);
+        buffer.putDouble(layout.latitudes + 8 * v, coordinates[1]);
+        buffer.putInt(layout.nameOffsets + 4 * v, at);
+        buffer.put(layout.names + at, vertexNames[v]);
+        at += vertexNames[v].length;
+        int slot = hash(vertexNames[v]) & (slotCount - 1);
+        while (buffer.getInt(layout.slots + 4 * slot) != 0) {
+          slot = (slot + 1) & (slotCount - 1);
+        }
+        buffer.putInt(layout.slots + 4 * slot, v + 1);
+      }
+      buffer.putInt(layout.nameOffsets + 4 * n, at);
+      at = 0;
+      for (int k = 0; k < roadNames.length; k++) {
+        buffer.putInt(layout.roadOffsets + 4 * k, at);
+        buffer.put(layout.roadNames + at, roadNames[k]);
+        at += roadNames[k].length;
+      }
+      buffer.putInt(layout.roadOffsets + 4 * roadNames.length, at);
+
+      buffer.putLong(32, checksum(buffer, layout.size));
+      buffer.force();
+    }
+  }
+
+  /**
+   * Map a snapshot, checking its header and size but not its checksum.
+   *
+   * @param file Snapshot written by write().
+   * @return Graph reading from the mapped file.
+   * @throws IOException If file can't be read or isn't a valid snapshot.
+   */
+  public static MappedGraph open(File file) throws IOException {
+    return open(file, false);
+  }
+
+  /**
+   * Map a snapshot.
+   *
+   * <p>The header and size are always checked. Checking the checksum
+   * reads the whole file once, so opening is no longer independent of
+   * the size of the network; ask for it for files that may have been
+   * damaged, such as one copied from another machine.</p>
+   *
+   * @param file   Snapshot written by write().
+   * @param verify Whether to check the checksum too.
+   * @return Graph reading from the mapped file.
+   * @throws IOException If file can't be read or isn't a valid snapshot.
+   */
+  public static MappedGraph open(File file, boolean verify)
+      throws IOException {
+    try (FileChannel channel = FileChannel.open(file.toPath(),
+        StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size < HEADER || size > Integer.MAX_VALUE) {
+        throw new IOException("not a graph snapshot: " + file);
+      }
+      // the mapping stays valid after the channel is closed
+      MappedByteBuffer buffer =
+          channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      buffer.order(ByteOrder.LITTLE_ENDIAN);
+      if (buffer.getInt(0) != MAGIC) {
+        throw new IOException("not a graph snapshot: " + file);
+      }
+      if (buffer.getInt(4) != VERSION) {
+        throw new IOException("unsupported snapshot version "
+            + buffer.getInt(4) + ": " + file);
+      }
+      int slotCount = buffer.getInt(28);
+      for (int at = 8; at < 28; at += 4) {
+        if (buffer.getInt(at) < 0) {
+          throw new IOException("corrupt graph snapshot: " + file);
+        }
+      }
+      if (Integer.bitCount(slotCount) != 1) {
+        throw new IOException("corrupt graph snapshot: " + file);
+      }
+      Layout layout = new Layout(buffer.getInt(8), buffer.getInt(12),
+          buffer.getInt(16), buffer.getInt(20), buffer.getInt(24),
+          slotCount);
+      if (layout.size != size) {
+        throw new IOException("truncated graph snapshot: " + file);
+      }
+      if (verify && checksum(buffer, size) != buffer.getLong(32)) {
+        throw new IOException("graph snapshot checksum mismatch: " + file);
+      }
+      return new MappedGraph(buffer, layout);
+    }
+  }
+
+  // Coordinates from a "lon,lat" name, NaN if it isn't one.
+  private static double[] coordinates(String name) {
+    int comma = name.indexOf(',');
+    try {
+      return new double[] {Double.parseDouble(name.substring(0, comma)),
+          Double.parseDouble(name.substring(comma + 1))};
+    } catch (NumberFormatException | IndexOutOfBoundsException ex) {
+      return new double[] {Double.NaN, Double.NaN};
+    }
+  }
+
+  private static long checksum(ByteBuffer buffer, long size) {
+    CRC32 crc = new CRC32();
+    crc.update(buffer.slice(HEADER, (int) size - HEADER));
+    return crc.getValue();
+  }
+
+  private static int hash(byte[] bytes) {
+    int h = 1;
+    for (byte b : bytes) {
+      h = 31 * h + b;
+    }
+    return h ^ (h >>> 16);
+  }
+
+  @Override
+  public int vertexCount() {
+    return this.n;
+  }
+
+  @Override
+  public int edgeCount() {
+    return this.m;
+  }
+
+  @Override
+  public int begin(int v) {
+    return this.offsets.get(v);
+  }
+
+  @Override
+  public int end(int v) {
+    return this.offsets.get(v + 1);
+  }
+
+  @Override
+  public int target(int e) {
+    return this.targets.get(e);
+  }
+
+  @Override
+  public double weight(int e) {
+    return this.weights.get(e);
+  }
+
+  @Override
+  public int source(int e) {
+    return this.sources.get(e);
+  }
+
+  @Override
+  public int inBegin(int v) {
+    return this.inOffsets.get(v);
+  }
+
+  @Override
+  public int inEnd(int v) {
+    return this.inOffsets.get(v + 1);
+  }
+
+  @Override
+  public int inEdge(int i) {
+    return this.inEdges.get(i);
+  }
+
+  /**
+   * Name of vertex.
+   *
+   * @param v Vertex id.
+   * @return Vertex data the snapshot was written with.
+   */
+  public String name(int v) {
+    return string(this.names, this.nameOffsets.get(v),
+        this.nameOffsets.get(v + 1));
+  }
+
+  /**
+   * Road name of edge.
+   *
+   * @param e Edge id.
+   * @return Edge data the snapshot was written with.
+   */
+  public String road(int e) {
+    int k = this.roads.get(e);
+    return string(this.roadNames, this.roadOffsets.get(k),
+        this.roadOffsets.get(k + 1));
+  }
+
+  /**
+   * Longitude of vertex.
+   *
+   * @param v Vertex id.
+   * @return Longitude in degrees, NaN if the name isn't "lon,lat".
+   */
+  public double longitude(int v) {
+    return this.longitudes.get(v);
+  }
+
+  /**
+   * Latitude of vertex.
+   *
+   * @param v Vertex id.
+   * @return Latitude in degrees, NaN if the name isn't "lon,lat".
+   */
+  public double latitude(int v) {
+    return this.latitudes.get(v);
+  }
+
+  /**
+   * Id of vertex with name.
+   *
+   * @param name Vertex data.
+   * @return Id of the vertex, -1 if there is none with that name.
+   */
+  public int id(String name) {
+    byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+    int mask = this.slots.limit() - 1;
+    for (int slot = hash(bytes) & mask; ; slot = (slot + 1) & mask) {
+      int entry = this.slots.get(slot);
+      if (entry == 0) {
+        return -1;
+      }
+      int v = entry - 1;
+      if (this.same(v, bytes)) {
+        return v;
+      }
+    }
+  }
+
+  private boolean same(int v, byte[] bytes) {
+    int from = this.nameOffsets.get(v);
+    if (this.nameOffsets.get(v + 1) - from != bytes.length) {
+      return false;
+    }
+    for (int i = 0; i < bytes.length; i++) {
+      if (this.names.get(from + i) != bytes[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Straight-line distance heuristic for this network.
+   *
+   * @return Heuristic using the stored coordinates.
+   * @throws IllegalArgumentException If a vertex name isn't "lon,lat".
+   */
+  public GeoHeuristic geo() {
+    double[] lon = new double[this.n];
+    double[] lat = new double[this.n];
+    for (int v = 0; v < this.n; v++) {
+      lon[v] = this.longitudes.get(v);
+      lat[v] = this.latitudes.get(v);
+      if (Double.isNaN(lon[v])) {
+        throw new IllegalArgumentException(this.name(v));
+      }
+    }
+    return new GeoHeuristic(lon, lat);
+  }
+
+  private static String string(ByteBuffer bytes, int from, int to) {
+    byte[] copy = new byte[to - from];
+    bytes.get(from, copy);
+    return new String(copy, StandardCharsets.UTF_8);
+  }
+
+  // Where each section starts, computed from the counts in the header.
+  private static final class Layout {
+    final int n;
+    final int m;
+    final int roadCount;
+    final int nameBytes;
+    final int roadBytes;
+    final int slotCount;
+    final int offsets;
+    final int targets;
+    final int sources;
+    final int inOffsets;
+    final int inEdges;
+    final int roads;
+    final int weights;
+    final int longitudes;
+    final int latitudes;
+    final int nameOffsets;
+    final int names;
+    final int roadOffsets;
+    final int roadNames;
+    final int slots;
+    final long size;
+    private long at;
+
+    Layout(int n, int m, int roadCount, int nameBytes, int roadBytes,
+           int slotCount) {
+      this.n = n;
+      this.m = m;
+      this.roadCount = roadCount;
+      this.nameBytes = nameBytes;
+      this.roadBytes = roadBytes;
+      this.slotCount = slotCount;
+      this.at = HEADER;
+      this.offsets = this.section(4L * (n + 1));
+      this.targets = this.section(4L * m);
+      this.sources = this.section(4L * m);
+      this.inOffsets = this.section(4L * (n + 1));
+      this.inEdges = this.section(4L * m);
+      this.roads = this.section(4L * m);
+      this.weights = this.section(8L * m);
+      this.longitudes = this.section(8L * n);
+      this.latitudes = this.section(8L * n);
+      this.nameOffsets = this.section(4L * (n + 1));
+      this.names = this.section(nameBytes);
+      this.roadOffsets = this.section(4L * (roadCount + 1));
+      this.roadNames = this.section(roadBytes);
+      this.slots = this.section(4L * slotCount);
+      this.size = this.at;
+    }
+
+    // Reserve bytes for a section; positions past 2 GB come out as -1.
+    private int section(long bytes) {
+      long start = this.at;
+      this.at = (start + bytes + 7) & ~7L;
+      return start <= Integer.MAX_VALUE ? (int) start : -1;
+    }
+
+    IntBuffer ints(ByteBuffer buffer, int start, int count) {
+      return buffer.slice(start, 4 * count)
+          .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+
+    DoubleBuffer doubles(ByteBuffer buffer, int start, int count) {
+      return buffer.slice(start, 8 * count)
+          .order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+    }
+  }
+}
@@ -0,0 +1,61 @@
+package hw8;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public class MappedGraphExperiment {
+
+  // Update this to any other data file for benchmarking experiments.
+  private static String getDataFile() {
+    return "baltimore.streets.txt";
+  }
+
+  // Where to put the snapshot of the data file.
+  private static String getSnapshotFile() {
+    return "baltimore.streets.graph";
+  }
+
+  /**
+   * Execution starts here.
+   *
+   * @param args command-line arguments not used here.
+   * @throws IOException if a file can't be read or written.
+   */
+  public static void main(String[] args) throws IOException {
+    Path dataFile = Paths.get("res", "src", getDataFile());
+    File snapshot = Paths.get("res", "src", getSnapshotFile()).toFile();
+
+    long time = System.nanoTime();
+    StreetSearcher streetSearcher = new StreetSearcher();
+    streetSearcher.loadNetwork(dataFile.toFile());
+    System.out.println(String.format("Parsing the street file: %.1f ms",
+        (System.nanoTime() - time) / 1e6));
+
+    time = System.nanoTime();
+    streetSearcher.saveSnapshot(snapshot);
+    System.out.println(String.format("Writing %d byte snapshot: %.1f ms",
+        snapshot.length(), (System.nanoTime() - time) / 1e6));
+
+    time = System.nanoTime();
+    MappedGraph graph = MappedGraph.open(snapshot, true);
+    System.out.println(String.format("Opening with checksum: %.1f ms",
+        (System.nanoTime() - time) / 1e6));
+    time = System.nanoTime();
+    graph = MappedGraph.open(snapshot);
+    System.out.println(String.format("Opening without checksum: %.1f ms",
+        (System.nanoTime() - time) / 1e6));
+
+    time = System.nanoTime();
+    new StreetSearcher().loadSnapshot(snapshot);
+    System.out.println(String.format("Loading into a StreetSearcher: %.1f ms",
+        (System.nanoTime() - time) / 1e6));
+
+    time = System.nanoTime();
+    Route route = new DijkstraEngine(graph)
+        .route(0, graph.vertexCount() - 1);
+    System.out.println(String.format("First query: %.1f ms, %.1f long",
+        (System.nanoTime() - time) / 1e6, route.distance()));
+  }
+}
@@ -0,0 +1,118 @@
+package hw8;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static junit.framework.TestCase.*;
+
+public class MappedGraphTest {
+
+  private CsrGraph<String, String> csr;
+  private File file;
+
+  @Before
+  public void setupGraph() throws IOException {
+    SparseGraph<String, String> graph = new SparseGraph<>();
+    Vertex<String> a = graph.insert("-76.6175,39.3296");
+    Vertex<String> b = graph.insert("-76.6383,39.3206");
+    Vertex<String> c = graph.insert("-76.6100,39.3000");
+    graph.insert("Caf\u00e9,\u00dcn\u00efcode");
+    graph.label(graph.insert(a, b, "N_Charles_St"), 2100.5);
+    graph.label(graph.insert(b, a, "N_Charles_St"), 2100.5);
+    graph.label(graph.insert(b, c, "E_33rd_St"), 3000.0);
+    graph.label(graph.insert(c, a, "N_Charles_St"), 3500.25);
+    csr = graph.freeze();
+    file = File.createTempFile("network", ".graph");
+    file.deleteOnExit();
+    MappedGraph.write(csr, file);
+  }
+
+  @Test
+  public void testSameGraph() throws IOException {
+    MappedGraph mapped = MappedGraph.open(file);
+    assertEquals(csr.vertexCount(), mapped.vertexCount());
+    assertEquals(csr.edgeCount(), mapped.edgeCount());
+    for (int v = 0; v < csr.vertexCount(); v++) {
+      assertEquals(csr.begin(v), mapped.begin(v));
+      assertEquals(csr.end(v), mapped.end(v));
+      assertEquals(csr.inBegin(v), mapped.inBegin(v));
+      assertEquals(csr.inEnd(v), mapped.inEnd(v));
+      assertEquals(csr.vertex(v).get(), mapped.name(v));
+      assertEquals(v, mapped.id(csr.vertex(v).get()));
+    }
+    for (int e = 0; e < csr.edgeCount(); e++) {
+      assertEquals(csr.target(e), mapped.target(e));
+      assertEquals(csr.source(e), mapped.source(e));
+      assertEquals(csr.inEdge(e), mapped.inEdge(e));
+      assertEquals(csr.weight(e), mapped.weight(e), 0);
+      assertEquals(csr.edge(e).get(), mapped.road(e));
+    }
+    assertEquals(-1, mapped.id("nowhere"));
+  }
+
+  @Test
+  public void testCoordinates() throws IOException {
+    MappedGraph mapped = MappedGraph.open(file);
+    int a = mapped.id("-76.6175,39.3296");
+    assertEquals(-76.6175, mapped.longitude(a), 0);
+    assertEquals(39.3296, mapped.latitude(a), 0);
+    int unicode = mapped.id("Caf\u00e9,\u00dcn\u00efcode");
+    assertEquals(3, unicode);
+    assertTrue(Double.isNaN(mapped.longitude(unicode)));
+  }
+
+  @Test
+  public void testSearchesRunOnMappedGraph() throws IOException {
+    MappedGraph mapped = MappedGraph.open(file);
+    Route expected = new DijkstraEngine(csr).route(0, 2);
+    Route actual = new DijkstraEngine(mapped).route(0, 2);
+    assertEquals(expected.distance(), actual.distance(), 0);
+    assertEquals(5100.5, actual.distance(), 0);
+    assertEquals("E_33rd_St", mapped.road(actual.edges()[1]));
+  }
+
+  @Test
+  public void testCorruptionIsDetected() throws IOException {
+    try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+      raw.seek(raw.length() / 2);
+      int b = raw.read();
+      raw.seek(raw.length() / 2);
+      raw.write(b ^ 1);
+    }
+    try {
+      MappedGraph.open(file, true);
+      fail("corrupt snapshot opened");
+    } catch (IOException expected) {
+      assertTrue(expected.getMessage().contains("checksum"));
+    }
+    // only the header and size are checked by default
+    assertEquals(4, MappedGraph.open(file).vertexCount());
+  }
+
+  @Test
+  public void testRejectsOtherFiles() throws IOException {
+    try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+      raw.seek(4);
+      raw.write(MappedGraph.VERSION + 1);
+    }
+    try {
+      MappedGraph.open(file);
+      fail("wrong version opened");
+    } catch (IOException expected) {
+      assertTrue(expected.getMessage().contains("version"));
+    }
+    try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+      raw.setLength(raw.length() - 8);
+    }
+    try {
+      MappedGraph.open(file);
+      fail("truncated snapshot opened");
+    } catch (IOException expected) {
+      assertTrue(expected.getMessage().contains("snapshot"));
+    }
+  }
+}
@@ -0,0 +1,83 @@
+package hw8;
+
+import exceptions.PositionException;
+import java.util.Arrays;
+
+/**
+ * An object for every vertex of a SparseGraph, such as a predecessor edge.
+ *
+ * <p>Values sit in an array indexed by SparseGraph.vertexId(), like
+ * DoubleEdgeProperty, which grows the same way, and are typed, so reading
+ * one needs no cast.
+ * Vertices that were never set read as null.</p>
+ *
+ * @param <T> Value type.
+ */
+public final class ObjectVertexProperty<T> {
+
+  private final SparseGraph<?, ?> graph;
+  private Object[] values;
+
+  ObjectVertexProperty(SparseGraph<?, ?> graph) {
+    this.graph = graph;
+    this.values = new Object[graph.vertexIds()];
+  }
+
+  /**
+   * Value of a vertex.
+   *
+   * @param v Vertex position.
+   * @return Value of v, or null if it wasn't set.
+   * @throws PositionException If v is not a vertex of the graph.
+   */
+  public T get(Vertex<?> v) throws PositionException {
+    return this.get(this.graph.anyVertexId(v));
+  }
+
+  /**
+   * Value of a vertex by id.
+   *
+   * @param id Vertex id, at least 0.
+   * @return Value of the vertex, or null if it wasn't set.
+   */
+  @SuppressWarnings("unchecked")
+  public T get(int id) {
+    return id < this.values.length ? (T) this.values[id] : null;
+  }
+
+  /**
+   * Set the value of a vertex.
+   *
+   * @param v     Vertex position.
+   * @param value New value of v.
+   * @throws PositionException If v is not a vertex of the graph.
+   */
+  public void set(Vertex<?> v, T value) throws PositionException {
+    this.set(this.graph.anyVertexId(v), value);
+  }
+
+  /**
+   * Set the value of a vertex by id.
+   *
+   * @param id    Vertex id.
+   * @param value New value of the vertex.
+   * @throws IndexOutOfBoundsException If id was never given out.
+   */
+  public void set(int id, T value) {
+    if (id >= this.values.length) {
+      if (id < 0 || id >= this.graph.vertexIds()) {
+        throw new IndexOutOfBoundsException("id " + id);
+      }
+      this.values = Arrays.copyOf(this.values,
+          Math.max(this.graph.vertexIds(), 2 * this.values.length));
+    }
+    this.values[id] = value;
+  }
+
+  /**
+   * Set every vertex back to null.
+   */
+  public void clear() {
+    Arrays.fill(this.values, null);
+  }
+}
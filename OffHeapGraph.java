@@ -0,0 +1,907 @@
+package hw8;
+
+import exceptions.InsertionException;
+import exceptions.PositionException;
+import exceptions.RemovalException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * A road network whose adjacency, weights and coordinates live outside the
+ * Java heap.
+ *
+ * <p>SparseGraph spends several objects on every vertex and edge, which at
+ * country scale means hundreds of millions of objects the garbage collector
+ * has to trace on every full collection. Here vertices and edges are just
+ * ids into columns of direct buffers: per vertex the packed name (see
+ * CoordinateDictionary), longitude, latitude and the heads and tails of
+ * its outgoing and incoming edge lists, and per edge its endpoints, road
+ * name id, weight and the links of both lists. The heap only holds a few
+ * primitive arrays to find vertices by name, the distinct road names and
+ * whatever labels aren't Double edge weights, none of which costs the
+ * collector anything per edge.</p>
+ *
+ * <p>Edge positions are thin handles made on demand, equal when their ids
+ * are. Vertex positions are made the first time they are asked for and
+ * kept, so they can be compared with == like those of SparseGraph; bulk
+ * loading through addRoad() and searching through freeze() never make any.
+ * Looking up an edge between two vertices walks the outgoing list of the
+ * first, which is short for road networks. Ids are never reused, so
+ * removed vertices and edges leave unused slots behind.</p>
+ *
+ * <p>Java 17 only has the foreign memory API (MemorySegment) as an
+ * incubator module that has to be enabled by a command-line flag, so the
+ * columns are direct ByteBuffers instead; each can hold up to 2 GB, that
+ * is 268 million weights, and their memory is released when the graph is
+ * garbage collected. Moving them to MemorySegments once the API is final
+ * only touches the Column class.</p>
+ */
+public final class OffHeapGraph implements Graph<String, String> {
+
+  // States of vertices and edges; WEIGHED edges have a Double label that
+  // lives in the weights column.
+  private static final int REMOVED = 0;
+  private static final int ALIVE = 1;
+  private static final int WEIGHED = 2;
+  // End of an edge list.
+  private static final int NONE = -1;
+
+  private final Column keys = new Column(8);
+  private final Column longitudes = new Column(8);
+  private final Column latitudes = new Column(8);
+  private final Column firstOut = new Column(4);
+  private final Column lastOut = new Column(4);
+  private final Column firstIn = new Column(4);
+  private final Column lastIn = new Column(4);
+  private final Column vertexStates = new Column(4);
+
+  private final Column sources = new Column(4);
+  private final Column targets = new Column(4);
+  private final Column roads = new Column(4);
+  private final Column nextOut = new Column(4);
+  private final Column nextIn = new Column(4);
+  private final Column edgeStates = new Column(4);
+  private final Column weights = new Column(8);
+
+  private final LongIntMap packed = new LongIntMap();
+  private final Map<String, Integer> others = new HashMap<>();
+  private final Map<Integer, String> otherNames = new HashMap<>();
+  private final Map<String, Integer> roadIds = new HashMap<>();
+  private final List<String> roadNames = new ArrayList<>();
+  private final Map<Integer, Object> vertexLabels = new HashMap<>();
+  private final Map<Integer, Object> edgeLabels = new HashMap<>();
+  private VertexHandle[] handles = new VertexHandle[0];
+  private int n;
+  private int m;
+  private int vertexCount;
+  private int edgeCount;
+  private long version;
+
+  @Override
+  public Vertex<String> insert(String v) {
+    if (v == null) {
+      return null;
+    }
+    int id = this.find(v);
+    return this.handle(id >= 0 ? id : this.add(v));
+  }
+
+  /**
+   * Id of a vertex.
+   *
+   * @param name Vertex name.
+   * @return Id of the vertex with that name, or -1 if there is none.
+   */
+  public int id(String name) {
+    return this.find(name);
+  }
+
+  /**
+   * Add a two-way road, the way StreetFileLoader would.
+   *
+   * <p>Inserts missing endpoints and an edge in each direction labeled
+   * with length, without making any positions. Loops and roads that are
+   * already there are skipped. Matches RoadNetworkGenerator.Sink, so a
+   * generated network can be streamed right in.</p>
+   *
+   * @param from   Name of one endpoint.
+   * @param to     Name of the other endpoint.
+   * @param length Length of the road.
+   * @param road   Road name.
+   */
+  public void addRoad(String from, String to, double length, String road) {
+    int u = this.find(from);
+    if (u < 0) {
+      u = this.add(from);
+    }
+    int v = this.find(to);
+    if (v < 0) {
+      v = this.add(to);
+    }
+    if (u == v || this.edgeId(u, v) >= 0) {
+      return;
+    }
+    this.weigh(this.connect(u, v, road), length);
+    this.weigh(this.connect(v, u, road), length);
+  }
+
+  private void weigh(int e, double length) {
+    this.weights.putDouble(e, length);
+    this.edgeStates.putInt(e, WEIGHED);
+  }
+
+  // Id of the live vertex with a name, -1 if there is none.
+  private int find(String name) {
+    long key = CoordinateDictionary.pack(name);
+    if (key == CoordinateDictionary.NO_KEY) {
+      Integer id = this.others.get(name);
+      return id == null ? -1 : id;
+    }
+    int id = this.packed.get(key);
+    // removed and renamed vertices leave their old keys behind
+    if (id < 0 || this.vertexStates.getInt(id) == REMOVED
+        || this.keys.getLong(id) != key) {
+      return -1;
+    }
+    return id;
+  }
+
+  private int add(String name) {
+    int id = this.n++;
+    for (Column column : new Column[] {this.keys, this.longitudes,
+        this.latitudes, this.firstOut, this.lastOut, this.firstIn,
+        this.lastIn, this.vertexStates}) {
+      column.ensure(this.n);
+    }
+    this.firstOut.putInt(id, NONE);
+    this.lastOut.putInt(id, NONE);
+    this.firstIn.putInt(id, NONE);
+    this.lastIn.putInt(id, NONE);
+    this.vertexStates.putInt(id, ALIVE);
+    this.name(id, name, true);
+    this.vertexCount++;
+    this.version++;
+    return id;
+  }
+
+  // Set the name and coordinates of a vertex, and its index entry if it
+  // is still in the graph.
+  private void name(int id, String name, boolean indexed) {
+    long key = CoordinateDictionary.pack(name);
+    this.keys.putLong(id, key);
+    if (key == CoordinateDictionary.NO_KEY) {
+      if (indexed) {
+        this.others.put(name, id);
+      }
+      this.otherNames.put(id, name);
+      this.longitudes.putDouble(id, Double.NaN);
+      this.latitudes.putDouble(id, Double.NaN);
+    } else {
+      if (indexed) {
+        this.packed.put(key, id);
+      }
+      this.longitudes.putDouble(id, CoordinateDictionary.longitude(key));
+      this.latitudes.putDouble(id, CoordinateDictionary.latitude(key));
+    }
+  }
+
+  // Drop the index entry of a vertex name that isn't packed, unless the
+  // name went to another vertex after this one was removed.
+  private void unname(int id) {
+    String name = this.otherNames.remove(id);
+    if (name != null) {
+      this.others.remove(name, id);
+    }
+  }
+
+  private String name(int id) {
+    long key = this.keys.getLong(id);
+    return key == CoordinateDictionary.NO_KEY ? this.otherNames.get(id)
+        : CoordinateDictionary.unpack(key);
+  }
+
+  private Vertex<String> handle(int id) {
+    if (id >= this.handles.length) {
+      VertexHandle[] bigger =
+          new VertexHandle[Math.max(this.n, 2 * this.handles.length)];
+      System.arraycopy(this.handles, 0, bigger, 0, this.handles.length);
+      this.handles = bigger;
+    }
+    if (this.handles[id] == null) {
+      this.handles[id] = new VertexHandle(id);
+    }
+    return this.handles[id];
+  }
+
+  private int convert(Vertex<String> v) throws PositionException {
+    if (!(v instanceof VertexHandle) || ((VertexHandle) v).owner() != this
+        || this.vertexStates.getInt(((VertexHandle) v).id) == REMOVED) {
+      throw new PositionException();
+    }
+    return ((VertexHandle) v).id;
+  }
+
+  private int convert(Edge<String> e) throws PositionException {
+    if (!(e instanceof EdgeHandle) || ((EdgeHandle) e).owner() != this
+        || this.edgeStates.getInt(((EdgeHandle) e).id) == REMOVED) {
+      throw new PositionException();
+    }
+    return ((EdgeHandle) e).id;
+  }
+
+  @Override
+  public Edge<String> insert(Vertex<String> from, Vertex<String> to,
+                             String e)
+      throws PositionException, InsertionException {
+    int f = this.convert(from);
+    int t = this.convert(to);
+    if (f == t || this.edgeId(f, t) >= 0) {
+      throw new InsertionException();
+    }
+    return new EdgeHandle(this.connect(f, t, e));
+  }
+
+  /**
+   * Edge between two vertices.
+   *
+   * @param from Vertex position where edge starts.
+   * @param to   Vertex position where edge ends.
+   * @return Edge position from from to to, or null if there is none.
+   * @throws PositionException If either vertex position is invalid.
+   */
+  public Edge<String> edge(Vertex<String> from, Vertex<String> to)
+      throws PositionException {
+    int e = this.edgeId(this.convert(from), this.convert(to));
+    return e < 0 ? null : new EdgeHandle(e);
+  }
+
+  private int edgeId(int from, int to) {
+    for (int e = this.firstOut.getInt(from); e != NONE;
+         e = this.nextOut.getInt(e)) {
+      if (this.targets.getInt(e) == to) {
+        return e;
+      }
+    }
+    return -1;
+  }
+
+  private int connect(int from, int to, String road) {
+    int e = this.m++;
+    for (Column column : new Column[] {this.sources, this.targets,
+        this.roads, this.nextOut, this.nextIn, this.edgeStates,
+        this.weights}) {
+      column.ensure(this.m);
+    }
+    this.sources.putInt(e, from);
+    this.targets.putInt(e, to);
+    this.roads.putInt(e, this.roadId(road));
+    this.nextOut.putInt(e, NONE);
+    this.nextIn.putInt(e, NONE);
+    this.edgeStates.putInt(e, ALIVE);
+    append(this.firstOut, this.lastOut, this.nextOut, from, e);
+    append(this.firstIn, this.lastIn, this.nextIn, to, e);
+    this.edgeCount++;
+    this.version++;
+    return e;
+  }
+
+  // Lists keep insertion order, like the LinkedHashMaps of SparseGraph.
+  private static void append(Column first, Column last, Column next,
+                             int v, int e) {
+    int tail = last.getInt(v);
+    if (tail == NONE) {
+      first.putInt(v, e);
+    } else {
+      next.putInt(tail, e);
+    }
+    last.putInt(v, e);
+  }
+
+  private static void unlink(Column first, Column last, Column next,
+                             int v, int e) {
+    int previous = NONE;
+    int current = first.getInt(v);
+    while (current != e) {
+      previous = current;
+      current = next.getInt(current);
+    }
+    int after = next.getInt(e);
+    if (previous == NONE) {
+      first.putInt(v, after);
+    } else {
+      next.putInt(previous, after);
+    }
+    if (last.getInt(v) == e) {
+      last.putInt(v, previous);
+    }
+  }
+
+  private int roadId(String road) {
+    if (road == null) {
+      return -1;
+    }
+    Integer id = this.roadIds.get(road);
+    if (id == null) {
+      id = this.roadNames.size();
+      this.roadIds.put(road, id);
+      this.roadNames.add(road);
+    }
+    return id;
+  }
+
+  private String road(int e) {
+    int id = this.roads.getInt(e);
+    return id < 0 ? null : this.roadNames.get(id);
+  }
+
+  @Override
+  public String remove(Vertex<String> v) throws PositionException,
+      RemovalException {
+    int id = this.convert(v);
+    if (this.firstOut.getInt(id) != NONE || this.firstIn.getInt(id) != NONE) {
+      throw new RemovalException();
+    }
+    String name = this.name(id);
+    this.vertexStates.putInt(id, REMOVED);
+    this.unname(id);
+    this.vertexLabels.remove(id);
+    this.handles[id] = null;
+    this.vertexCount--;
+    this.version++;
+    return name;
+  }
+
+  @Override
+  public String remove(Edge<String> e) throws PositionException {
+    int id = this.convert(e);
+    unlink(this.firstOut, this.lastOut, this.nextOut,
+        this.sources.getInt(id), id);
+    unlink(this.firstIn, this.lastIn, this.nextIn,
+        this.targets.getInt(id), id);
+    this.edgeStates.putInt(id, REMOVED);
+    this.edgeLabels.remove(id);
+    this.edgeCount--;
+    this.version++;
+    return this.road(id);
+  }
+
+  @Override
+  public Iterable<Vertex<String>> vertices() {
+    return () -> new Walk<Vertex<String>>(this.nextVertex(-1)) {
+      @Override
+      int after(int id) {
+        return OffHeapGraph.this.nextVertex(id);
+      }
+
+      @Override
+      Vertex<String> make(int id) {
+        return OffHeapGraph.this.handle(id);
+      }
+    };
+  }
+
+  private int nextVertex(int id) {
+    do {
+      id++;
+    } while (id < this.n && this.vertexStates.getInt(id) == REMOVED);
+    return id < this.n ? id : NONE;
+  }
+
+  @Override
+  public Iterable<Edge<String>> edges() {
+    return () -> new EdgeWalk(this.nextEdge(-1)) {
+      @Override
+      int after(int id) {
+        return OffHeapGraph.this.nextEdge(id);
+      }
+    };
+  }
+
+  private int nextEdge(int id) {
+    do {
+      id++;
+    } while (id < this.m && this.edgeStates.getInt(id) == REMOVED);
+    return id < this.m ? id : NONE;
+  }
+
+  @Override
+  public Iterable<Edge<String>> outgoing(Vertex<String> v)
+      throws PositionException {
+    int id = this.convert(v);
+    return () -> new EdgeWalk(this.firstOut.getInt(id)) {
+      @Override
+      int after(int e) {
+        return OffHeapGraph.this.nextOut.getInt(e);
+      }
+    };
+  }
+
+  @Override
+  public Iterable<Edge<String>> incoming(Vertex<String> v)
+      throws PositionException {
+    int id = this.convert(v);
+    return () -> new EdgeWalk(this.firstIn.getInt(id)) {
+      @Override
+      int after(int e) {
+        return OffHeapGraph.this.nextIn.getInt(e);
+      }
+    };
+  }
+
+  @Override
+  public Vertex<String> from(Edge<String> e) throws PositionException {
+    return this.handle(this.sources.getInt(this.convert(e)));
+  }
+
+  @Override
+  public Vertex<String> to(Edge<String> e) throws PositionException {
+    return this.handle(this.targets.getInt(this.convert(e)));
+  }
+
+  @Override
+  public void label(Vertex<String> v, Object l) throws PositionException {
+    int id = this.convert(v);
+    if (l == null) {
+      this.vertexLabels.remove(id);
+    } else {
+      this.vertexLabels.put(id, l);
+    }
+    this.version++;
+  }
+
+  @Override
+  public void label(Edge<String> e, Object l) throws PositionException {
+    int id = this.convert(e);
+    if (l instanceof Double) {
+      this.weigh(id, (Double) l);
+      this.edgeLabels.remove(id);
+    } else {
+      this.edgeStates.putInt(id, ALIVE);
+      if (l == null) {
+        this.edgeLabels.remove(id);
+      } else {
+        this.edgeLabels.put(id, l);
+      }
+    }
+    this.version++;
+  }
+
+  @Override
+  public Object label(Vertex<String> v) throws PositionException {
+    return this.vertexLabels.get(this.convert(v));
+  }
+
+  @Override
+  public Object label(Edge<String> e) throws PositionException {
+    int id = this.convert(e);
+    if (this.edgeStates.getInt(id) == WEIGHED) {
+      return this.weights.getDouble(id);
+    }
+    return this.edgeLabels.get(id);
+  }
+
+  @Override
+  public void clearLabels() {
+    this.vertexLabels.clear();
+    this.edgeLabels.clear();
+    for (int e = 0; e < this.m; e++) {
+      if (this.edgeStates.getInt(e) == WEIGHED) {
+        this.edgeStates.putInt(e, ALIVE);
+      }
+    }
+    this.version++;
+  }
+
+  /**
+   * Number of changes made to this graph.
+   *
+   * @return Version of the graph, see SparseGraph.version().
+   */
+  public long version() {
+    return this.version;
+  }
+
+  /**
+   * Number of vertices.
+   *
+   * @return Number of vertices in the graph.
+   */
+  public int vertexCount() {
+    return this.vertexCount;
+  }
+
+  /**
+   * Number of edges.
+   *
+   * @return Number of edges in the graph.
+   */
+  public int edgeCount() {
+    return this.edgeCount;
+  }
+
+  /**
+   * Memory outside the heap.
+   *
+   * @return Bytes of all direct buffers, including room to grow.
+   */
+  public long offHeapBytes() {
+    long bytes = 0;
+    for (Column column : new Column[] {this.keys, this.longitudes,
+        this.latitudes, this.firstOut, this.lastOut, this.firstIn,
+        this.lastIn, this.vertexStates, this.sources, this.targets,
+        this.roads, this.nextOut, this.nextIn, this.edgeStates,
+        this.weights}) {
+      bytes += column.buffer.capacity();
+    }
+    return bytes;
+  }
+
+  /**
+   * Take an immutable compressed sparse row snapshot, also off-heap.
+   *
+   * <p>Vertex ids are the ones of this graph, removed vertices stay as
+   * ids without edges, and each vertex's outgoing edges get consecutive
+   * ids. Edge weights come from the edge labels, an edge whose label
+   * isn't a Number gets weight 1, like SparseGraph.freeze().</p>
+   *
+   * @return Snapshot of the current vertices, edges and edge labels.
+   */
+  public Snapshot freeze() {
+    return new Snapshot(this);
+  }
+
+  // Weight of an edge in snapshots.
+  private double weight(int e) {
+    if (this.edgeStates.getInt(e) == WEIGHED) {
+      return this.weights.getDouble(e);
+    }
+    Object label = this.edgeLabels.get(e);
+    return label instanceof Number ? ((Number) label).doubleValue() : 1;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("digraph {\n");
+    for (Vertex<String> v : this.vertices()) {
+      sb.append("  \"").append(v.get()).append("\"\n");
+    }
+    for (Edge<String> e : this.edges()) {
+      sb.append(String.format("  \"%s\" -> \"%s\" [label=\"%s\"];%n",
+          this.from(e).get(), this.to(e).get(), e.get()));
+    }
+    return sb.append("}").toString();
+  }
+
+  /**
+   * Read-only view of an OffHeapGraph for the shortest path algorithms.
+   *
+   * <p>All arrays are direct buffers, so searching a snapshot copies
+   * nothing back onto the heap. Positions made from its ids are those of
+   * the graph it was taken of.</p>
+   */
+  public static final class Snapshot implements IntGraph {
+
+    private final OffHeapGraph graph;
+    private final int n;
+    private final IntBuffer offsets;
+    private final IntBuffer targets;
+    private final IntBuffer sources;
+    private final DoubleBuffer weights;
+    private final IntBuffer inOffsets;
+    private final IntBuffer inEdges;
+    private final IntBuffer edges;
+
+    private Snapshot(OffHeapGraph graph) {
+      this.graph = graph;
+      this.n = graph.n;
+      int m = graph.edgeCount;
+      this.offsets = Column.allocate(4L * (this.n + 1)).asIntBuffer();
+      this.targets = Column.allocate(4L * m).asIntBuffer();
+      this.sources = Column.allocate(4L * m).asIntBuffer();
+      this.weights = Column.allocate(8L * m).asDoubleBuffer();
+      this.inOffsets = Column.allocate(4L * (this.n + 1)).asIntBuffer();
+      this.inEdges = Column.allocate(4L * m).asIntBuffer();
+      this.edges = Column.allocate(4L * m).asIntBuffer();
+
+      int next = 0;
+      for (int v = 0; v < this.n; v++) {
+        this.offsets.put(v, next);
+        for (int e = graph.firstOut.getInt(v); e != NONE;
+             e = graph.nextOut.getInt(e)) {
+          int t = graph.targets.getInt(e);
+          this.targets.put(next, t);
+          this.sources.put(next, v);
+          this.weights.put(next, graph.weight(e));
+          this.edges.put(next, e);
+          this.inOffsets.put(t + 1, this.inOffsets.get(t + 1) + 1);
+          next++;
+        }
+      }
+      this.offsets.put(this.n, next);
+      for (int v = 0; v < this.n; v++) {
+        this.inOffsets.put(v + 1,
+            this.inOffsets.get(v + 1) + this.inOffsets.get(v));
+      }
+      int[] fill = new int[this.n];
+      for (int e = 0; e < m; e++) {
+        int t = this.targets.get(e);
+        this.inEdges.put(this.inOffsets.get(t) + fill[t]++, e);
+      }
+    }
+
+    @Override
+    public int vertexCount() {
+      return this.n;
+    }
+
+    @Override
+    public int edgeCount() {
+      return this.targets.capacity();
+    }
+
+    @Override
+    public int begin(int v) {
+      return this.offsets.get(v);
+    }
+
+    @Override
+    public int end(int v) {
+      return this.offsets.get(v + 1);
+    }
+
+    @Override
+    public int target(int e) {
+      return this.targets.get(e);
+    }
+
+    @Override
+    public double weight(int e) {
+      return this.weights.get(e);
+    }
+
+    @Override
+    public int source(int e) {
+      return this.sources.get(e);
+    }
+
+    @Override
+    public int inBegin(int v) {
+      return this.inOffsets.get(v);
+    }
+
+    @Override
+    public int inEnd(int v) {
+      return this.inOffsets.get(v + 1);
+    }
+
+    @Override
+    public int inEdge(int i) {
+      return this.inEdges.get(i);
+    }
+
+    /**
+     * Id of a vertex.
+     *
+     * @param v Vertex position of the graph this snapshot was taken of.
+     * @return Id of the vertex.
+     * @throws PositionException If v is not a vertex of that graph.
+     */
+    public int id(Vertex<String> v) throws PositionException {
+      int id = this.graph.convert(v);
+      if (id >= this.n) {
+        throw new PositionException();
+      }
+      return id;
+    }
+
+    /**
+     * Vertex with id.
+     *
+     * @param id Vertex id.
+     * @return Vertex position the id stands for.
+     */
+    public Vertex<String> vertex(int id) {
+      return this.graph.handle(id);
+    }
+
+    /**
+     * Edge with id.
+     *
+     * @param e Edge id.
+     * @return Edge position the id stands for.
+     */
+    public Edge<String> edge(int e) {
+      return this.graph.new EdgeHandle(this.edges.get(e));
+    }
+
+    /**
+     * Straight-line estimate from the coordinates in the vertex names.
+     *
+     * @return Heuristic for the vertices of this snapshot.
+     * @throws IllegalArgumentException If a vertex name isn't a coordinate.
+     */
+    public GeoHeuristic geoHeuristic() {
+      double[] lon = new double[this.n];
+      double[] lat = new double[this.n];
+      for (int v = 0; v < this.n; v++) {
+        lon[v] = this.graph.longitudes.getDouble(v);
+        lat[v] = this.graph.latitudes.getDouble(v);
+        if (Double.isNaN(lon[v])
+            && this.graph.vertexStates.getInt(v) != REMOVED) {
+          throw new IllegalArgumentException(this.graph.name(v));
+        }
+      }
+      return new GeoHeuristic(lon, lat);
+    }
+  }
+
+  // Position of a vertex; one per vertex, so == works.
+  private final class VertexHandle implements Vertex<String> {
+    final int id;
+
+    VertexHandle(int id) {
+      this.id = id;
+    }
+
+    OffHeapGraph owner() {
+      return OffHeapGraph.this;
+    }
+
+    @Override
+    public String get() {
+      return OffHeapGraph.this.name(this.id);
+    }
+
+    @Override
+    public void put(String name) {
+      OffHeapGraph graph = OffHeapGraph.this;
+      // a removed vertex isn't found by name and can take any
+      boolean alive = graph.vertexStates.getInt(this.id) != REMOVED;
+      int other = alive ? graph.find(name) : -1;
+      if (other >= 0 && other != this.id) {
+        throw new IllegalArgumentException(name);
+      }
+      graph.unname(this.id);
+      graph.name(this.id, name, alive);
+      graph.version++;
+    }
+  }
+
+  // Position of an edge, made whenever one is asked for.
+  private final class EdgeHandle implements Edge<String> {
+    final int id;
+
+    EdgeHandle(int id) {
+      this.id = id;
+    }
+
+    OffHeapGraph owner() {
+      return OffHeapGraph.this;
+    }
+
+    @Override
+    public String get() {
+      return OffHeapGraph.this.road(this.id);
+    }
+
+    @Override
+    public void put(String road) {
+      OffHeapGraph.this.roads.putInt(this.id,
+          OffHeapGraph.this.roadId(road));
+      OffHeapGraph.this.version++;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof EdgeHandle && ((EdgeHandle) o).id == this.id
+          && ((EdgeHandle) o).owner() == OffHeapGraph.this;
+    }
+
+    @Override
+    public int hashCode() {
+      return this.id;
+    }
+  }
+
+  // Iterates ids from first until after() returns NONE.
+  private abstract static class Walk<T> implements Iterator<T> {
+    private int current;
+
+    Walk(int first) {
+      this.current = first;
+    }
+
+    abstract int after(int id);
+
+    abstract T make(int id);
+
+    @Override
+    public boolean hasNext() {
+      return this.current != NONE;
+    }
+
+    @Override
+    public T next() {
+      if (this.current == NONE) {
+        throw new NoSuchElementException();
+      }
+      int id = this.current;
+      // step first, so the edge returned can be removed
+      this.current = this.after(id);
+      return this.make(id);
+    }
+  }
+
+  private abstract class EdgeWalk extends Walk<Edge<String>> {
+    EdgeWalk(int first) {
+      super(first);
+    }
+
+    @Override
+    Edge<String> make(int id) {
+      return new EdgeHandle(id);
+    }
+  }
+
+  // A growable array of fixed-width entries in a direct buffer.
+  private static final class Column {
+    private final int width;
+    private ByteBuffer buffer;
+
+    Column(int width) {
+      this.width = width;
+      this.buffer = allocate(16L * width);
+    }
+
+    static ByteBuffer allocate(long bytes) {
+      if (bytes > Integer.MAX_VALUE) {
+        throw new IllegalStateException("buffer of " + bytes + " bytes");
+      }
+      return ByteBuffer.allocateDirect((int) bytes)
+          .order(ByteOrder.nativeOrder());
+    }
+
+    void ensure(int count) {
+      long bytes = (long) count * this.width;
+      if (bytes > this.buffer.capacity()) {
+        long doubled = Math.min(2L * this.buffer.capacity(),
+            Integer.MAX_VALUE / this.width * this.width);
+        ByteBuffer bigger = allocate(Math.max(bytes, doubled));
+        bigger.put(0, this.buffer, 0, this.buffer.capacity());
+        this.buffer = bigger;
+      }
+    }
+
+    int getInt(int i) {
+      return this.buffer.getInt(i * this.width);
+    }
+
+    void putInt(int i, int value) {
+      this.buffer.putInt(i * this.width, value);
+    }
+
+    long getLong(int i) {
+      return this.buffer.getLong(i * this.width);
+    }
+
+    void putLong(int i, long value) {
+      this.buffer.putLong(i * this.width, value);
+    }
+
+    double getDouble(int i) {
+      return this.buffer.getDouble(i * this.width);
+    }
+
+    void putDouble(int i, double value) {
+      this.buffer.putDouble(i * this.width, value);
+    }
+  }
+}
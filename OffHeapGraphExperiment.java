@@ -0,0 +1,120 @@
+package hw8;
+
+import java.io.IOException;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+public class OffHeapGraphExperiment {
+
+  // Directed edges of the generated grid; SparseGraph needs a heap of
+  // about 8 GB for 10 million.
+  private static int getEdges() {
+    return 10000000;
+  }
+
+  // Number of full searches per graph.
+  private static int getQueries() {
+    return 10;
+  }
+
+  private static long gcCount() {
+    long count = 0;
+    for (GarbageCollectorMXBean gc
+        : ManagementFactory.getGarbageCollectorMXBeans()) {
+      count += gc.getCollectionCount();
+    }
+    return count;
+  }
+
+  private static long gcMillis() {
+    long millis = 0;
+    for (GarbageCollectorMXBean gc
+        : ManagementFactory.getGarbageCollectorMXBeans()) {
+      millis += gc.getCollectionTime();
+    }
+    return millis;
+  }
+
+  private static long usedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    System.gc();
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  private static long directMemory() {
+    for (BufferPoolMXBean pool
+        : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+      if (pool.getName().equals("direct")) {
+        return pool.getMemoryUsed();
+      }
+    }
+    return 0;
+  }
+
+  // Time a full collection with the graph still reachable.
+  private static double fullGcMillis() {
+    long time = System.nanoTime();
+    System.gc();
+    return (System.nanoTime() - time) / 1e6;
+  }
+
+  private static void report(String name, long start, long count,
+                             long millis, double build, Object graph,
+                             IntGraph snapshot) {
+    long heap = usedHeap() - start;
+    long direct = directMemory();
+    double pause = fullGcMillis();
+    DijkstraEngine engine = new DijkstraEngine(snapshot);
+    Random random = new Random(1);
+    long time = System.nanoTime();
+    for (int i = 0; i < getQueries(); i++) {
+      engine.run(random.nextInt(snapshot.vertexCount()));
+    }
+    double query = (System.nanoTime() - time) / 1e6 / getQueries();
+    System.out.println(String.format("%s: %d edges, build %.0f ms with %d"
+            + " collections taking %d ms, heap %.1f MB, direct %.1f MB,"
+            + " full collection %.0f ms, full search %.0f ms", name,
+        snapshot.edgeCount(), build, gcCount() - count, gcMillis() - millis,
+        heap / 1e6, direct / 1e6, pause, query));
+    // keep the graph reachable until here
+    System.out.println(graph.getClass().getSimpleName() + " done");
+  }
+
+  /**
+   * Execution starts here.
+   *
+   * @param args command-line arguments not used here.
+   */
+  public static void main(String[] args) {
+    RoadNetworkGenerator generator = new RoadNetworkGenerator(
+        RoadNetworkGenerator.Layout.GRID, getEdges() / 4, 42);
+
+    long start = usedHeap();
+    long count = gcCount();
+    long millis = gcMillis();
+    long time = System.nanoTime();
+    OffHeapGraph offHeap = new OffHeapGraph();
+    try {
+      generator.generate(offHeap::addRoad);
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+    OffHeapGraph.Snapshot snapshot = offHeap.freeze();
+    report("OffHeapGraph", start, count, millis,
+        (System.nanoTime() - time) / 1e6, offHeap, snapshot);
+    offHeap = null;
+    snapshot = null;
+
+    start = usedHeap();
+    count = gcCount();
+    millis = gcMillis();
+    time = System.nanoTime();
+    SparseGraph<String, String> sparse = new SparseGraph<>();
+    generator.addTo(sparse);
+    CsrGraph<String, String> csr = sparse.freeze();
+    report("SparseGraph", start, count, millis,
+        (System.nanoTime() - time) / 1e6, sparse, csr);
+  }
+}
@@ -0,0 +1,90 @@
+package hw8;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static junit.framework.TestCase.*;
+
+public class OffHeapGraphTest extends GraphTest {
+
+  @Override
+  protected Graph<String, String> createGraph() {
+    return new OffHeapGraph();
+  }
+
+  @Test
+  public void testSnapshotSearchesLikeSparseGraph() {
+    RoadNetworkGenerator generator = new RoadNetworkGenerator(
+        RoadNetworkGenerator.Layout.PERTURBED_GRID, 2500, 11);
+    SparseGraph<String, String> sparse = new SparseGraph<>();
+    generator.addTo(sparse);
+    OffHeapGraph offHeap = new OffHeapGraph();
+    for (Vertex<String> v : sparse.vertices()) {
+      offHeap.insert(v.get());
+    }
+    for (Edge<String> e : sparse.edges()) {
+      offHeap.addRoad(sparse.from(e).get(), sparse.to(e).get(),
+          (Double) sparse.label(e), e.get());
+    }
+    CsrGraph<String, String> csr = sparse.freeze();
+    OffHeapGraph.Snapshot snapshot = offHeap.freeze();
+    assertEquals(csr.vertexCount(), snapshot.vertexCount());
+    assertEquals(csr.edgeCount(), snapshot.edgeCount());
+
+    DijkstraEngine expected = new DijkstraEngine(csr);
+    DijkstraEngine actual = new DijkstraEngine(snapshot);
+    Random random = new Random(3);
+    for (int i = 0; i < 20; i++) {
+      int s = random.nextInt(csr.vertexCount());
+      int t = random.nextInt(csr.vertexCount());
+      expected.run(s);
+      actual.run(snapshot.id(offHeap.insert(csr.vertex(s).get())));
+      int target = offHeap.id(csr.vertex(t).get());
+      assertEquals(expected.distance(t), actual.distance(target), 0);
+      int[] path = actual.path(target);
+      assertEquals(expected.path(t).length, path.length);
+      for (int k = 0; k < path.length; k++) {
+        assertEquals(csr.vertex(csr.target(expected.path(t)[k])).get(),
+            snapshot.vertex(snapshot.target(path[k])).get());
+      }
+    }
+    GeoHeuristic geo = snapshot.geoHeuristic().consistentWith(snapshot);
+    assertEquals(0, geo.violations());
+  }
+
+  @Test
+  public void testSnapshotSkipsRemovedEdges() {
+    OffHeapGraph g = new OffHeapGraph();
+    g.addRoad("-76.6,39.3", "-76.5,39.3", 10, "A");
+    g.addRoad("-76.5,39.3", "-76.4,39.3", 20, "B");
+    g.addRoad("-76.5,39.3", "-76.6,39.3", 30, "A");
+    assertEquals(4, g.edgeCount());
+    Vertex<String> a = g.insert("-76.6,39.3");
+    Vertex<String> b = g.insert("-76.5,39.3");
+    assertEquals("A", g.remove(g.edge(a, b)));
+    g.label(g.edge(b, a), "not a number");
+
+    OffHeapGraph.Snapshot snapshot = g.freeze();
+    assertEquals(3, snapshot.edgeCount());
+    assertEquals(0, snapshot.end(0) - snapshot.begin(0));
+    int e = snapshot.begin(1);
+    assertEquals(g.edge(b, a), snapshot.edge(e));
+    assertEquals(1.0, snapshot.weight(e));
+    assertEquals(20.0, snapshot.weight(snapshot.begin(2)));
+    assertEquals(1, snapshot.inEnd(0) - snapshot.inBegin(0));
+  }
+
+  @Test
+  public void testRenameMovesTheName() {
+    OffHeapGraph g = new OffHeapGraph();
+    Vertex<String> v = g.insert("-76.6,39.3");
+    v.put("elsewhere");
+    assertEquals(-1, g.id("-76.6,39.3"));
+    assertSame(v, g.insert("elsewhere"));
+    v.put("-76.7,39.2");
+    assertEquals(-1, g.id("elsewhere"));
+    assertSame(v, g.insert("-76.7,39.2"));
+    assertEquals(-76.7, g.freeze().geoHeuristic().longitude(0), 1e-12);
+  }
+}
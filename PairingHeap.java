@@ -0,0 +1,172 @@
+package hw8;
+
+import java.util.Arrays;
+
+/**
+ * An indexed pairing heap.
+ *
+ * <p>Nodes are ids and the tree is stored in the usual child / next
+ * sibling form, except in primitive arrays instead of node objects. Each
+ * node also knows its previous sibling (or its parent if it is a first
+ * child) so decreaseKey() can cut it out in constant time and meld it
+ * back with the root. removeMin() melds the children of the root with
+ * the standard two-pass pairing.</p>
+ *
+ * <p>Membership is stamped with a generation counter, so clear() doesn't
+ * have to walk the trees.</p>
+ */
+public final class PairingHeap implements IndexedHeap {
+
+  private static final int NONE = -1;
+
+  private final double[] keys;
+  private final int[] child;
+  private final int[] sibling;
+  private final int[] prev;
+  private final int[] stamp;
+  private final int[] pairs;
+  private int generation;
+  private int root;
+  private int size;
+  private long operations;
+
+  /**
+   * Creates an empty pairing heap.
+   *
+   * @param capacity Number of ids the heap can hold.
+   */
+  public PairingHeap(int capacity) {
+    this.keys = new double[capacity];
+    this.child = new int[capacity];
+    this.sibling = new int[capacity];
+    this.prev = new int[capacity];
+    this.stamp = new int[capacity];
+    this.pairs = new int[capacity];
+    this.generation = 1;
+    this.root = NONE;
+  }
+
+  @Override
+  public void insert(int id, double key) {
+    this.operations++;
+    this.stamp[id] = this.generation;
+    this.keys[id] = key;
+    this.child[id] = NONE;
+    this.sibling[id] = NONE;
+    this.prev[id] = NONE;
+    this.root = this.root == NONE ? id : this.link(this.root, id);
+    this.size++;
+  }
+
+  @Override
+  public void decreaseKey(int id, double key) {
+    this.operations++;
+    this.keys[id] = key;
+    if (id == this.root) {
+      return;
+    }
+    // prev is our parent exactly when we are its first child
+    int p = this.prev[id];
+    if (this.child[p] == id) {
+      this.child[p] = this.sibling[id];
+    } else {
+      this.sibling[p] = this.sibling[id];
+    }
+    if (this.sibling[id] != NONE) {
+      this.prev[this.sibling[id]] = p;
+    }
+    this.sibling[id] = NONE;
+    this.prev[id] = NONE;
+    this.root = this.link(this.root, id);
+  }
+
+  @Override
+  public int removeMin() {
+    this.operations++;
+    int min = this.root;
+    this.stamp[min] = 0;
+    this.size--;
+
+    int n = 0;
+    for (int c = this.child[min]; c != NONE; ) {
+      int next = this.sibling[c];
+      this.sibling[c] = NONE;
+      this.prev[c] = NONE;
+      this.pairs[n++] = c;
+      c = next;
+    }
+    if (n == 0) {
+      this.root = NONE;
+      return min;
+    }
+
+    // first pass left to right, second pass right to left
+    int m = 0;
+    for (int i = 0; i + 1 < n; i += 2) {
+      this.pairs[m++] = this.link(this.pairs[i], this.pairs[i + 1]);
+    }
+    if (n % 2 == 1) {
+      this.pairs[m++] = this.pairs[n - 1];
+    }
+    int r = this.pairs[m - 1];
+    for (int i = m - 2; i >= 0; i--) {
+      r = this.link(this.pairs[i], r);
+    }
+    this.root = r;
+    return min;
+  }
+
+  @Override
+  public double minKey() {
+    return this.keys[this.root];
+  }
+
+  @Override
+  public boolean contains(int id) {
+    return this.stamp[id] == this.generation;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  @Override
+  public int size() {
+    return this.size;
+  }
+
+  @Override
+  public void clear() {
+    this.root = NONE;
+    this.size = 0;
+    this.generation++;
+    if (this.generation == 0) {
+      // wrapped around, stale stamps could match again
+      Arrays.fill(this.stamp, 0);
+      this.generation = 1;
+    }
+  }
+
+  @Override
+  public long operations() {
+    return this.operations;
+  }
+
+  // Meld two roots, the larger one becomes first child of the smaller one.
+  private int link(int a, int b) {
+    if (this.keys[b] < this.keys[a]) {
+      int t = a;
+      a = b;
+      b = t;
+    }
+    int first = this.child[a];
+    this.sibling[b] = first;
+    if (first != NONE) {
+      this.prev[first] = b;
+    }
+    this.prev[b] = a;
+    this.child[a] = b;
+    return a;
+  }
+}
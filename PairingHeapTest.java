@@ -0,0 +1,10 @@
+package hw8;
+
+
+public class PairingHeapTest extends IndexedHeapTest {
+
+  @Override
+  protected IndexedHeap createHeap(int capacity) {
+    return new PairingHeap(capacity);
+  }
+}
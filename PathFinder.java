@@ -0,0 +1,26 @@
+package hw8;
+
+/**
+ * Point-to-point shortest path searches on an IntGraph.
+ *
+ * <p>Implementations keep whatever state they need between queries, so a
+ * PathFinder is generally not safe for concurrent use.</p>
+ */
+public interface PathFinder {
+  /**
+   * Find a shortest path.
+   *
+   * @param source Id of the start vertex.
+   * @param target Id of the end vertex.
+   * @return Shortest route from source to target.
+   */
+  Route route(int source, int target);
+
+  /**
+   * Counters of the last query.
+   *
+   * @return Stats of the last route(), updated in place by the next one;
+   *     only the counters are filled in, not the timings.
+   */
+  SearchStats stats();
+}
@@ -0,0 +1,161 @@
+package hw8;
+
+/**
+ * SearchStats of many queries, added up.
+ *
+ * <p>Keeps a LatencyHistogram each for the time spent searching, building
+ * the path, printing and all together, and one for the number of
+ * vertices settled, so slow queries can be told apart from queries that
+ * just explore a lot. Counters that don't need a distribution are
+ * summed.</p>
+ *
+ * <p>Not safe for concurrent use.</p>
+ */
+public final class QueryProfile {
+
+  private final LatencyHistogram search;
+  private final LatencyHistogram path;
+  private final LatencyHistogram print;
+  private final LatencyHistogram total;
+  private final LatencyHistogram settled;
+  private long relaxed;
+  private long decreaseKeys;
+  private int heapHighWater;
+
+  /**
+   * Creates an empty profile.
+   */
+  public QueryProfile() {
+    this.search = new LatencyHistogram();
+    this.path = new LatencyHistogram();
+    this.print = new LatencyHistogram();
+    this.total = new LatencyHistogram();
+    this.settled = new LatencyHistogram();
+  }
+
+  /**
+   * Add a query.
+   *
+   * @param stats Stats of the query.
+   */
+  public void record(SearchStats stats) {
+    this.search.record(stats.searchNanos());
+    this.path.record(stats.pathNanos());
+    this.print.record(stats.printNanos());
+    this.total.record(stats.totalNanos());
+    this.settled.record(stats.settled());
+    this.relaxed += stats.relaxed();
+    this.decreaseKeys += stats.decreaseKeys();
+    this.heapHighWater = Math.max(this.heapHighWater,
+        stats.heapHighWater());
+  }
+
+  /**
+   * Forget all queries.
+   */
+  public void reset() {
+    this.search.reset();
+    this.path.reset();
+    this.print.reset();
+    this.total.reset();
+    this.settled.reset();
+    this.relaxed = 0;
+    this.decreaseKeys = 0;
+    this.heapHighWater = 0;
+  }
+
+  /**
+   * Number of queries.
+   *
+   * @return Number of queries recorded.
+   */
+  public long queries() {
+    return this.total.count();
+  }
+
+  /**
+   * Search times.
+   *
+   * @return Histogram of the nanoseconds spent searching.
+   */
+  public LatencyHistogram searchLatency() {
+    return this.search;
+  }
+
+  /**
+   * Path building times.
+   *
+   * @return Histogram of the nanoseconds spent in getPath.
+   */
+  public LatencyHistogram pathLatency() {
+    return this.path;
+  }
+
+  /**
+   * Printing times.
+   *
+   * @return Histogram of the nanoseconds spent in printPath.
+   */
+  public LatencyHistogram printLatency() {
+    return this.print;
+  }
+
+  /**
+   * Query times.
+   *
+   * @return Histogram of the nanoseconds whole queries took.
+   */
+  public LatencyHistogram totalLatency() {
+    return this.total;
+  }
+
+  /**
+   * Search space sizes.
+   *
+   * @return Histogram of the vertices settled per query.
+   */
+  public LatencyHistogram settled() {
+    return this.settled;
+  }
+
+  /**
+   * Edges relaxed.
+   *
+   * @return Number of edges relaxed by all queries.
+   */
+  public long relaxed() {
+    return this.relaxed;
+  }
+
+  /**
+   * Keys lowered.
+   *
+   * @return Number of decreaseKey calls of all queries.
+   */
+  public long decreaseKeys() {
+    return this.decreaseKeys;
+  }
+
+  /**
+   * Largest queue.
+   *
+   * @return Most entries the queues of any query held at once.
+   */
+  public int heapHighWater() {
+    return this.heapHighWater;
+  }
+
+  @Override
+  public String toString() {
+    long n = Math.max(1, this.queries());
+    return "Queries: " + this.queries()
+        + "\nSearch: " + this.search.toMillis()
+        + "\nPath: " + this.path.toMillis()
+        + "\nPrint: " + this.print.toMillis()
+        + "\nTotal: " + this.total.toMillis()
+        + "\nSettled: " + this.settled
+        + String.format("%nRelaxed per query: %.1f, decreaseKeys per"
+            + " query: %.1f, heap high-water: %d", (double) this.relaxed / n,
+        (double) this.decreaseKeys / n, this.heapHighWater);
+  }
+}
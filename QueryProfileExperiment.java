@@ -0,0 +1,54 @@
+package hw8;
+
+import java.io.FileNotFoundException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+public class QueryProfileExperiment {
+
+  // Update this to any other data file for benchmarking experiments.
+  private static String getDataFile() {
+    return "baltimore.streets.txt";
+  }
+
+  // Number of random queries per search mode.
+  private static int getQueries() {
+    return 1000;
+  }
+
+  /**
+   * Execution starts here.
+   *
+   * @param args command-line arguments not used here.
+   * @throws FileNotFoundException if the data file can't be read.
+   */
+  public static void main(String[] args) throws FileNotFoundException {
+    Path dataFile = Paths.get("res", "src", getDataFile());
+    StreetSearcher streetSearcher = new StreetSearcher();
+    streetSearcher.loadNetwork(dataFile.toFile());
+    int n = streetSearcher.network().vertexCount();
+
+    PrintStream out = System.out;
+    for (SearchMode mode : SearchMode.values()) {
+      Random random = new Random(42);
+      // warm up, and build whatever the mode preprocesses
+      System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+      for (int i = 0; i < getQueries() / 10; i++) {
+        streetSearcher.findShortestPath(
+            streetSearcher.endpointName(random.nextInt(n)),
+            streetSearcher.endpointName(random.nextInt(n)), mode);
+      }
+      streetSearcher.queryProfile().reset();
+      for (int i = 0; i < getQueries(); i++) {
+        streetSearcher.findShortestPath(
+            streetSearcher.endpointName(random.nextInt(n)),
+            streetSearcher.endpointName(random.nextInt(n)), mode);
+      }
+      System.setOut(out);
+      System.out.println("\n" + mode + "\n" + streetSearcher.queryProfile());
+    }
+  }
+}
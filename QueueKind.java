@@ -0,0 +1,36 @@
+package hw8;
+
+/**
+ * The kinds of indexed priority queues shortest path searches can use.
+ */
+public enum QueueKind {
+  /** Binary heap. */
+  BINARY {
+    @Override
+    public IndexedHeap create(int capacity) {
+      return new DaryHeap(capacity, 2);
+    }
+  },
+  /** 4-ary heap. */
+  QUATERNARY {
+    @Override
+    public IndexedHeap create(int capacity) {
+      return new DaryHeap(capacity, 4);
+    }
+  },
+  /** Pairing heap. */
+  PAIRING {
+    @Override
+    public IndexedHeap create(int capacity) {
+      return new PairingHeap(capacity);
+    }
+  };
+
+  /**
+   * Create an empty queue of this kind.
+   *
+   * @param capacity Number of ids the queue can hold.
+   * @return New empty queue.
+   */
+  public abstract IndexedHeap create(int capacity);
+}
@@ -0,0 +1,90 @@
+package hw8;
+
+/**
+ * A graph with all edges turned around.
+ *
+ * <p>Edge i of the reversed graph is the edge in incoming slot i of the
+ * original, so searching forward here is searching backward there without
+ * copying the adjacency arrays.</p>
+ */
+public final class ReversedGraph implements IntGraph {
+
+  private final IntGraph graph;
+  // Slot of each original edge among the incoming edges of its target.
+  private final int[] slot;
+
+  /**
+   * Creates a reversed view.
+   *
+   * @param graph Graph to reverse.
+   */
+  public ReversedGraph(IntGraph graph) {
+    this.graph = graph;
+    this.slot = new int[graph.edgeCount()];
+    for (int v = 0; v < graph.vertexCount(); v++) {
+      for (int i = graph.inBegin(v); i < graph.inEnd(v); i++) {
+        this.slot[graph.inEdge(i)] = i;
+      }
+    }
+  }
+
+  /**
+   * Original edge.
+   *
+   * @param e Edge id in the reversed graph.
+   * @return Id of the same edge in the original graph.
+   */
+  public int original(int e) {
+    return this.graph.inEdge(e);
+  }
+
+  @Override
+  public int vertexCount() {
+    return this.graph.vertexCount();
+  }
+
+  @Override
+  public int edgeCount() {
+    return this.graph.edgeCount();
+  }
+
+  @Override
+  public int begin(int v) {
+    return this.graph.inBegin(v);
+  }
+
+  @Override
+  public int end(int v) {
+    return this.graph.inEnd(v);
+  }
+
+  @Override
+  public int target(int e) {
+    return this.graph.source(this.graph.inEdge(e));
+  }
+
+  @Override
+  public double weight(int e) {
+    return this.graph.weight(this.graph.inEdge(e));
+  }
+
+  @Override
+  public int source(int e) {
+    return this.graph.target(this.graph.inEdge(e));
+  }
+
+  @Override
+  public int inBegin(int v) {
+    return this.graph.begin(v);
+  }
+
+  @Override
+  public int inEnd(int v) {
+    return this.graph.end(v);
+  }
+
+  @Override
+  public int inEdge(int i) {
+    return this.slot[i];
+  }
+}
@@ -0,0 +1,80 @@
+package hw8;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Random;
+
+public class RoadNetworkExperiment {
+
+  // Network sizes to sweep; 10^7 endpoints needs a heap of several GB.
+  private static int[] getSizes() {
+    return new int[] {10000, 100000, 1000000};
+  }
+
+  // Number of random queries per network.
+  private static int getQueries() {
+    return 200;
+  }
+
+  private static long usedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  /**
+   * Execution starts here.
+   *
+   * @param args command-line arguments not used here.
+   * @throws IOException if the generated files can't be written.
+   */
+  public static void main(String[] args) throws IOException {
+    System.out.println("layout vertices roads generate_ms load_ms"
+        + " bytes/vertex query_p50_ms query_p99_ms");
+    PrintStream out = System.out;
+    for (RoadNetworkGenerator.Layout layout
+        : RoadNetworkGenerator.Layout.values()) {
+      for (int size : getSizes()) {
+        File file = File.createTempFile("roads", ".txt");
+        file.deleteOnExit();
+        RoadNetworkGenerator generator =
+            new RoadNetworkGenerator(layout, size, 42);
+        long time = System.nanoTime();
+        long roads = generator.write(file);
+        double generate = (System.nanoTime() - time) / 1e6;
+
+        long before = usedHeap();
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        StreetSearcher streetSearcher = new StreetSearcher();
+        time = System.nanoTime();
+        streetSearcher.loadNetwork(file);
+        double load = (System.nanoTime() - time) / 1e6;
+        int n = streetSearcher.network().vertexCount();
+        double bytes = (double) (usedHeap() - before) / n;
+
+        Random random = new Random(7);
+        for (int i = 0; i < getQueries() / 10; i++) {
+          streetSearcher.findShortestPath(
+              streetSearcher.endpointName(random.nextInt(n)),
+              streetSearcher.endpointName(random.nextInt(n)));
+        }
+        streetSearcher.queryProfile().reset();
+        for (int i = 0; i < getQueries(); i++) {
+          streetSearcher.findShortestPath(
+              streetSearcher.endpointName(random.nextInt(n)),
+              streetSearcher.endpointName(random.nextInt(n)));
+        }
+        System.setOut(out);
+        LatencyHistogram total = streetSearcher.queryProfile().totalLatency();
+        System.out.println(String.format("%s %d %d %.1f %.1f %.1f %.3f %.3f",
+            layout, n, roads, generate, load, bytes,
+            total.percentile(50) / 1e6, total.percentile(99) / 1e6));
+        file.delete();
+      }
+    }
+  }
+}
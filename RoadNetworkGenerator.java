@@ -0,0 +1,347 @@
+package hw8;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Synthetic road networks of any size, for benchmarks that need more
+ * than the Baltimore data.
+ *
+ * <p>Three layouts are available. GRID is a square city block grid about
+ * 100 meters apart. PERTURBED_GRID moves every intersection a bit, drops
+ * one block in ten and adds the odd diagonal, which looks more like a
+ * real street map. RANDOM_GEOMETRIC scatters the same number of
+ * endpoints uniformly and connects every pair closer than a radius
+ * chosen for six roads per endpoint on average; endpoints without any
+ * road are left out.</p>
+ *
+ * <p>Networks are placed at Baltimore, endpoints are named by their
+ * coordinates with six decimals, and each road is between 1 and 1.2
+ * times the great-circle distance between its endpoints, rounded up to
+ * the 4 decimals street files use, so GeoHeuristic stays consistent. The
+ * output depends only on the layout, the size and the seed. Grid layouts
+ * are generated from the index of each endpoint with no state at all, so
+ * they can be streamed in any size; RANDOM_GEOMETRIC keeps the points in
+ * arrays, about 30 bytes per endpoint.</p>
+ */
+public final class RoadNetworkGenerator {
+
+  /**
+   * Shapes of generated networks.
+   */
+  public enum Layout {
+    /** Square grid. */
+    GRID,
+    /** Grid with moved intersections, missing blocks and diagonals. */
+    PERTURBED_GRID,
+    /** Uniform random points connected within a radius. */
+    RANDOM_GEOMETRIC
+  }
+
+  /**
+   * Receives the roads of a network as they are generated.
+   */
+  public interface Sink {
+    /**
+     * Take a two-way road.
+     *
+     * @param from   Name of one endpoint.
+     * @param to     Name of the other endpoint.
+     * @param length Length in meters, a multiple of 0.0001.
+     * @param name   Road name.
+     * @throws IOException If the road can't be written.
+     */
+    void road(String from, String to, double length, String name)
+        throws IOException;
+  }
+
+  private static final double ORIGIN_LON = -76.7;
+  private static final double ORIGIN_LAT = 39.25;
+  private static final double EARTH_RADIUS = 6371008.8;
+  // Degrees of latitude and longitude 100 meters apart at the origin.
+  private static final double STEP_LAT =
+      100 / (EARTH_RADIUS * Math.PI / 180);
+  private static final double STEP_LON =
+      STEP_LAT / Math.cos(Math.toRadians(ORIGIN_LAT));
+  // Mean number of roads per endpoint of random geometric networks; below
+  // about 4.5 they fall apart into small pieces.
+  private static final double DEGREE = 6;
+
+  private final Layout layout;
+  private final int vertices;
+  private final long seed;
+
+  /**
+   * Creates a generator.
+   *
+   * @param layout   Shape of the network.
+   * @param vertices Number of endpoints, at least 1.
+   * @param seed     Seed of the random choices.
+   * @throws IllegalArgumentException If vertices is less than 1.
+   */
+  public RoadNetworkGenerator(Layout layout, int vertices, long seed) {
+    if (vertices < 1) {
+      throw new IllegalArgumentException("vertices " + vertices);
+    }
+    this.layout = layout;
+    this.vertices = vertices;
+    this.seed = seed;
+  }
+
+  /**
+   * Generate the network.
+   *
+   * @param sink Receives every road once.
+   * @return Number of roads generated.
+   * @throws IOException If sink throws.
+   */
+  public long generate(Sink sink) throws IOException {
+    if (this.layout == Layout.RANDOM_GEOMETRIC) {
+      return this.geometric(sink);
+    }
+    return this.grid(sink);
+  }
+
+  /**
+   * Write the network as a street file.
+   *
+   * @param file File to write, in the "end1 end2 distance name" format.
+   * @return Number of roads written.
+   * @throws IOException If file can't be written.
+   */
+  public long write(File file) throws IOException {
+    try (Writer out = new BufferedWriter(new OutputStreamWriter(
+        new FileOutputStream(file), StandardCharsets.UTF_8), 1 << 16)) {
+      return this.write(out);
+    }
+  }
+
+  /**
+   * Write the network in the street file format.
+   *
+   * @param out Where to write the lines.
+   * @return Number of roads written.
+   * @throws IOException If out throws.
+   */
+  public long write(Writer out) throws IOException {
+    StringBuilder line = new StringBuilder(64);
+    return this.generate((from, to, length, name) -> {
+      line.setLength(0);
+      line.append(from).append(' ').append(to).append(' ');
+      decimal(line, Math.round(length * 1e4), 4);
+      line.append(' ').append(name).append('\n');
+      out.append(line);
+    });
+  }
+
+  /**
+   * Insert the network into a graph, the way StreetFileLoader would.
+   *
+   * @param graph Graph to add the endpoints and roads to.
+   * @return Number of directed edges added, two per road.
+   */
+  public long addTo(SparseGraph<String, String> graph) {
+    long[] added = new long[1];
+    try {
+      this.generate((from, to, length, name) -> {
+        Vertex<String> u = graph.insert(from);
+        Vertex<String> v = graph.insert(to);
+        graph.label(graph.insert(u, v, name), length);
+        graph.label(graph.insert(v, u, name), length);
+        added[0] += 2;
+      });
+    } catch (IOException e) {
+      // only sinks that write throw
+      throw new IllegalStateException(e);
+    }
+    return added[0];
+  }
+
+  private long grid(Sink sink) throws IOException {
+    boolean perturbed = this.layout == Layout.PERTURBED_GRID;
+    int side = (int) Math.ceil(Math.sqrt(this.vertices));
+    long roads = 0;
+    for (int v = 0; v < this.vertices; v++) {
+      int row = v / side;
+      int column = v % side;
+      String name = this.gridName(v, side, perturbed);
+      if (column + 1 < side && v + 1 < this.vertices
+          && !(perturbed && this.random(v, 2) < 0.1)) {
+        this.gridRoad(sink, v, v + 1, name, side, perturbed, 3,
+            row + "_ST");
+        roads++;
+      }
+      if (v + side < this.vertices
+          && !(perturbed && this.random(v, 4) < 0.1)) {
+        this.gridRoad(sink, v, v + side, name, side, perturbed, 5,
+            column + "_AVE");
+        roads++;
+      }
+      if (perturbed && column + 1 < side && v + side + 1 < this.vertices
+          && this.random(v, 6) < 0.05) {
+        this.gridRoad(sink, v, v + side + 1, name, side, perturbed, 7,
+            v + "_DIAG");
+        roads++;
+      }
+    }
+    return roads;
+  }
+
+  private void gridRoad(Sink sink, int u, int v, String from, int side,
+                        boolean perturbed, int salt, String road)
+      throws IOException {
+    long lon1 = this.gridLon(u, side, perturbed);
+    long lat1 = this.gridLat(u, side, perturbed);
+    long lon2 = this.gridLon(v, side, perturbed);
+    long lat2 = this.gridLat(v, side, perturbed);
+    sink.road(from, this.gridName(v, side, perturbed),
+        this.length(lon1, lat1, lon2, lat2, this.random(u, salt)), road);
+  }
+
+  private String gridName(int v, int side, boolean perturbed) {
+    return name(this.gridLon(v, side, perturbed),
+        this.gridLat(v, side, perturbed));
+  }
+
+  // Coordinates in millionths of a degree, so names and lengths agree.
+  private long gridLon(int v, int side, boolean perturbed) {
+    double x = v % side;
+    if (perturbed) {
+      x += 0.7 * (this.random(v, 0) - 0.5);
+    }
+    return micro(ORIGIN_LON + x * STEP_LON);
+  }
+
+  private long gridLat(int v, int side, boolean perturbed) {
+    double y = v / side;
+    if (perturbed) {
+      y += 0.7 * (this.random(v, 1) - 0.5);
+    }
+    return micro(ORIGIN_LAT + y * STEP_LAT);
+  }
+
+  private long geometric(Sink sink) throws IOException {
+    int n = this.vertices;
+    // one endpoint per 100 x 100 meters on average
+    double side = Math.sqrt(n);
+    double radius = Math.sqrt(DEGREE / Math.PI);
+    int cells = Math.max(1, (int) (side / radius));
+    double cellSize = side / cells;
+    long[] lon = new long[n];
+    long[] lat = new long[n];
+    int[] cell = new int[n];
+    int[] start = new int[cells * cells + 1];
+    for (int v = 0; v < n; v++) {
+      double x = side * this.random(v, 0);
+      double y = side * this.random(v, 1);
+      lon[v] = micro(ORIGIN_LON + x * STEP_LON);
+      lat[v] = micro(ORIGIN_LAT + y * STEP_LAT);
+      int cx = Math.min(cells - 1, (int) (x / cellSize));
+      int cy = Math.min(cells - 1, (int) (y / cellSize));
+      cell[v] = cy * cells + cx;
+      start[cell[v] + 1]++;
+    }
+    // counting sort of the endpoints by cell
+    for (int c = 0; c < cells * cells; c++) {
+      start[c + 1] += start[c];
+    }
+    int[] order = new int[n];
+    int[] fill = start.clone();
+    for (int v = 0; v < n; v++) {
+      order[fill[cell[v]]++] = v;
+    }
+
+    double limit = radius * 100;
+    long roads = 0;
+    String[] names = new String[1];
+    for (int u = 0; u < n; u++) {
+      int cx = cell[u] % cells;
+      int cy = cell[u] / cells;
+      names[0] = null;
+      for (int y = Math.max(0, cy - 1); y <= Math.min(cells - 1, cy + 1);
+           y++) {
+        for (int x = Math.max(0, cx - 1); x <= Math.min(cells - 1, cx + 1);
+             x++) {
+          int c = y * cells + x;
+          for (int k = start[c]; k < start[c + 1]; k++) {
+            int v = order[k];
+            if (v <= u) {
+              continue;
+            }
+            double straight = haversine(lon[u], lat[u], lon[v], lat[v]);
+            if (straight < limit && straight > 0) {
+              if (names[0] == null) {
+                names[0] = name(lon[u], lat[u]);
+              }
+              sink.road(names[0], name(lon[v], lat[v]),
+                  this.length(lon[u], lat[u], lon[v], lat[v],
+                      this.random(u ^ (long) v << 32, 2)),
+                  roads + "_RD");
+              roads++;
+            }
+          }
+        }
+      }
+    }
+    return roads;
+  }
+
+  // Road length: a detour of up to 20% over the straight line.
+  private double length(long lon1, long lat1, long lon2, long lat2,
+                        double detour) {
+    double straight = haversine(lon1, lat1, lon2, lat2);
+    return Math.ceil(straight * (1 + 0.2 * detour) * 1e4) / 1e4;
+  }
+
+  private static double haversine(long lon1, long lat1, long lon2,
+                                  long lat2) {
+    double p1 = Math.toRadians(lat1 / 1e6);
+    double p2 = Math.toRadians(lat2 / 1e6);
+    double dlat = Math.sin((p2 - p1) / 2);
+    double dlon = Math.sin(Math.toRadians((lon2 - lon1) / 1e6) / 2);
+    double h = dlat * dlat + Math.cos(p1) * Math.cos(p2) * dlon * dlon;
+    return 2 * EARTH_RADIUS * Math.asin(Math.sqrt(Math.min(1, h)));
+  }
+
+  // Uniform in [0, 1), a function of the seed, v and salt only.
+  private double random(long v, int salt) {
+    long z = this.seed + v * 0x9E3779B97F4A7C15L
+        + salt * 0xD1B54A32D192ED03L;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    z ^= z >>> 31;
+    return (z >>> 11) * 0x1.0p-53;
+  }
+
+  private static long micro(double degrees) {
+    return Math.round(degrees * 1e6);
+  }
+
+  private static String name(long lon, long lat) {
+    StringBuilder name = new StringBuilder(24);
+    decimal(name, lon, 6);
+    name.append(',');
+    decimal(name, lat, 6);
+    return name.toString();
+  }
+
+  // Append value / 10^digits with exactly digits decimals.
+  private static void decimal(StringBuilder out, long value, int digits) {
+    if (value < 0) {
+      out.append('-');
+      value = -value;
+    }
+    long scale = 1;
+    for (int i = 0; i < digits; i++) {
+      scale *= 10;
+    }
+    out.append(value / scale).append('.');
+    String fraction = Long.toString(value % scale + scale);
+    out.append(fraction, 1, fraction.length());
+  }
+}
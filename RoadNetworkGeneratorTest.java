@@ -0,0 +1,85 @@
+package hw8;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static junit.framework.TestCase.*;
+
+public class RoadNetworkGeneratorTest {
+
+  private static String text(RoadNetworkGenerator.Layout layout, int n,
+                             long seed) throws IOException {
+    StringWriter out = new StringWriter();
+    new RoadNetworkGenerator(layout, n, seed).write(out);
+    return out.toString();
+  }
+
+  @Test
+  public void testSameSeedSameNetwork() throws IOException {
+    for (RoadNetworkGenerator.Layout layout
+        : RoadNetworkGenerator.Layout.values()) {
+      assertEquals(text(layout, 500, 7), text(layout, 500, 7));
+      assertFalse(text(layout, 500, 7).equals(text(layout, 500, 8)));
+    }
+  }
+
+  @Test
+  public void testGridHasEveryBlock() {
+    SparseGraph<String, String> graph = new SparseGraph<>();
+    // 7 columns, 6 full rows and 1 endpoint in the seventh
+    RoadNetworkGenerator generator = new RoadNetworkGenerator(
+        RoadNetworkGenerator.Layout.GRID, 43, 1);
+    long edges = generator.addTo(graph);
+    CsrGraph<String, String> csr = graph.freeze();
+    assertEquals(43, csr.vertexCount());
+    assertEquals(2 * (6 * 6 + 6 * 7 - 6), edges);
+    assertEquals(edges, csr.edgeCount());
+  }
+
+  @Test
+  public void testFileLoadsLikeTheGraph() throws IOException {
+    for (RoadNetworkGenerator.Layout layout
+        : RoadNetworkGenerator.Layout.values()) {
+      RoadNetworkGenerator generator =
+          new RoadNetworkGenerator(layout, 2000, 3);
+      File file = File.createTempFile("generated", ".txt");
+      file.deleteOnExit();
+      long roads = generator.write(file);
+
+      SparseGraph<Long, String> loaded = new SparseGraph<>();
+      CoordinateDictionary names = new CoordinateDictionary();
+      DoubleEdgeProperty lengths = loaded.doubleEdgeProperty(Double.NaN);
+      assertEquals(2 * roads, new StreetFileLoader(loaded, names,
+          lengths, 2).load(file));
+      SparseGraph<String, String> direct = new SparseGraph<>();
+      assertEquals(2 * roads, generator.addTo(direct));
+      assertEquals(direct.freeze().vertexCount(), loaded.vertexIds());
+
+      for (Edge<String> e : direct.edges()) {
+        String from = direct.from(e).get();
+        String to = direct.to(e).get();
+        assertTrue(CoordinateDictionary.pack(from)
+            != CoordinateDictionary.NO_KEY);
+        Edge<String> f = loaded.edge(loaded.vertex(names.key(from)),
+            loaded.vertex(names.key(to)));
+        assertEquals(e.get(), f.get());
+        assertEquals(direct.label(e), lengths.get(f));
+      }
+    }
+  }
+
+  @Test
+  public void testRoadsAreNoShorterThanStraightLines() {
+    for (RoadNetworkGenerator.Layout layout
+        : RoadNetworkGenerator.Layout.values()) {
+      SparseGraph<String, String> graph = new SparseGraph<>();
+      new RoadNetworkGenerator(layout, 3000, 5).addTo(graph);
+      CsrGraph<String, String> csr = graph.freeze();
+      assertEquals(0, GeoHeuristic.of(csr).consistentWith(csr)
+          .violations());
+    }
+  }
+}
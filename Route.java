@@ -0,0 +1,64 @@
+package hw8;
+
+/**
+ * A point-to-point shortest path answer.
+ *
+ * <p>Holds the length of the path, the ids of its edges in order from
+ * start to end, and how many vertices the search settled to find it so
+ * different search strategies can be compared.</p>
+ */
+public final class Route {
+
+  private final double distance;
+  private final int[] edges;
+  private final int settled;
+
+  /**
+   * Creates a route.
+   *
+   * @param distance Length of the path, Double.POSITIVE_INFINITY if none.
+   * @param edges    Edge ids from start to end, null if there is no path.
+   * @param settled  Number of vertices settled by the search.
+   */
+  public Route(double distance, int[] edges, int settled) {
+    this.distance = distance;
+    this.edges = edges;
+    this.settled = settled;
+  }
+
+  /**
+   * Whether a path exists.
+   *
+   * @return True if the end can be reached from the start.
+   */
+  public boolean found() {
+    return this.edges != null;
+  }
+
+  /**
+   * Length of the path.
+   *
+   * @return Total weight of the path, Double.POSITIVE_INFINITY if none.
+   */
+  public double distance() {
+    return this.distance;
+  }
+
+  /**
+   * Edges of the path.
+   *
+   * @return Edge ids from start to end, or null if there is no path.
+   */
+  public int[] edges() {
+    return this.edges;
+  }
+
+  /**
+   * Search effort.
+   *
+   * @return Number of vertices settled while searching for this route.
+   */
+  public int settled() {
+    return this.settled;
+  }
+}
@@ -0,0 +1,247 @@
+package hw8;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Recently found routes, by start and end endpoint name.
+ *
+ * <p>Keeps the least recently used routes out once there are more than a
+ * given number or they take more than a given number of bytes (as
+ * estimated from the key and path lengths). Every lookup compares the
+ * version of the graph the routes were found on with its current one and
+ * drops all routes if it changed, so changing the graph through insert,
+ * remove or label never leaves stale answers behind. Routes found on
+ * something else, such as a DynamicGraph over a snapshot, are tied to
+ * its version instead.</p>
+ *
+ * <p>All methods are safe to call from many threads at once. Since a
+ * lookup reorders the entries, lookups take the same lock as updates;
+ * they hold it only for a hash table access.</p>
+ */
+public final class RouteCache {
+
+  // Approximate bytes an entry costs besides its strings and path:
+  // the map entry, the key, two String headers, the Route, array header.
+  private static final long ENTRY_BYTES = 64 + 24 + 2 * 40 + 32 + 16;
+
+  private final LongSupplier graphVersion;
+  private final int maxEntries;
+  private final long maxBytes;
+  private final LinkedHashMap<Key, Route> routes;
+  private final LongAdder hits;
+  private final LongAdder misses;
+  private final LongAdder evictions;
+  private final LongAdder invalidations;
+  private long bytes;
+  private long version;
+
+  /**
+   * Creates an empty cache.
+   *
+   * @param graph      Graph whose changes invalidate the routes.
+   * @param maxEntries Maximum number of routes kept, at least 1.
+   * @param maxBytes   Maximum approximate bytes of routes kept.
+   * @throws IllegalArgumentException If maxEntries is less than 1 or
+   *     maxBytes is negative.
+   */
+  public RouteCache(SparseGraph<?, ?> graph, int maxEntries, long maxBytes) {
+    this(graph::version, maxEntries, maxBytes);
+  }
+
+  /**
+   * Creates an empty cache for routes found on anything with a version.
+   *
+   * @param version    Version of what the routes are found on; whenever
+   *                   it changes, all routes are dropped.
+   * @param maxEntries Maximum number of routes kept, at least 1.
+   * @param maxBytes   Maximum approximate bytes of routes kept.
+   * @throws IllegalArgumentException If maxEntries is less than 1 or
+   *     maxBytes is negative.
+   */
+  public RouteCache(LongSupplier version, int maxEntries, long maxBytes) {
+    if (maxEntries < 1 || maxBytes < 0) {
+      throw new IllegalArgumentException(
+          "maxEntries " + maxEntries + ", maxBytes " + maxBytes);
+    }
+    this.graphVersion = version;
+    this.maxEntries = maxEntries;
+    this.maxBytes = maxBytes;
+    this.routes = new LinkedHashMap<>(16, 0.75f, true);
+    this.hits = new LongAdder();
+    this.misses = new LongAdder();
+    this.evictions = new LongAdder();
+    this.invalidations = new LongAdder();
+    this.version = version.getAsLong();
+  }
+
+  /**
+   * Look up a route.
+   *
+   * @param start Name of the start endpoint.
+   * @param end   Name of the end endpoint.
+   * @return Route found before, or null if there is none for the current
+   *     version of the graph.
+   */
+  public Route get(String start, String end) {
+    Route route;
+    synchronized (this.routes) {
+      this.validate();
+      route = this.routes.get(new Key(start, end));
+    }
+    if (route == null) {
+      this.misses.increment();
+    } else {
+      this.hits.increment();
+    }
+    return route;
+  }
+
+  /**
+   * Remember a route.
+   *
+   * <p>Routes that alone would exceed the byte bound are not kept.</p>
+   *
+   * @param start Name of the start endpoint.
+   * @param end   Name of the end endpoint.
+   * @param route Route found on the current version of the graph.
+   */
+  public void put(String start, String end, Route route) {
+    Key key = new Key(start, end);
+    long size = bytes(key, route);
+    if (size > this.maxBytes) {
+      return;
+    }
+    synchronized (this.routes) {
+      this.validate();
+      Route old = this.routes.put(key, route);
+      if (old != null) {
+        this.bytes -= bytes(key, old);
+      }
+      this.bytes += size;
+      Iterator<Map.Entry<Key, Route>> eldest =
+          this.routes.entrySet().iterator();
+      while (this.routes.size() > this.maxEntries
+          || this.bytes > this.maxBytes) {
+        Map.Entry<Key, Route> entry = eldest.next();
+        this.bytes -= bytes(entry.getKey(), entry.getValue());
+        eldest.remove();
+        this.evictions.increment();
+      }
+    }
+  }
+
+  /**
+   * Drop all routes.
+   */
+  public void clear() {
+    synchronized (this.routes) {
+      this.routes.clear();
+      this.bytes = 0;
+    }
+  }
+
+  // Drop everything if the graph changed; caller holds the lock.
+  private void validate() {
+    long current = this.graphVersion.getAsLong();
+    if (current != this.version) {
+      if (!this.routes.isEmpty()) {
+        this.invalidations.increment();
+      }
+      this.routes.clear();
+      this.bytes = 0;
+      this.version = current;
+    }
+  }
+
+  private static long bytes(Key key, Route route) {
+    int edges = route.found() ? route.edges().length : 0;
+    return ENTRY_BYTES + 2L * (key.start.length() + key.end.length())
+        + 4L * edges;
+  }
+
+  /**
+   * Number of routes kept.
+   *
+   * @return Number of routes in the cache.
+   */
+  public int size() {
+    synchronized (this.routes) {
+      return this.routes.size();
+    }
+  }
+
+  /**
+   * Memory taken by the routes kept.
+   *
+   * @return Approximate bytes of the routes in the cache.
+   */
+  public long bytes() {
+    synchronized (this.routes) {
+      return this.bytes;
+    }
+  }
+
+  /**
+   * Lookups that found a route.
+   *
+   * @return Number of hits so far.
+   */
+  public long hits() {
+    return this.hits.sum();
+  }
+
+  /**
+   * Lookups that didn't find a route.
+   *
+   * @return Number of misses so far.
+   */
+  public long misses() {
+    return this.misses.sum();
+  }
+
+  /**
+   * Routes dropped to stay within the bounds.
+   *
+   * @return Number of evictions so far.
+   */
+  public long evictions() {
+    return this.evictions.sum();
+  }
+
+  /**
+   * Times all routes were dropped because the graph changed.
+   *
+   * @return Number of invalidations so far.
+   */
+  public long invalidations() {
+    return this.invalidations.sum();
+  }
+
+  private static final class Key {
+    private final String start;
+    private final String end;
+
+    Key(String start, String end) {
+      this.start = start;
+      this.end = end;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) o;
+      return this.start.equals(other.start) && this.end.equals(other.end);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * this.start.hashCode() + this.end.hashCode();
+    }
+  }
+}
@@ -0,0 +1,147 @@
+package hw8;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static junit.framework.TestCase.*;
+
+public class RouteCacheTest {
+
+  private SparseGraph<String, String> graph;
+  private Vertex<String> a;
+  private Vertex<String> b;
+  private Edge<String> ab;
+
+  @Before
+  public void setupGraph() {
+    graph = new SparseGraph<>();
+    a = graph.insert("a");
+    b = graph.insert("b");
+    ab = graph.insert(a, b, "a-b");
+    graph.label(ab, 1.0);
+  }
+
+  private static Route route(int length) {
+    return new Route(length, new int[length], length);
+  }
+
+  @Test
+  public void testHitsAndMisses() {
+    RouteCache cache = new RouteCache(graph, 10, 100000);
+    assertNull(cache.get("a", "b"));
+    Route route = route(3);
+    cache.put("a", "b", route);
+    assertSame(route, cache.get("a", "b"));
+    assertNull(cache.get("b", "a"));
+    assertEquals(1, cache.hits());
+    assertEquals(2, cache.misses());
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void testEvictsLeastRecentlyUsed() {
+    RouteCache cache = new RouteCache(graph, 2, 100000);
+    cache.put("a", "b", route(1));
+    cache.put("b", "a", route(1));
+    cache.get("a", "b");
+    cache.put("a", "a", route(1));
+    assertEquals(2, cache.size());
+    assertEquals(1, cache.evictions());
+    assertNotNull(cache.get("a", "b"));
+    assertNull(cache.get("b", "a"));
+    assertNotNull(cache.get("a", "a"));
+  }
+
+  @Test
+  public void testByteBound() {
+    RouteCache cache = new RouteCache(graph, 1000, 2000);
+    for (int i = 0; i < 50; i++) {
+      cache.put("s" + i, "t", route(100));
+      assertTrue(cache.bytes() <= 2000);
+    }
+    assertTrue(cache.size() >= 1);
+    assertEquals(50 - cache.size(), cache.evictions());
+    // a route that could never fit is not kept
+    cache.put("x", "y", route(1000));
+    assertNull(cache.get("x", "y"));
+
+    cache.clear();
+    assertEquals(0, cache.bytes());
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testGraphChangesInvalidate() {
+    RouteCache cache = new RouteCache(graph, 10, 100000);
+    cache.put("a", "b", route(1));
+    graph.label(ab, 2.0);
+    assertNull(cache.get("a", "b"));
+    assertEquals(1, cache.invalidations());
+
+    cache.put("a", "b", route(1));
+    Vertex<String> c = graph.insert("c");
+    assertNull(cache.get("a", "b"));
+    cache.put("a", "b", route(1));
+    graph.remove(c);
+    assertNull(cache.get("a", "b"));
+    cache.put("a", "b", route(1));
+    graph.remove(graph.insert(b, a, "b-a"));
+    assertNull(cache.get("a", "b"));
+    assertEquals(4, cache.invalidations());
+
+    // looking up a vertex that's already there changes nothing
+    cache.put("a", "b", route(1));
+    graph.insert("a");
+    assertNotNull(cache.get("a", "b"));
+  }
+
+  @Test
+  public void testVersionOfWhatWasSearched() {
+    long[] version = {0};
+    RouteCache cache = new RouteCache(() -> version[0], 10, 100000);
+    cache.put("a", "b", route(1));
+    graph.label(ab, 2.0);
+    assertNotNull(cache.get("a", "b"));
+    version[0]++;
+    assertNull(cache.get("a", "b"));
+    assertEquals(1, cache.invalidations());
+  }
+
+  @Test
+  public void testConcurrentReaders() throws InterruptedException {
+    RouteCache cache = new RouteCache(graph, 64, 1 << 20);
+    for (int i = 0; i < 64; i++) {
+      cache.put("s" + i, "t", route(i));
+    }
+    AtomicInteger wrong = new AtomicInteger();
+    List<Thread> readers = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      readers.add(new Thread(() -> {
+        for (int k = 0; k < 10000; k++) {
+          int i = k % 64;
+          Route route = cache.get("s" + i, "t");
+          if (route == null || route.edges().length != i) {
+            wrong.incrementAndGet();
+          }
+        }
+      }));
+    }
+    for (Thread reader : readers) {
+      reader.start();
+    }
+    for (Thread reader : readers) {
+      reader.join();
+    }
+    assertEquals(0, wrong.get());
+    assertEquals(40000, cache.hits());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNoEntriesThrows() {
+    new RouteCache(graph, 0, 100);
+  }
+}
@@ -0,0 +1,188 @@
+package hw8;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Answers route queries on one loaded network from many threads at once.
+ *
+ * <p>The graph is an immutable snapshot shared by every query; all mutable
+ * search state lives in PathFinders, one per worker thread, so queries
+ * never contend for anything but the work queue and never write into the
+ * graph. Workers are a fixed pool sized to the number of cores, since the
+ * queries are CPU bound and more threads than cores would only add
+ * switching.</p>
+ *
+ * <p>The service counts completed queries and how long they took from
+ * submission to answer; the counters are striped so updating them doesn't
+ * turn into a point of contention either.</p>
+ */
+public final class RouteService implements AutoCloseable {
+
+  private final ExecutorService pool;
+  private final ThreadLocal<PathFinder> finders;
+  private final LongAdder completed;
+  private final LongAdder latency;
+  private final LongAccumulator maxLatency;
+  private final long started;
+
+  /**
+   * Creates a service running Dijkstra's on one thread per core.
+   *
+   * @param graph Graph to search, must not change while the service runs.
+   */
+  public RouteService(IntGraph graph) {
+    this(Runtime.getRuntime().availableProcessors(),
+        () -> new DijkstraEngine(graph));
+  }
+
+  /**
+   * Creates a service.
+   *
+   * @param threads Number of worker threads, at least 1.
+   * @param finders Creates the PathFinder each worker thread searches with.
+   *                Finders may share read-only data such as the graph or a
+   *                heuristic but no search state.
+   * @throws IllegalArgumentException If threads is less than 1.
+   */
+  public RouteService(int threads, Supplier<PathFinder> finders) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("threads " + threads);
+    }
+    this.pool = Executors.newFixedThreadPool(threads, runnable -> {
+      Thread thread = new Thread(runnable, "route-service");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.finders = ThreadLocal.withInitial(finders);
+    this.completed = new LongAdder();
+    this.latency = new LongAdder();
+    this.maxLatency = new LongAccumulator(Math::max, 0);
+    this.started = System.nanoTime();
+  }
+
+  /**
+   * Queue a query.
+   *
+   * @param source Id of the start vertex.
+   * @param target Id of the end vertex.
+   * @return Future shortest route from source to target.
+   */
+  public Future<Route> submit(int source, int target) {
+    long submitted = System.nanoTime();
+    return this.pool.submit(() -> {
+      Route route = this.finders.get().route(source, target);
+      long took = System.nanoTime() - submitted;
+      this.completed.increment();
+      this.latency.add(took);
+      this.maxLatency.accumulate(took);
+      return route;
+    });
+  }
+
+  /**
+   * Answer a query, waiting for a worker to get to it.
+   *
+   * @param source Id of the start vertex.
+   * @param target Id of the end vertex.
+   * @return Shortest route from source to target.
+   * @throws InterruptedException If interrupted while waiting.
+   */
+  public Route route(int source, int target) throws InterruptedException {
+    return this.await(this.submit(source, target));
+  }
+
+  /**
+   * Answer a batch of queries in parallel.
+   *
+   * @param sources Ids of the start vertices.
+   * @param targets Ids of the end vertices, same length as sources.
+   * @return Shortest route from sources[i] to targets[i] for each i.
+   * @throws InterruptedException If interrupted while waiting.
+   */
+  public List<Route> routeAll(int[] sources, int[] targets)
+      throws InterruptedException {
+    List<Future<Route>> futures = new ArrayList<>(sources.length);
+    for (int i = 0; i < sources.length; i++) {
+      futures.add(this.submit(sources[i], targets[i]));
+    }
+    List<Route> routes = new ArrayList<>(sources.length);
+    for (Future<Route> future : futures) {
+      routes.add(this.await(future));
+    }
+    return routes;
+  }
+
+  private Route await(Future<Route> future) throws InterruptedException {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IllegalStateException(cause);
+    }
+  }
+
+  /**
+   * Queries answered.
+   *
+   * @return Number of queries completed so far.
+   */
+  public long completed() {
+    return this.completed.sum();
+  }
+
+  /**
+   * Average latency.
+   *
+   * @return Mean time from submission to answer in nanoseconds, 0 if no
+   *     query has completed.
+   */
+  public double meanLatencyNanos() {
+    long count = this.completed.sum();
+    return count == 0 ? 0 : (double) this.latency.sum() / count;
+  }
+
+  /**
+   * Worst latency.
+   *
+   * @return Longest time from submission to answer in nanoseconds.
+   */
+  public long maxLatencyNanos() {
+    return this.maxLatency.get();
+  }
+
+  /**
+   * Throughput.
+   *
+   * @return Queries completed per second since the service was created.
+   */
+  public double throughput() {
+    long elapsed = System.nanoTime() - this.started;
+    return elapsed == 0 ? 0 : this.completed.sum() * 1e9 / elapsed;
+  }
+
+  /**
+   * Stop accepting queries and wait for the queued ones to finish.
+   */
+  @Override
+  public void close() {
+    this.pool.shutdown();
+    try {
+      this.pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      this.pool.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+  }
+}
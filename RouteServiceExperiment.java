@@ -0,0 +1,74 @@
+package hw8;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+public class RouteServiceExperiment {
+
+  // Update this to any other data file for benchmarking experiments.
+  private static String getDataFile() {
+    return "baltimore.streets.txt";
+  }
+
+  // Number of random queries each run answers.
+  private static int getQueries() {
+    return 5000;
+  }
+
+  // Worker thread counts to try.
+  private static int[] getThreads() {
+    return new int[] {1, 2, 4, 8};
+  }
+
+  // Answer the same random queries with more and more workers.
+  private static void scale(StreetSearcher streetSearcher)
+      throws InterruptedException {
+    int n = streetSearcher.network().vertexCount();
+    int[] sources = new int[getQueries()];
+    int[] targets = new int[getQueries()];
+    Random random = new Random(2020);
+    for (int i = 0; i < sources.length; i++) {
+      sources[i] = random.nextInt(n);
+      targets[i] = random.nextInt(n);
+    }
+
+    System.out.println(Runtime.getRuntime().availableProcessors()
+        + " cores available");
+    for (int threads : getThreads()) {
+      try (RouteService service = streetSearcher.routeService(threads)) {
+        // warm up the workers and the JIT before measuring
+        service.routeAll(sources, targets);
+      }
+      try (RouteService service = streetSearcher.routeService(threads)) {
+        service.routeAll(sources, targets);
+        System.out.println(String.format(
+            "%d threads: %.0f queries/s, mean latency %.3f ms, max %.3f ms",
+            threads, service.throughput(), service.meanLatencyNanos() / 1e6,
+            service.maxLatencyNanos() / 1e6));
+      }
+    }
+  }
+
+  /**
+   * Execution starts here.
+   *
+   * @param args command-line arguments not used here.
+   * @throws InterruptedException if interrupted while waiting for queries.
+   */
+  public static void main(String[] args) throws InterruptedException {
+    StreetSearcher streetSearcher = new StreetSearcher();
+    Path dataFile = Paths.get("res", "src", getDataFile());
+    File data = dataFile.toFile();
+
+    try {
+      streetSearcher.loadNetwork(data);
+    } catch (FileNotFoundException e) {
+      System.err.println("Could not find file " + data.getName());
+      return;
+    }
+    scale(streetSearcher);
+  }
+}
@@ -0,0 +1,83 @@
+package hw8;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Future;
+
+import static junit.framework.TestCase.*;
+
+public class RouteServiceTest {
+
+  private static final int SIDE = 12;
+
+  private CsrGraph<String, String> csr;
+
+  @Before
+  public void setupGraph() {
+    csr = TestNetworks.grid(SIDE, 9);
+  }
+
+  @Test
+  public void testConcurrentQueriesMatchSequential() throws Exception {
+    int n = csr.vertexCount();
+    int[] sources = new int[200];
+    int[] targets = new int[200];
+    Random random = new Random(10);
+    for (int i = 0; i < sources.length; i++) {
+      sources[i] = random.nextInt(n);
+      targets[i] = random.nextInt(n);
+    }
+    DijkstraEngine engine = new DijkstraEngine(csr);
+    try (RouteService service = new RouteService(4,
+        () -> new DijkstraEngine(csr))) {
+      List<Route> routes = service.routeAll(sources, targets);
+      for (int i = 0; i < sources.length; i++) {
+        assertEquals(engine.route(sources[i], targets[i]).distance(),
+            routes.get(i).distance(), 0);
+      }
+      assertEquals(sources.length, service.completed());
+      assertTrue(service.meanLatencyNanos() > 0);
+      assertTrue(service.maxLatencyNanos() >= service.meanLatencyNanos());
+      assertTrue(service.throughput() > 0);
+    }
+  }
+
+  @Test
+  public void testSubmitFromManyThreads() throws Exception {
+    try (RouteService service = new RouteService(csr)) {
+      List<Thread> callers = new ArrayList<>();
+      List<Future<Route>> futures = new ArrayList<>();
+      for (int c = 0; c < 4; c++) {
+        callers.add(new Thread(() -> {
+          for (int i = 0; i < 25; i++) {
+            Future<Route> future = service.submit(0, csr.vertexCount() - 1);
+            synchronized (futures) {
+              futures.add(future);
+            }
+          }
+        }));
+      }
+      for (Thread caller : callers) {
+        caller.start();
+      }
+      for (Thread caller : callers) {
+        caller.join();
+      }
+      double expected = new DijkstraEngine(csr)
+          .route(0, csr.vertexCount() - 1).distance();
+      for (Future<Route> future : futures) {
+        assertEquals(expected, future.get().distance(), 0);
+      }
+      assertEquals(100, service.completed());
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNoThreadsThrows() {
+    new RouteService(0, () -> new DijkstraEngine(csr));
+  }
+}
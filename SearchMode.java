@@ -0,0 +1,19 @@
+package hw8;
+
+/**
+ * The ways StreetSearcher can look for a shortest path.
+ */
+public enum SearchMode {
+  /** Dijkstra's until every reachable vertex is settled. */
+  FULL,
+  /** Dijkstra's until the end vertex is settled. */
+  POINT_TO_POINT,
+  /** Dijkstra's from both ends until the two searches meet. */
+  BIDIRECTIONAL,
+  /** A* guided by the straight-line distance to the end vertex. */
+  ASTAR,
+  /** A* guided by distances to landmarks selected on first use. */
+  ALT,
+  /** Upward searches in a contraction hierarchy built on first use. */
+  CONTRACTION_HIERARCHY
+}
@@ -0,0 +1,171 @@
+package hw8;
+
+/**
+ * Counters and timings of one shortest path query.
+ *
+ * <p>Searches count as they go: vertices settled, edges relaxed (looked
+ * at while settling a vertex), insert and decreaseKey calls, and the most
+ * entries their priority queues held at once. StreetSearcher adds how long the
+ * search, building the path, and printing it took. The counters are
+ * plain fields bumped in the inner loops, so keeping them costs next to
+ * nothing.</p>
+ */
+public final class SearchStats {
+
+  int settled;
+  long relaxed;
+  long inserts;
+  long decreaseKeys;
+  int heapHighWater;
+  long searchNanos;
+  long pathNanos;
+  long printNanos;
+
+  /**
+   * Creates stats with everything 0.
+   */
+  public SearchStats() {
+  }
+
+  /**
+   * Creates a copy.
+   *
+   * @param other Stats to copy.
+   */
+  public SearchStats(SearchStats other) {
+    this.counters(other);
+    this.searchNanos = other.searchNanos;
+    this.pathNanos = other.pathNanos;
+    this.printNanos = other.printNanos;
+  }
+
+  /**
+   * Set everything back to 0.
+   */
+  public void reset() {
+    this.settled = 0;
+    this.relaxed = 0;
+    this.inserts = 0;
+    this.decreaseKeys = 0;
+    this.heapHighWater = 0;
+    this.searchNanos = 0;
+    this.pathNanos = 0;
+    this.printNanos = 0;
+  }
+
+  // Take over the counters, but not the timings, of other.
+  void counters(SearchStats other) {
+    this.settled = other.settled;
+    this.relaxed = other.relaxed;
+    this.inserts = other.inserts;
+    this.decreaseKeys = other.decreaseKeys;
+    this.heapHighWater = other.heapHighWater;
+  }
+
+  // Note the size of a queue after an insert.
+  void heap(int size) {
+    if (size > this.heapHighWater) {
+      this.heapHighWater = size;
+    }
+  }
+
+  /**
+   * Vertices settled.
+   *
+   * @return Number of vertices the search removed from its queues.
+   */
+  public int settled() {
+    return this.settled;
+  }
+
+  /**
+   * Edges relaxed.
+   *
+   * @return Number of edges looked at from settled vertices.
+   */
+  public long relaxed() {
+    return this.relaxed;
+  }
+
+  /**
+   * Vertices queued.
+   *
+   * @return Number of insert calls.
+   */
+  public long inserts() {
+    return this.inserts;
+  }
+
+  /**
+   * Keys lowered.
+   *
+   * @return Number of decreaseKey calls.
+   */
+  public long decreaseKeys() {
+    return this.decreaseKeys;
+  }
+
+  /**
+   * Priority queue operations.
+   *
+   * @return Number of insert, decreaseKey and removeMin calls; every
+   *     vertex settled was removed from a queue once.
+   */
+  public long heapOperations() {
+    return this.inserts + this.decreaseKeys + this.settled;
+  }
+
+  /**
+   * Largest queue.
+   *
+   * @return Most entries the queues of the search held at once.
+   */
+  public int heapHighWater() {
+    return this.heapHighWater;
+  }
+
+  /**
+   * Time spent searching.
+   *
+   * @return Nanoseconds taken to find the route.
+   */
+  public long searchNanos() {
+    return this.searchNanos;
+  }
+
+  /**
+   * Time spent building the path.
+   *
+   * @return Nanoseconds taken by getPath.
+   */
+  public long pathNanos() {
+    return this.pathNanos;
+  }
+
+  /**
+   * Time spent printing.
+   *
+   * @return Nanoseconds taken by printPath.
+   */
+  public long printNanos() {
+    return this.printNanos;
+  }
+
+  /**
+   * Time of the whole query.
+   *
+   * @return Nanoseconds taken to search, build the path and print it.
+   */
+  public long totalNanos() {
+    return this.searchNanos + this.pathNanos + this.printNanos;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("settled %d, relaxed %d, inserts %d,"
+            + " decreaseKeys %d, heap high-water %d, search %.3f ms,"
+            + " path %.3f ms, print %.3f ms", this.settled, this.relaxed,
+        this.inserts, this.decreaseKeys, this.heapHighWater,
+        this.searchNanos / 1e6, this.pathNanos / 1e6, this.printNanos / 1e6);
+  }
+}
@@ -0,0 +1,243 @@
+package hw8;
+
+import java.util.Arrays;
+
+/**
+ * Shortest paths from one source to every vertex of a DynamicGraph.
+ *
+ * <p>Holds a distance and a tree edge per vertex, computed in full once
+ * and then repaired by the graph whenever weights change, see
+ * DynamicGraph.</p>
+ */
+public final class ShortestPathTree {
+
+  private static final int NONE = -1;
+
+  private final DynamicGraph graph;
+  private final int source;
+  private final double[] distance;
+  private final int[] via;
+  private final SearchStats stats;
+  private int touched;
+
+  // Called by DynamicGraph.tree().
+  ShortestPathTree(DynamicGraph graph, int source) {
+    int n = graph.vertexCount();
+    this.graph = graph;
+    this.source = source;
+    this.distance = new double[n];
+    this.via = new int[n];
+    this.stats = new SearchStats();
+    this.touched = this.recompute();
+  }
+
+  /**
+   * Root of the tree.
+   *
+   * @return Id of the source vertex.
+   */
+  public int source() {
+    return this.source;
+  }
+
+  /**
+   * Distance to vertex.
+   *
+   * @param v Vertex id.
+   * @return Length of the shortest path from the source to v, or
+   *     Double.POSITIVE_INFINITY if v can't be reached.
+   */
+  public double distance(int v) {
+    return this.distance[v];
+  }
+
+  /**
+   * Tree edge into vertex.
+   *
+   * @param v Vertex id.
+   * @return Id of the last edge on the shortest path to v, or -1 for the
+   *     source and for vertices that can't be reached.
+   */
+  public int via(int v) {
+    return this.via[v];
+  }
+
+  /**
+   * Shortest path to vertex.
+   *
+   * @param target Vertex id.
+   * @return Edge ids along the path from the source to target (empty if
+   *     target is the source), or null if target can't be reached.
+   */
+  public int[] path(int target) {
+    if (this.distance[target] == Double.POSITIVE_INFINITY) {
+      return null;
+    }
+    int length = 0;
+    for (int v = target; v != this.source;
+         v = this.graph.source(this.via[v])) {
+      length++;
+    }
+    int[] path = new int[length];
+    for (int v = target; length > 0; v = this.graph.source(this.via[v])) {
+      path[--length] = this.via[v];
+    }
+    return path;
+  }
+
+  /**
+   * Vertices touched by the last repair.
+   *
+   * @return Number of vertices the last repair (or the initial
+   *     computation) reset or settled.
+   */
+  public int touched() {
+    return this.touched;
+  }
+
+  /**
+   * Work of the last repair.
+   *
+   * @return Counters of the last repair or the initial computation, with
+   *     the same meaning as those of a search.
+   */
+  public SearchStats stats() {
+    return this.stats;
+  }
+
+  /**
+   * Throw the tree away and compute it from scratch.
+   *
+   * @return Number of vertices settled, what a full recompute touches.
+   */
+  public int recompute() {
+    Arrays.fill(this.distance, Double.POSITIVE_INFINITY);
+    Arrays.fill(this.via, NONE);
+    IndexedHeap queue = this.graph.queue();
+    queue.clear();
+    this.stats.reset();
+    this.distance[this.source] = 0;
+    queue.insert(this.source, 0);
+    this.stats.inserts++;
+    this.stats.heap(1);
+    this.touched = this.propagate(queue, this.graph.nextMark());
+    return this.touched;
+  }
+
+  // Repair after edges[i] changed from before[i] to its current weight.
+  int repair(int[] edges, double[] before) {
+    int[] mark = this.graph.marks();
+    int cut = this.graph.nextMark();
+    IndexedHeap queue = this.graph.queue();
+    queue.clear();
+    this.stats.reset();
+
+    // Cut loose the subtrees below tree edges that got longer.
+    int[] stack = new int[16];
+    int top = 0;
+    for (int i = 0; i < edges.length; i++) {
+      int e = edges[i];
+      int v = this.graph.target(e);
+      if (this.graph.weight(e) > before[i] && this.via[v] == e
+          && mark[v] != cut) {
+        mark[v] = cut;
+        if (top == stack.length) {
+          stack = Arrays.copyOf(stack, 2 * top);
+        }
+        stack[top++] = v;
+      }
+    }
+    int[] affected = new int[Math.max(16, top)];
+    int count = 0;
+    while (top > 0) {
+      int v = stack[--top];
+      if (count == affected.length) {
+        affected = Arrays.copyOf(affected, 2 * count);
+      }
+      affected[count++] = v;
+      for (int e = this.graph.begin(v), end = this.graph.end(v); e < end;
+           e++) {
+        int u = this.graph.target(e);
+        if (this.via[u] == e && mark[u] != cut) {
+          mark[u] = cut;
+          if (top == stack.length) {
+            stack = Arrays.copyOf(stack, 2 * top);
+          }
+          stack[top++] = u;
+        }
+      }
+    }
+    for (int k = 0; k < count; k++) {
+      this.distance[affected[k]] = Double.POSITIVE_INFINITY;
+      this.via[affected[k]] = NONE;
+    }
+
+    // Reattach them by their best edge from the rest of the tree ...
+    for (int k = 0; k < count; k++) {
+      int v = affected[k];
+      for (int i = this.graph.inBegin(v); i < this.graph.inEnd(v); i++) {
+        int e = this.graph.inEdge(i);
+        int u = this.graph.source(e);
+        if (mark[u] != cut) {
+          this.offer(queue, v, e, this.distance[u] + this.graph.weight(e));
+        }
+      }
+    }
+    // ... and pull in whatever edges that got shorter now reach cheaper.
+    for (int i = 0; i < edges.length; i++) {
+      int e = edges[i];
+      if (this.graph.weight(e) < before[i]) {
+        int u = this.graph.source(e);
+        this.offer(queue, this.graph.target(e), e,
+            this.distance[u] + this.graph.weight(e));
+      }
+    }
+    int done = this.graph.nextMark();
+    this.touched = this.propagate(queue, done);
+    for (int k = 0; k < count; k++) {
+      if (mark[affected[k]] != done) {
+        // cut off for good, touched without being settled
+        this.touched++;
+      }
+    }
+    return this.touched;
+  }
+
+  // Give v a shorter tentative distance through edge e if dist is one.
+  private void offer(IndexedHeap queue, int v, int e, double dist) {
+    if (dist < this.distance[v]) {
+      this.distance[v] = dist;
+      this.via[v] = e;
+      if (queue.contains(v)) {
+        queue.decreaseKey(v, dist);
+        this.stats.decreaseKeys++;
+      } else {
+        queue.insert(v, dist);
+        this.stats.inserts++;
+        this.stats.heap(queue.size());
+      }
+    }
+  }
+
+  // Dijkstra's from the queued vertices; returns how many were settled.
+  private int propagate(IndexedHeap queue, int done) {
+    int[] mark = this.graph.marks();
+    int settled = 0;
+    while (!queue.isEmpty()) {
+      int v = queue.removeMin();
+      mark[v] = done;
+      settled++;
+      this.stats.settled++;
+      this.stats.relaxed += this.graph.end(v) - this.graph.begin(v);
+      double d = this.distance[v];
+      for (int e = this.graph.begin(v), end = this.graph.end(v); e < end;
+           e++) {
+        int u = this.graph.target(e);
+        if (mark[u] != done) {
+          this.offer(queue, u, e, d + this.graph.weight(e));
+        }
+      }
+    }
+    return settled;
+  }
+}
@@ -0,0 +1,153 @@
+package hw8;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static junit.framework.TestCase.*;
+
+public class ShortestPathTreeTest {
+
+  private static final int SIDE = 15;
+
+  private DynamicGraph dynamic;
+
+  @Before
+  public void setupGraph() {
+    dynamic = new DynamicGraph(TestNetworks.grid(SIDE, 14));
+  }
+
+  // Distances and tree edges agree with a search from scratch.
+  private void assertCorrect(ShortestPathTree tree) {
+    DijkstraEngine engine = new DijkstraEngine(dynamic);
+    engine.run(tree.source());
+    for (int v = 0; v < dynamic.vertexCount(); v++) {
+      assertEquals(engine.distance(v), tree.distance(v), 0);
+      int e = tree.via(v);
+      if (v == tree.source()
+          || tree.distance(v) == Double.POSITIVE_INFINITY) {
+        assertEquals(-1, e);
+      } else {
+        assertEquals(v, dynamic.target(e));
+        assertEquals(tree.distance(v),
+            tree.distance(dynamic.source(e)) + dynamic.weight(e), 0);
+      }
+    }
+  }
+
+  @Test
+  public void testInitialTree() {
+    ShortestPathTree tree = dynamic.tree(7);
+    assertCorrect(tree);
+    assertEquals(SIDE * SIDE, tree.touched());
+    int[] path = tree.path(SIDE * SIDE - 1);
+    double length = 0;
+    for (int e : path) {
+      length += dynamic.weight(e);
+    }
+    assertEquals(tree.distance(SIDE * SIDE - 1), length, 0);
+    assertEquals(0, tree.path(7).length);
+  }
+
+  @Test
+  public void testRandomBatches() {
+    ShortestPathTree[] trees = {dynamic.tree(0), dynamic.tree(100),
+        dynamic.tree(SIDE * SIDE - 1)};
+    Random random = new Random(15);
+    for (int round = 0; round < 40; round++) {
+      WeightUpdate update = new WeightUpdate();
+      for (int k = 0; k < 1 + random.nextInt(6); k++) {
+        int e = random.nextInt(dynamic.edgeCount());
+        switch (random.nextInt(4)) {
+          case 0:
+            update.remove(e);
+            break;
+          case 1:
+            update.set(e, dynamic.weight(e) / 2);
+            break;
+          default:
+            update.set(e, 1 + random.nextInt(80));
+        }
+      }
+      long touched = dynamic.apply(update);
+      long sum = 0;
+      for (ShortestPathTree tree : trees) {
+        assertCorrect(tree);
+        sum += tree.touched();
+      }
+      assertEquals(sum, touched);
+    }
+    assertEquals(40, dynamic.version());
+  }
+
+  @Test
+  public void testRepairTouchesLessThanRecompute() {
+    ShortestPathTree tree = dynamic.tree(0);
+    // lengthen a tree edge deep in the tree
+    int far = SIDE * SIDE - 1;
+    int e = tree.via(far);
+    dynamic.apply(new WeightUpdate().set(e, dynamic.weight(e) + 1000));
+    assertCorrect(tree);
+    int repaired = tree.touched();
+    assertTrue(repaired > 0);
+    assertTrue(repaired < tree.recompute());
+    assertCorrect(tree);
+
+    // an unrelated edge getting longer needs no work
+    int other = -1;
+    for (int f = 0; f < dynamic.edgeCount() && other < 0; f++) {
+      if (tree.via(dynamic.target(f)) != f) {
+        other = f;
+      }
+    }
+    assertEquals(0, dynamic.apply(new WeightUpdate().set(other,
+        dynamic.weight(other) + 1)));
+  }
+
+  @Test
+  public void testClosingCutsOffAndReopeningReconnects() {
+    ShortestPathTree tree = dynamic.tree(0);
+    // corner 0 only has two streets leaving it
+    WeightUpdate close = new WeightUpdate();
+    for (int e = dynamic.begin(0); e < dynamic.end(0); e++) {
+      close.remove(e);
+    }
+    dynamic.apply(close);
+    assertCorrect(tree);
+    assertNull(tree.path(1));
+    assertEquals(SIDE * SIDE - 1, tree.touched());
+
+    WeightUpdate open = new WeightUpdate().set(dynamic.begin(0), 5);
+    dynamic.apply(open);
+    assertCorrect(tree);
+    assertEquals(5.0, tree.distance(dynamic.target(dynamic.begin(0))), 0);
+
+    dynamic.forget(tree);
+    assertEquals(0, dynamic.apply(new WeightUpdate().remove(0)));
+  }
+
+  @Test
+  public void testWeightsAreCopiedOnFirstUpdate() {
+    CsrGraph<String, String> base = TestNetworks.grid(SIDE, 14);
+    DynamicGraph roads = new DynamicGraph(base);
+    assertSame(base, roads.frozen());
+    assertEquals(base.weight(3), roads.weight(3), 0);
+
+    roads.apply(new WeightUpdate().set(3, 1000));
+    IntGraph frozen = roads.frozen();
+    assertNotSame(base, frozen);
+    assertEquals(1000, roads.weight(3), 0);
+    assertEquals(1000, frozen.weight(3), 0);
+    assertEquals(base.weight(4), roads.weight(4), 0);
+    assertTrue(base.weight(3) < 1000);
+
+    roads.apply(new WeightUpdate().remove(3));
+    assertEquals(1000, frozen.weight(3), 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeWeightThrows() {
+    new WeightUpdate().set(0, -1);
+  }
+}
@@ -3,8 +3,14 @@ package hw8;
 import exceptions.InsertionException;
 import exceptions.PositionException;
 import exceptions.RemovalException;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 
@@ -17,8 +23,21 @@ import java.util.Set;
  */
 public class SparseGraph<V, E> implements Graph<V, E> {
 
+  // Out degree up to which edge() scans instead of building a lookup
+  private static final int SCAN_DEGREE = 8;
+
   private Set<Vertex<V>> vertices;
-  private Set<Edge<E>> edges;//can be a hashtable
+  private Set<Edge<E>> edges;
+  // Index from vertex data to the vertex holding it, for duplicate checks
+  private Map<V, Vertex<V>> index;
+  // Bumped by every change, read by caches that may live on other threads
+  private volatile long version;
+  // Labels stamped with an older generation have been cleared
+  private int generation;
+  // Ids handed out so far, ids of removed positions aren't reused so
+  // these only grow; see vertexId()
+  private int vertexIds;
+  private int edgeIds;
 
   /**
    * Constructor for instantiating a graph.
@@ -26,6 +45,7 @@ public class SparseGraph<V, E> implements Graph<V, E> {
   public SparseGraph() {
     this.vertices = new LinkedHashSet<>();
     this.edges = new LinkedHashSet<>();
+    this.index = new HashMap<>();
   }
 
   // Checks vertex belongs to this graph
@@ -64,25 +84,35 @@ public class SparseGraph<V, E> implements Graph<V, E> {
     }
   }
 
-  private boolean has(Set<Vertex<V>> s, VertexNode<V> vert) {
-    for (Vertex<V> ve: vertices) {
-      VertexNode<V> vertex = convert(ve);
-      if (vertex.data.equals(vert.data)) {
-        return true;
-      }
+  // Moves the index entry of vert to the value v it's about to take, if
+  // vert is still in the graph; v can't be the value of another vertex
+  // then. A removed vertex isn't indexed and can take any value.
+  private void rename(Vertex<?> vert, Object v) {
+    if (index.get(vert.get()) != vert) {
+      return;
+    }
+    Vertex<V> other = index.get(v);
+    if (other != null && other != vert) {
+      throw new IllegalArgumentException(String.valueOf(v));
+    }
+    if (index.remove(vert.get(), vert)) {
+      // every VertexNode of this graph holds a V
+      @SuppressWarnings("unchecked")
+      Vertex<V> same = (Vertex<V>) vert;
+      @SuppressWarnings("unchecked")
+      V value = (V) v;
+      index.put(value, same);
     }
-    return false;
   }
 
+  // Checks vertex is (still) in this graph, nodes hash by identity
+  private boolean has(Set<Vertex<V>> s, VertexNode<V> vert) {
+    return s.contains(vert);
+  }
+
+  // Checks edge is (still) in this graph, nodes hash by identity
   private boolean has(Set<Edge<E>> s, EdgeNode<E> edg) {
-    for (Edge<E> ed: edges) {
-      EdgeNode<E> edge = convert(ed);
-      if (edge.from.data.equals(edg.from.data)
-          & edge.to.data.equals(edg.to.data)) {
-        return true;
-      }
-    }
-    return false;
+    return s.contains(edg);
   }
 
   @Override
@@ -90,15 +120,31 @@ public class SparseGraph<V, E> implements Graph<V, E> {
     if (v == null) {
       return null;
     }
-    VertexNode<V> vert = new VertexNode<>(v);
-    if (has(vertices, vert)) {
-      return vert;
+    Vertex<V> present = index.get(v);
+    if (present != null) {
+      return present;
     }
+    VertexNode<V> vert = new VertexNode<>(v);
     vert.owner = this;
     vertices.add(vert);
+    index.put(v, vert);
+    version++;
     return vert;
   }
 
+  /**
+   * Vertex holding an element.
+   *
+   * <p>Finds the vertex insert(v) would return without inserting one.</p>
+   *
+   * @param v Element to look for.
+   * @return Vertex position whose element equals v, or null if there is
+   *     none.
+   */
+  public Vertex<V> vertex(V v) {
+    return v == null ? null : index.get(v);
+  }
+
   @Override
   public Edge<E> insert(Vertex<V> from, Vertex<V> to, E e)
       throws PositionException, InsertionException {
@@ -106,17 +152,62 @@ public class SparseGraph<V, E> implements Graph<V, E> {
     VertexNode<V> f = convert(from);
     VertexNode<V> t = convert(to);
     insertEdgeExceptionCheck(from, to, f, t);
-    EdgeNode<E> edg = new EdgeNode<>(f, t, e);
-    if (has(edges, edg)) {
+    if (find(f, t) != null) {
       throw new InsertionException();
     }
+    EdgeNode<E> edg = new EdgeNode<>(f, t, e);
     edg.owner = this;
     edges.add(edg);
-    t.incoming.add(edg);
-    f.outgoing.add(edg);
+    if (f.targets != null) {
+      f.targets.put(t, edg);
+    }
+    f.out = append(f.out, f.outCount++, edg);
+    t.in = append(t.in, t.inCount++, edg);
+    version++;
     return edg;
   }
 
+  /**
+   * Edge between two vertices.
+   *
+   * <p>Lets callers check for an edge before inserting it instead of
+   * catching the InsertionException.</p>
+   *
+   * @param from Vertex position where edge starts.
+   * @param to Vertex position where edge ends.
+   * @return Edge position from from to to, or null if there is none.
+   * @throws PositionException If either vertex position is invalid.
+   */
+  public Edge<E> edge(Vertex<V> from, Vertex<V> to) throws PositionException {
+    VertexNode<V> f = convert(from);
+    VertexNode<V> t = convert(to);
+    if (from == null | to == null
+        | !has(vertices, f) | !has(vertices, t)) {
+      throw new PositionException();
+    }
+    return find(f, t);
+  }
+
+  // Edge from f to t or null: a scan of few edges, a lookup for many,
+  // made the first time it's needed and kept up to date from then on
+  private Edge<E> find(VertexNode<V> f, VertexNode<V> t) {
+    if (f.targets == null) {
+      if (f.outCount <= SCAN_DEGREE) {
+        for (int k = 0; k < f.outCount; k++) {
+          if (f.out[k].to == t) {
+            return f.out[k];
+          }
+        }
+        return null;
+      }
+      f.targets = new HashMap<>();
+      for (int k = 0; k < f.outCount; k++) {
+        f.targets.put(f.out[k].to, f.out[k]);
+      }
+    }
+    return f.targets.get(t);
+  }
+
   /**
    * Checks for exceptions in insert Edge.
    * @param from is the start vertex.
@@ -130,7 +221,7 @@ public class SparseGraph<V, E> implements Graph<V, E> {
         | !has(vertices, f) | !has(vertices, t)) {
       throw new PositionException();
     }
-    if (f.data.equals(t.data)) {
+    if (f == t) {
       throw new InsertionException();
     }
   }
@@ -142,11 +233,13 @@ public class SparseGraph<V, E> implements Graph<V, E> {
     if (v == null | !has(vertices, vert)) {
       throw new PositionException();
     }
-    if (!vert.outgoing.isEmpty() | !vert.incoming.isEmpty()) {
+    if (vert.outCount != 0 | vert.inCount != 0) {
       throw new RemovalException();
     }
 
     vertices.remove(vert);
+    index.remove(vert.data, vert);
+    version++;
     return vert.data;
   }
 
@@ -158,11 +251,95 @@ public class SparseGraph<V, E> implements Graph<V, E> {
     }
 
     edges.remove(edg);
-    edg.from.outgoing.remove(edg);
-    edg.to.incoming.remove(edg);
+    if (edg.from.targets != null) {
+      edg.from.targets.remove(edg.to);
+    }
+    edg.from.outCount = delete(edg.from.out, edg.from.outCount, edg);
+    edg.to.inCount = delete(edg.to.in, edg.to.inCount, edg);
+    edg.from.outRemoved++;
+    edg.to.inRemoved++;
+    version++;
     return edg.data;
   }
 
+  // Put edg at index count of edgs, in a bigger copy if it's full
+  private EdgeNode<E>[] append(EdgeNode<E>[] edgs, int count,
+                               EdgeNode<E> edg) {
+    if (edgs == null) {
+      @SuppressWarnings("unchecked") // arrays of a generic type can't be made
+      EdgeNode<E>[] empty =
+          (EdgeNode<E>[]) new SparseGraph<?, ?>.EdgeNode<?>[2];
+      edgs = empty;
+    } else if (count == edgs.length) {
+      edgs = Arrays.copyOf(edgs, 2 * count);
+    }
+    edgs[count] = edg;
+    return edgs;
+  }
+
+  // Take edg out of the first count of edgs keeping the order, new count
+  private int delete(EdgeNode<E>[] edgs, int count, EdgeNode<E> edg) {
+    int i = 0;
+    while (edgs[i] != edg) {
+      i++;
+    }
+    System.arraycopy(edgs, i + 1, edgs, i, count - i - 1);
+    edgs[count - 1] = null;
+    return count - 1;
+  }
+
+  /**
+   * Make a cursor over outgoing edges, weighed by their labels.
+   *
+   * @return Cursor to reset() to a vertex before use.
+   */
+  public EdgeCursor<V, E> outgoingCursor() {
+    return new Cursor(true, null);
+  }
+
+  /**
+   * Make a cursor over outgoing edges, weighed by a property.
+   *
+   * @param weights Edge weights of this graph.
+   * @return Cursor to reset() to a vertex before use.
+   * @throws IllegalArgumentException If weights belongs to another graph.
+   */
+  public EdgeCursor<V, E> outgoingCursor(DoubleEdgeProperty weights) {
+    return new Cursor(true, this.own(weights));
+  }
+
+  /**
+   * Make a cursor over incoming edges, weighed by their labels.
+   *
+   * @return Cursor to reset() to a vertex before use.
+   */
+  public EdgeCursor<V, E> incomingCursor() {
+    return new Cursor(false, null);
+  }
+
+  /**
+   * Make a cursor over incoming edges, weighed by a property.
+   *
+   * @param weights Edge weights of this graph.
+   * @return Cursor to reset() to a vertex before use.
+   * @throws IllegalArgumentException If weights belongs to another graph.
+   */
+  public EdgeCursor<V, E> incomingCursor(DoubleEdgeProperty weights) {
+    return new Cursor(false, this.own(weights));
+  }
+
+  private DoubleEdgeProperty own(DoubleEdgeProperty weights) {
+    if (weights.graph() != this) {
+      throw new IllegalArgumentException("weights of another graph");
+    }
+    return weights;
+  }
+
+  // Weight of an edge without a property, like freeze() takes it
+  private static double weight(Object label) {
+    return label instanceof Number ? ((Number) label).doubleValue() : 1;
+  }
+
   @Override
   public Iterable<Vertex<V>> vertices() {
     return Collections.unmodifiableSet(vertices);
@@ -179,7 +356,7 @@ public class SparseGraph<V, E> implements Graph<V, E> {
     if (v == null | !has(vertices, vert)) {
       throw new PositionException();
     }
-    return Collections.unmodifiableSet(vert.outgoing);
+    return new Adjacent(vert, true);
   }
 
   @Override
@@ -188,7 +365,7 @@ public class SparseGraph<V, E> implements Graph<V, E> {
     if (v == null | !has(vertices, vert)) {
       throw new PositionException();
     }
-    return Collections.unmodifiableSet(vert.incoming);
+    return new Adjacent(vert, false);
   }
 
   @Override
@@ -216,6 +393,8 @@ public class SparseGraph<V, E> implements Graph<V, E> {
       throw new PositionException();
     }
     vert.label = l;
+    vert.stamp = generation;
+    version++;
   }
 
   @Override
@@ -225,6 +404,8 @@ public class SparseGraph<V, E> implements Graph<V, E> {
       throw new PositionException();
     }
     edg.label = l;
+    edg.stamp = generation;
+    version++;
   }
 
   @Override
@@ -233,7 +414,7 @@ public class SparseGraph<V, E> implements Graph<V, E> {
     if (v == null | !has(vertices, vert)) {
       throw new PositionException();
     }
-    return vert.label;
+    return vert.label();
   }
 
   @Override
@@ -242,20 +423,207 @@ public class SparseGraph<V, E> implements Graph<V, E> {
     if (e == null | !has(edges, edg)) {
       throw new PositionException();
     }
-    return edg.label;
+    return edg.label();
   }
 
+  /**
+   * Forget all labels in constant time.
+   *
+   * <p>Labels carry the generation they were set in and clearing just
+   * starts a new one, so older labels read as null from then on. Only
+   * when the generation counter wraps around, after 2^32 clears, are the
+   * labels actually walked and dropped, since old stamps could match
+   * again. Until a position is labeled again its stale label stays
+   * reachable.</p>
+   */
   @Override
   public void clearLabels() {
-    for (Edge<E> e : edges) {
-      EdgeNode<E> edg = convert(e);
-      edg.label = null;
+    generation++;
+    if (generation == 0) {
+      for (Edge<E> e : edges) {
+        convert(e).label = null;
+      }
+      for (Vertex<V> v : vertices) {
+        convert(v).label = null;
+      }
+    }
+    version++;
+  }
+
+  /**
+   * Dense id of a vertex, to index property maps with.
+   *
+   * <p>Vertices are numbered 0, 1, 2, ... in the order they are inserted.
+   * The id of a removed vertex is not given out again, so an id held on
+   * to never turns into another vertex. The price is that ids, and the
+   * property maps indexed by them, keep growing while vertices are
+   * inserted and removed; rebuild the graph if it churns for long.</p>
+   *
+   * @param v Vertex position.
+   * @return Id of v, less than vertexIds().
+   * @throws PositionException If v is not a vertex of this graph.
+   */
+  public int vertexId(Vertex<V> v) throws PositionException {
+    return this.anyVertexId(v);
+  }
+
+  // vertexId() for property maps, which don't know V
+  int anyVertexId(Vertex<?> v) throws PositionException {
+    if (!(v instanceof SparseGraph.VertexNode)) {
+      throw new PositionException();
+    }
+    SparseGraph<?, ?>.VertexNode<?> vert = (SparseGraph<?, ?>.VertexNode<?>) v;
+    if (!vertices.contains(vert)) {
+      throw new PositionException();
+    }
+    return vert.id;
+  }
+
+  /**
+   * Dense id of an edge, to index property maps with.
+   *
+   * <p>Edges are numbered like vertices, see vertexId(): ids of removed
+   * edges are not given out again, so they grow with every insert.</p>
+   *
+   * @param e Edge position.
+   * @return Id of e, less than edgeIds().
+   * @throws PositionException If e is not an edge of this graph.
+   */
+  public int edgeId(Edge<E> e) throws PositionException {
+    return this.anyEdgeId(e);
+  }
+
+  // edgeId() for property maps, which don't know E
+  int anyEdgeId(Edge<?> e) throws PositionException {
+    if (!(e instanceof SparseGraph.EdgeNode)) {
+      throw new PositionException();
+    }
+    SparseGraph<?, ?>.EdgeNode<?> edg = (SparseGraph<?, ?>.EdgeNode<?>) e;
+    if (!edges.contains(edg)) {
+      throw new PositionException();
     }
+    return edg.id;
+  }
+
+  /**
+   * Bound on vertex ids.
+   *
+   * @return Number of vertex ids given out, removed vertices included.
+   *     Once Integer.MAX_VALUE ids are given out, inserting another
+   *     vertex throws ArithmeticException.
+   */
+  public int vertexIds() {
+    return vertexIds;
+  }
+
+  /**
+   * Bound on edge ids.
+   *
+   * @return Number of edge ids given out, removed edges included.
+   *     Once Integer.MAX_VALUE ids are given out, inserting another edge
+   *     throws ArithmeticException.
+   */
+  public int edgeIds() {
+    return edgeIds;
+  }
+
+  /**
+   * Make a double for every edge, like a label without boxing.
+   *
+   * @param missing Value of edges that weren't set.
+   * @return New property of the edges of this graph.
+   */
+  public DoubleEdgeProperty doubleEdgeProperty(double missing) {
+    return new DoubleEdgeProperty(this, missing);
+  }
+
+  /**
+   * Make an int for every vertex.
+   *
+   * @param missing Value of vertices that weren't set.
+   * @return New property of the vertices of this graph.
+   */
+  public IntVertexProperty intVertexProperty(int missing) {
+    return new IntVertexProperty(this, missing);
+  }
+
+  /**
+   * Make an object of one type for every vertex.
+   *
+   * @param <T> Value type.
+   * @return New property of the vertices of this graph, null where unset.
+   */
+  public <T> ObjectVertexProperty<T> objectVertexProperty() {
+    return new ObjectVertexProperty<>(this);
+  }
+
+  /**
+   * Number of changes made to this graph.
+   *
+   * <p>Goes up with every insert, remove, label, clearLabels and put on
+   * a position, so comparing it with an earlier value tells whether
+   * anything derived from the graph since may be stale.</p>
+   *
+   * @return Version of the graph.
+   */
+  public long version() {
+    return version;
+  }
 
+  /**
+   * Take an immutable compressed sparse row snapshot of this graph.
+   *
+   * <p>Vertices are numbered in iteration order and each vertex's outgoing
+   * edges get consecutive ids. Edge weights come from the edge labels,
+   * an edge whose label isn't a Number gets weight 1. Later changes to this
+   * graph are not reflected in the snapshot.</p>
+   *
+   * @return Snapshot of the current vertices, edges and edge labels.
+   */
+  public CsrGraph<V, E> freeze() {
+    return freeze(null);
+  }
+
+  /**
+   * Take a snapshot with weights from a property instead of labels.
+   *
+   * @param property Edge weights of this graph.
+   * @return Snapshot of the current vertices, edges and weights.
+   * @throws IllegalArgumentException If property belongs to another
+   *     graph.
+   */
+  public CsrGraph<V, E> freeze(DoubleEdgeProperty property) {
+    if (property != null) {
+      this.own(property);
+    }
+    Map<Vertex<V>, Integer> ids = new HashMap<>();
+    @SuppressWarnings("unchecked") // arrays of a generic type can't be made
+    Vertex<V>[] verts = (Vertex<V>[]) new Vertex<?>[vertices.size()];
     for (Vertex<V> v : vertices) {
-      VertexNode<V> vert = convert(v);
-      vert.label = null;
+      ids.put(v, ids.size());
+      verts[ids.size() - 1] = v;
+    }
+
+    @SuppressWarnings("unchecked")
+    Edge<E>[] edgs = (Edge<E>[]) new Edge<?>[edges.size()];
+    int[] offsets = new int[verts.length + 1];
+    int[] targets = new int[edgs.length];
+    double[] weights = new double[edgs.length];
+    int next = 0;
+    for (int i = 0; i < verts.length; i++) {
+      offsets[i] = next;
+      VertexNode<V> vert = convert(verts[i]);
+      for (int k = 0; k < vert.outCount; k++) {
+        EdgeNode<E> edg = vert.out[k];
+        edgs[next] = edg;
+        targets[next] = ids.get(edg.to);
+        weights[next] = property != null ? property.get(edg.id)
+            : weight(edg.label());
+        next++;
+      }
     }
+    offsets[verts.length] = next;
+    return new CsrGraph<>(verts, ids, edgs, offsets, targets, weights);
   }
 
   private String vertexString(Vertex<V> v) {
@@ -295,24 +663,184 @@ public class SparseGraph<V, E> implements Graph<V, E> {
     return sb.toString();
   }
 
+  // Walks the edge arrays of one vertex after another; removing an edge
+  // shifts the ones after it down, so next() finds its place again from
+  // the current edge whenever edges were removed since it last moved
+  private final class Cursor implements EdgeCursor<V, E> {
+    private final boolean outgoing;
+    private final DoubleEdgeProperty weights;
+    private VertexNode<V> vert;
+    private int removed;
+    private int index;
+    private EdgeNode<E> current;
+
+    Cursor(boolean outgoing, DoubleEdgeProperty weights) {
+      this.outgoing = outgoing;
+      this.weights = weights;
+    }
+
+    @Override
+    public EdgeCursor<V, E> reset(Vertex<V> v) throws PositionException {
+      VertexNode<V> vert = convert(v);
+      if (!has(vertices, vert)) {
+        throw new PositionException();
+      }
+      this.vert = vert;
+      this.removed = this.outgoing ? vert.outRemoved : vert.inRemoved;
+      this.index = -1;
+      this.current = null;
+      return this;
+    }
+
+    @Override
+    public boolean next() {
+      VertexNode<V> vert = this.vert;
+      EdgeNode<E>[] edgs = this.outgoing ? vert.out : vert.in;
+      int count = this.outgoing ? vert.outCount : vert.inCount;
+      int removed = this.outgoing ? vert.outRemoved : vert.inRemoved;
+      if (removed == this.removed || this.current == null) {
+        this.index++;
+      } else {
+        this.index = this.after(edgs, count, removed - this.removed);
+      }
+      this.removed = removed;
+      if (this.index < count) {
+        this.current = edgs[this.index];
+        return true;
+      }
+      this.index = count;
+      this.current = null;
+      return false;
+    }
+
+    // Index of the edge after current once k edges were removed; current
+    // moved down by one for each of them before it
+    private int after(EdgeNode<E>[] edgs, int count, int k) {
+      for (int i = Math.min(this.index, count - 1);
+           i >= Math.max(0, this.index - k); i--) {
+        if (edgs[i] == this.current) {
+          return i + 1;
+        }
+      }
+      if (k > 1) {
+        // current is gone, and the others may have been before it
+        throw new ConcurrentModificationException();
+      }
+      // current itself was removed and the next edge took its place
+      return this.index;
+    }
+
+    @Override
+    public Edge<E> edge() {
+      return this.current;
+    }
+
+    @Override
+    public Vertex<V> from() {
+      return this.current.from;
+    }
+
+    @Override
+    public Vertex<V> to() {
+      return this.current.to;
+    }
+
+    @Override
+    public int fromId() {
+      return this.current.from.id;
+    }
+
+    @Override
+    public int toId() {
+      return this.current.to.id;
+    }
+
+    @Override
+    public int edgeId() {
+      return this.current.id;
+    }
+
+    @Override
+    public double weight() {
+      return this.weights != null ? this.weights.get(this.current.id)
+          : SparseGraph.weight(this.current.label());
+    }
+  }
+
+  // Read-only view of the outgoing or incoming edges of a vertex;
+  // iterators fail fast when one of them is removed, like those of the
+  // other views
+  private final class Adjacent implements Iterable<Edge<E>> {
+    private final VertexNode<V> vert;
+    private final boolean outgoing;
+
+    Adjacent(VertexNode<V> vert, boolean outgoing) {
+      this.vert = vert;
+      this.outgoing = outgoing;
+    }
+
+    @Override
+    public Iterator<Edge<E>> iterator() {
+      VertexNode<V> vert = this.vert;
+      boolean outgoing = this.outgoing;
+      int removed = outgoing ? vert.outRemoved : vert.inRemoved;
+      return new Iterator<Edge<E>>() {
+        private int index;
+
+        @Override
+        public boolean hasNext() {
+          return this.index < (outgoing ? vert.outCount : vert.inCount);
+        }
+
+        @Override
+        public Edge<E> next() {
+          if ((outgoing ? vert.outRemoved : vert.inRemoved) != removed) {
+            throw new ConcurrentModificationException();
+          }
+          if (!this.hasNext()) {
+            throw new NoSuchElementException();
+          }
+          return (outgoing ? vert.out : vert.in)[this.index++];
+        }
+      };
+    }
+  }
+
   // Class for a vertex of type V
   private final class VertexNode<V>  implements Vertex<V> {
     V data;
     Graph<V, E> owner;
-    Set<Edge<E>> outgoing;//can be a hashmap
-    Set<Edge<E>> incoming;//can be a hashmap
+    // Outgoing and incoming edges in insertion order, null until the
+    // first one; find() adds a lookup of the outgoing ones by target for
+    // vertices with many
+    EdgeNode<E>[] out;
+    int outCount;
+    EdgeNode<E>[] in;
+    int inCount;
+    // Edges ever taken out of out and in, for cursors walking them
+    int outRemoved;
+    int inRemoved;
+    Map<Vertex<V>, Edge<E>> targets;
+    final int id;
     Object label;
+    int stamp; // generation label was set in
     private double distance;
     private boolean explored;
     private String prev;
 
     VertexNode(V v) {
+      this.id = vertexIds;
+      // before the vertex is added anywhere, so running out changes nothing
+      vertexIds = Math.addExact(vertexIds, 1);
       this.data = v;
-      this.outgoing = new LinkedHashSet<>();
-      this.incoming = new LinkedHashSet<>();
       this.label = null;
     }
 
+    // Label unless it was cleared since it was set
+    Object label() {
+      return this.stamp == generation ? this.label : null;
+    }
+
     @Override
     public V get() {
 
@@ -322,7 +850,9 @@ public class SparseGraph<V, E> implements Graph<V, E> {
     @Override
     public void put(V v) {
 
+      rename(this, v);
       this.data = v;
+      version++;
     }
 
   }
@@ -333,16 +863,25 @@ public class SparseGraph<V, E> implements Graph<V, E> {
     Graph<V, E> owner;
     VertexNode<V> from;
     VertexNode<V> to;
+    final int id;
     Object label;
+    int stamp; // generation label was set in
 
     // Constructor for a new edge
     EdgeNode(VertexNode<V> f, VertexNode<V> t, E e) {
+      this.id = edgeIds;
+      edgeIds = Math.addExact(edgeIds, 1);
       this.from = f;
       this.to = t;
       this.data = e;
       this.label = null;
     }
 
+    // Label unless it was cleared since it was set
+    Object label() {
+      return this.stamp == generation ? this.label : null;
+    }
+
     @Override
     public E get() {
 
@@ -353,6 +892,7 @@ public class SparseGraph<V, E> implements Graph<V, E> {
     public void put(E e) {
 
       this.data = e;
+      version++;
     }
   }
 }
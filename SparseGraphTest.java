@@ -1,5 +1,17 @@
 package hw8;
 
+import exceptions.PositionException;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static junit.framework.TestCase.*;
 
 public class SparseGraphTest extends GraphTest {
 
@@ -7,4 +19,291 @@ public class SparseGraphTest extends GraphTest {
   protected Graph<String, String> createGraph() {
     return new SparseGraph<>();
   }
+
+  @Test
+  public void testClearLabelsStartsAFreshGeneration() {
+    SparseGraph<String, String> g = new SparseGraph<>();
+    Vertex<String> v1 = g.insert("v1");
+    Vertex<String> v2 = g.insert("v2");
+    Edge<String> e1 = g.insert(v1, v2, "v1-v2");
+    g.label(v1, "old");
+    g.label(e1, 2.5);
+    long version = g.version();
+    g.clearLabels();
+    assertTrue(g.version() > version);
+    assertNull(g.label(v1));
+    assertEquals(1.0, g.freeze().weight(0));
+
+    g.label(v2, "new");
+    g.label(e1, 4.0);
+    assertEquals("new", g.label(v2));
+    assertEquals(4.0, g.label(e1));
+    assertEquals(4.0, g.freeze().weight(0));
+    assertNull(g.label(v1));
+    g.clearLabels();
+    g.clearLabels();
+    assertNull(g.label(v2));
+    assertNull(g.label(e1));
+  }
+
+  @Test
+  public void testIdsAreDenseAndNotReused() {
+    SparseGraph<String, String> g = new SparseGraph<>();
+    Vertex<String> v0 = g.insert("v0");
+    Vertex<String> v1 = g.insert("v1");
+    Edge<String> e0 = g.insert(v0, v1, "e0");
+    assertEquals(0, g.vertexId(v0));
+    assertEquals(1, g.vertexId(v1));
+    assertEquals(0, g.edgeId(e0));
+    g.remove(e0);
+    Edge<String> e1 = g.insert(v0, v1, "e1");
+    assertEquals(1, g.edgeId(e1));
+    assertEquals(2, g.edgeIds());
+    assertEquals(2, g.vertexIds());
+  }
+
+  @Test
+  public void testChurnNeverReusesIds() {
+    SparseGraph<String, String> g = new SparseGraph<>();
+    Vertex<String> a = g.insert("a");
+    Vertex<String> b = g.insert("b");
+    DoubleEdgeProperty lengths = g.doubleEdgeProperty(Double.NaN);
+    for (int i = 0; i < 100; i++) {
+      Edge<String> e = g.insert(a, b, "ab");
+      assertEquals(i, g.edgeId(e));
+      lengths.set(e, i);
+      g.remove(e);
+    }
+    assertEquals(100, g.edgeIds());
+    // a new edge doesn't see the value of a removed one
+    assertTrue(Double.isNaN(lengths.get(g.insert(a, b, "ab"))));
+  }
+
+  @Test
+  public void testPropertiesGrowWithTheGraph() {
+    SparseGraph<String, String> g = new SparseGraph<>();
+    Vertex<String> a = g.insert("a");
+    IntVertexProperty previous = g.intVertexProperty(-1);
+    ObjectVertexProperty<Edge<String>> via = g.objectVertexProperty();
+    DoubleEdgeProperty lengths = g.doubleEdgeProperty(Double.NaN);
+    Vertex<String> b = g.insert("b");
+    Edge<String> ab = g.insert(a, b, "ab");
+    assertEquals(-1, previous.get(b));
+    assertNull(via.get(b));
+    assertTrue(Double.isNaN(lengths.get(ab)));
+
+    previous.set(b, g.vertexId(a));
+    via.set(b, ab);
+    lengths.set(ab, 12.5);
+    Edge<String> edge = via.get(b);
+    assertEquals(ab, edge);
+    assertEquals(0, previous.get(g.vertexId(b)));
+    assertEquals(12.5, lengths.get(g.edgeId(ab)));
+    assertNull(g.label(ab));
+
+    Edge<String> ba = g.insert(b, a, "ba");
+    lengths.set(ba, 7);
+    CsrGraph<String, String> csr = g.freeze(lengths);
+    assertEquals(12.5, csr.weight(csr.begin(csr.id(a))));
+    assertEquals(7.0, csr.weight(csr.begin(csr.id(b))));
+    lengths.clear();
+    assertTrue(Double.isNaN(lengths.get(ba)));
+  }
+
+  @Test(expected = PositionException.class)
+  public void testPropertiesRejectRemovedVertices() {
+    SparseGraph<String, String> g = new SparseGraph<>();
+    Vertex<String> a = g.insert("a");
+    IntVertexProperty property = g.intVertexProperty(0);
+    g.remove(a);
+    property.get(a);
+  }
+
+  private static SparseGraph<String, String> randomGraph(int n, int m) {
+    SparseGraph<String, String> g = new SparseGraph<>();
+    List<Vertex<String>> vs = new ArrayList<>();
+    for (int v = 0; v < n; v++) {
+      vs.add(g.insert("v" + v));
+    }
+    Random random = new Random(9);
+    for (int i = 0; i < m; i++) {
+      Vertex<String> a = vs.get(random.nextInt(n));
+      Vertex<String> b = vs.get(random.nextInt(n));
+      if (a != b && g.edge(a, b) == null) {
+        g.label(g.insert(a, b, a.get() + b.get()), (double) i);
+      }
+    }
+    return g;
+  }
+
+  @Test
+  public void testCursorsWalkLikeIterables() {
+    SparseGraph<String, String> g = randomGraph(50, 400);
+    List<Edge<String>> all = new ArrayList<>();
+    for (Edge<String> e : g.edges()) {
+      all.add(e);
+    }
+    for (int i = 0; i < all.size(); i += 3) {
+      g.remove(all.get(i));
+    }
+    DoubleEdgeProperty doubled = g.doubleEdgeProperty(0);
+    for (Edge<String> e : g.edges()) {
+      doubled.set(e, 2 * (Double) g.label(e));
+    }
+    EdgeCursor<String, String> out = g.outgoingCursor();
+    EdgeCursor<String, String> in = g.incomingCursor(doubled);
+    for (Vertex<String> v : g.vertices()) {
+      out.reset(v);
+      for (Edge<String> e : g.outgoing(v)) {
+        assertTrue(out.next());
+        assertSame(e, out.edge());
+        assertSame(v, out.from());
+        assertSame(g.to(e), out.to());
+        assertEquals(g.vertexId(g.to(e)), out.toId());
+        assertEquals(g.edgeId(e), out.edgeId());
+        assertEquals(g.label(e), out.weight());
+      }
+      assertFalse(out.next());
+      assertFalse(out.next());
+      in.reset(v);
+      for (Edge<String> e : g.incoming(v)) {
+        assertTrue(in.next());
+        assertSame(e, in.edge());
+        assertEquals(g.vertexId(g.from(e)), in.fromId());
+        assertEquals(2 * (Double) g.label(e), in.weight());
+      }
+      assertFalse(in.next());
+    }
+  }
+
+  @Test(expected = PositionException.class)
+  public void testCursorRejectsRemovedVertex() {
+    SparseGraph<String, String> g = new SparseGraph<>();
+    Vertex<String> a = g.insert("a");
+    g.remove(a);
+    g.outgoingCursor().reset(a);
+  }
+
+  @Test
+  public void testCursorWalksWithoutAllocating() {
+    SparseGraph<String, String> g = randomGraph(200, 1000);
+    List<Vertex<String>> vs = new ArrayList<>();
+    for (Vertex<String> v : g.vertices()) {
+      vs.add(v);
+    }
+    DoubleEdgeProperty weights = g.doubleEdgeProperty(1);
+    EdgeCursor<String, String> cursor = g.outgoingCursor(weights);
+    com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long thread = Thread.currentThread().getId();
+    double sum = 0;
+    long before = threads.getThreadAllocatedBytes(thread);
+    for (int round = 0; round < 100; round++) {
+      for (int i = 0; i < vs.size(); i++) {
+        for (cursor.reset(vs.get(i)); cursor.next(); ) {
+          sum += cursor.weight() + cursor.toId();
+        }
+      }
+    }
+    long allocated = threads.getThreadAllocatedBytes(thread) - before;
+    assertTrue(sum > 0);
+    // 100000 edges walked; anything per edge would be megabytes
+    assertTrue("allocated " + allocated, allocated < 100000);
+  }
+
+  // Edges walked from s in a graph with edges s -> x, y and z, removing
+  // the ones named in remove and adding s -> w when the walk reaches the
+  // edge named at
+  private static String walkRemoving(String at, String... remove) {
+    SparseGraph<String, String> g = new SparseGraph<>();
+    Vertex<String> s = g.insert("s");
+    List<Edge<String>> edges = new ArrayList<>();
+    for (String t : new String[] {"x", "y", "z"}) {
+      edges.add(g.insert(s, g.insert(t), "s" + t));
+    }
+    StringBuilder walked = new StringBuilder();
+    for (EdgeCursor<String, String> c = g.outgoingCursor().reset(s);
+         c.next(); ) {
+      walked.append(c.edge().get()).append(' ');
+      if (c.edge().get().equals(at)) {
+        for (Edge<String> e : edges) {
+          if (Arrays.asList(remove).contains(e.get())) {
+            g.remove(e);
+          }
+        }
+        g.insert(s, g.insert("w"), "sw");
+      }
+    }
+    return walked.toString().trim();
+  }
+
+  @Test
+  public void testCursorSurvivesRemovalWhileWalking() {
+    assertEquals("sx sy sz sw", walkRemoving("sx", "sx"));
+    assertEquals("sx sz sw", walkRemoving("sx", "sy"));
+    assertEquals("sx sy sw", walkRemoving("sy", "sx", "sz"));
+    assertEquals("sx sy sz sw", walkRemoving("sz", "sz"));
+    assertEquals("sx sy sz sw", walkRemoving("sz", "sx", "sy"));
+  }
+
+  @Test(expected = java.util.ConcurrentModificationException.class)
+  public void testCursorFailsWhenItLosesItsPlace() {
+    walkRemoving("sy", "sx", "sy");
+  }
+
+  @Test
+  public void testIncomingIsALiveReadOnlyView() {
+    SparseGraph<String, String> g = new SparseGraph<>();
+    Vertex<String> t = g.insert("t");
+    Iterable<Edge<String>> in = g.incoming(t);
+    assertFalse(in.iterator().hasNext());
+    Edge<String> xt = g.insert(g.insert("x"), t, "xt");
+    g.insert(g.insert("y"), t, "yt");
+    Iterator<Edge<String>> it = in.iterator();
+    assertSame(xt, it.next());
+    try {
+      it.remove();
+      fail();
+    } catch (UnsupportedOperationException expected) {
+      // read-only
+    }
+    g.remove(xt);
+    try {
+      it.next();
+      fail();
+    } catch (ConcurrentModificationException expected) {
+      // the walk can't go on
+    }
+    it = in.iterator();
+    assertEquals("yt", it.next().get());
+    assertFalse(it.hasNext());
+  }
+
+  @Test
+  public void testEdgeLookupOfManyOutgoingEdges() {
+    SparseGraph<String, String> g = new SparseGraph<>();
+    Vertex<String> hub = g.insert("hub");
+    List<Vertex<String>> spokes = new ArrayList<>();
+    for (int i = 0; i < 40; i++) {
+      Vertex<String> spoke = g.insert("s" + i);
+      spokes.add(spoke);
+      g.insert(hub, spoke, "h" + i);
+      // looks up by scanning first, then through the lookup
+      assertEquals("h" + i, g.edge(hub, spoke).get());
+      assertNull(g.edge(spoke, hub));
+    }
+    for (int i = 0; i < 40; i += 2) {
+      g.remove(g.edge(hub, spokes.get(i)));
+    }
+    int i = 1;
+    for (Edge<String> e : g.outgoing(hub)) {
+      assertEquals("h" + i, e.get());
+      assertSame(e, g.edge(hub, spokes.get(i)));
+      i += 2;
+    }
+    assertEquals(41, i);
+    assertNull(g.edge(hub, spokes.get(0)));
+    g.insert(hub, spokes.get(0), "again");
+    assertEquals("again", g.edge(hub, spokes.get(0)).get());
+  }
 }
@@ -0,0 +1,430 @@
+package hw8;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Loads street files into a graph, parsing straight from mapped memory.
+ *
+ * <p>Each line is "end1 end2 distance name" as described in the homework
+ * instructions. The file is cut into chunks at line breaks and the chunks
+ * are parsed in parallel, each from its own read-only mapping. Parsing
+ * works on bytes: endpoints and road names are looked up in a per-chunk
+ * hash table keyed by their bytes, so a road name String is only made the
+ * first time a chunk sees one, and distances are converted without making
+ * a String at all. Vertices hold the CoordinateDictionary keys of their
+ * endpoints, so coordinate endpoints are packed straight from the bytes
+ * and found or inserted by key without making their Strings at all; only
+ * endpoints that can't be packed are given keys by name.
+ * The graph itself isn't thread-safe, so the parsed roads are then
+ * inserted one chunk after the other, in file order, giving exactly the
+ * graph reading the file line by line would.</p>
+ *
+ * <p>Roads are two-way; a line whose road (in either direction) is
+ * already in the graph, or that connects an endpoint with itself, is
+ * skipped.</p>
+ */
+public final class StreetFileLoader {
+
+  // Chunks per thread, so a slow chunk doesn't hold everybody up.
+  private static final int CHUNKS_PER_THREAD = 4;
+  // Powers of ten that are exact as doubles.
+  private static final double[] TEN = {
+      1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12,
+      1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+  private final SparseGraph<Long, String> graph;
+  private final CoordinateDictionary names;
+  private final DoubleEdgeProperty lengths;
+  private final int parallelism;
+  private long bytes;
+  private long roads;
+  private long nanos;
+
+  /**
+   * Creates a loader.
+   *
+   * @param graph       Graph to add the roads to, with the keys of the
+   *                    endpoints as vertex data.
+   * @param names       Keys of the endpoint names; endpoints that can't be
+   *                    packed are added here.
+   * @param lengths     Road lengths of graph, set for every edge added.
+   * @param parallelism Number of threads to parse with, at least 1.
+   * @throws IllegalArgumentException If parallelism is less than 1 or
+   *     lengths belongs to another graph.
+   */
+  public StreetFileLoader(SparseGraph<Long, String> graph,
+                          CoordinateDictionary names,
+                          DoubleEdgeProperty lengths, int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("parallelism " + parallelism);
+    }
+    if (lengths.graph() != graph) {
+      throw new IllegalArgumentException("lengths of another graph");
+    }
+    this.graph = graph;
+    this.names = names;
+    this.lengths = lengths;
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * Load a street file.
+   *
+   * @param data File of roads.
+   * @return Number of directed edges added, two per new road.
+   * @throws FileNotFoundException If data doesn't exist.
+   * @throws IOException If data can't be read.
+   */
+  public long load(File data) throws IOException {
+    long start = System.nanoTime();
+    List<Chunk> chunks;
+    try (FileChannel channel = FileChannel.open(data.toPath(),
+        StandardOpenOption.READ)) {
+      chunks = this.parse(channel);
+    } catch (NoSuchFileException e) {
+      throw new FileNotFoundException(data.getPath());
+    }
+    long added = 0;
+    for (Chunk chunk : chunks) {
+      added += this.insert(chunk);
+    }
+    this.roads += added;
+    this.nanos += System.nanoTime() - start;
+    return added;
+  }
+
+  /**
+   * Bytes read.
+   *
+   * @return Size of all files loaded so far.
+   */
+  public long bytes() {
+    return this.bytes;
+  }
+
+  /**
+   * Edges added.
+   *
+   * @return Number of directed edges added by all loads so far.
+   */
+  public long roads() {
+    return this.roads;
+  }
+
+  /**
+   * Loading speed in bytes.
+   *
+   * @return Megabytes (2^20 bytes) of file loaded per second.
+   */
+  public double megabytesPerSecond() {
+    return this.nanos == 0 ? 0 : this.bytes / 1048576.0 * 1e9 / this.nanos;
+  }
+
+  /**
+   * Loading speed in edges.
+   *
+   * @return Directed edges added per second.
+   */
+  public double edgesPerSecond() {
+    return this.nanos == 0 ? 0 : this.roads * 1e9 / this.nanos;
+  }
+
+  // Map and parse the chunks of a file in parallel, in file order.
+  private List<Chunk> parse(FileChannel channel) throws IOException {
+    long size = channel.size();
+    this.bytes += size;
+    List<Long> cuts = this.cuts(channel, size);
+    ExecutorService pool = Executors.newFixedThreadPool(this.parallelism);
+    try {
+      List<Future<Chunk>> futures = new ArrayList<>();
+      for (int i = 0; i + 1 < cuts.size(); i++) {
+        long from = cuts.get(i);
+        long length = cuts.get(i + 1) - from;
+        MappedByteBuffer buffer =
+            channel.map(FileChannel.MapMode.READ_ONLY, from, length);
+        futures.add(pool.submit(() -> new Chunk(buffer)));
+      }
+      List<Chunk> chunks = new ArrayList<>();
+      for (Future<Chunk> future : futures) {
+        chunks.add(future.get());
+      }
+      return chunks;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException(e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IOException(e.getCause());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  // Chunk boundaries: the start of the file, line starts, and its end.
+  private List<Long> cuts(FileChannel channel, long size) throws IOException {
+    long target = Math.max(1 << 16,
+        size / ((long) this.parallelism * CHUNKS_PER_THREAD) + 1);
+    // A chunk has to fit in one mapping.
+    target = Math.min(target, Integer.MAX_VALUE / 2);
+    List<Long> cuts = new ArrayList<>();
+    cuts.add(0L);
+    long at = 0;
+    while (size - at > target) {
+      long probe = at + target;
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+          probe, Math.min(size - probe, 1 << 16));
+      int i = 0;
+      while (i < buffer.limit() && buffer.get(i) != '\n') {
+        i++;
+      }
+      if (i == buffer.limit()) {
+        // absurdly long line, let the chunk grow until one ends
+        at = probe + i;
+        if (at < size) {
+          continue;
+        }
+        break;
+      }
+      at = probe + i + 1;
+      cuts.add(at);
+    }
+    if (cuts.get(cuts.size() - 1) < size) {
+      cuts.add(size);
+    }
+    return cuts;
+  }
+
+  // Add the roads of a parsed chunk to the graph.
+  private long insert(Chunk chunk) {
+    List<Vertex<Long>> local = new ArrayList<>(chunk.endpoints.size);
+    for (int k = 0; k < chunk.endpoints.size; k++) {
+      long key = chunk.endpoints.keys[k];
+      if (key == CoordinateDictionary.NO_KEY) {
+        key = this.names.add(chunk.endpoints.names[k]);
+      }
+      // insert() finds the vertex if an earlier chunk or load added it
+      local.add(this.graph.insert(key));
+    }
+    long added = 0;
+    for (int r = 0; r < chunk.count; r++) {
+      Vertex<Long> from = local.get(chunk.from[r]);
+      Vertex<Long> to = local.get(chunk.to[r]);
+      // either direction may be there alone, from another source
+      if (from == to || this.graph.edge(from, to) != null
+          || this.graph.edge(to, from) != null) {
+        continue;
+      }
+      String name = chunk.streets.names[chunk.name[r]];
+      Edge<String> road = this.graph.insert(from, to, name);
+      Edge<String> backwardsRoad = this.graph.insert(to, from, name);
+      this.lengths.set(road, chunk.distance[r]);
+      this.lengths.set(backwardsRoad, chunk.distance[r]);
+      added += 2;
+    }
+    return added;
+  }
+
+  // Parse a decimal number; NaN if it takes more than digits and a point.
+  private static double number(MappedByteBuffer buffer, int from, int to) {
+    long mantissa = 0;
+    int digits = 0;
+    int scale = -1;
+    for (int i = from; i < to; i++) {
+      byte b = buffer.get(i);
+      if (b >= '0' && b <= '9') {
+        mantissa = 10 * mantissa + (b - '0');
+        if (++digits > 15) {
+          return Double.NaN;
+        }
+        if (scale >= 0) {
+          scale++;
+        }
+      } else if (b == '.' && scale < 0) {
+        scale = 0;
+      } else {
+        return Double.NaN;
+      }
+    }
+    if (digits == 0) {
+      return Double.NaN;
+    }
+    // both exact, so the one division rounds like parseDouble does
+    return scale > 0 ? mantissa / TEN[scale] : mantissa;
+  }
+
+  // The roads of one chunk, with endpoints and names numbered locally.
+  private static final class Chunk {
+    final Names endpoints = new Names(true);
+    final Names streets = new Names(false);
+    int[] from = new int[64];
+    int[] to = new int[64];
+    int[] name = new int[64];
+    double[] distance = new double[64];
+    int count;
+
+    Chunk(MappedByteBuffer buffer) {
+      int limit = buffer.limit();
+      int[] start = new int[4];
+      int[] end = new int[4];
+      int line = 0;
+      while (line < limit) {
+        int eol = line;
+        while (eol < limit && buffer.get(eol) != '\n') {
+          eol++;
+        }
+        int stop = eol > line && buffer.get(eol - 1) == '\r' ? eol - 1 : eol;
+        if (stop > line) {
+          this.road(buffer, line, stop, start, end);
+        }
+        line = eol + 1;
+      }
+    }
+
+    // Split a line at single spaces like String.split(" ") does.
+    private void road(MappedByteBuffer buffer, int from, int to,
+                      int[] start, int[] end) {
+      int tokens = 0;
+      int token = from;
+      for (int i = from; i <= to && tokens < 4; i++) {
+        if (i == to || buffer.get(i) == ' ') {
+          start[tokens] = token;
+          end[tokens] = i;
+          tokens++;
+          token = i + 1;
+        }
+      }
+      if (tokens < 4) {
+        throw new IllegalArgumentException("bad road: " + string(buffer,
+            from, to));
+      }
+      double d = number(buffer, start[2], end[2]);
+      if (Double.isNaN(d)) {
+        d = Double.parseDouble(string(buffer, start[2], end[2]));
+      }
+      if (this.count == this.from.length) {
+        int capacity = 2 * this.count;
+        this.from = Arrays.copyOf(this.from, capacity);
+        this.to = Arrays.copyOf(this.to, capacity);
+        this.name = Arrays.copyOf(this.name, capacity);
+        this.distance = Arrays.copyOf(this.distance, capacity);
+      }
+      this.from[this.count] = this.endpoints.id(buffer, start[0], end[0]);
+      this.to[this.count] = this.endpoints.id(buffer, start[1], end[1]);
+      this.name[this.count] = this.streets.id(buffer, start[3], end[3]);
+      this.distance[this.count] = d;
+      this.count++;
+    }
+  }
+
+  private static String string(MappedByteBuffer buffer, int from, int to) {
+    byte[] bytes = new byte[to - from];
+    buffer.get(from, bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  // Open addressing from byte strings in a buffer to dense ids.
+  private static final class Names {
+    // whether to pack names, and only make Strings of those that don't
+    final boolean pack;
+    String[] names = new String[64];
+    long[] keys;
+    int size;
+    // id + 1 of the entry in each slot, 0 if empty
+    int[] slots = new int[128];
+    int[] hashes = new int[64];
+    // where in the buffer each name was first seen
+    int[] starts = new int[64];
+    int[] ends = new int[64];
+
+    Names(boolean pack) {
+      this.pack = pack;
+      this.keys = pack ? new long[64] : null;
+    }
+
+    int id(MappedByteBuffer buffer, int from, int to) {
+      int hash = 1;
+      for (int i = from; i < to; i++) {
+        hash = 31 * hash + buffer.get(i);
+      }
+      int mask = this.slots.length - 1;
+      int slot = (hash ^ (hash >>> 16)) & mask;
+      while (this.slots[slot] != 0) {
+        int id = this.slots[slot] - 1;
+        if (this.hashes[id] == hash && this.same(id, buffer, from, to)) {
+          return id;
+        }
+        slot = (slot + 1) & mask;
+      }
+      int id = this.size++;
+      if (id == this.names.length) {
+        this.names = Arrays.copyOf(this.names, 2 * id);
+        if (this.pack) {
+          this.keys = Arrays.copyOf(this.keys, 2 * id);
+        }
+        this.hashes = Arrays.copyOf(this.hashes, 2 * id);
+        this.starts = Arrays.copyOf(this.starts, 2 * id);
+        this.ends = Arrays.copyOf(this.ends, 2 * id);
+      }
+      if (this.pack) {
+        long key = CoordinateDictionary.pack(buffer, from, to);
+        this.keys[id] = key;
+        if (key == CoordinateDictionary.NO_KEY) {
+          this.names[id] = string(buffer, from, to);
+        }
+      } else {
+        this.names[id] = string(buffer, from, to);
+      }
+      this.hashes[id] = hash;
+      this.starts[id] = from;
+      this.ends[id] = to;
+      this.slots[slot] = id + 1;
+      if (2 * this.size > this.slots.length) {
+        this.grow();
+      }
+      return id;
+    }
+
+    private boolean same(int id, MappedByteBuffer buffer, int from, int to) {
+      int start = this.starts[id];
+      if (this.ends[id] - start != to - from) {
+        return false;
+      }
+      for (int i = from; i < to; i++) {
+        if (buffer.get(i) != buffer.get(start + i - from)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private void grow() {
+      int[] slots = new int[2 * this.slots.length];
+      int mask = slots.length - 1;
+      for (int id = 0; id < this.size; id++) {
+        int h = this.hashes[id];
+        int slot = (h ^ (h >>> 16)) & mask;
+        while (slots[slot] != 0) {
+          slot = (slot + 1) & mask;
+        }
+        slots[slot] = id + 1;
+      }
+      this.slots = slots;
+    }
+  }
+}
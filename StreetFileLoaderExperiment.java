@@ -0,0 +1,43 @@
+package hw8;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public class StreetFileLoaderExperiment {
+
+  // Update this to any other data file for benchmarking experiments.
+  private static String getDataFile() {
+    return "baltimore.streets.txt";
+  }
+
+  // Number of times to load the file, the first ones warm up the JIT.
+  private static int getRepeats() {
+    return 5;
+  }
+
+  /**
+   * Execution starts here.
+   *
+   * @param args command-line arguments not used here.
+   * @throws IOException if the data file can't be read.
+   */
+  public static void main(String[] args) throws IOException {
+    Path dataFile = Paths.get("res", "src", getDataFile());
+    File data = dataFile.toFile();
+    int threads = Runtime.getRuntime().availableProcessors();
+
+    for (int i = 0; i < getRepeats(); i++) {
+      SparseGraph<Long, String> graph = new SparseGraph<>();
+      StreetFileLoader loader = new StreetFileLoader(graph,
+          new CoordinateDictionary(),
+          graph.doubleEdgeProperty(Double.POSITIVE_INFINITY), threads);
+      loader.load(data);
+      System.out.println(String.format(
+          "Loaded %d roads with %d threads: %.1f MB/s, %.0f edges/s",
+          loader.roads(), threads, loader.megabytesPerSecond(),
+          loader.edgesPerSecond()));
+    }
+  }
+}
@@ -0,0 +1,174 @@
+package hw8;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static junit.framework.TestCase.*;
+
+public class StreetFileLoaderTest {
+
+  private SparseGraph<Long, String> graph;
+  private CoordinateDictionary names;
+  private DoubleEdgeProperty lengths;
+
+  @Before
+  public void setupGraph() {
+    graph = new SparseGraph<>();
+    names = new CoordinateDictionary();
+    lengths = graph.doubleEdgeProperty(Double.NaN);
+  }
+
+  private File write(String text) throws IOException {
+    File file = File.createTempFile("streets", ".txt");
+    file.deleteOnExit();
+    Files.write(file.toPath(), text.getBytes(StandardCharsets.UTF_8));
+    return file;
+  }
+
+  private Vertex<Long> vertex(String name) {
+    return graph.vertex(names.key(name));
+  }
+
+  private double length(String from, String to) {
+    Edge<String> e = graph.edge(vertex(from), vertex(to));
+    return lengths.get(e);
+  }
+
+  @Test
+  public void testRoadsAreTwoWay() throws IOException {
+    StreetFileLoader loader = new StreetFileLoader(graph, names, lengths, 1);
+    assertEquals(4, loader.load(write(
+        "a b 12.5 Main\nb c 7 Elm\n")));
+    assertEquals(3, graph.vertexIds());
+    assertEquals(12.5, length("a", "b"), 0);
+    assertEquals(12.5, length("b", "a"), 0);
+    assertEquals("Elm", graph.edge(vertex("c"),
+        vertex("b")).get());
+    assertNull(graph.edge(vertex("a"), vertex("c")));
+  }
+
+  @Test
+  public void testSkipsDuplicatesAndLoops() throws IOException {
+    StreetFileLoader loader = new StreetFileLoader(graph, names, lengths, 1);
+    assertEquals(2, loader.load(write(
+        "a b 1.0 First\nb a 2.0 Second\na a 3.0 Loop\na b 4.0 Third\n")));
+    assertEquals(1.0, length("b", "a"), 0);
+    assertEquals("First", graph.edge(vertex("b"),
+        vertex("a")).get());
+    assertEquals(2, graph.vertexIds());
+  }
+
+  @Test
+  public void testSkipsRoadWhoseReverseIsThereAlone() throws IOException {
+    Vertex<Long> a = graph.insert(names.add("a"));
+    Vertex<Long> b = graph.insert(names.add("b"));
+    lengths.set(graph.insert(b, a, "One Way"), 9.0);
+    StreetFileLoader loader = new StreetFileLoader(graph, names, lengths, 1);
+    assertEquals(2, loader.load(write("a b 1.0 First\nb c 2.0 Second\n")));
+    assertNull(graph.edge(a, b));
+    assertEquals(9.0, length("b", "a"), 0);
+    assertEquals(2.0, length("c", "b"), 0);
+  }
+
+  @Test
+  public void testNumbersMatchParseDouble() throws IOException {
+    String[] numbers = {"0", "1.", ".5", "0.1", "123.456", "-2.5", "1e3",
+        "3.14159265358979", "0.30000000000000004", "7.000"};
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < numbers.length; i++) {
+      text.append("s ").append(i).append(' ').append(numbers[i])
+          .append(" Road\r\n");
+    }
+    new StreetFileLoader(graph, names, lengths, 1)
+        .load(write(text.toString()));
+    for (int i = 0; i < numbers.length; i++) {
+      assertEquals(Double.parseDouble(numbers[i]), length("s", "" + i), 0);
+    }
+  }
+
+  @Test
+  public void testChunksKeepFileOrder() throws IOException {
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 20000; i++) {
+      text.append(i).append(' ').append(i + 1).append(' ')
+          .append(i % 97).append(".25 Street").append(i % 13).append('\n');
+    }
+    // last line without a line break
+    text.append("0 20000 1.5 Back");
+    StreetFileLoader loader = new StreetFileLoader(graph, names, lengths, 4);
+    assertEquals(40002, loader.load(write(text.toString())));
+    assertEquals(20001, graph.vertexIds());
+    int i = 0;
+    for (Vertex<Long> v : graph.vertices()) {
+      assertEquals("" + i++, names.name(v.get()));
+    }
+    assertEquals(96.25, length("96", "97"), 0);
+    assertEquals("Street5", graph.edge(vertex("18"),
+        vertex("19")).get());
+    assertEquals(1.5, length("20000", "0"), 0);
+    assertEquals(40002, loader.roads());
+    assertTrue(loader.bytes() > 65536);
+    assertTrue(loader.megabytesPerSecond() > 0);
+    assertTrue(loader.edgesPerSecond() > 0);
+  }
+
+  @Test
+  public void testCoordinateEndpoints() throws IOException {
+    StreetFileLoader loader = new StreetFileLoader(graph, names, lengths, 1);
+    assertEquals(6, loader.load(write("-76.6175,39.3296 -76.6,39.33 5 A\n"
+        + "-76.6,39.33 x 2 B\nx -76.6175,39.3296 3 C\n")));
+    assertEquals(3, graph.vertexIds());
+    String[] endpoints = {"-76.6175,39.3296", "-76.6,39.33", "x"};
+    int i = 0;
+    for (Vertex<Long> v : graph.vertices()) {
+      assertEquals(endpoints[i++], names.name(v.get()));
+      assertSame(vertex(names.name(v.get())), v);
+    }
+    // only the endpoint that can't be packed is kept by name
+    assertEquals(1, names.size());
+    assertEquals(CoordinateDictionary.pack("-76.6,39.33"),
+        (long) vertex("-76.6,39.33").get());
+    assertEquals(3.0, length("-76.6175,39.3296", "x"), 0);
+  }
+
+  @Test
+  public void testLaterLoadsFindEarlierVertices() throws IOException {
+    StreetFileLoader loader = new StreetFileLoader(graph, names, lengths, 2);
+    assertEquals(2, loader.load(write("-76.6175,39.3296 -76.6,39.33 5 A\n")));
+    Vertex<Long> v = vertex("-76.6,39.33");
+    assertEquals(2, loader.load(write("-76.6,39.33 -76.5,39.33 4 B\n"
+        + "-76.6175,39.3296 -76.6,39.33 6 A\n")));
+    assertEquals(3, graph.vertexIds());
+    assertSame(v, vertex("-76.6,39.33"));
+    assertEquals(5.0, length("-76.6,39.33", "-76.6175,39.3296"), 0);
+    assertEquals(4.0, length("-76.5,39.33", "-76.6,39.33"), 0);
+  }
+
+  @Test(expected = FileNotFoundException.class)
+  public void testMissingFileThrows() throws IOException {
+    new StreetFileLoader(graph, names, lengths, 1).load(
+        new File("no/such/streets.txt"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testLengthsOfAnotherGraphThrow() {
+    new StreetFileLoader(graph, names,
+        new SparseGraph<Long, String>().doubleEdgeProperty(0), 1);
+  }
+
+  @Test
+  public void testLeavesLabelsAlone() throws IOException {
+    new StreetFileLoader(graph, names, lengths, 1).load(write(
+        "a b 12.5 Main\n"));
+    for (Edge<String> e : graph.edges()) {
+      assertNull(graph.label(e));
+      assertEquals(12.5, lengths.get(e), 0);
+    }
+  }
+}
@@ -1,82 +1,105 @@
 package hw8;
 
-import exceptions.InsertionException;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.PriorityQueue;
-import java.util.Scanner;
-import java.util.Set;
 
 
 /**
  * Search for the shortest path between two endpoints using
- * Djikstra's. We use a HashMap to store all the vertices so we can
- * find them by name (i.e. their coordinates) when inserting for a
- * fast duplicates check.
+ * Djikstra's. Vertices hold the CoordinateDictionary keys of their
+ * names (i.e. their coordinates), and the graph finds them by key when
+ * inserting for a fast duplicates check, so no String is kept per
+ * endpoint; names are made again only for output.
  *
- * <p>Vertex data is the coordinates, stored as a String.
- * Vertex label is the Edge into it on the path found.
+ * <p>Networks are read by a StreetFileLoader. Searches run on a snapshot
+ * of the graph taken once the network is loaded, and reuse one
+ * DijkstraEngine so answering another query doesn't need any reloading
+ * or clearing of the graph. A network loaded from a binary snapshot is
+ * searched straight from the mapped file instead; its vertices and roads
+ * only go into the graph once another network is added to it.</p>
+ *
+ * <p>Vertex data is the coordinates, packed into a long key.
  * Edge data is the road name, stored as a String.
- * Edge label is the road length, stored as a Double.</p>
+ * Road lengths are kept in a DoubleEdgeProperty, not in labels.</p>
  */
 public final class StreetSearcher {
 
-  // useful for marking distance to nodes, or use Double.POSITIVE_INFINITY
-  private static final double MAX_DISTANCE = 1e18;
-
-  private class DistComparator<V> implements Comparator<Vertex<V>> {
-    @Override
-    public int compare(Vertex<V> v1, Vertex<V> v2) {
-      return (int)(distance.get(v1) - distance.get(v2));
-    }
-  }
-
-  DistComparator<String> distComp = new DistComparator<>();
-
-  private Map<String, Vertex<String>> vertices;
-  private SparseGraph<String, String> graph;
-  private PriorityQueue<Vertex<String>> vertDist;
-  private Set<Vertex<String>> explored = new HashSet<>();
-  private Map<Vertex<String>, Double> distance = new HashMap<>();
-
-
+  private static final int DEFAULT_LANDMARKS = 8;
+
+  private final CoordinateDictionary names;
+  private final DoubleEdgeProperty lengths;
+  private SparseGraph<Long, String> graph;
+  // Snapshot of graph that searches run on, taken after loading
+  private CsrGraph<Long, String> network;
+  // Snapshot file searches run on instead of network, until graph changes
+  private MappedGraph mapped;
+  // Searches run on this view of network, which takes weight updates
+  private DynamicGraph roads;
+  // Versions of the roads of networks loaded before this one
+  private long oldRoads;
+  private GeoHeuristic geo;
+  private KdTree spatial;
+  private DijkstraEngine engine;
+  private BidirectionalDijkstra bidirectional;
+  private AStarSearch astar;
+  private ContractionHierarchy hierarchy;
+  private Landmarks landmarks;
+  private AStarSearch alt;
+  private int landmarkCount;
+  private RouteCache cache;
+  private TreeCache trees;
+  private final SearchStats stats;
+  private final QueryProfile profile;
+  private long heapOperations;
 
   /**
    * Creates a StreetSearcher object.
    */
   public StreetSearcher() {
-    vertices = new HashMap<>();
+    names = new CoordinateDictionary();
     graph = new SparseGraph<>();
-    vertDist = new PriorityQueue<>(distComp);
+    lengths = graph.doubleEdgeProperty(Double.POSITIVE_INFINITY);
+    landmarkCount = DEFAULT_LANDMARKS;
+    stats = new SearchStats();
+    profile = new QueryProfile();
   }
 
-  // Get the path by tracing labels back from end to start.
-  private List<Edge<String>> getPath(Vertex<String> end,
-                                     Vertex<String> start) {
-    if (graph.label(end) != null) {
-      List<Edge<String>> path = new ArrayList<>();
+  /**
+   * Choose how many landmarks ALT searches use.
+   *
+   * <p>Each landmark costs two distances per endpoint; more landmarks give
+   * tighter bounds but take longer to preprocess and to evaluate.</p>
+   *
+   * @param count number of landmarks, at least 1
+   * @throws IllegalArgumentException if count is less than 1
+   */
+  public void setLandmarkCount(int count) {
+    if (count < 1) {
+      throw new IllegalArgumentException("count " + count);
+    }
+    landmarkCount = count;
+    landmarks = null;
+    alt = null;
+  }
 
-      Vertex<String> cur = end;
-      Edge<String> road;
-      while (cur != start) {
-        road = (Edge<String>) graph.label(cur);  // unchecked cast ok
-        path.add(road);
-        cur = graph.from(road);
-      }
-      return path;
+  // Get the roads of a route with their lengths, from start to end.
+  private List<String> getPath(Route route) {
+    if (!route.found()) {
+      return null;
+    }
+    List<String> path = new ArrayList<>();
+    for (int e : route.edges()) {
+      path.add(roadName(e) + " " + roads.weight(e));
     }
-    return null;
+    return path;
   }
 
   // Print the path found.
-  private void printPath(List<Edge<String>> path,
+  private void printPath(List<String> path,
                          double totalDistance) {
     if (path == null) {
       System.out.println("No path found");
@@ -84,97 +107,549 @@ public final class StreetSearcher {
     }
 
     System.out.println("Total Distance: " + totalDistance);
-    for (int i = path.size() - 1; i >= 0; i--) {
-      System.out.println(path.get(i).get() + " "
-          + graph.label(path.get(i)));
+    for (String road : path) {
+      System.out.println(road);
     }
   }
 
-  private boolean has(Set<Vertex<String>> s, Vertex<String> v) {
-    if (s.isEmpty()) {
-      return false;
+  /**
+   * Utilizes Djikstra's Algorithm to find shortest path.
+   *
+   * @param startName starting vertex name
+   * @param endName   ending vertex name
+   */
+  public void findShortestPath(String startName, String endName) {
+    findShortestPath(startName, endName,
+        SearchMode.POINT_TO_POINT, QueueKind.BINARY);
+  }
+
+  /**
+   * Utilizes Djikstra's Algorithm to find shortest path.
+   *
+   * @param startName starting vertex name
+   * @param endName   ending vertex name
+   * @param queueKind kind of priority queue to run the search with
+   */
+  public void findShortestPath(String startName, String endName,
+                               QueueKind queueKind) {
+    findShortestPath(startName, endName, SearchMode.POINT_TO_POINT, queueKind);
+  }
+
+  /**
+   * Utilizes Djikstra's Algorithm to find shortest path.
+   *
+   * @param startName starting vertex name
+   * @param endName   ending vertex name
+   * @param mode      how to search
+   */
+  public void findShortestPath(String startName, String endName,
+                               SearchMode mode) {
+    findShortestPath(startName, endName, mode, QueueKind.BINARY);
+  }
+
+  /**
+   * Utilizes Djikstra's Algorithm to find shortest path.
+   *
+   * @param startName starting vertex name
+   * @param endName   ending vertex name
+   * @param mode      how to search
+   * @param queueKind kind of priority queue to run the search with
+   */
+  public void findShortestPath(String startName, String endName,
+                               SearchMode mode, QueueKind queueKind) {
+    Route route = route(startName, endName, mode, queueKind);
+    long time = System.nanoTime();
+    // Add up the roads from the start so every mode prints the same total
+    double totalDist = 0;
+    if (route.found()) {
+      for (int e : route.edges()) {
+        totalDist += roads.weight(e);
+      }
     }
-    for (Vertex<String> ver: s) {
-      if (ver.get().equals(v.get())) {
-        return true;
+    // These method calls will create and print the path for you
+    List<String> path = getPath(route);
+    long built = System.nanoTime();
+    printPath(path, totalDist);
+    stats.pathNanos = built - time;
+    stats.printNanos = System.nanoTime() - built;
+    profile.record(stats);
+  }
+
+  // Find a route like findShortestPath does, without printing it.
+  Route route(String startName, String endName,
+              SearchMode mode, QueueKind queueKind) {
+    long time = System.nanoTime();
+    int start = endpointId(startName);
+    int end = endpointId(endName);
+
+    // Cached answers take no search, so they count nothing
+    stats.reset();
+    Route route = cache == null ? null : cache.get(startName, endName);
+    if (route == null) {
+      if (trees != null) {
+        // computing a tree for the cache counts like a search
+        route = trees.lookup(start, end, stats);
       }
+      if (route == null) {
+        route = search(start, end, mode, queueKind);
+      }
+      heapOperations += stats.heapOperations();
+      if (cache != null) {
+        cache.put(startName, endName, route);
+      }
+    }
+    stats.searchNanos = System.nanoTime() - time;
+    return route;
+  }
+
+  /**
+   * Finds the shortest path between the endpoints nearest two locations.
+   *
+   * @param startLon longitude of the start in degrees
+   * @param startLat latitude of the start in degrees
+   * @param endLon   longitude of the end in degrees
+   * @param endLat   latitude of the end in degrees
+   * @throws IllegalArgumentException if no endpoints are loaded
+   */
+  public void findShortestPath(double startLon, double startLat,
+                               double endLon, double endLat) {
+    findShortestPath(startLon, startLat, endLon, endLat,
+        SearchMode.POINT_TO_POINT);
+  }
+
+  /**
+   * Finds the shortest path between the endpoints nearest two locations.
+   *
+   * <p>GPS fixes hardly ever fall on an endpoint exactly, so both
+   * locations are snapped to the closest endpoint first.</p>
+   *
+   * @param startLon longitude of the start in degrees
+   * @param startLat latitude of the start in degrees
+   * @param endLon   longitude of the end in degrees
+   * @param endLat   latitude of the end in degrees
+   * @param mode     how to search
+   * @throws IllegalArgumentException if no endpoints are loaded
+   */
+  public void findShortestPath(double startLon, double startLat,
+                               double endLon, double endLat,
+                               SearchMode mode) {
+    findShortestPath(nearestEndpoint(startLon, startLat),
+        nearestEndpoint(endLon, endLat), mode);
+  }
+
+  /**
+   * Endpoint closest to a location.
+   *
+   * @param lon longitude in degrees
+   * @param lat latitude in degrees
+   * @return name of the loaded endpoint nearest to the location
+   * @throws IllegalArgumentException if no endpoints are loaded
+   */
+  public String nearestEndpoint(double lon, double lat) {
+    int v = roads == null ? -1 : spatialIndex().nearest(lon, lat);
+    if (v < 0) {
+      throw new IllegalArgumentException("no endpoints");
     }
-    return false;
+    return vertexName(v);
+  }
+
+  private Route search(int start, int end,
+                       SearchMode mode, QueueKind queueKind) {
+    if (engine == null || engine.graph() != roads
+        || engine.queueKind() != queueKind) {
+      engine = new DijkstraEngine(roads, queueKind);
+      bidirectional = null;
+      astar = null;
+      alt = null;
+    }
+    PathFinder finder;
+    switch (mode) {
+      case FULL:
+        engine.run(start);
+        stats.counters(engine.stats());
+        return new Route(engine.distance(end), engine.path(end),
+            engine.settledCount());
+      case BIDIRECTIONAL:
+        if (bidirectional == null) {
+          bidirectional = new BidirectionalDijkstra(roads, queueKind);
+        }
+        finder = bidirectional;
+        break;
+      case ASTAR:
+        if (astar == null) {
+          astar = new AStarSearch(roads, geo(), queueKind);
+        }
+        finder = astar;
+        break;
+      case ALT:
+        if (alt == null) {
+          alt = new AStarSearch(roads, landmarks(), queueKind);
+        }
+        finder = alt;
+        break;
+      case CONTRACTION_HIERARCHY:
+        finder = hierarchy();
+        break;
+      default:
+        finder = engine;
+        break;
+    }
+    Route route = finder.route(start, end);
+    stats.counters(finder.stats());
+    return route;
+  }
+
+  /**
+   * Remember the routes found for repeated queries.
+   *
+   * <p>Routes found from now on are kept in a new RouteCache with the
+   * given bounds, and queries for a start and end already in the cache
+   * print the remembered route without searching. Loading a network or
+   * updating roads empties the cache.</p>
+   *
+   * @param maxEntries maximum number of routes kept
+   * @param maxBytes   maximum approximate bytes of routes kept
+   */
+  public void cacheRoutes(int maxEntries, long maxBytes) {
+    cache = new RouteCache(this::roadsVersion, maxEntries, maxBytes);
+  }
+
+  // Goes up with every network loaded and every road update, which the
+  // version of graph doesn't see
+  private long roadsVersion() {
+    return roads == null ? oldRoads : oldRoads + roads.version();
   }
 
-  private Double getDistance(Vertex<String> v) {
-    double inf = Double.POSITIVE_INFINITY;
-    for (Vertex<String> ver : distance.keySet()) {
-      if (ver.get().equals(v.get())) {
-        return distance.get(ver);
+  /**
+   * Cache of the routes found.
+   *
+   * @return the cache set up by cacheRoutes(), null if there is none
+   */
+  public RouteCache routeCache() {
+    return cache;
+  }
+
+  /**
+   * Keep whole shortest path trees for the most frequent start endpoints.
+   *
+   * <p>Queries from a start endpoint with a tree in the new TreeCache are
+   * answered by walking the tree instead of searching. The cache is for
+   * the network loaded now; road updates keep its trees correct.</p>
+   *
+   * @param maxBytes   memory budget for the trees
+   * @param admitAfter number of queries from a start endpoint before its
+   *                   tree is computed
+   * @throws IllegalStateException if no network is loaded yet
+   */
+  public void cacheTrees(long maxBytes, int admitAfter) {
+    if (roads == null) {
+      throw new IllegalStateException("no network loaded");
+    }
+    if (trees != null) {
+      trees.clear();
+    }
+    trees = new TreeCache(roads, maxBytes, admitAfter);
+  }
+
+  /**
+   * Cache of shortest path trees.
+   *
+   * @return the cache set up by cacheTrees(), null if there is none
+   */
+  public TreeCache treeCache() {
+    return trees;
+  }
+
+  /**
+   * Creates a service answering queries on the loaded network in parallel.
+   *
+   * <p>Each worker searches the network loaded now with its own
+   * DijkstraEngine, on a copy of the road lengths as they are now. The
+   * service keeps answering for those roads; updating roads or loading
+   * another network afterwards doesn't change or disturb it.</p>
+   *
+   * @param threads number of worker threads
+   * @return a new service, close it when done
+   */
+  public RouteService routeService(int threads) {
+    IntGraph current = roads.frozen();
+    return new RouteService(threads, () -> new DijkstraEngine(current));
+  }
+
+  /**
+   * Road distances between every start and every end endpoint.
+   *
+   * <p>Nothing is printed; the sources are searched in parallel.</p>
+   *
+   * @param startNames starting vertex names
+   * @param endNames   ending vertex names
+   * @return matrix whose entry [i][j] is the shortest distance from
+   *     startNames[i] to endNames[j], or Double.POSITIVE_INFINITY if there
+   *     is no path
+   * @throws IllegalArgumentException if a name is not an endpoint
+   */
+  public double[][] distanceMatrix(List<String> startNames,
+                                   List<String> endNames) {
+    int[] sources = new int[startNames.size()];
+    for (int i = 0; i < sources.length; i++) {
+      sources[i] = endpointId(startNames.get(i));
+    }
+    int[] targets = new int[endNames.size()];
+    for (int j = 0; j < targets.length; j++) {
+      targets[j] = endpointId(endNames.get(j));
+    }
+    return DistanceMatrix.compute(roads, sources, targets);
+  }
+
+  /**
+   * Id of the road from one endpoint to another.
+   *
+   * @param fromName starting vertex name
+   * @param toName   ending vertex name
+   * @return id of the road in searches on the loaded network
+   * @throws IllegalArgumentException if there is no such road
+   */
+  public int roadId(String fromName, String toName) {
+    int from = endpointId(fromName);
+    int to = endpointId(toName);
+    for (int e = roads.begin(from); e < roads.end(from); e++) {
+      if (roads.target(e) == to) {
+        return e;
       }
     }
-    return inf;
+    throw new IllegalArgumentException(fromName + " " + toName);
+  }
+
+  /**
+   * Change the length of a road, in both directions.
+   *
+   * @param fromName one end of the road
+   * @param toName   other end of the road
+   * @param length   new length of the road
+   * @return number of vertices the repairs of shortest path trees touched
+   * @throws IllegalArgumentException if there is no such road or length
+   *     is negative
+   */
+  public long changeRoad(String fromName, String toName, double length) {
+    return updateRoads(new WeightUpdate()
+        .set(roadId(fromName, toName), length)
+        .set(roadId(toName, fromName), length));
+  }
+
+  /**
+   * Close a road, in both directions.
+   *
+   * @param fromName one end of the road
+   * @param toName   other end of the road
+   * @return number of vertices the repairs of shortest path trees touched
+   * @throws IllegalArgumentException if there is no such road
+   */
+  public long closeRoad(String fromName, String toName) {
+    return updateRoads(new WeightUpdate()
+        .remove(roadId(fromName, toName))
+        .remove(roadId(toName, fromName)));
   }
 
-  private void addProperly(PriorityQueue<Vertex<String>> pq, Vertex<String> v) {
-    boolean present = false;
-    for (Vertex<String> ver: pq) {
-      if (ver.get().equals(v.get())) {
-        present = true;
+  /**
+   * Apply a batch of road length changes.
+   *
+   * <p>Road lengths are updated too, so printed paths show the new
+   * lengths; closed roads get a length of infinity. Shortest path trees from
+   * shortestPathTree() and the tree cache are repaired, the route cache
+   * drops its routes, and the contraction hierarchy and landmarks are
+   * rebuilt on their next use.</p>
+   *
+   * @param update changes, by ids from roadId()
+   * @return number of vertices the repairs of shortest path trees touched
+   */
+  public long updateRoads(WeightUpdate update) {
+    long touched = roads.apply(update);
+    // Lengths of a mapped network go into graph once it is added there
+    if (mapped == null) {
+      for (int i = 0; i < update.size(); i++) {
+        lengths.set(network.edge(update.edge(i)), update.weight(i));
       }
     }
-    if (present) {
-      pq.remove(v);
+    if (geo != null) {
+      geo.consistentWith(roads, update);
     }
-    pq.add(v);
+    hierarchy = null;
+    landmarks = null;
+    alt = null;
+    return touched;
   }
+
   /**
-   * Utilizes Djikstra's Algorithm to find shortest path.
+   * Shortest paths from an endpoint, kept up to date by road updates.
+   *
+   * <p>Every road update repairs every tree handed out here, so pass a
+   * tree to forget() once it isn't needed anymore. Loading another
+   * network forgets all of them.</p>
    *
    * @param startName starting vertex name
-   * @param endName   ending vertex name
+   * @return tree of shortest paths from the endpoint to all others
+   * @throws IllegalArgumentException if there is no such endpoint
    */
+  public ShortestPathTree shortestPathTree(String startName) {
+    return roads.tree(endpointId(startName));
+  }
 
-  public void findShortestPath(String startName, String endName) {
-    checkValidEndpoint(startName);
-    checkValidEndpoint(endName);
-
-    Vertex<String> start = vertices.get(startName);
-
-    distance.put(start, 0.0);
-    vertDist.add(start);
-    while (!vertDist.isEmpty()) {
-      Vertex<String> v = vertDist.poll();
-      if (!has(explored, v)) {
-        explored.add(v);
-        neighbours(v);
+  /**
+   * Stop keeping a shortest path tree up to date.
+   *
+   * <p>The tree keeps the paths it had, but later road updates no longer
+   * repair it or spend any time on it.</p>
+   *
+   * @param tree tree from shortestPathTree()
+   */
+  public void forget(ShortestPathTree tree) {
+    roads.forget(tree);
+  }
+
+  /**
+   * Save the loaded network as a binary snapshot.
+   *
+   * <p>Writing takes about as long as loading the street file. The
+   * snapshot has the road lengths the network was loaded with, without
+   * later updates.</p>
+   *
+   * @param file file to write, replaced if it exists
+   * @throws IOException if file can't be written
+   */
+  public void saveSnapshot(File file) throws IOException {
+    IntGraph loaded = mapped != null ? mapped : network;
+    MappedGraph.write(loaded, this::vertexName, this::roadName, file);
+  }
+
+  /**
+   * Id of an endpoint in the loaded network.
+   *
+   * @param name endpoint name
+   * @return id of the endpoint in searches on the loaded network
+   * @throws IllegalArgumentException if there is no such endpoint
+   */
+  public int endpointId(String name) {
+    if (mapped != null) {
+      int id = mapped.id(name);
+      if (id < 0) {
+        throw new IllegalArgumentException(name);
       }
+      return id;
     }
-    Vertex<String> end = vertices.get(endName);
-    double totalDist = -1;  // totalDist must be update below
-    totalDist = getDistance(end);
-    // These method calls will create and print the path for you
-    List<Edge<String>> path = getPath(end, start);
-    printPath(path, totalDist);
+    long key = names.key(name);
+    Vertex<Long> vertex = key == CoordinateDictionary.NO_KEY
+        ? null : graph.vertex(key);
+    if (vertex == null || network == null) {
+      throw new IllegalArgumentException(name);
+    }
+    return network.id(vertex);
   }
 
-  private void neighbours(Vertex<String> v) {
-    for (Edge<String> edge : graph.outgoing(v)) {
-      Vertex<String> u = graph.to(edge);
-      Double dist = getDistance(v) + (double) graph.label(edge);
-      if (dist < getDistance(u)) {
-        distance.put(u, dist);
-        graph.label(u, edge);
-        addProperly(vertDist, u);
-      }
+  /**
+   * Name of an endpoint in the loaded network.
+   *
+   * @param id id of the endpoint, as endpointId() gives it
+   * @return endpoint name
+   * @throws IllegalArgumentException if there is no such endpoint
+   */
+  public String endpointName(int id) {
+    int count = roads == null ? 0 : roads.vertexCount();
+    if (id < 0 || id >= count) {
+      throw new IllegalArgumentException("endpoint " + id);
     }
+    return vertexName(id);
+  }
+
+  // Name of an endpoint in the loaded network.
+  private String vertexName(int v) {
+    return mapped != null ? mapped.name(v)
+        : names.name(network.vertex(v).get());
   }
 
+  // Name of a road in the loaded network.
+  private String roadName(int e) {
+    return mapped != null ? mapped.road(e) : network.edge(e).get();
+  }
 
-  // Add an endpoint to the network if it is a new endpoint
-  private Vertex<String> addLocation(String name) {
-    if (!vertices.containsKey(name)) {
-      Vertex<String> v = graph.insert(name);
-      vertices.put(name, v);
-      return v;
+  // The straight-line distance heuristic of the network, built on first use.
+  GeoHeuristic geo() {
+    if (geo == null) {
+      geo = mapped != null ? mapped.geo() : GeoHeuristic.ofKeys(network);
+      geo.consistentWith(roads);
     }
-    return vertices.get(name);
+    return geo;
+  }
+
+  // The contraction hierarchy of the network, preprocessed on first use.
+  ContractionHierarchy hierarchy() {
+    if (hierarchy == null) {
+      hierarchy = new ContractionHierarchy(roads);
+    }
+    return hierarchy;
+  }
+
+  // The spatial index of the endpoints, built on first use.
+  KdTree spatialIndex() {
+    if (spatial == null) {
+      spatial = KdTree.of(geo());
+    }
+    return spatial;
+  }
+
+  // The landmarks of the network, selected on first use.
+  Landmarks landmarks() {
+    if (landmarks == null) {
+      landmarks = new Landmarks(roads,
+          Math.min(landmarkCount, roads.vertexCount()));
+    }
+    return landmarks;
+  }
+
+  // The snapshot of the loaded network, with the lengths it was loaded with;
+  // null if the network is served from a snapshot file.
+  CsrGraph<Long, String> network() {
+    return network;
+  }
+
+  /**
+   * Vertices settled by the last search.
+   *
+   * @return Number of vertices the last findShortestPath settled.
+   */
+  public int settledCount() {
+    return stats.settled();
+  }
+
+  /**
+   * Counters and timings of the last query.
+   *
+   * @return a copy of the stats of the last findShortestPath; a query
+   *     answered from a cache settles nothing
+   */
+  public SearchStats lastQueryStats() {
+    return new SearchStats(stats);
+  }
+
+  /**
+   * Stats of all queries so far, with latency percentiles.
+   *
+   * @return the profile every findShortestPath is added to
+   */
+  public QueryProfile queryProfile() {
+    return profile;
+  }
+
+  /**
+   * Heap operations run by the searches so far.
+   *
+   * @return Number of insert, decreaseKey and removeMin calls the
+   *     priority queues of all searches since this StreetSearcher was
+   *     created ran, in every search mode, including computing the
+   *     trees the TreeCache admits; queries answered from a cache run
+   *     none.
+   */
+  public long heapOperations() {
+    return heapOperations;
   }
 
   /**
@@ -188,58 +663,97 @@ public final class StreetSearcher {
   public void loadNetwork(File data)
       throws FileNotFoundException {
 
-    int numRoads = 0;
-
-    // Read in from file fileName
-    Scanner input = new Scanner(new FileInputStream(data));
-    while (input.hasNext()) {
-
-      // Parse the line in to <end1> <end2> <road-distance> <road-name>
-      String[] tokens = input.nextLine().split(" ");
-      String fromName = tokens[0];
-      String toName = tokens[1];
-      double roadDistance = Double.parseDouble(tokens[2]);
-      String roadName = tokens[3];
-
-      boolean roadAdded = addRoad(fromName, toName, roadDistance, roadName);
-      if (roadAdded) {
-        numRoads += 2;
-      }
+    unmap();
+    StreetFileLoader loader = new StreetFileLoader(graph, names, lengths,
+        Runtime.getRuntime().availableProcessors());
+    long numRoads;
+    try {
+      numRoads = loader.load(data);
+    } catch (FileNotFoundException e) {
+      throw e;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
     }
-
-    System.out.println("Network Loaded!");
-    System.out.println("Loaded " + numRoads + " roads");
-    System.out.println("Loaded " + vertices.size() + " endpoints");
+    loaded(numRoads);
   }
 
-  private boolean addRoad(
-      String fromName, String toName, double roadDistance, String roadName
-  ) {
-    // Get the from and to endpoints, adding if necessary
-    Vertex<String> from = addLocation(fromName);
-    Vertex<String> to = addLocation(toName);
-
-    // Add the road to the network - We assume all roads are two-way and
-    // ignore if we've already added the road as a reverse of another
-    try {
-
-      Edge<String> road = graph.insert(from, to, roadName);
-      Edge<String> backwardsRoad = graph.insert(to, from, roadName);
+  /**
+   * Load network from a snapshot written by saveSnapshot().
+   *
+   * <p>If no network was loaded before, searches run straight on the
+   * mapped snapshot, so loading takes about as long for a large network
+   * as for a small one and the operating system reads in only the parts
+   * that searches touch. Nothing is copied off the snapshot until it is
+   * needed: the first road update copies all road lengths, and the first
+   * search that needs coordinates (A*, ALT, nearestEndpoint()) copies
+   * those. Otherwise its roads are added to the loaded ones like
+   * loadNetwork() adds them. Only the header and size of the snapshot are
+   * checked, not its checksum.</p>
+   *
+   * @param snapshot snapshot file
+   * @throws IOException if snapshot can't be read or isn't a snapshot
+   */
+  public void loadSnapshot(File snapshot) throws IOException {
+    MappedGraph from = MappedGraph.open(snapshot);
+    if (network == null && mapped == null) {
+      mapped = from;
+      prepare(from, from.edgeCount(), from.vertexCount());
+      return;
+    }
+    unmap();
+    loaded(insert(from, from));
+  }
 
-      // Label each road with it's weight
-      graph.label(road, roadDistance);
-      graph.label(backwardsRoad, roadDistance);
+  // Add the roads of the mapped network to graph, with their lengths now,
+  // before other roads are added to graph.
+  private void unmap() {
+    if (mapped != null) {
+      insert(mapped, roads);
+    }
+  }
 
-    } catch (InsertionException ignored) {
-      return false;
+  // Add the roads of a snapshot that aren't in graph yet, with lengths
+  // from weights, which has the same edge ids.
+  private long insert(MappedGraph from, IntGraph weights) {
+    List<Vertex<Long>> ids = new ArrayList<>(from.vertexCount());
+    for (int v = 0; v < from.vertexCount(); v++) {
+      ids.add(graph.insert(names.add(from.name(v))));
+    }
+    long numRoads = 0;
+    for (int e = 0; e < from.edgeCount(); e++) {
+      Vertex<Long> source = ids.get(from.source(e));
+      Vertex<Long> target = ids.get(from.target(e));
+      if (source != target && graph.edge(source, target) == null) {
+        lengths.set(graph.insert(source, target, from.road(e)),
+            weights.weight(e));
+        numRoads++;
+      }
     }
+    return numRoads;
+  }
 
-    return true;
+  // Prepare searches on graph after roads were added to it.
+  private void loaded(long numRoads) {
+    // Searches never change the graph, so snapshot it once here
+    network = graph.freeze(lengths);
+    mapped = null;
+    prepare(network, numRoads, network.vertexCount());
   }
 
-  private void checkValidEndpoint(String endpointName) {
-    if (!vertices.containsKey(endpointName)) {
-      throw new IllegalArgumentException(endpointName);
+  // Prepare searches on a newly loaded network.
+  private void prepare(IntGraph loaded, long numRoads, int numEndpoints) {
+    if (roads != null) {
+      oldRoads += roads.version() + 1;
     }
+    roads = new DynamicGraph(loaded);
+    trees = null;
+    geo = null;
+    spatial = null;
+    hierarchy = null;
+    landmarks = null;
+    alt = null;
+    System.out.println("Network Loaded!");
+    System.out.println("Loaded " + numRoads + " roads");
+    System.out.println("Loaded " + numEndpoints + " endpoints");
   }
 }
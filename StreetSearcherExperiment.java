@@ -49,6 +49,9 @@ public class StreetSearcherExperiment {
     );
 
     System.out.println(SimpleProfiler.getStatistics(description));
+    System.out.println("Heap operations: " + streetSearcher.heapOperations());
+    System.out.println("Settled vertices: " + streetSearcher.settledCount());
+    System.out.println("Search stats: " + streetSearcher.lastQueryStats());
   }
 
   /**
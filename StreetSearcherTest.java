@@ -0,0 +1,214 @@
+package hw8;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static junit.framework.TestCase.*;
+
+public class StreetSearcherTest {
+
+  private static final String A = "-76.6000,39.3000";
+  private static final String B = "-76.5990,39.3000";
+  private static final String C = "-76.5980,39.3000";
+
+  private final PrintStream out = System.out;
+  private ByteArrayOutputStream printed;
+  private StreetSearcher searcher;
+
+  @Before
+  public void setupSearcher() throws IOException {
+    File file = File.createTempFile("streets", ".txt");
+    file.deleteOnExit();
+    Files.write(file.toPath(), (A + " " + B + " 90.0 First\n"
+        + B + " " + C + " 90.0 Second\n").getBytes(StandardCharsets.UTF_8));
+    printed = new ByteArrayOutputStream();
+    System.setOut(new PrintStream(printed, true));
+    searcher = new StreetSearcher();
+    searcher.loadNetwork(file);
+  }
+
+  @After
+  public void restoreOut() {
+    System.setOut(out);
+  }
+
+  private String search(SearchMode mode) {
+    printed.reset();
+    searcher.findShortestPath(A, C, mode);
+    return printed.toString();
+  }
+
+  @Test
+  public void testClosedRoadMeansNoPathInEveryMode() {
+    for (SearchMode mode : SearchMode.values()) {
+      assertTrue(mode.toString(), search(mode).contains("180"));
+    }
+    searcher.closeRoad(B, C);
+    for (SearchMode mode : SearchMode.values()) {
+      String result = search(mode);
+      assertTrue(mode + ": " + result, result.contains("No path found"));
+      assertFalse(mode + ": " + result, result.contains("Infinity"));
+    }
+    assertNull(searcher.shortestPathTree(A).path(searcher.endpointId(C)));
+  }
+
+  @Test
+  public void testForgottenTreeIsNotRepaired() {
+    ShortestPathTree kept = searcher.shortestPathTree(A);
+    ShortestPathTree forgotten = searcher.shortestPathTree(A);
+    searcher.forget(forgotten);
+    searcher.closeRoad(B, C);
+    assertNull(kept.path(searcher.endpointId(C)));
+    assertNotNull(forgotten.path(searcher.endpointId(C)));
+  }
+
+  @Test
+  public void testRoadUpdatesInvalidateCachedRoutes() {
+    searcher.cacheRoutes(100, 1 << 20);
+    searcher.cacheTrees(1 << 20, 1);
+    assertTrue(search(SearchMode.POINT_TO_POINT).contains("180"));
+    searcher.changeRoad(B, C, 10.0);
+    assertTrue(search(SearchMode.POINT_TO_POINT)
+        .contains("Total Distance: 100.0"));
+    assertEquals(1, searcher.routeCache().invalidations());
+    searcher.closeRoad(B, C);
+    assertTrue(search(SearchMode.POINT_TO_POINT).contains("No path found"));
+    searcher.changeRoad(B, C, 90.0);
+    assertTrue(search(SearchMode.POINT_TO_POINT).contains("180"));
+    assertEquals(0, searcher.routeCache().hits());
+  }
+
+  @Test
+  public void testRouteServiceKeepsTheRoadsItStartedWith()
+      throws Exception {
+    try (RouteService service = searcher.routeService(2)) {
+      searcher.closeRoad(B, C);
+      Route route = service.submit(searcher.endpointId(A),
+          searcher.endpointId(C)).get();
+      assertEquals(180.0, route.distance(), 0);
+    }
+    assertTrue(search(SearchMode.FULL).contains("No path found"));
+  }
+
+  @Test
+  public void testHeapOperationsOfEveryMode() {
+    long before = searcher.heapOperations();
+    for (SearchMode mode : SearchMode.values()) {
+      search(mode);
+      long after = searcher.heapOperations();
+      assertEquals(mode.toString(), after - before,
+          searcher.lastQueryStats().heapOperations());
+      assertTrue(mode.toString(), after > before);
+      before = after;
+    }
+  }
+
+  @Test
+  public void testTreeAdmissionCountsHeapOperations() {
+    searcher.cacheTrees(1 << 20, 1);
+    long before = searcher.heapOperations();
+    search(SearchMode.POINT_TO_POINT);
+    // the tree from A queues and settles all three endpoints
+    assertEquals(6, searcher.lastQueryStats().heapOperations());
+    assertEquals(6, searcher.heapOperations() - before);
+    search(SearchMode.POINT_TO_POINT);
+    assertEquals(0, searcher.lastQueryStats().heapOperations());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testCacheTreesBeforeLoadingThrows() {
+    new StreetSearcher().cacheTrees(1 << 20, 1);
+  }
+
+  @Test
+  public void testSnapshotLoadsTheSameNetwork() throws IOException {
+    File snapshot = File.createTempFile("network", ".graph");
+    snapshot.deleteOnExit();
+    searcher.saveSnapshot(snapshot);
+    searcher.changeRoad(B, C, 10.0);
+    searcher = new StreetSearcher();
+    printed.reset();
+    searcher.loadSnapshot(snapshot);
+    assertTrue(printed.toString().contains("Loaded 4 roads"));
+    assertTrue(printed.toString().contains("Loaded 3 endpoints"));
+    for (SearchMode mode : SearchMode.values()) {
+      String result = search(mode);
+      assertTrue(mode + ": " + result,
+          result.contains("Total Distance: 180.0"));
+      assertTrue(mode + ": " + result, result.contains("Second"));
+    }
+    searcher.closeRoad(A, B);
+    assertTrue(search(SearchMode.FULL).contains("No path found"));
+  }
+
+  @Test
+  public void testRoadsAddedToSnapshotKeepItsUpdates() throws IOException {
+    File snapshot = File.createTempFile("network", ".graph");
+    snapshot.deleteOnExit();
+    searcher.saveSnapshot(snapshot);
+    searcher = new StreetSearcher();
+    searcher.loadSnapshot(snapshot);
+    assertNull(searcher.network());
+    searcher.changeRoad(A, B, 10.0);
+
+    String d = "-76.5970,39.3000";
+    File more = File.createTempFile("streets", ".txt");
+    more.deleteOnExit();
+    Files.write(more.toPath(), (C + " " + d + " 90.0 Third\n")
+        .getBytes(StandardCharsets.UTF_8));
+    printed.reset();
+    searcher.loadNetwork(more);
+    assertTrue(printed.toString().contains("Loaded 4 endpoints"));
+    assertNotNull(searcher.network());
+    printed.reset();
+    searcher.findShortestPath(A, d);
+    assertTrue(printed.toString(),
+        printed.toString().contains("Total Distance: 190.0"));
+  }
+
+  @Test
+  public void testEndpointNamesComeBackFromIds() throws IOException {
+    File file = File.createTempFile("streets", ".txt");
+    file.deleteOnExit();
+    Files.write(file.toPath(), (C + " corner 5.0 Fourth\n")
+        .getBytes(StandardCharsets.UTF_8));
+    searcher.loadNetwork(file);
+    for (String name : new String[] {A, B, C, "corner"}) {
+      assertEquals(name, searcher.endpointName(searcher.endpointId(name)));
+    }
+    printed.reset();
+    searcher.findShortestPath(A, "corner");
+    assertTrue(printed.toString(),
+        printed.toString().contains("Total Distance: 185.0"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownEndpointThrows() {
+    searcher.endpointId("-76.6000,39.3001");
+  }
+
+  @Test
+  public void testSnapshotOfSnapshot() throws IOException {
+    File snapshot = File.createTempFile("network", ".graph");
+    snapshot.deleteOnExit();
+    searcher.saveSnapshot(snapshot);
+    searcher = new StreetSearcher();
+    searcher.loadSnapshot(snapshot);
+    File again = File.createTempFile("network", ".graph");
+    again.deleteOnExit();
+    searcher.saveSnapshot(again);
+    assertEquals(snapshot.length(), again.length());
+    searcher = new StreetSearcher();
+    searcher.loadSnapshot(again);
+    assertTrue(search(SearchMode.ASTAR).contains("Total Distance: 180.0"));
+    assertEquals(A, searcher.nearestEndpoint(-76.6001, 39.3001));
+  }
+}
@@ -0,0 +1,112 @@
+package hw8;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Networks the search tests run on.
+final class TestNetworks {
+
+  private TestNetworks() {
+  }
+
+  /**
+   * A grid of street corners about 170 m apart with winding roads.
+   *
+   * <p>Corner (i, j) is named by its coordinates and gets id
+   * i * side + j. Streets go both ways between neighboring corners, and
+   * both directions are between 1 and 2 times as long as the straight
+   * line between the corners.</p>
+   *
+   * @param side Number of corners along each side.
+   * @param seed Seed for the road lengths.
+   * @return Snapshot of the grid.
+   */
+  static CsrGraph<String, String> grid(int side, long seed) {
+    SparseGraph<String, String> graph = new SparseGraph<>();
+    Random random = new Random(seed);
+    List<Vertex<String>> corners = new ArrayList<>(side * side);
+    double[] lon = new double[side * side];
+    double[] lat = new double[side * side];
+    for (int i = 0; i < side; i++) {
+      for (int j = 0; j < side; j++) {
+        int v = i * side + j;
+        lon[v] = -76.6 + 0.002 * i;
+        lat[v] = 39.3 + 0.0015 * j;
+        corners.add(graph.insert(String.format("%.4f,%.4f", lon[v], lat[v])));
+      }
+    }
+    GeoHeuristic geo = new GeoHeuristic(lon, lat);
+    for (int v = 0; v < side * side; v++) {
+      if (v >= side) {
+        road(graph, corners, v, v - side, geo, random);
+      }
+      if (v % side > 0) {
+        road(graph, corners, v, v - 1, geo, random);
+      }
+    }
+    return graph.freeze();
+  }
+
+  /**
+   * Random one-way streets, so distances there and back differ.
+   *
+   * <p>Vertex i is named "vi" and gets id i. Every vertex but the last
+   * has a street to the next one and up to two to random others, all
+   * between 1 and 50 long; the last vertex has no streets leaving it, so
+   * it can't reach any other.</p>
+   *
+   * @param n    Number of vertices.
+   * @param seed Seed for the streets and their lengths.
+   * @return Snapshot of the network.
+   */
+  static CsrGraph<String, String> random(int n, long seed) {
+    SparseGraph<String, String> graph = new SparseGraph<>();
+    Random random = new Random(seed);
+    List<Vertex<String>> v = new ArrayList<>(n);
+    for (int i = 0; i < n; i++) {
+      v.add(graph.insert("v" + i));
+    }
+    for (int i = 0; i < n - 1; i++) {
+      graph.label(graph.insert(v.get(i), v.get(i + 1), "main"),
+          1.0 + random.nextInt(50));
+      for (int k = 0; k < 2; k++) {
+        int j = random.nextInt(n - 1);
+        if (j != i && graph.edge(v.get(i), v.get(j)) == null) {
+          graph.label(graph.insert(v.get(i), v.get(j), "cut"),
+              1.0 + random.nextInt(50));
+        }
+      }
+    }
+    return graph.freeze();
+  }
+
+  /**
+   * Two-way streets of length 1 along a line.
+   *
+   * <p>Vertex i is named "vi", gets id i and is next to i - 1 and i + 1,
+   * so a search on it queues a number of vertices worked out by hand.</p>
+   *
+   * @param n Number of vertices.
+   * @return Snapshot of the line.
+   */
+  static CsrGraph<String, String> line(int n) {
+    SparseGraph<String, String> graph = new SparseGraph<>();
+    Vertex<String> last = graph.insert("v0");
+    for (int i = 1; i < n; i++) {
+      Vertex<String> next = graph.insert("v" + i);
+      graph.label(graph.insert(last, next, "line"), 1.0);
+      graph.label(graph.insert(next, last, "line"), 1.0);
+      last = next;
+    }
+    return graph.freeze();
+  }
+
+  private static void road(SparseGraph<String, String> graph,
+                           List<Vertex<String>> corners, int a, int b,
+                           GeoHeuristic geo, Random random) {
+    double length = geo.distance(a, b) * (1 + random.nextDouble());
+    graph.label(graph.insert(corners.get(a), corners.get(b), "road"), length);
+    graph.label(graph.insert(corners.get(b), corners.get(a), "road"), length);
+  }
+}
@@ -0,0 +1,234 @@
+package hw8;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Complete shortest path trees for the sources queried most often.
+ *
+ * <p>Every lookup counts its source. Once a source has been asked for
+ * often enough its whole shortest path tree is computed and kept, and from
+ * then on any query from it is answered by walking the tree back from the
+ * target, in time proportional to the length of the path. Trees take
+ * twelve bytes per vertex; when the memory budget runs out the least
+ * frequently used trees make room for a more frequently used one, and a
+ * source that isn't used more often than any tree that would have to go
+ * is not admitted. Counts are halved every so often so sources that were
+ * popular once don't stay in forever.</p>
+ *
+ * <p>The trees are kept up to date by the DynamicGraph they come from, so
+ * weight updates don't invalidate them. Not safe for concurrent use.</p>
+ */
+public final class TreeCache {
+
+  private static final long TREE_BYTES = 64;
+
+  private final DynamicGraph graph;
+  private final long maxBytes;
+  private final int admitAfter;
+  private final int[] count;
+  private final Map<Integer, ShortestPathTree> trees;
+  private final int window;
+  private int seen;
+  private long bytes;
+  private long hits;
+  private long misses;
+  private long admissions;
+  private long evictions;
+
+  /**
+   * Creates an empty cache.
+   *
+   * @param graph      Graph to compute trees on.
+   * @param maxBytes   Memory budget for the trees.
+   * @param admitAfter Number of lookups of a source, at least 1, before
+   *                   its tree is computed.
+   * @throws IllegalArgumentException If admitAfter is less than 1.
+   */
+  public TreeCache(DynamicGraph graph, long maxBytes, int admitAfter) {
+    if (admitAfter < 1) {
+      throw new IllegalArgumentException("admitAfter " + admitAfter);
+    }
+    this.graph = graph;
+    this.maxBytes = maxBytes;
+    this.admitAfter = admitAfter;
+    this.count = new int[graph.vertexCount()];
+    this.trees = new HashMap<>();
+    // halving costs a pass over the counts, so do it at most every n
+    this.window = Math.max(graph.vertexCount(), 1024);
+  }
+
+  /**
+   * Memory one tree takes.
+   *
+   * @param graph Graph to compute trees on.
+   * @return Approximate bytes of a tree for graph.
+   */
+  public static long treeBytes(IntGraph graph) {
+    return 12L * graph.vertexCount() + TREE_BYTES;
+  }
+
+  /**
+   * Answer a query from a cached tree.
+   *
+   * <p>Counts the source, and computes and keeps its tree if it is now
+   * used often enough.</p>
+   *
+   * @param source Id of the start vertex.
+   * @param target Id of the end vertex.
+   * @return Shortest route from source to target, or null if source has
+   *     no tree and the query has to be searched.
+   */
+  public Route lookup(int source, int target) {
+    return this.lookup(source, target, new SearchStats());
+  }
+
+  /**
+   * Answer a query from a cached tree, counting the work it takes.
+   *
+   * <p>Like lookup(source, target), and if this lookup computes the tree
+   * of source, the counters of that computation go into stats, as if the
+   * query had been searched. Walking a tree counts nothing.</p>
+   *
+   * @param source Id of the start vertex.
+   * @param target Id of the end vertex.
+   * @param stats  Counters of the query.
+   * @return Shortest route from source to target, or null if source has
+   *     no tree and the query has to be searched.
+   */
+  public Route lookup(int source, int target, SearchStats stats) {
+    this.age();
+    this.count[source]++;
+    ShortestPathTree tree = this.trees.get(source);
+    int settled = 0;
+    if (tree == null && this.count[source] >= this.admitAfter) {
+      tree = this.admit(source);
+      if (tree != null) {
+        stats.counters(tree.stats());
+        settled = stats.settled();
+      }
+    }
+    if (tree == null) {
+      this.misses++;
+      return null;
+    }
+    this.hits++;
+    return new Route(tree.distance(target), tree.path(target), settled);
+  }
+
+  // Halve all counts once a window of lookups has passed.
+  private void age() {
+    if (++this.seen < this.window) {
+      return;
+    }
+    this.seen = 0;
+    for (int v = 0; v < this.count.length; v++) {
+      this.count[v] >>>= 1;
+    }
+  }
+
+  // Make room for and compute the tree of source, null if not worth it.
+  private ShortestPathTree admit(int source) {
+    long size = treeBytes(this.graph);
+    if (size > this.maxBytes) {
+      return null;
+    }
+    // Only evict trees of sources less popular than this one.
+    while (this.bytes + size > this.maxBytes) {
+      int coldest = -1;
+      for (int v : this.trees.keySet()) {
+        if (coldest < 0 || this.count[v] < this.count[coldest]) {
+          coldest = v;
+        }
+      }
+      if (this.count[coldest] >= this.count[source]) {
+        return null;
+      }
+      this.graph.forget(this.trees.remove(coldest));
+      this.bytes -= size;
+      this.evictions++;
+    }
+    ShortestPathTree tree = this.graph.tree(source);
+    this.trees.put(source, tree);
+    this.bytes += size;
+    this.admissions++;
+    return tree;
+  }
+
+  /**
+   * Drop all trees and counts.
+   */
+  public void clear() {
+    for (ShortestPathTree tree : this.trees.values()) {
+      this.graph.forget(tree);
+    }
+    this.trees.clear();
+    this.bytes = 0;
+    Arrays.fill(this.count, 0);
+  }
+
+  /**
+   * Whether a source has a tree.
+   *
+   * @param source Vertex id.
+   * @return True if queries from source are answered from a tree.
+   */
+  public boolean contains(int source) {
+    return this.trees.containsKey(source);
+  }
+
+  /**
+   * Number of trees kept.
+   *
+   * @return Number of trees in the cache.
+   */
+  public int size() {
+    return this.trees.size();
+  }
+
+  /**
+   * Memory taken by the trees kept.
+   *
+   * @return Approximate bytes of the trees in the cache.
+   */
+  public long bytes() {
+    return this.bytes;
+  }
+
+  /**
+   * Lookups answered from a tree.
+   *
+   * @return Number of hits so far.
+   */
+  public long hits() {
+    return this.hits;
+  }
+
+  /**
+   * Lookups that had to be searched.
+   *
+   * @return Number of misses so far.
+   */
+  public long misses() {
+    return this.misses;
+  }
+
+  /**
+   * Trees computed.
+   *
+   * @return Number of sources admitted so far.
+   */
+  public long admissions() {
+    return this.admissions;
+  }
+
+  /**
+   * Trees dropped to stay within the budget.
+   *
+   * @return Number of evictions so far.
+   */
+  public long evictions() {
+    return this.evictions;
+  }
+}
@@ -0,0 +1,106 @@
+package hw8;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static junit.framework.TestCase.*;
+
+public class TreeCacheTest {
+
+  private static final int SIDE = 12;
+
+  private DynamicGraph dynamic;
+
+  @Before
+  public void setupGraph() {
+    dynamic = new DynamicGraph(TestNetworks.grid(SIDE, 16));
+  }
+
+  @Test
+  public void testAdmitsFrequentSources() {
+    TreeCache cache = new TreeCache(dynamic, 1 << 20, 3);
+    assertNull(cache.lookup(5, 100));
+    assertNull(cache.lookup(5, 101));
+    Route route = cache.lookup(5, 102);
+    assertNotNull(route);
+    assertTrue(cache.contains(5));
+    assertEquals(1, cache.admissions());
+    assertEquals(1, cache.hits());
+    assertEquals(2, cache.misses());
+    assertEquals(TreeCache.treeBytes(dynamic), cache.bytes());
+
+    DijkstraEngine engine = new DijkstraEngine(dynamic);
+    for (int t = 0; t < dynamic.vertexCount(); t++) {
+      Route expected = engine.route(5, t);
+      Route actual = cache.lookup(5, t);
+      assertEquals(expected.distance(), actual.distance(), 0);
+      double length = 0;
+      for (int e : actual.edges()) {
+        length += dynamic.weight(e);
+      }
+      assertEquals(expected.distance(), length, 0);
+      assertEquals(0, actual.settled());
+    }
+  }
+
+  @Test
+  public void testAdmissionCountsLikeASearch() {
+    TreeCache cache = new TreeCache(dynamic, 1 << 20, 1);
+    SearchStats stats = new SearchStats();
+    Route route = cache.lookup(5, 100, stats);
+    // every corner of the grid is queued once and settled once
+    int n = dynamic.vertexCount();
+    assertEquals(n, stats.settled());
+    assertEquals(n, stats.inserts());
+    assertEquals(n, route.settled());
+    assertTrue(stats.heapOperations() >= 2L * n);
+
+    stats.reset();
+    assertEquals(0, cache.lookup(5, 101, stats).settled());
+    assertEquals(0, stats.heapOperations());
+  }
+
+  @Test
+  public void testBudgetEvictsColdestForHotter() {
+    TreeCache cache = new TreeCache(dynamic,
+        2 * TreeCache.treeBytes(dynamic), 1);
+    cache.lookup(1, 0);
+    cache.lookup(2, 0);
+    cache.lookup(2, 0);
+    assertEquals(2, cache.size());
+    // as cold as the coldest tree, not worth an eviction
+    assertNull(cache.lookup(3, 0));
+    assertEquals(0, cache.evictions());
+    // now hotter than source 1
+    assertNotNull(cache.lookup(3, 0));
+    assertEquals(1, cache.evictions());
+    assertFalse(cache.contains(1));
+    assertTrue(cache.contains(2));
+    assertTrue(cache.contains(3));
+    assertEquals(2 * TreeCache.treeBytes(dynamic), cache.bytes());
+  }
+
+  @Test
+  public void testTreesFollowUpdates() {
+    TreeCache cache = new TreeCache(dynamic, 1 << 20, 1);
+    int target = dynamic.vertexCount() - 1;
+    Route before = cache.lookup(0, target);
+    int e = before.edges()[before.edges().length / 2];
+    dynamic.apply(new WeightUpdate().remove(e));
+    Route after = cache.lookup(0, target);
+    assertEquals(new DijkstraEngine(dynamic).route(0, target).distance(),
+        after.distance(), 0);
+    assertTrue(after.distance() >= before.distance());
+
+    cache.clear();
+    assertEquals(0, cache.size());
+    assertEquals(0, dynamic.apply(new WeightUpdate().set(e, 1)));
+  }
+
+  @Test
+  public void testTooSmallBudgetNeverAdmits() {
+    TreeCache cache = new TreeCache(dynamic, 100, 1);
+    assertNull(cache.lookup(0, 1));
+    assertEquals(0, cache.size());
+  }
+}
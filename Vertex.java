@@ -6,4 +6,18 @@ package hw8;
  */
 public interface Vertex<T> extends Position<T> {
 
+  /**
+   * Write element.
+   *
+   * <p>A graph that finds its vertices by element, like SparseGraph,
+   * holds each element in at most one vertex, so a vertex can't take the
+   * element of another vertex of its graph.</p>
+   *
+   * @param t Element to store at this position.
+   * @throws IllegalArgumentException If t is the element of another vertex
+   *     of a graph that finds its vertices by element; the vertex keeps
+   *     its element then.
+   */
+  @Override
+  void put(T t);
 }
@@ -0,0 +1,78 @@
+package hw8;
+
+import java.util.Arrays;
+
+/**
+ * A batch of edge weight changes for a DynamicGraph.
+ *
+ * <p>Changes are applied in the order they were added, so a later change
+ * of the same edge wins. Removing an edge sets its weight to infinity,
+ * which no shortest path ever uses.</p>
+ */
+public final class WeightUpdate {
+
+  private int[] edges = new int[8];
+  private double[] weights = new double[8];
+  private int size;
+
+  /**
+   * Change the weight of an edge.
+   *
+   * @param edge   Edge id.
+   * @param weight New weight, not negative.
+   * @return This batch, for chaining.
+   * @throws IllegalArgumentException If weight is negative or NaN.
+   */
+  public WeightUpdate set(int edge, double weight) {
+    if (!(weight >= 0)) {
+      throw new IllegalArgumentException("weight " + weight);
+    }
+    if (this.size == this.edges.length) {
+      this.edges = Arrays.copyOf(this.edges, 2 * this.size);
+      this.weights = Arrays.copyOf(this.weights, 2 * this.size);
+    }
+    this.edges[this.size] = edge;
+    this.weights[this.size] = weight;
+    this.size++;
+    return this;
+  }
+
+  /**
+   * Remove an edge.
+   *
+   * @param edge Edge id.
+   * @return This batch, for chaining.
+   */
+  public WeightUpdate remove(int edge) {
+    return this.set(edge, Double.POSITIVE_INFINITY);
+  }
+
+  /**
+   * Number of changes.
+   *
+   * @return Number of changes in this batch.
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Edge of change.
+   *
+   * @param i Index of change, between 0 and size() - 1.
+   * @return Id of the edge the i-th change is for.
+   */
+  public int edge(int i) {
+    return this.edges[i];
+  }
+
+  /**
+   * Weight of change.
+   *
+   * @param i Index of change, between 0 and size() - 1.
+   * @return Weight the i-th change gives its edge.
+   */
+  public double weight(int i) {
+    return this.weights[i];
+  }
+}
@@ -0,0 +1,43 @@
+package hw8;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with allocation profiling and JSON results.
+ *
+ * <p>Same as running org.openjdk.jmh.Main with "-prof gc -rf json -rff
+ * jmh-result.json". Other JMH options, such as a benchmark name pattern
+ * or "-p size=1000", can be given as arguments.</p>
+ */
+public class BenchmarkRunner {
+
+  // Where the machine-readable results go.
+  private static String getResultFile() {
+    return "jmh-result.json";
+  }
+
+  /**
+   * Execution starts here.
+   *
+   * @param args JMH command-line options.
+   * @throws RunnerException if a benchmark fails.
+   * @throws CommandLineOptionException if the options can't be parsed.
+   */
+  public static void main(String[] args)
+      throws RunnerException, CommandLineOptionException {
+    Options options = new OptionsBuilder()
+        .parent(new CommandLineOptions(args))
+        .addProfiler(GCProfiler.class)
+        .resultFormat(ResultFormatType.JSON)
+        .result(getResultFile())
+        .build();
+    new Runner(options).run();
+  }
+}
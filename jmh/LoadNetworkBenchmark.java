@@ -0,0 +1,80 @@
+package hw8;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading a street file into a new StreetSearcher.
+ *
+ * <p>Covers reading and parsing the file, building the graph, and the
+ * snapshot and heuristic taken after loading; nothing is searched. What
+ * loadNetwork prints is thrown away.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class LoadNetworkBenchmark {
+
+  // Street file in res/src, where the experiments read it from too
+  @Param({"baltimore.streets.txt"})
+  public String dataFile;
+
+  private File file;
+  private PrintStream out;
+
+  /**
+   * Check the file is there and silence standard output.
+   *
+   * @throws FileNotFoundException If the data file doesn't exist.
+   */
+  @Setup
+  public void setup() throws FileNotFoundException {
+    this.file = Paths.get("res", "src", this.dataFile).toFile();
+    if (!this.file.isFile()) {
+      throw new FileNotFoundException(this.file.getPath());
+    }
+    this.out = System.out;
+    System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+  }
+
+  /**
+   * Restore standard output.
+   */
+  @TearDown
+  public void tearDown() {
+    System.setOut(this.out);
+  }
+
+  /**
+   * Load the file.
+   *
+   * @return The loaded searcher.
+   * @throws FileNotFoundException If the data file doesn't exist.
+   */
+  @Benchmark
+  public StreetSearcher loadNetwork() throws FileNotFoundException {
+    StreetSearcher streetSearcher = new StreetSearcher();
+    streetSearcher.loadNetwork(this.file);
+    return streetSearcher;
+  }
+}
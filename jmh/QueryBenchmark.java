@@ -0,0 +1,105 @@
+package hw8;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.FileNotFoundException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point-to-point queries on a loaded street network.
+ *
+ * <p>Each invocation answers the next query of a fixed random set of start
+ * and end endpoints, the same set for every mode, without printing the
+ * route. Preprocessing the modes need (contraction, landmarks) happens
+ * during setup and isn't measured.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class QueryBenchmark {
+
+  // Number of queries cycled through, a power of two.
+  private static final int QUERIES = 1 << 10;
+
+  // Street file in res/src, where the experiments read it from too
+  @Param({"baltimore.streets.txt"})
+  public String dataFile;
+
+  @Param({"POINT_TO_POINT", "BIDIRECTIONAL", "ASTAR", "ALT",
+      "CONTRACTION_HIERARCHY"})
+  public SearchMode mode;
+
+  @Param({"BINARY"})
+  public QueueKind queueKind;
+
+  private StreetSearcher streetSearcher;
+  private String[] starts;
+  private String[] ends;
+  private int next;
+
+  /**
+   * Load the network, pick the queries and warm up the mode.
+   *
+   * @throws FileNotFoundException If the data file doesn't exist.
+   */
+  @Setup
+  public void setup() throws FileNotFoundException {
+    PrintStream out = System.out;
+    System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    try {
+      this.streetSearcher = new StreetSearcher();
+      this.streetSearcher.loadNetwork(
+          Paths.get("res", "src", this.dataFile).toFile());
+    } finally {
+      System.setOut(out);
+    }
+    Random random = new Random(42);
+    this.starts = new String[QUERIES];
+    this.ends = new String[QUERIES];
+    for (int i = 0; i < QUERIES; i++) {
+      int n = this.streetSearcher.network().vertexCount();
+      this.starts[i] = this.streetSearcher.endpointName(random.nextInt(n));
+      this.ends[i] = this.streetSearcher.endpointName(random.nextInt(n));
+    }
+    // one query builds whatever the mode preprocesses
+    this.route();
+  }
+
+  /**
+   * Drop the network.
+   */
+  @TearDown
+  public void tearDown() {
+    this.streetSearcher = null;
+  }
+
+  /**
+   * Answer the next query.
+   *
+   * @return The route found.
+   */
+  @Benchmark
+  public Route route() {
+    this.next = (this.next + 1) & (QUERIES - 1);
+    return this.streetSearcher.route(this.starts[this.next],
+        this.ends[this.next], this.mode, this.queueKind);
+  }
+}
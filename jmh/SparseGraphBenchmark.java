@@ -0,0 +1,171 @@
+package hw8;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single operations on a SparseGraph of a given size.
+ *
+ * <p>The graph has about four outgoing edges per vertex between random
+ * vertices, like a road network. Every benchmark leaves the graph as it
+ * found it, so the size stays fixed however many operations run, and
+ * works on a fixed random sequence of vertices and edges so that runs are
+ * comparable.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SparseGraphBenchmark {
+
+  // Number of random picks cycled through, a power of two.
+  private static final int PICKS = 1 << 12;
+  private static final int DEGREE = 4;
+
+  @Param({"1000", "10000", "100000"})
+  public int size;
+
+  private SparseGraph<String, String> graph;
+  private Vertex<String>[] vertices;
+  private Edge<String>[] edges;
+  private Vertex<String>[] from;
+  private Vertex<String>[] to;
+  private EdgeCursor<String, String> cursor;
+  private int next;
+
+  /**
+   * Build the graph and the random picks.
+   */
+  @Setup
+  @SuppressWarnings("unchecked")
+  public void setup() {
+    Random random = new Random(42);
+    this.graph = new SparseGraph<>();
+    this.vertices = (Vertex<String>[]) new Vertex<?>[this.size];
+    for (int v = 0; v < this.size; v++) {
+      this.vertices[v] = this.graph.insert("v" + v);
+    }
+    List<Edge<String>> all = new ArrayList<>();
+    for (int v = 0; v < this.size; v++) {
+      for (int k = 0; k < DEGREE; k++) {
+        Vertex<String> u = this.vertices[random.nextInt(this.size)];
+        if (u != this.vertices[v]
+            && this.graph.edge(this.vertices[v], u) == null) {
+          Edge<String> e = this.graph.insert(this.vertices[v], u, "e");
+          this.graph.label(e, random.nextDouble());
+          all.add(e);
+        }
+      }
+    }
+    this.cursor = this.graph.outgoingCursor();
+    this.edges = (Edge<String>[]) new Edge<?>[PICKS];
+    this.from = (Vertex<String>[]) new Vertex<?>[PICKS];
+    this.to = (Vertex<String>[]) new Vertex<?>[PICKS];
+    for (int i = 0; i < PICKS; i++) {
+      this.edges[i] = all.get(random.nextInt(all.size()));
+      // pairs without an edge, so inserting one always works
+      Vertex<String> a;
+      Vertex<String> b;
+      do {
+        a = this.vertices[random.nextInt(this.size)];
+        b = this.vertices[random.nextInt(this.size)];
+      } while (a == b || this.graph.edge(a, b) != null);
+      this.from[i] = a;
+      this.to[i] = b;
+    }
+  }
+
+  private int pick() {
+    this.next = (this.next + 1) & (PICKS - 1);
+    return this.next;
+  }
+
+  /**
+   * Insert a new vertex and remove it again.
+   *
+   * @return The data of the vertex removed.
+   */
+  @Benchmark
+  public String insertRemoveVertex() {
+    return this.graph.remove(this.graph.insert("new"));
+  }
+
+  /**
+   * Insert an edge between two unconnected vertices and remove it again.
+   *
+   * @return The data of the edge removed.
+   */
+  @Benchmark
+  public String insertRemoveEdge() {
+    int i = this.pick();
+    return this.graph.remove(this.graph.insert(this.from[i], this.to[i],
+        "new"));
+  }
+
+  /**
+   * Walk the outgoing edges of a vertex.
+   *
+   * @param blackhole Sink for the edges.
+   */
+  @Benchmark
+  public void outgoing(Blackhole blackhole) {
+    for (Edge<String> e : this.graph.outgoing(this.from[this.pick()])) {
+      blackhole.consume(e);
+    }
+  }
+
+  /**
+   * Walk the outgoing edges of a vertex with a reused cursor.
+   *
+   * @return Sum of the target ids and weights.
+   */
+  @Benchmark
+  public double outgoingCursor() {
+    double sum = 0;
+    for (this.cursor.reset(this.from[this.pick()]); this.cursor.next(); ) {
+      sum += this.cursor.toId() + this.cursor.weight();
+    }
+    return sum;
+  }
+
+  /**
+   * Find the edge between two vertices.
+   *
+   * @return The edge, or null if there is none.
+   */
+  @Benchmark
+  public Edge<String> edge() {
+    int i = this.pick();
+    return this.graph.edge(this.graph.from(this.edges[i]), this.to[i]);
+  }
+
+  /**
+   * Read the label of an edge and set it again.
+   *
+   * @return The label.
+   */
+  @Benchmark
+  public Object label() {
+    Edge<String> e = this.edges[this.pick()];
+    Object label = this.graph.label(e);
+    this.graph.label(e, label);
+    return label;
+  }
+}